@@ -0,0 +1,122 @@
+package com.chow.easy.ai.framework.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 直接内存分段缓冲池
+ * 所有分段大小相同，归还后留在池中供后续流复用；池中空闲分段超过上限时直接丢弃，由GC回收
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class BufferPool {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024;
+    public static final int DEFAULT_MAX_POOLED_SEGMENTS = 512;
+    public static final int DEFAULT_MAX_BUFFER_BYTES = 8 * 1024 * 1024;
+
+    private final int segmentSize;
+    private final int maxPooledSegments;
+    private final int maxBufferBytes;
+
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public BufferPool() {
+        this(DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_POOLED_SEGMENTS, DEFAULT_MAX_BUFFER_BYTES);
+    }
+
+    /**
+     * @param segmentSize       单个分段字节数
+     * @param maxPooledSegments 池中最多保留的空闲分段数
+     * @param maxBufferBytes    单个文本缓冲区允许占用的最大字节数
+     */
+    public BufferPool(int segmentSize, int maxPooledSegments, int maxBufferBytes) {
+        if (segmentSize < 16) {
+            throw new IllegalArgumentException("分段大小不能小于16字节: " + segmentSize);
+        }
+        if (maxPooledSegments < 0 || maxBufferBytes < 1) {
+            throw new IllegalArgumentException("缓冲池上限必须为正数");
+        }
+        this.segmentSize = segmentSize;
+        this.maxPooledSegments = maxPooledSegments;
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+    /**
+     * 创建从本池分配内存的文本缓冲区，用完后必须关闭
+     */
+    public PooledTextBuffer newTextBuffer() {
+        return new PooledTextBuffer(this);
+    }
+
+    ByteBuffer acquire() {
+        inUse.incrementAndGet();
+        ByteBuffer segment = free.poll();
+        if (segment != null) {
+            pooled.decrementAndGet();
+            reused.incrementAndGet();
+            return segment;
+        }
+        allocated.incrementAndGet();
+        return ByteBuffer.allocateDirect(segmentSize);
+    }
+
+    void release(ByteBuffer segment) {
+        inUse.decrementAndGet();
+        if (pooled.incrementAndGet() > maxPooledSegments) {
+            pooled.decrementAndGet();
+            return;
+        }
+        segment.clear();
+        free.offer(segment);
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getMaxBufferBytes() {
+        return maxBufferBytes;
+    }
+
+    /**
+     * 池中空闲的分段数
+     */
+    public int getPooledSegments() {
+        return pooled.get();
+    }
+
+    /**
+     * 正在被缓冲区使用的分段数
+     */
+    public int getInUseSegments() {
+        return inUse.get();
+    }
+
+    /**
+     * 累计新分配的分段数
+     */
+    public long getAllocatedSegments() {
+        return allocated.get();
+    }
+
+    /**
+     * 累计从池中复用的分段数
+     */
+    public long getReusedSegments() {
+        return reused.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool{segmentSize=" + segmentSize + ", pooled=" + pooled.get() + ", inUse=" + inUse.get()
+                + ", allocated=" + allocated.get() + ", reused=" + reused.get() + "}";
+    }
+}
@@ -0,0 +1,291 @@
+package com.chow.easy.ai.framework.buffer;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 基于池化直接内存的流式文本缓冲区
+ * 内容以UTF-8编码追加到固定大小的分段中，避免长回复在堆上反复扩容字符数组；
+ * 同时实现 {@link CharSequence}，可直接交给正则、解析器等按字符读取，需要时再用 toString 生成字符串。
+ * 关闭后分段归还到 {@link BufferPool}，之后不能再访问内容。
+ * <p>
+ * 与 {@link String#getBytes} 相同，未配对的代理字符编码为 '?'；内容块末尾的高位代理会等待下一个内容块配对，
+ * 在调用 {@link #finish()} 之前不计入内容。
+ * <p>
+ * 非线程安全：写入在流的回调线程中顺序进行，读取应在流结束之后
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class PooledTextBuffer implements CharSequence, Consumer<String>, AutoCloseable {
+
+    /**
+     * 每隔多少个字符记录一次 字符下标 -> 字节位置 的检查点，随机访问最多向前解码这么多字符
+     */
+    private static final int CHECKPOINT_STRIDE = 1024;
+
+    private final BufferPool pool;
+    private final int segmentSize;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private ByteBuffer current;
+
+    private int byteLength;
+    private int charLength;
+    //上一个内容块末尾未配对的高位代理字符
+    private char pendingHigh;
+
+    private int[] checkpointChars = new int[8];
+    private int[] checkpointBytes = new int[8];
+    private int checkpoints;
+
+    //最近一次访问的位置，顺序读取时无需回到检查点
+    private int cursorChar;
+    private int cursorByte;
+
+    private boolean closed;
+
+    PooledTextBuffer(BufferPool pool) {
+        this.pool = pool;
+        this.segmentSize = pool.getSegmentSize();
+    }
+
+    /**
+     * 追加一个内容块，可直接作为流式对话的回调
+     */
+    @Override
+    public void accept(String chunk) {
+        append(chunk);
+    }
+
+    public PooledTextBuffer append(CharSequence text) {
+        ensureOpen();
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (pendingHigh != 0) {
+                char high = pendingHigh;
+                pendingHigh = 0;
+                if (Character.isLowSurrogate(c)) {
+                    writeCodePoint(Character.toCodePoint(high, c));
+                    continue;
+                }
+                writeCodePoint('?');
+            }
+            if (Character.isHighSurrogate(c)) {
+                // 代理对可能被拆分到两个内容块中
+                pendingHigh = c;
+            } else if (Character.isLowSurrogate(c)) {
+                writeCodePoint('?');
+            } else {
+                writeCodePoint(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 写入结束：末尾仍未配对的高位代理编码为 '?'，之后仍可继续追加
+     */
+    public PooledTextBuffer finish() {
+        ensureOpen();
+        if (pendingHigh != 0) {
+            pendingHigh = 0;
+            writeCodePoint('?');
+        }
+        return this;
+    }
+
+    /**
+     * UTF-8编码后的字节数
+     */
+    public int byteLength() {
+        return byteLength;
+    }
+
+    @Override
+    public int length() {
+        return charLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        ensureOpen();
+        if (index < 0 || index >= charLength) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + charLength);
+        }
+        int charIndex;
+        int pos;
+        if (index >= cursorChar && index - cursorChar < CHECKPOINT_STRIDE) {
+            charIndex = cursorChar;
+            pos = cursorByte;
+        } else {
+            int k = Math.min(index / CHECKPOINT_STRIDE, checkpoints - 1);
+            if (checkpointChars[k] > index) {
+                k--;
+            }
+            charIndex = checkpointChars[k];
+            pos = checkpointBytes[k];
+        }
+        while (true) {
+            int lead = byteAt(pos) & 0xFF;
+            int width = lead < 0x80 ? 1 : lead < 0xE0 ? 2 : lead < 0xF0 ? 3 : 4;
+            int chars = width == 4 ? 2 : 1;
+            if (index < charIndex + chars) {
+                cursorChar = charIndex;
+                cursorByte = pos;
+                int codePoint = decode(pos, lead, width);
+                if (chars == 1) {
+                    return (char) codePoint;
+                }
+                return index == charIndex ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+            }
+            charIndex += chars;
+            pos += width;
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > charLength || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + charLength);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            builder.append(charAt(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 把UTF-8内容写入通道，不经过堆上的字符串，适合直接转发给网络或文件
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ensureOpen();
+        int remaining = byteLength;
+        for (ByteBuffer segment : segments) {
+            ByteBuffer view = segment.duplicate();
+            ((Buffer) view).position(0);
+            ((Buffer) view).limit(Math.min(segmentSize, remaining));
+            remaining -= view.remaining();
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        ensureOpen();
+        byte[] bytes = new byte[byteLength];
+        int offset = 0;
+        for (ByteBuffer segment : segments) {
+            ByteBuffer view = segment.duplicate();
+            ((Buffer) view).position(0);
+            int len = Math.min(segmentSize, byteLength - offset);
+            view.get(bytes, offset, len);
+            offset += len;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 归还全部分段，可重复调用
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ByteBuffer segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+        current = null;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void writeCodePoint(int codePoint) {
+        if (charLength >= checkpoints * CHECKPOINT_STRIDE) {
+            addCheckpoint();
+        }
+        int width = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+        if (byteLength + width > pool.getMaxBufferBytes()) {
+            throw new IllegalStateException("流式内容超过单个缓冲区上限 " + pool.getMaxBufferBytes() + " 字节");
+        }
+        switch (width) {
+            case 1:
+                put(codePoint);
+                break;
+            case 2:
+                put(0xC0 | (codePoint >> 6));
+                put(0x80 | (codePoint & 0x3F));
+                break;
+            case 3:
+                put(0xE0 | (codePoint >> 12));
+                put(0x80 | ((codePoint >> 6) & 0x3F));
+                put(0x80 | (codePoint & 0x3F));
+                break;
+            default:
+                put(0xF0 | (codePoint >> 18));
+                put(0x80 | ((codePoint >> 12) & 0x3F));
+                put(0x80 | ((codePoint >> 6) & 0x3F));
+                put(0x80 | (codePoint & 0x3F));
+                charLength++;
+                break;
+        }
+        charLength++;
+    }
+
+    private void put(int b) {
+        if (current == null || !current.hasRemaining()) {
+            current = pool.acquire();
+            segments.add(current);
+        }
+        current.put((byte) b);
+        byteLength++;
+    }
+
+    private void addCheckpoint() {
+        if (checkpoints == checkpointChars.length) {
+            checkpointChars = Arrays.copyOf(checkpointChars, checkpoints * 2);
+            checkpointBytes = Arrays.copyOf(checkpointBytes, checkpoints * 2);
+        }
+        checkpointChars[checkpoints] = charLength;
+        checkpointBytes[checkpoints] = byteLength;
+        checkpoints++;
+    }
+
+    private byte byteAt(int pos) {
+        return segments.get(pos / segmentSize).get(pos % segmentSize);
+    }
+
+    private int decode(int pos, int lead, int width) {
+        switch (width) {
+            case 1:
+                return lead;
+            case 2:
+                return ((lead & 0x1F) << 6) | (byteAt(pos + 1) & 0x3F);
+            case 3:
+                return ((lead & 0x0F) << 12) | ((byteAt(pos + 1) & 0x3F) << 6) | (byteAt(pos + 2) & 0x3F);
+            default:
+                return ((lead & 0x07) << 18) | ((byteAt(pos + 1) & 0x3F) << 12)
+                        | ((byteAt(pos + 2) & 0x3F) << 6) | (byteAt(pos + 3) & 0x3F);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("缓冲区已关闭");
+        }
+    }
+}
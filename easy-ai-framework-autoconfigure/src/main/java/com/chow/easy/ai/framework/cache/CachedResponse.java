@@ -0,0 +1,147 @@
+package com.chow.easy.ai.framework.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存的提供商响应
+ * 二进制格式：魔数(1) 版本(1) 标志(1) 创建时间(8) 过期时间(8) 原始长度(4) 内容；
+ * 内容为UTF-8编码的响应体，超过压缩阈值时以 deflate 压缩，JSON响应通常能压缩到原来的三分之一以下
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class CachedResponse {
+
+    private static final byte MAGIC = (byte) 0xEC;
+    private static final byte VERSION = 1;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_SIZE = 3 + 8 + 8 + 4;
+
+    private final String body;
+    private final long createdAt;
+    private final long expiresAt;
+
+    public CachedResponse(String body, long createdAt, long expiresAt) {
+        this.body = body;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 响应体
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * 写入时间（毫秒时间戳）
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    /**
+     * 编码为二进制
+     *
+     * @param compressThreshold 响应体达到该字节数时压缩，小于等于0表示不压缩
+     */
+    public byte[] toBytes(int compressThreshold) {
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        byte flags = 0;
+        byte[] payload = raw;
+        int payloadLength = raw.length;
+        if (compressThreshold > 0 && raw.length >= compressThreshold) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] compressed = new byte[raw.length];
+                int length = 0;
+                while (!deflater.finished() && length < compressed.length) {
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                if (deflater.finished() && length < raw.length) {
+                    flags = FLAG_DEFLATED;
+                    payload = compressed;
+                    payloadLength = length;
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+        buffer.put(MAGIC).put(VERSION).put(flags)
+                .putLong(createdAt)
+                .putLong(expiresAt)
+                .putInt(raw.length)
+                .put(payload, 0, payloadLength);
+        return buffer.array();
+    }
+
+    /**
+     * 从二进制解码
+     *
+     * @throws IllegalArgumentException 数据格式不正确或已损坏
+     */
+    public static CachedResponse fromBytes(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE || data[0] != MAGIC) {
+            throw new IllegalArgumentException("不是有效的缓存响应数据");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("不支持的缓存响应版本: " + data[1]);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        ((java.nio.Buffer) buffer).position(3);
+        long createdAt = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        int rawLength = buffer.getInt();
+
+        String body;
+        if ((data[2] & FLAG_DEFLATED) != 0) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+                byte[] raw = new byte[rawLength];
+                int length = 0;
+                while (length < rawLength && !inflater.finished()) {
+                    int read = inflater.inflate(raw, length, rawLength - length);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += read;
+                }
+                if (length != rawLength) {
+                    throw new IllegalArgumentException("缓存响应数据已损坏");
+                }
+                body = new String(raw, StandardCharsets.UTF_8);
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("缓存响应数据已损坏", e);
+            } finally {
+                inflater.end();
+            }
+        } else {
+            if (data.length - HEADER_SIZE != rawLength) {
+                throw new IllegalArgumentException("缓存响应数据已损坏");
+            }
+            body = new String(data, HEADER_SIZE, rawLength, StandardCharsets.UTF_8);
+        }
+        return new CachedResponse(body, createdAt, expiresAt);
+    }
+}
@@ -0,0 +1,103 @@
+package com.chow.easy.ai.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 基于文件目录的响应缓存存储
+ * 每个条目一个文件，按键的前两位分目录存放；写入先写临时文件再原子重命名，读方不会看到写了一半的文件。
+ * 目录放在多个实例共同挂载的共享卷上时可作为简单的集群共享缓存，也可作为测试和单机环境中远程缓存的替身
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class FileResponseCacheStore implements ResponseCacheStore {
+
+    private static final String SUFFIX = ".bin";
+
+    private final Path directory;
+
+    public FileResponseCacheStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建缓存目录: " + directory, e);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Path file = resolve(key);
+        try {
+            byte[] data = Files.readAllBytes(file);
+            if (CachedResponse.fromBytes(data).isExpired(System.currentTimeMillis())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return data;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            log.warn("缓存文件已损坏，删除: {}", file);
+            remove(key);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取缓存文件失败: " + file, e);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] value, long ttlMillis) {
+        Path file = resolve(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, value);
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入缓存文件失败: " + file, e);
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            log.debug("删除缓存文件失败: {}", key, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path resolve(String key) {
+        if (key.length() < 3 || key.indexOf('/') >= 0 || key.indexOf('\\') >= 0 || key.contains("..")) {
+            throw new IllegalArgumentException("非法的缓存键: " + key);
+        }
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+}
@@ -0,0 +1,394 @@
+package com.chow.easy.ai.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 两级响应缓存
+ * 第一级是进程内的近端缓存，命中时不做任何IO；第二级是可插拔的远程存储（{@link ResponseCacheStore}），由所有实例共享。
+ * 读取依次查询近端和远程，远程命中后回填近端；写入立即进入近端，远程写入由单独的写回线程异步完成，
+ * 编码和压缩也在写回线程上进行，不占用请求线程。远程存储故障只当作未命中，不影响请求。
+ * <p>
+ * 同一实例上并发的相同请求只有一个真正调用提供商，其余在各自的截止时间内等待它的结果，等不到时自行调用
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class ResponseCache {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ResponseCacheStore remote;
+    private final long ttlMillis;
+    private final int nearMaxEntries;
+    private final int compressThreshold;
+    private final boolean shareAcrossCredentials;
+    private final Map<String, NearEntry> near = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ThreadPoolExecutor writer;
+    private final ResponseCacheStats stats = new ResponseCacheStats();
+
+    /**
+     * @param remote             远程存储，为null时只使用近端缓存
+     * @param ttlMillis          条目存活时间（毫秒）
+     * @param nearMaxEntries     近端缓存最大条目数
+     * @param writeQueueCapacity 写回队列容量，队列满时丢弃新的远程写入
+     * @param compressThreshold  响应体达到该字节数时压缩后写入远程，小于等于0表示不压缩
+     */
+    public ResponseCache(ResponseCacheStore remote, long ttlMillis, int nearMaxEntries,
+                         int writeQueueCapacity, int compressThreshold) {
+        this(remote, ttlMillis, nearMaxEntries, writeQueueCapacity, compressThreshold, false);
+    }
+
+    /**
+     * @param shareAcrossCredentials 同一提供商端点的不同API Key是否共享缓存条目；为false时缓存键包含凭据指纹
+     */
+    public ResponseCache(ResponseCacheStore remote, long ttlMillis, int nearMaxEntries,
+                         int writeQueueCapacity, int compressThreshold, boolean shareAcrossCredentials) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive: " + ttlMillis);
+        }
+        if (nearMaxEntries <= 0) {
+            throw new IllegalArgumentException("nearMaxEntries must be positive: " + nearMaxEntries);
+        }
+        this.remote = remote;
+        this.ttlMillis = ttlMillis;
+        this.nearMaxEntries = nearMaxEntries;
+        this.compressThreshold = compressThreshold;
+        this.shareAcrossCredentials = shareAcrossCredentials;
+        if (remote == null) {
+            this.writer = null;
+        } else {
+            this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(Math.max(1, writeQueueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "easy-ai-cache-writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, executor) -> stats.droppedWrites.incrementAndGet());
+        }
+    }
+
+    /**
+     * 计算请求的缓存键：命名空间（提供商与端点）和规范化请求体的SHA-256
+     *
+     * @param namespace 命名空间
+     * @param request   规范化的请求体，相同语义的请求必须得到相同的字节
+     * @return 64位十六进制字符串
+     */
+    public static String key(String namespace, byte[] request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+        digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        byte[] hash = digest.digest(request);
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * 不同API Key是否共享缓存条目，决定调用方计算缓存键时是否加入凭据
+     */
+    public boolean isShareAcrossCredentials() {
+        return shareAcrossCredentials;
+    }
+
+    /**
+     * 查询缓存，依次查近端和远程
+     *
+     * @return 缓存的响应体，未命中时返回null
+     */
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        NearEntry entry = near.get(key);
+        if (entry != null) {
+            if (!entry.response.isExpired(now)) {
+                entry.lastAccessNanos = System.nanoTime();
+                stats.nearHits.incrementAndGet();
+                return entry.response.getBody();
+            }
+            near.remove(key, entry);
+        }
+
+        CachedResponse response = readRemote(key, now);
+        if (response != null) {
+            stats.remoteHits.incrementAndGet();
+            putNear(key, response);
+            return response.getBody();
+        }
+        return null;
+    }
+
+    /**
+     * 写入缓存：近端立即可见，远程异步写回
+     */
+    public void put(String key, String body) {
+        long now = System.currentTimeMillis();
+        CachedResponse response = new CachedResponse(body, now, now + ttlMillis);
+        putNear(key, response);
+        if (writer != null) {
+            writer.execute(() -> writeRemote(key, response));
+        }
+    }
+
+    /**
+     * 查询缓存，未命中时调用 loader 获取并写入缓存；同一实例上相同键的并发调用只执行一次 loader
+     *
+     * @param key       缓存键
+     * @param loader    实际调用提供商，失败时抛出的异常会传给所有等待者
+     * @param cacheable 判断结果是否可以缓存（如排除错误响应）
+     * @return 响应体
+     */
+    public String getOrLoad(String key, Supplier<String> loader, Predicate<String> cacheable) {
+        return getOrLoad(key, loader, cacheable, Long.MAX_VALUE);
+    }
+
+    /**
+     * 查询缓存，未命中时调用 loader 获取并写入缓存；相同键正在加载时最多等待 maxWaitNanos，
+     * 超时后不再等待，改为自行调用 loader，避免调用方的截止时间被别人更慢的请求拖过
+     *
+     * @param maxWaitNanos 等待相同请求结果的最长时间（纳秒），通常是调用方截止时间的剩余时间
+     * @return 响应体
+     */
+    public String getOrLoad(String key, Supplier<String> loader, Predicate<String> cacheable, long maxWaitNanos) {
+        String cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, loading);
+        if (existing != null) {
+            try {
+                String body = await(existing, maxWaitNanos);
+                stats.coalesced.incrementAndGet();
+                return body;
+            } catch (TimeoutException e) {
+                stats.joinTimeouts.incrementAndGet();
+                return load(key, loader, cacheable);
+            }
+        }
+
+        stats.misses.incrementAndGet();
+        try {
+            String body = load(key, loader, cacheable);
+            loading.complete(body);
+            return body;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, loading);
+        }
+    }
+
+    private String load(String key, Supplier<String> loader, Predicate<String> cacheable) {
+        String body = loader.get();
+        if (body != null && cacheable.test(body)) {
+            put(key, body);
+        }
+        return body;
+    }
+
+    /**
+     * 从两级缓存中删除
+     */
+    public void invalidate(String key) {
+        near.remove(key);
+        if (remote != null) {
+            try {
+                remote.remove(key);
+            } catch (RuntimeException e) {
+                stats.remoteErrors.incrementAndGet();
+                log.warn("删除远程缓存失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 清空近端缓存，远程缓存保持不变
+     */
+    public void clearNear() {
+        near.clear();
+    }
+
+    public int nearSize() {
+        return near.size();
+    }
+
+    public ResponseCacheStore getRemote() {
+        return remote;
+    }
+
+    public ResponseCacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 等待写回队列中的条目写完
+     *
+     * @return 在超时前写完返回true
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        if (writer == null) {
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!writer.getQueue().isEmpty() || writer.getActiveCount() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * 写完队列中的条目后关闭写回线程和远程存储
+     */
+    public void close() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                    log.warn("响应缓存写回队列未能在关闭前写完，剩余 {} 个条目", writer.getQueue().size());
+                    writer.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writer.shutdownNow();
+            }
+            remote.close();
+        }
+    }
+
+    private CachedResponse readRemote(String key, long now) {
+        if (remote == null) {
+            return null;
+        }
+        try {
+            byte[] data = remote.get(key);
+            if (data == null) {
+                return null;
+            }
+            CachedResponse response = CachedResponse.fromBytes(data);
+            return response.isExpired(now) ? null : response;
+        } catch (RuntimeException e) {
+            stats.remoteErrors.incrementAndGet();
+            log.warn("读取远程缓存失败，按未命中处理: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRemote(String key, CachedResponse response) {
+        long ttl = response.getExpiresAt() - System.currentTimeMillis();
+        if (ttl <= 0) {
+            return;
+        }
+        try {
+            byte[] data = response.toBytes(compressThreshold);
+            remote.put(key, data, ttl);
+            stats.remoteWrites.incrementAndGet();
+            stats.bytesWritten.addAndGet(data.length);
+        } catch (RuntimeException e) {
+            stats.remoteErrors.incrementAndGet();
+            log.warn("写入远程缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private void putNear(String key, CachedResponse response) {
+        near.put(key, new NearEntry(response));
+        if (near.size() > nearMaxEntries) {
+            evict();
+        }
+    }
+
+    /**
+     * 淘汰过期条目；仍超出容量时按最近访问时间淘汰最旧的条目，多淘汰十分之一避免每次写入都触发
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<NearEntry> iterator = near.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().response.isExpired(now)) {
+                    iterator.remove();
+                }
+            }
+
+            int overflow = near.size() - nearMaxEntries;
+            if (overflow <= 0) {
+                return;
+            }
+            overflow += nearMaxEntries / 10;
+            List<Map.Entry<String, NearEntry>> candidates = new ArrayList<>(near.entrySet());
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccessNanos));
+            for (int i = 0; i < overflow && i < candidates.size(); i++) {
+                Map.Entry<String, NearEntry> candidate = candidates.get(i);
+                near.remove(candidate.getKey(), candidate.getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static String await(CompletableFuture<String> future, long maxWaitNanos) throws TimeoutException {
+        try {
+            return maxWaitNanos == Long.MAX_VALUE ? future.get() : future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待相同请求的结果时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private static final class NearEntry {
+        private final CachedResponse response;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private NearEntry(CachedResponse response) {
+            this.response = response;
+        }
+    }
+}
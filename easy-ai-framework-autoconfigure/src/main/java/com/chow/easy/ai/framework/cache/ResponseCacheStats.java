@@ -0,0 +1,101 @@
+package com.chow.easy.ai.framework.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 响应缓存统计
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class ResponseCacheStats {
+
+    final AtomicLong nearHits = new AtomicLong();
+    final AtomicLong remoteHits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong coalesced = new AtomicLong();
+    final AtomicLong joinTimeouts = new AtomicLong();
+    final AtomicLong remoteWrites = new AtomicLong();
+    final AtomicLong droppedWrites = new AtomicLong();
+    final AtomicLong remoteErrors = new AtomicLong();
+    final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * 本地近端缓存命中数
+     */
+    public long getNearHits() {
+        return nearHits.get();
+    }
+
+    /**
+     * 远程缓存命中数（本地未命中）
+     */
+    public long getRemoteHits() {
+        return remoteHits.get();
+    }
+
+    /**
+     * 两级都未命中、实际调用提供商的次数
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 等待同一实例上相同请求的结果、未单独调用提供商的次数
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * 等待相同请求的结果超过调用方截止时间、改为自行调用提供商的次数
+     */
+    public long getJoinTimeouts() {
+        return joinTimeouts.get();
+    }
+
+    /**
+     * 写回远程缓存的条目数
+     */
+    public long getRemoteWrites() {
+        return remoteWrites.get();
+    }
+
+    /**
+     * 写回队列已满而丢弃的条目数
+     */
+    public long getDroppedWrites() {
+        return droppedWrites.get();
+    }
+
+    /**
+     * 远程缓存读写失败次数
+     */
+    public long getRemoteErrors() {
+        return remoteErrors.get();
+    }
+
+    /**
+     * 写回远程缓存的字节数（编码后）
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * 命中率，包含两级缓存命中和合并的请求
+     */
+    public double getHitRatio() {
+        long hits = nearHits.get() + remoteHits.get() + coalesced.get();
+        long total = hits + misses.get() + joinTimeouts.get();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResponseCacheStats{nearHits=%d, remoteHits=%d, misses=%d, coalesced=%d, joinTimeouts=%d, remoteWrites=%d, dropped=%d, errors=%d, bytesWritten=%d, hitRatio=%.2f}",
+                getNearHits(), getRemoteHits(), getMisses(), getCoalesced(), getJoinTimeouts(), getRemoteWrites(),
+                getDroppedWrites(), getRemoteErrors(), getBytesWritten(), getHitRatio());
+    }
+}
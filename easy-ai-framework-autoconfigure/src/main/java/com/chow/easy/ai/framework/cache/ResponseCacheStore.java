@@ -0,0 +1,52 @@
+package com.chow.easy.ai.framework.cache;
+
+/**
+ * 响应缓存的远程存储SPI
+ * 多个实例共享同一个远程存储后，相同的请求在整个集群中只需调用一次提供商；
+ * 实现类可基于 Redis、Memcached 等，注册为Spring Bean即可替换默认的文件存储
+ * <p>
+ * 存储的值是 {@link CachedResponse} 编码后的字节，自带过期时间，不支持TTL的存储也可直接保存
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public interface ResponseCacheStore {
+
+    /**
+     * 读取缓存值
+     *
+     * @param key 请求哈希（64位十六进制字符串）
+     * @return 缓存值，不存在时返回null
+     */
+    byte[] get(String key);
+
+    /**
+     * 写入缓存值，由写回线程异步调用
+     *
+     * @param key        请求哈希
+     * @param value      编码后的缓存值
+     * @param ttlMillis  存活时间（毫秒）
+     */
+    void put(String key, byte[] value, long ttlMillis);
+
+    /**
+     * 删除缓存值
+     *
+     * @param key 请求哈希
+     */
+    default void remove(String key) {
+    }
+
+    /**
+     * 存储名称，用于日志
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 释放存储持有的资源
+     */
+    default void close() {
+    }
+}
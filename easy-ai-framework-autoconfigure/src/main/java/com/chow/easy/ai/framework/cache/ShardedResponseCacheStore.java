@@ -0,0 +1,81 @@
+package com.chow.easy.ai.framework.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按请求哈希分片的响应缓存存储
+ * 键本身是均匀分布的SHA-256，取前8位十六进制即可稳定地映射到分片；
+ * 所有实例按相同顺序配置分片时，同一请求总是落在同一个分片上
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class ShardedResponseCacheStore implements ResponseCacheStore {
+
+    private final List<ResponseCacheStore> shards;
+
+    public ShardedResponseCacheStore(List<? extends ResponseCacheStore> shards) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个缓存分片");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return shardFor(key).get(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, long ttlMillis) {
+        shardFor(key).put(key, value, ttlMillis);
+    }
+
+    @Override
+    public void remove(String key) {
+        shardFor(key).remove(key);
+    }
+
+    @Override
+    public String getName() {
+        StringBuilder name = new StringBuilder("sharded[");
+        for (int i = 0; i < shards.size(); i++) {
+            name.append(i == 0 ? "" : ", ").append(shards.get(i).getName());
+        }
+        return name.append(']').toString();
+    }
+
+    @Override
+    public void close() {
+        for (ResponseCacheStore shard : shards) {
+            shard.close();
+        }
+    }
+
+    public List<ResponseCacheStore> getShards() {
+        return shards;
+    }
+
+    /**
+     * 键对应的分片
+     */
+    public ResponseCacheStore shardFor(String key) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        return shards.get(Math.floorMod(shardHash(key), shards.size()));
+    }
+
+    private static int shardHash(String key) {
+        if (key.length() >= 8) {
+            try {
+                return (int) Long.parseLong(key.substring(0, 8), 16);
+            } catch (NumberFormatException ignored) {
+                // 非十六进制的自定义键，退回字符串哈希
+            }
+        }
+        return key.hashCode();
+    }
+}
@@ -0,0 +1,57 @@
+package com.chow.easy.ai.framework.config;
+
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接预热监听器
+ * 应用启动完成后同步预热已配置提供商的连接（在对外宣告就绪之前完成），
+ * 并可按固定间隔重新预热，避免空闲期间连接池被清空导致首个请求重新建连
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class ConnectionWarmupListener implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final AiServiceFactory aiServiceFactory;
+    private final EasyAiFrameworkProperties.Connection connection;
+    private volatile ScheduledFuture<?> rewarmTask;
+
+    public ConnectionWarmupListener(AiServiceFactory aiServiceFactory, EasyAiFrameworkProperties properties) {
+        this.aiServiceFactory = aiServiceFactory;
+        this.connection = properties.getConnection();
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        aiServiceFactory.warmUpConnections(connection.getWarmupConnections());
+
+        long interval = connection.getRewarmInterval();
+        if (interval > 0 && rewarmTask == null) {
+            // 预热请求是异步发出的，定时线程只负责提交
+            rewarmTask = aiServiceFactory.getServiceContext().getTimer().scheduleWithFixedDelay(() -> {
+                try {
+                    aiServiceFactory.warmUpConnectionsAsync(connection.getWarmupConnections());
+                } catch (Exception e) {
+                    log.warn("周期性连接预热失败: {}", e.getMessage());
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+            log.info("已开启周期性连接预热，间隔 {}ms", interval);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ScheduledFuture<?> task = rewarmTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+}
@@ -1,8 +1,24 @@
 package com.chow.easy.ai.framework.config;
 
+import com.chow.easy.ai.framework.cache.ResponseCacheStore;
+import com.chow.easy.ai.framework.core.AiService;
 import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.rag.BatchEmbedder;
+import com.chow.easy.ai.framework.rag.RagPipeline;
+import com.chow.easy.ai.framework.routing.CascadeRouterRegistry;
+import com.chow.easy.ai.framework.spi.AiServiceProviderRegistry;
+import com.chow.easy.ai.framework.template.PromptTemplateRegistry;
+import com.chow.easy.ai.framework.tool.ToolCallingEngine;
+import com.chow.easy.ai.framework.tool.ToolRegistry;
+import com.chow.easy.ai.framework.trace.AiTracer;
+import com.chow.easy.ai.framework.trace.OpenTelemetryAiTracer;
 import com.chow.easy.ai.framework.util.AiServiceUtil;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -22,16 +38,39 @@ import org.springframework.context.annotation.Configuration;
 @ConditionalOnProperty(prefix = "bcl.ai-framework", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class EasyAiFrameworkAutoConfiguration {
 
+    /**
+     * 创建AI服务提供商注册表Bean
+     *
+     * @return 提供商注册表实例
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AiServiceProviderRegistry aiServiceProviderRegistry() {
+        return new AiServiceProviderRegistry();
+    }
+
     /**
      * 创建AI框架服务Bean
      *
      * @param easyAiFrameworkProperties 配置属性
+     * @param providerRegistry          提供商注册表
+     * @param responseCacheStore        应用提供的远程响应缓存存储（可选）
+     * @param aiTracer                  链路追踪器（可选）
      * @return AI框架服务实例
      */
     @Bean
     @ConditionalOnMissingBean
-    public AiServiceFactory aiServiceFactory(EasyAiFrameworkProperties easyAiFrameworkProperties) {
-        return new AiServiceFactory(easyAiFrameworkProperties);
+    public AiServiceFactory aiServiceFactory(EasyAiFrameworkProperties easyAiFrameworkProperties,
+                                             AiServiceProviderRegistry providerRegistry,
+                                             ObjectProvider<ResponseCacheStore> responseCacheStore,
+                                             ObjectProvider<AiTracer> aiTracer) {
+        AiServiceFactory factory = new AiServiceFactory(easyAiFrameworkProperties, providerRegistry);
+        factory.getServiceContext().setTracer(aiTracer.getIfAvailable());
+        ResponseCacheStore store = responseCacheStore.getIfAvailable();
+        if (store != null && easyAiFrameworkProperties.getResponseCache().isEnabled()) {
+            factory.configureResponseCache(store);
+        }
+        return factory;
     }
 
     @Bean
@@ -40,6 +79,94 @@ public class EasyAiFrameworkAutoConfiguration {
         return new AiServiceUtil(aiServiceFactory);
     }
 
+    /**
+     * 启动完成后预热连接，需开启 bcl.ai-framework.connection.warmup-enabled
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "bcl.ai-framework.connection", name = "warmup-enabled", havingValue = "true")
+    public ConnectionWarmupListener connectionWarmupListener(AiServiceFactory aiServiceFactory,
+                                                             EasyAiFrameworkProperties easyAiFrameworkProperties) {
+        return new ConnectionWarmupListener(aiServiceFactory, easyAiFrameworkProperties);
+    }
+
+    /**
+     * 创建工具注册表Bean，应用可注入后注册自己的工具
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ToolRegistry toolRegistry() {
+        return new ToolRegistry();
+    }
+
+    /**
+     * 创建工具调用引擎Bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ToolCallingEngine toolCallingEngine(ToolRegistry toolRegistry, EasyAiFrameworkProperties easyAiFrameworkProperties) {
+        EasyAiFrameworkProperties.Tools tools = easyAiFrameworkProperties.getTools();
+        return new ToolCallingEngine(toolRegistry, tools.getMaxIterations(), tools.getParallelism());
+    }
+
+    /**
+     * 创建级联路由注册表Bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CascadeRouterRegistry cascadeRouterRegistry(AiServiceFactory aiServiceFactory,
+                                                       EasyAiFrameworkProperties easyAiFrameworkProperties) {
+        return new CascadeRouterRegistry(aiServiceFactory, easyAiFrameworkProperties.getRouting());
+    }
+
+    /**
+     * 创建提示词模板注册表Bean
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PromptTemplateRegistry promptTemplateRegistry(EasyAiFrameworkProperties easyAiFrameworkProperties) {
+        EasyAiFrameworkProperties.Templates templates = easyAiFrameworkProperties.getTemplates();
+        return new PromptTemplateRegistry(templates.getLocation(), templates.getSuffix(),
+                templates.isHotReload(), templates.getCheckInterval());
+    }
+
+    /**
+     * 创建RAG管线Bean，需开启 bcl.ai-framework.rag.enabled
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "bcl.ai-framework.rag", name = "enabled", havingValue = "true")
+    public RagPipeline ragPipeline(AiServiceFactory aiServiceFactory, EasyAiFrameworkProperties easyAiFrameworkProperties) {
+        EasyAiFrameworkProperties.Rag rag = easyAiFrameworkProperties.getRag();
+        AiService embeddingService = rag.getEmbeddingProvider() == null || rag.getEmbeddingProvider().trim().isEmpty()
+                ? aiServiceFactory.getDefaultService()
+                : aiServiceFactory.getService(rag.getEmbeddingProvider());
+        BatchEmbedder embedder = new BatchEmbedder(embeddingService, ChatOptions.DEFAULT,
+                rag.getEmbeddingBatchSize(), rag.getEmbeddingParallelism());
+        return RagPipeline.builder(embedder)
+                .chunkSize(rag.getChunkSize())
+                .chunkOverlap(rag.getChunkOverlap())
+                .topK(rag.getTopK())
+                .minScore(rag.getMinScore())
+                .index(rag.getM(), rag.getEfConstruction(), rag.getEfSearch())
+                .build();
+    }
+
+    /**
+     * 类路径上存在 OpenTelemetry 时创建追踪器，优先使用应用的 OpenTelemetry Bean，否则使用全局实例
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.opentelemetry.api.OpenTelemetry")
+    @ConditionalOnProperty(prefix = "bcl.ai-framework.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class TracingConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public AiTracer aiTracer(ObjectProvider<OpenTelemetry> openTelemetry) {
+            return new OpenTelemetryAiTracer(openTelemetry.getIfAvailable(GlobalOpenTelemetry::get));
+        }
+    }
+
     /**
      * 掩码API密钥，用于日志输出
      *
@@ -3,7 +3,10 @@ package com.chow.easy.ai.framework.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,6 +45,71 @@ public class EasyAiFrameworkProperties {
      */
     private Map<String, ProviderConfig> providers = new HashMap<>();
 
+    /**
+     * 多租户服务缓存配置
+     */
+    private TenantCache tenantCache = new TenantCache();
+
+    /**
+     * SSE流式网关配置
+     */
+    private Gateway gateway = new Gateway();
+
+    /**
+     * 工具调用配置
+     */
+    private Tools tools = new Tools();
+
+    /**
+     * 请求调度配置
+     */
+    private Scheduler scheduler = new Scheduler();
+
+    /**
+     * HTTP连接配置
+     */
+    private Connection connection = new Connection();
+
+    /**
+     * 流式内容缓冲配置
+     */
+    private StreamBuffer streamBuffer = new StreamBuffer();
+
+    /**
+     * 级联路由配置
+     */
+    private Routing routing = new Routing();
+
+    /**
+     * 提示词模板配置
+     */
+    private Templates templates = new Templates();
+
+    /**
+     * 检索增强生成配置
+     */
+    private Rag rag = new Rag();
+
+    /**
+     * 响应缓存配置
+     */
+    private ResponseCacheConfig responseCache = new ResponseCacheConfig();
+
+    /**
+     * 请求/响应日志配置
+     */
+    private Journal journal = new Journal();
+
+    /**
+     * 链路追踪配置
+     */
+    private Tracing tracing = new Tracing();
+
+    /**
+     * 启动优化配置
+     */
+    private Startup startup = new Startup();
+
     @Data
     public static class ProviderConfig {
         /**
@@ -59,10 +127,444 @@ public class EasyAiFrameworkProperties {
          */
         private String defaultModel;
 
+        /**
+         * 文本向量化使用的模型
+         */
+        private String embeddingModel;
+
         /**
          * 自定义参数
          */
         private Map<String, Object> parameters = new HashMap<>();
 
+        /**
+         * 请求体压缩方式，需提供商接口支持 Content-Encoding 请求头
+         */
+        private Compression compression = Compression.NONE;
+
+        /**
+         * 启用压缩时，请求体达到该大小(字节)才压缩
+         */
+        private int compressionThreshold = 16384;
+
+    }
+
+    /**
+     * 请求体压缩方式
+     */
+    public enum Compression {
+        NONE,
+        GZIP
+    }
+
+    @Data
+    public static class TenantCache {
+        /**
+         * 最多缓存的租户服务视图数量
+         */
+        private int maxSize = 1000;
+
+        /**
+         * 空闲过期时间(毫秒)，超过该时间未被访问的租户服务视图将被淘汰
+         */
+        private long idleTimeout = 1800000;
+    }
+
+    @Data
+    public static class Gateway {
+        /**
+         * 是否启用SSE流式网关
+         */
+        private boolean enabled = false;
+
+        /**
+         * 网关端点路径
+         */
+        private String path = "/ai/chat/stream";
+
+        /**
+         * 单实例最大并发流数量，超出时返回429
+         */
+        private int maxConcurrentStreams = 200;
+
+        /**
+         * 单个流的最长持续时间(毫秒)
+         */
+        private long streamTimeout = 300000;
+
+        /**
+         * 合并内容块的最大字符数，0表示不合并，每个内容块单独写出
+         */
+        private int coalesceMaxChars = 0;
+
+        /**
+         * 合并时内容块的最长等待时间(毫秒)
+         */
+        private long coalesceMaxDelay = 50;
+
+        /**
+         * 客户端可以选择的提供商，为空时只能使用默认提供商
+         */
+        private List<String> allowedProviders = new ArrayList<>();
+
+        /**
+         * 客户端可以指定的模型，为空时只能使用提供商配置的默认模型
+         */
+        private List<String> allowedModels = new ArrayList<>();
+
+        /**
+         * 客户端可以传入的请求参数，包含其他参数的请求返回400
+         */
+        private List<String> allowedParameters = new ArrayList<>(Arrays.asList("temperature", "top_p"));
+
+        /**
+         * 客户端传入的 max_tokens 上限（需同时出现在 allowed-parameters 中），超出时按上限发送
+         */
+        private int maxTokens = 4096;
+    }
+
+    @Data
+    public static class Tools {
+        /**
+         * 单次工具调用循环的最大轮次，最后一轮强制模型直接回复
+         */
+        private int maxIterations = 5;
+
+        /**
+         * 并行执行工具的线程数
+         */
+        private int parallelism = 8;
+    }
+
+    @Data
+    public static class Scheduler {
+        /**
+         * 是否启用请求调度（优先级队列、租户公平排队和截止时间感知的拒绝）
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每个提供商凭据（端点 + API Key）的最大并发请求数
+         */
+        private int maxConcurrentRequests = 64;
+
+        /**
+         * 每个提供商凭据每个优先级的最大排队数
+         */
+        private int queueCapacity = 500;
+
+        /**
+         * 租户权重，未配置的租户权重为1
+         */
+        private Map<String, Integer> tenantWeights = new HashMap<>();
+
+        /**
+         * 自适应并发上限，启用后 max-concurrent-requests 作为上限的最大值
+         */
+        private AdaptiveLimit adaptiveLimit = new AdaptiveLimit();
+    }
+
+    @Data
+    public static class AdaptiveLimit {
+        /**
+         * 是否根据耗时与429/5xx信号自动调整每个提供商凭据的最大并发数
+         */
+        private boolean enabled = false;
+
+        /**
+         * 初始并发上限
+         */
+        private int initialLimit = 10;
+
+        /**
+         * 并发上限的最小值
+         */
+        private int minLimit = 1;
+
+        /**
+         * 收到过载信号时上限的下调比例
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * 每隔 上限 × probe-multiplier 个样本重新测量一次提供商无排队时的耗时
+         */
+        private int probeMultiplier = 30;
+    }
+
+    @Data
+    public static class Connection {
+        /**
+         * 连接池保留的最大空闲连接数
+         */
+        private int maxIdleConnections = 5;
+
+        /**
+         * 空闲连接保留时间(毫秒)
+         */
+        private long keepAlive = 300000;
+
+        /**
+         * HTTP/2 PING 间隔(毫秒)，用于保持连接活跃并及时发现失效连接，0表示不发送
+         */
+        private long pingInterval = 0;
+
+        /**
+         * 是否在应用启动完成后预热已配置提供商的连接
+         */
+        private boolean warmupEnabled = false;
+
+        /**
+         * 每个提供商预热的连接数；HTTP/2 下并发请求复用同一连接，通常1个即可
+         */
+        private int warmupConnections = 1;
+
+        /**
+         * 周期性重新预热的间隔(毫秒)，防止空闲期间连接被回收，0表示只在启动时预热
+         */
+        private long rewarmInterval = 0;
+    }
+
+    @Data
+    public static class StreamBuffer {
+        /**
+         * 直接内存分段大小(字节)
+         */
+        private int segmentSize = 8192;
+
+        /**
+         * 池中最多保留的空闲分段数，超出的分段释放给GC
+         */
+        private int maxPooledSegments = 512;
+
+        /**
+         * 单个流允许缓冲的最大字节数
+         */
+        private int maxBytesPerStream = 8 * 1024 * 1024;
+    }
+
+    @Data
+    public static class Templates {
+        /**
+         * 模板所在的类路径目录
+         */
+        private String location = "prompts/";
+
+        /**
+         * 模板文件后缀
+         */
+        private String suffix = ".prompt";
+
+        /**
+         * 模板文件修改后是否自动重新加载，仅对文件系统中的模板生效
+         */
+        private boolean hotReload = true;
+
+        /**
+         * 热加载检查间隔(毫秒)
+         */
+        private long checkInterval = 2000;
+    }
+
+    @Data
+    public static class Rag {
+        /**
+         * 是否创建RAG管线
+         */
+        private boolean enabled = false;
+
+        /**
+         * 提供向量接口的提供商，为空时使用默认提供商；向量模型取该提供商的 embedding-model
+         */
+        private String embeddingProvider;
+
+        /**
+         * 单次向量请求的文本数
+         */
+        private int embeddingBatchSize = 64;
+
+        /**
+         * 并发的向量请求数
+         */
+        private int embeddingParallelism = 4;
+
+        /**
+         * 文档块的最大字符数
+         */
+        private int chunkSize = 800;
+
+        /**
+         * 相邻块重叠的字符数
+         */
+        private int chunkOverlap = 100;
+
+        /**
+         * 每次注入的块数
+         */
+        private int topK = 4;
+
+        /**
+         * 相似度低于该值的块不注入
+         */
+        private float minScore = 0;
+
+        /**
+         * HNSW 每层的最大邻居数
+         */
+        private int m = 16;
+
+        /**
+         * HNSW 构建时的候选集大小
+         */
+        private int efConstruction = 200;
+
+        /**
+         * HNSW 检索时的候选集大小
+         */
+        private int efSearch = 64;
+    }
+
+    @Data
+    public static class ResponseCacheConfig {
+        /**
+         * 是否缓存非流式对话的响应，相同的请求体直接返回缓存结果
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存条目存活时间(毫秒)
+         */
+        private long ttl = 3600000;
+
+        /**
+         * 本地近端缓存的最大条目数
+         */
+        private int nearMaxEntries = 10000;
+
+        /**
+         * 远程缓存目录，通常是多个实例共同挂载的共享卷；配置多个目录时按请求哈希分片，为空时只使用本地缓存。
+         * 应用注册了 ResponseCacheStore Bean 时以该Bean作为远程缓存
+         */
+        private List<String> directories = new ArrayList<>();
+
+        /**
+         * 远程写回队列容量，队列满时丢弃新的写入
+         */
+        private int writeQueueCapacity = 10000;
+
+        /**
+         * 响应体达到该字节数时压缩后写入远程缓存，0表示不压缩
+         */
+        private int compressThreshold = 512;
+
+        /**
+         * 同一提供商端点的不同API Key是否共享缓存条目；默认不共享，缓存键包含凭据指纹，
+         * 开启后一个账号的响应可能返回给另一个账号的调用方
+         */
+        private boolean shareAcrossCredentials = false;
+    }
+
+    @Data
+    public static class Journal {
+        /**
+         * 是否记录所有请求体与响应（含带时间戳的流式内容块），用于排查问题和重放
+         */
+        private boolean enabled = false;
+
+        /**
+         * 日志目录
+         */
+        private String directory = "ai-journal";
+
+        /**
+         * 日志段大小(字节)，写满后滚动到新段
+         */
+        private int segmentSize = 64 * 1024 * 1024;
+
+        /**
+         * 最多保留的日志段数，超出时删除最旧的段，0表示不删除
+         */
+        private int maxSegments = 16;
+
+        /**
+         * 请求线程与写入线程之间的环形队列容量(条)，队列满时丢弃记录
+         */
+        private int bufferSize = 65536;
+    }
+
+    @Data
+    public static class Tracing {
+        /**
+         * 类路径上存在 opentelemetry-api 时是否为每次提供商调用创建span
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Startup {
+        /**
+         * 是否延迟初始化：SPI提供商扫描、HTTP客户端和JSON解析器都推迟到第一次使用；
+         * 关闭后在创建 AiServiceFactory 时全部立即完成并输出提供商列表
+         */
+        private boolean lazyInit = true;
+
+        /**
+         * 延迟初始化时是否在后台线程创建HTTP客户端并预热JSON解析器，与应用自身的初始化并行，减少第一次请求的开销
+         */
+        private boolean prewarm = true;
+    }
+
+    @Data
+    public static class Routing {
+        /**
+         * 路由名称 -> 路由配置
+         */
+        private Map<String, Route> routes = new HashMap<>();
+    }
+
+    @Data
+    public static class Route {
+        /**
+         * 按从便宜到昂贵的顺序排列的模型
+         */
+        private List<RouteTier> tiers = new ArrayList<>();
+
+        /**
+         * 低级别回复至少包含的字符数，0表示不检查
+         */
+        private int minLength = 0;
+
+        /**
+         * 低级别回复必须正常结束（未因长度截断）
+         */
+        private boolean requireStop = true;
+
+        /**
+         * 低级别回复输出token的最低平均对数概率，设置后自动请求 logprobs
+         */
+        private Double minAverageLogprob;
+    }
+
+    @Data
+    public static class RouteTier {
+        /**
+         * 提供商名称
+         */
+        private String provider;
+
+        /**
+         * 模型名称，为空时使用提供商默认模型
+         */
+        private String model;
+
+        /**
+         * 每千个输入token的价格
+         */
+        private double inputCostPer1k;
+
+        /**
+         * 每千个输出token的价格
+         */
+        private double outputCostPer1k;
     }
-} 
\ No newline at end of file
+}
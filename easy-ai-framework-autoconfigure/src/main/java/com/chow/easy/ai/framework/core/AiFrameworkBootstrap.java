@@ -0,0 +1,205 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * 不依赖 Spring 的启动入口
+ * 供命令行工具、批处理任务以及 GraalVM native-image 使用：从 properties 读取与 application.yml 相同的
+ * bcl.ai-framework.* 配置项，再交给 {@link AiServiceFactory#builder()} 创建服务工厂，不经过 Spring 的配置绑定，也不使用反射。
+ * <p>
+ * 支持的配置项：default-provider、timeout、read-timeout、startup.lazy-init、startup.prewarm，
+ * 以及 providers.&lt;名称&gt;.api-key / api-url / default-model / embedding-model / compression /
+ * compression-threshold / parameters.&lt;参数名&gt;；其余配置项（如只对 Spring 应用生效的网关配置）被忽略并记录在 debug 日志中，
+ * 需要时在 {@link #bind(Properties)} 返回的对象上设置
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public final class AiFrameworkBootstrap {
+
+    /**
+     * 配置项前缀
+     */
+    public static final String PREFIX = "bcl.ai-framework.";
+
+    /**
+     * 默认的类路径配置文件
+     */
+    public static final String DEFAULT_RESOURCE = "easy-ai.properties";
+
+    private static final String PROVIDERS = "providers.";
+    private static final String PARAMETERS = "parameters.";
+
+    private AiFrameworkBootstrap() {
+    }
+
+    /**
+     * 读取类路径上的 easy-ai.properties（不存在时为空），再用同名的系统属性覆盖，创建服务工厂
+     */
+    public static AiServiceFactory fromClasspath() {
+        return fromClasspath(DEFAULT_RESOURCE);
+    }
+
+    /**
+     * 读取类路径上的配置文件（不存在时为空），再用同名的系统属性覆盖，创建服务工厂
+     *
+     * @param resource 类路径资源名
+     */
+    public static AiServiceFactory fromClasspath(String resource) {
+        Properties properties = new Properties();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = AiFrameworkBootstrap.class.getClassLoader();
+        }
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in != null) {
+                try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("读取配置文件失败: " + resource, e);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(PREFIX)) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * 按配置创建服务工厂，与 {@link AiServiceFactory#builder()} 的创建过程相同
+     *
+     * @param properties 以 bcl.ai-framework. 为前缀的配置项
+     * @throws IllegalArgumentException 配置值格式错误或没有配置任何提供商
+     */
+    public static AiServiceFactory fromProperties(Properties properties) {
+        return AiServiceFactory.builder().properties(bind(properties)).build();
+    }
+
+    /**
+     * 把配置项绑定到 {@link EasyAiFrameworkProperties}，未出现的配置保持默认值
+     *
+     * @param properties 以 bcl.ai-framework. 为前缀的配置项
+     * @throws IllegalArgumentException 配置值格式错误
+     */
+    public static EasyAiFrameworkProperties bind(Properties properties) {
+        EasyAiFrameworkProperties target = new EasyAiFrameworkProperties();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.startsWith(PREFIX)) {
+                continue;
+            }
+            String key = name.substring(PREFIX.length());
+            String value = properties.getProperty(name).trim();
+            if (key.startsWith(PROVIDERS)) {
+                bindProvider(target, key.substring(PROVIDERS.length()), value, name);
+                continue;
+            }
+            switch (key) {
+                case "enabled":
+                    target.setEnabled(Boolean.parseBoolean(value));
+                    break;
+                case "default-provider":
+                    target.setDefaultProvider(value);
+                    break;
+                case "timeout":
+                    target.setTimeout(parseInt(name, value));
+                    break;
+                case "read-timeout":
+                    target.setReadTimeout(parseInt(name, value));
+                    break;
+                case "startup.lazy-init":
+                    target.getStartup().setLazyInit(Boolean.parseBoolean(value));
+                    break;
+                case "startup.prewarm":
+                    target.getStartup().setPrewarm(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    ignore(name);
+            }
+        }
+        return target;
+    }
+
+    private static void bindProvider(EasyAiFrameworkProperties target, String key, String value, String name) {
+        int dot = key.indexOf('.');
+        if (dot <= 0) {
+            ignore(name);
+            return;
+        }
+        EasyAiFrameworkProperties.ProviderConfig config = target.getProviders()
+                .computeIfAbsent(key.substring(0, dot), k -> new EasyAiFrameworkProperties.ProviderConfig());
+        String property = key.substring(dot + 1);
+        if (property.startsWith(PARAMETERS)) {
+            config.getParameters().put(property.substring(PARAMETERS.length()), parseScalar(value));
+            return;
+        }
+        switch (property) {
+            case "api-key":
+                config.setApiKey(value);
+                break;
+            case "api-url":
+                config.setApiUrl(value);
+                break;
+            case "default-model":
+                config.setDefaultModel(value);
+                break;
+            case "embedding-model":
+                config.setEmbeddingModel(value);
+                break;
+            case "compression":
+                config.setCompression(EasyAiFrameworkProperties.Compression.valueOf(value.toUpperCase(Locale.ROOT)));
+                break;
+            case "compression-threshold":
+                config.setCompressionThreshold(parseInt(name, value));
+                break;
+            default:
+                ignore(name);
+        }
+    }
+
+    /**
+     * 系统属性中可能有只对 Spring 应用生效的配置（如调度、网关），不影响启动
+     */
+    private static void ignore(String name) {
+        log.debug("AiFrameworkBootstrap 不支持配置项 {}，已忽略", name);
+    }
+
+    /**
+     * 与 YAML 一致地推断参数类型：整数、小数、布尔值，其余保留为字符串
+     */
+    private static Object parseScalar(String value) {
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.valueOf(value);
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ignored) {
+            // 不是整数
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException ignored) {
+            return value;
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("配置项 " + name + " 不是整数: " + value, e);
+        }
+    }
+}
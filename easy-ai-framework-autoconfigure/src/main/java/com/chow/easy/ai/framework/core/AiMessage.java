@@ -1,20 +1,74 @@
 package com.chow.easy.ai.framework.core;
 
-import lombok.AllArgsConstructor;
+import com.chow.easy.ai.framework.template.RenderedPrompt;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  *
  * @author chowsama
  * @date 2025/06/26 09:32
  */
-@AllArgsConstructor
 @NoArgsConstructor
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AiMessage {
     //角色 注意：如果设置系统消息，请放在messages列表的第一位
     private String role;
     //内容
     private String content;
+    //模型发起的工具调用（role=assistant）
+    private List<ToolCall> toolCalls;
+    //对应的工具调用ID（role=tool）
+    private String toolCallId;
+    //模板渲染结果，发送请求时直接写入请求体，不预先拼接为字符串
+    @JsonIgnore
+    private RenderedPrompt prompt;
+
+    public AiMessage(String role, String content) {
+        this.role = role;
+        this.content = content;
+    }
+
+    public AiMessage(String role, RenderedPrompt prompt) {
+        this.role = role;
+        this.prompt = prompt;
+    }
+
+    /**
+     * 消息内容；由模板创建的消息在首次访问时才生成字符串
+     */
+    public String getContent() {
+        if (content == null && prompt != null) {
+            content = prompt.toString();
+        }
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.prompt = null;
+    }
+
+    /**
+     * 创建携带工具调用的助手消息
+     */
+    public static AiMessage assistantToolCalls(String content, List<ToolCall> toolCalls) {
+        AiMessage message = new AiMessage("assistant", content);
+        message.setToolCalls(toolCalls);
+        return message;
+    }
+
+    /**
+     * 创建工具执行结果消息
+     */
+    public static AiMessage toolResult(String toolCallId, String content) {
+        AiMessage message = new AiMessage("tool", content);
+        message.setToolCallId(toolCallId);
+        return message;
+    }
 }
@@ -1,9 +1,28 @@
 package com.chow.easy.ai.framework.core;
 
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.chow.easy.ai.framework.structured.IncrementalJsonDecoder;
+import com.chow.easy.ai.framework.structured.JsonStreamListener;
+import com.chow.easy.ai.framework.util.AiJson;
+
 import java.util.List;
 import java.util.function.Consumer;
 
 /**
+ * AI服务
+ * <p>
+ * 提供商必须实现没有默认实现的6个方法：chat(String)、chat(List)、chatStream(String, Consumer)、
+ * chatStream(List, Consumer)、getProviderName、isAvailable。其余方法的默认实现都建立在这些方法之上，
+ * 与 {@link BaseAiServiceImpl} 相比有以下限制：
+ * <ul>
+ *     <li>带非空 {@link ChatOptions} 的 chat / chatStream 需要提供商实现才能覆盖模型与参数，否则抛出 UnsupportedOperationException；
+ *     complete、completeStream、结构化输出等方法在传入非空参数时同样依赖这两个方法</li>
+ *     <li>结构化结果只包含回复内容，没有工具调用、结束原因和token用量；结构化输出不会自动开启JSON模式</li>
+ *     <li>异步流式对话在单独的线程中执行阻塞的 chatStream，取消后不再交付内容块，但无法中断底层请求</li>
+ *     <li>提供商以错误内容块报告的失败无法识别为异常</li>
+ *     <li>embed 没有默认实现，需要检索增强生成时由提供商实现</li>
+ * </ul>
+ * 继承 {@link BaseAiServiceImpl} 的提供商拥有全部能力
  *
  * @author chowsama
  * @date 2025/06/26 09:30
@@ -19,6 +38,16 @@ public interface AiService {
      */
     String chat(List<AiMessage> messages);
 
+    /**
+     * 多轮对话，使用单次请求参数覆盖提供商默认参数；默认实现只接受空参数
+     */
+    default String chat(List<AiMessage> messages, ChatOptions options) {
+        if (options == null || options.isEmpty()) {
+            return chat(messages);
+        }
+        throw new UnsupportedOperationException(getProviderName() + " 不支持单次请求参数");
+    }
+
     /**
      * 流式对话
      */
@@ -29,6 +58,118 @@ public interface AiService {
      */
     void chatStream(List<AiMessage> messages, Consumer<String> callback);
 
+    /**
+     * 流式多轮对话，使用单次请求参数覆盖提供商默认参数；默认实现只接受空参数
+     */
+    default void chatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        if (options == null || options.isEmpty()) {
+            chatStream(messages, callback);
+            return;
+        }
+        throw new UnsupportedOperationException(getProviderName() + " 不支持单次请求参数");
+    }
+
+    /**
+     * 异步流式多轮对话，立即返回可取消的句柄
+     * 取消句柄会中断底层请求并停止计费，句柄同时记录取消前已消耗的token数
+     * 默认在单独的线程中执行 {@link #chatStream(List, ChatOptions, Consumer)}，取消后停止交付但无法中断底层请求
+     */
+    default StreamHandle chatStreamAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return AiServiceDefaults.streamAsync(this, messages, options, callback);
+    }
+
+    /**
+     * 异步结构化对话，立即返回可取消的句柄；流正常结束后通过 {@link StreamHandle#getResult()} 取得完整结果
+     * 默认基于 {@link #chatStreamAsync} 实现，结果只包含回复内容，没有工具调用、结束原因和token用量
+     */
+    default StreamHandle completeAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        StringBuffer content = new StringBuffer();
+        StreamHandle handle = chatStreamAsync(messages, options, chunk -> {
+            content.append(chunk);
+            callback.accept(chunk);
+        });
+        handle.collectResult(() -> {
+            ChatCompletion completion = new ChatCompletion();
+            completion.setContent(content.toString());
+            return completion;
+        });
+        return handle;
+    }
+
+    /**
+     * 多轮对话，返回包含工具调用、结束原因和token用量的结构化结果
+     * 默认基于 {@link #chat(List, ChatOptions)} 实现，结果只包含回复内容
+     */
+    default ChatCompletion complete(List<AiMessage> messages, ChatOptions options) {
+        ChatCompletion completion = new ChatCompletion();
+        completion.setContent(chat(messages, options));
+        return completion;
+    }
+
+    /**
+     * 流式多轮对话，内容块实时回调，结束后返回聚合的结构化结果
+     * 默认基于 {@link #chatStream(List, ChatOptions, Consumer)} 实现，结果只包含回复内容
+     */
+    default ChatCompletion completeStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        StringBuilder content = new StringBuilder();
+        chatStream(messages, options, chunk -> {
+            content.append(chunk);
+            callback.accept(chunk);
+        });
+        ChatCompletion completion = new ChatCompletion();
+        completion.setContent(content.toString());
+        return completion;
+    }
+
+    /**
+     * 结构化输出：开启提供商的JSON模式并把回复解析为指定类型
+     */
+    default <T> T chatForObject(List<AiMessage> messages, Class<T> type) {
+        return chatForObject(messages, type, ChatOptions.DEFAULT);
+    }
+
+    /**
+     * 结构化输出；options 中已指定 response_format（如 json_schema）时不会被覆盖
+     * 默认实现不开启JSON模式，直接解析 {@link #chat(List, ChatOptions)} 的回复
+     */
+    default <T> T chatForObject(List<AiMessage> messages, Class<T> type, ChatOptions options) {
+        return AiServiceDefaults.readObject(AiJson.mapper(), getProviderName(), chat(messages, options), type);
+    }
+
+    /**
+     * 流式结构化输出：生成过程中增量解析JSON，已闭合的数组元素和顶层字段提前回调，结束后返回完整对象
+     * 默认实现不开启JSON模式，内容块来自 {@link #completeStream}
+     */
+    default <T> T chatStreamForObject(List<AiMessage> messages, Class<T> type, ChatOptions options,
+                                      JsonStreamListener listener) {
+        IncrementalJsonDecoder decoder = new IncrementalJsonDecoder(AiJson.mapper(), listener);
+        ChatCompletion completion = completeStream(messages, options, decoder::feed);
+        decoder.end();
+        return AiServiceDefaults.readObject(AiJson.mapper(), getProviderName(), completion.getContent(), type);
+    }
+
+    /**
+     * 流式对话，内容累积到池化的直接内存缓冲区中，结束后返回该缓冲区
+     * 适合需要完整回复文本的大量并发长流；调用方用完后必须关闭返回值以归还内存
+     *
+     * 默认实现使用默认配置的共享缓冲池，超过缓冲上限时在流结束后抛出 IllegalStateException
+     *
+     * @param callback 每个内容块的实时回调，可以为null
+     */
+    default PooledTextBuffer chatStreamBuffered(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return AiServiceDefaults.streamBuffered(this, messages, options, callback);
+    }
+
+    /**
+     * 把文本转换为向量，返回顺序与输入一致；没有默认实现，需要检索增强生成的提供商必须实现
+     *
+     * @param texts   待向量化的文本
+     * @param options 单次请求参数，可通过 model 指定向量模型
+     */
+    default float[][] embed(List<String> texts, ChatOptions options) {
+        throw new UnsupportedOperationException(getProviderName() + " 不支持文本向量化");
+    }
+
     /**
      * 获取提供商名称
      */
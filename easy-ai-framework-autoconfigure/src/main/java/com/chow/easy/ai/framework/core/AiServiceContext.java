@@ -0,0 +1,357 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.buffer.BufferPool;
+import com.chow.easy.ai.framework.cache.ResponseCache;
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.journal.AiJournal;
+import com.chow.easy.ai.framework.scheduler.AdaptiveConcurrencyLimit;
+import com.chow.easy.ai.framework.scheduler.RequestScheduler;
+import com.chow.easy.ai.framework.trace.AiTracer;
+import com.chow.easy.ai.framework.util.AiJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI服务运行时上下文
+ * 持有可在多个服务实例之间共享的重量级组件（HTTP客户端、JSON解析器），
+ * 同一上下文创建的服务共享连接池与线程池，单个服务实例本身只是轻量的配置视图
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+public class AiServiceContext {
+
+    /**
+     * 异步请求（流式对话）的最大并发数；OkHttp 默认每个主机只允许5个异步请求，不足以承载长时间占用连接的流
+     */
+    private static final int MAX_ASYNC_REQUESTS = 256;
+
+    /**
+     * 连接超时时间（毫秒）
+     */
+    private final int timeout;
+
+    /**
+     * 读取超时时间（毫秒）
+     */
+    private final int readTimeout;
+
+    /**
+     * HTTP客户端；按连接配置创建时推迟到第一次使用，避免启动阶段加载 OkHttp
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile OkHttpClient httpClient;
+
+    /**
+     * 创建HTTP客户端使用的连接配置，使用外部传入的HTTP客户端时为null
+     */
+    @Getter(AccessLevel.NONE)
+    private final EasyAiFrameworkProperties.Connection connection;
+
+    /**
+     * 外部传入的JSON解析器，为null时使用进程内共享的 {@link AiJson#mapper()}
+     */
+    @Getter(AccessLevel.NONE)
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 基于 objectMapper 的 JsonNode 读取器，解析响应时复用
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile ObjectReader jsonReader;
+
+    /**
+     * 连接统计，使用外部传入的HTTP客户端时为null
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile ConnectionMetrics connectionMetrics;
+
+    /**
+     * 调度配置，为null时不启用调度
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile EasyAiFrameworkProperties.Scheduler schedulerSettings;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, RequestScheduler> schedulers = new ConcurrentHashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, CompressionStats> compressionStats = new ConcurrentHashMap<>();
+
+    /**
+     * 流式内容缓冲使用的直接内存池
+     */
+    private volatile BufferPool bufferPool = new BufferPool();
+
+    /**
+     * 非流式对话的响应缓存，为null时不缓存
+     */
+    private volatile ResponseCache responseCache;
+
+    /**
+     * 请求/响应日志，为null时不记录
+     */
+    private volatile AiJournal journal;
+
+    /**
+     * 链路追踪器，为null时不追踪
+     */
+    @Setter
+    private volatile AiTracer tracer;
+
+    /**
+     * 超时检测等轻量定时任务使用的线程，首次使用时创建
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile ScheduledExecutorService timer;
+
+    /**
+     * 执行由定时器触发的用户回调（如按时间交付合并的内容块），首次使用时创建
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile ExecutorService callbackExecutor;
+
+    public AiServiceContext(int timeout, int readTimeout) {
+        this(timeout, readTimeout, new EasyAiFrameworkProperties.Connection());
+    }
+
+    /**
+     * 按连接配置创建HTTP客户端：连接池大小与空闲保留时间、HTTP/2 PING 保活间隔；客户端在第一次使用时创建
+     */
+    public AiServiceContext(int timeout, int readTimeout, EasyAiFrameworkProperties.Connection connection) {
+        this.timeout = timeout;
+        this.readTimeout = readTimeout;
+        this.connection = connection;
+        this.objectMapper = null;
+    }
+
+    public AiServiceContext(int timeout, int readTimeout, OkHttpClient httpClient, ObjectMapper objectMapper) {
+        this.timeout = timeout;
+        this.readTimeout = readTimeout;
+        this.httpClient = httpClient;
+        this.connection = null;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 获取共享的HTTP客户端，按连接配置创建的上下文在第一次调用时创建
+     */
+    public OkHttpClient getHttpClient() {
+        OkHttpClient current = httpClient;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (httpClient == null) {
+                ConnectionMetrics metrics = new ConnectionMetrics();
+                connectionMetrics = metrics;
+                httpClient = new OkHttpClient.Builder()
+                        .dispatcher(createDispatcher())
+                        .connectionPool(new ConnectionPool(connection.getMaxIdleConnections(),
+                                connection.getKeepAlive(), TimeUnit.MILLISECONDS))
+                        .pingInterval(connection.getPingInterval(), TimeUnit.MILLISECONDS)
+                        .eventListenerFactory(metrics)
+                        .connectTimeout(timeout, TimeUnit.MILLISECONDS)
+                        .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                        .writeTimeout(timeout, TimeUnit.MILLISECONDS)
+                        .build();
+            }
+            return httpClient;
+        }
+    }
+
+    /**
+     * 连接统计，使用外部传入的HTTP客户端时为null
+     */
+    public ConnectionMetrics getConnectionMetrics() {
+        if (connection == null) {
+            return null;
+        }
+        getHttpClient();
+        return connectionMetrics;
+    }
+
+    /**
+     * 获取JSON解析器，未传入时使用进程内共享的实例
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper != null ? objectMapper : AiJson.mapper();
+    }
+
+    /**
+     * 获取 JsonNode 读取器
+     */
+    public ObjectReader getJsonReader() {
+        if (objectMapper == null) {
+            return AiJson.treeReader();
+        }
+        ObjectReader current = jsonReader;
+        if (current == null) {
+            jsonReader = current = objectMapper.readerFor(JsonNode.class);
+        }
+        return current;
+    }
+
+    /**
+     * 在后台线程创建HTTP客户端并预热JSON解析器，使启动期间的类加载与应用自身的初始化并行，
+     * 不阻塞调用方；使用外部传入的客户端与解析器时不做任何事
+     */
+    public void prewarmAsync() {
+        if (objectMapper == null) {
+            AiJson.prewarmAsync();
+        }
+        if (httpClient != null) {
+            return;
+        }
+        Thread thread = new Thread(this::getHttpClient, "easy-ai-http-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 启用请求调度，之后每个提供商的每组端点与凭据各自拥有一个调度器
+     */
+    public void enableScheduling(EasyAiFrameworkProperties.Scheduler settings) {
+        this.schedulerSettings = settings;
+    }
+
+    /**
+     * 获取调度器，未启用调度时返回null
+     *
+     * @param key 调度器键，由提供商名称与端点、API Key的指纹组成，同时作为调度器名称
+     */
+    public RequestScheduler getScheduler(String key) {
+        EasyAiFrameworkProperties.Scheduler settings = schedulerSettings;
+        if (settings == null || !settings.isEnabled()) {
+            return null;
+        }
+        return schedulers.computeIfAbsent(key, name -> createScheduler(name, settings));
+    }
+
+    private static RequestScheduler createScheduler(String name, EasyAiFrameworkProperties.Scheduler settings) {
+        RequestScheduler scheduler = new RequestScheduler(name, settings.getMaxConcurrentRequests(),
+                settings.getQueueCapacity(), settings.getTenantWeights());
+        EasyAiFrameworkProperties.AdaptiveLimit adaptive = settings.getAdaptiveLimit();
+        if (adaptive.isEnabled()) {
+            scheduler.enableAdaptiveLimit(AdaptiveConcurrencyLimit.builder()
+                    .initialLimit(adaptive.getInitialLimit())
+                    .minLimit(adaptive.getMinLimit())
+                    .maxLimit(settings.getMaxConcurrentRequests())
+                    .backoffRatio(adaptive.getBackoffRatio())
+                    .probeMultiplier(adaptive.getProbeMultiplier())
+                    .build());
+        }
+        return scheduler;
+    }
+
+    /**
+     * 已创建的调度器
+     */
+    public Map<String, RequestScheduler> getSchedulers() {
+        return Collections.unmodifiableMap(schedulers);
+    }
+
+    /**
+     * 获取提供商的请求体压缩统计
+     */
+    public CompressionStats getCompressionStats(String providerName) {
+        return compressionStats.computeIfAbsent(providerName, name -> new CompressionStats());
+    }
+
+    /**
+     * 按配置替换流式内容缓冲池，应在服务开始处理请求之前调用
+     */
+    public void configureStreamBuffer(EasyAiFrameworkProperties.StreamBuffer settings) {
+        this.bufferPool = new BufferPool(settings.getSegmentSize(), settings.getMaxPooledSegments(),
+                settings.getMaxBytesPerStream());
+    }
+
+    /**
+     * 启用响应缓存，替换已有的缓存时关闭旧缓存；传入null关闭缓存
+     */
+    public void enableResponseCache(ResponseCache cache) {
+        ResponseCache previous = this.responseCache;
+        this.responseCache = cache;
+        if (previous != null && previous != cache) {
+            previous.close();
+        }
+    }
+
+    /**
+     * 启用请求日志，替换已有的日志时关闭旧日志；传入null停止记录
+     */
+    public void enableJournal(AiJournal journal) {
+        AiJournal previous = this.journal;
+        this.journal = journal;
+        if (previous != null && previous != journal) {
+            previous.close();
+        }
+    }
+
+    /**
+     * 获取共享的定时器，只用于执行很短的检查任务；需要调用用户代码时交给 {@link #getCallbackExecutor()}
+     */
+    public ScheduledExecutorService getTimer() {
+        ScheduledExecutorService current = timer;
+        if (current == null) {
+            synchronized (this) {
+                current = timer;
+                if (current == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread thread = new Thread(r, "easy-ai-timer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    // 大部分检查任务会在到期前被取消，及时移出队列
+                    executor.setRemoveOnCancelPolicy(true);
+                    timer = current = executor;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 获取执行用户回调的线程池；回调可能做网络写出等慢操作，不能占用共享的定时器线程
+     */
+    public ExecutorService getCallbackExecutor() {
+        ExecutorService current = callbackExecutor;
+        if (current == null) {
+            synchronized (this) {
+                current = callbackExecutor;
+                if (current == null) {
+                    callbackExecutor = current = Executors.newCachedThreadPool(r -> {
+                        Thread thread = new Thread(r, "easy-ai-callback");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return current;
+    }
+
+    private static Dispatcher createDispatcher() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_ASYNC_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_ASYNC_REQUESTS);
+        return dispatcher;
+    }
+}
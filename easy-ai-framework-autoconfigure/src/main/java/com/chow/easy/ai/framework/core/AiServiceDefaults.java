@@ -0,0 +1,148 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.buffer.BufferPool;
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * {@link AiService} 默认方法的实现
+ * 只依赖提供商必须实现的 chat / chatStream，供未继承 {@link BaseAiServiceImpl} 的第三方SPI提供商使用；
+ * 这类提供商的流式调用是阻塞的，异步接口在单独的线程中执行，取消时停止交付内容块但无法中断底层请求
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class AiServiceDefaults {
+
+    private static volatile ExecutorService streamExecutor;
+    private static volatile BufferPool bufferPool;
+
+    private AiServiceDefaults() {
+    }
+
+    /**
+     * 在后台线程中执行阻塞的流式对话，立即返回句柄；取消后不再交付内容块，句柄立即结束
+     */
+    static StreamHandle streamAsync(AiService service, List<AiMessage> messages, ChatOptions options,
+                                    Consumer<String> callback) {
+        StreamHandle handle = new StreamHandle();
+        handle.onCancel(() -> handle.complete(null));
+        streamExecutor().execute(() -> {
+            Throwable failure = null;
+            try {
+                service.chatStream(messages, options, chunk -> {
+                    if (handle.isCancelled()) {
+                        return;
+                    }
+                    handle.onEvent();
+                    handle.onDelta();
+                    handle.onChunk();
+                    callback.accept(chunk);
+                });
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+            handle.complete(failure);
+        });
+        return handle;
+    }
+
+    /**
+     * 流式对话并把内容写入共享缓冲池的缓冲区；超过缓冲上限时丢弃之后的内容并在流结束后抛出异常
+     */
+    static PooledTextBuffer streamBuffered(AiService service, List<AiMessage> messages, ChatOptions options,
+                                           Consumer<String> callback) {
+        PooledTextBuffer buffer = bufferPool().newTextBuffer();
+        IllegalStateException[] overflow = new IllegalStateException[1];
+        try {
+            service.chatStream(messages, options, chunk -> {
+                if (overflow[0] != null) {
+                    return;
+                }
+                try {
+                    buffer.accept(chunk);
+                } catch (IllegalStateException e) {
+                    overflow[0] = e;
+                    return;
+                }
+                if (callback != null) {
+                    callback.accept(chunk);
+                }
+            });
+            if (overflow[0] != null) {
+                throw overflow[0];
+            }
+            return buffer.finish();
+        } catch (RuntimeException | Error e) {
+            buffer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 把模型回复解析为指定类型，兼容回复被包裹在说明文字或代码块中的情况
+     */
+    static <T> T readObject(ObjectMapper objectMapper, String providerName, String content, Class<T> type) {
+        if (content == null) {
+            throw new RuntimeException(providerName + " 返回内容为空，无法解析为 " + type.getSimpleName());
+        }
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '{' || c == '[') {
+                start = i;
+                break;
+            }
+        }
+        for (int i = content.length() - 1; i > start; i--) {
+            char c = content.charAt(i);
+            if (c == '}' || c == ']') {
+                end = i;
+                break;
+            }
+        }
+        String json = start >= 0 && end > start ? content.substring(start, end + 1) : content;
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (IOException e) {
+            throw new RuntimeException("解析" + providerName + "结构化输出失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static ExecutorService streamExecutor() {
+        ExecutorService current = streamExecutor;
+        if (current == null) {
+            synchronized (AiServiceDefaults.class) {
+                current = streamExecutor;
+                if (current == null) {
+                    streamExecutor = current = Executors.newCachedThreadPool(r -> {
+                        Thread thread = new Thread(r, "easy-ai-legacy-stream");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return current;
+    }
+
+    private static BufferPool bufferPool() {
+        BufferPool current = bufferPool;
+        if (current == null) {
+            synchronized (AiServiceDefaults.class) {
+                current = bufferPool;
+                if (current == null) {
+                    bufferPool = current = new BufferPool();
+                }
+            }
+        }
+        return current;
+    }
+}
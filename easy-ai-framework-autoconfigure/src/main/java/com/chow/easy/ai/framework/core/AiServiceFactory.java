@@ -1,18 +1,39 @@
 package com.chow.easy.ai.framework.core;
 
+import com.chow.easy.ai.framework.buffer.BufferPool;
+import com.chow.easy.ai.framework.cache.FileResponseCacheStore;
+import com.chow.easy.ai.framework.cache.ResponseCache;
+import com.chow.easy.ai.framework.cache.ResponseCacheStats;
+import com.chow.easy.ai.framework.cache.ResponseCacheStore;
+import com.chow.easy.ai.framework.cache.ShardedResponseCacheStore;
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.journal.AiJournal;
 import com.chow.easy.ai.framework.provider.deepseek.DeepSeekService;
 import com.chow.easy.ai.framework.provider.doubao.DoubaoService;
 import com.chow.easy.ai.framework.provider.openai.OpenAiService;
 import com.chow.easy.ai.framework.provider.siliconflow.SiliconFlowService;
+import com.chow.easy.ai.framework.routing.EnsembleReducer;
+import com.chow.easy.ai.framework.routing.EnsembleService;
+import com.chow.easy.ai.framework.routing.RaceService;
+import com.chow.easy.ai.framework.scheduler.RequestScheduler;
+import com.chow.easy.ai.framework.scheduler.SchedulerStats;
 import com.chow.easy.ai.framework.spi.AiServiceProvider;
 import com.chow.easy.ai.framework.spi.AiServiceProviderLoader;
+import com.chow.easy.ai.framework.spi.AiServiceProviderRegistry;
+import com.chow.easy.ai.framework.trace.AiTracer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AI服务工厂类
@@ -26,18 +47,51 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class AiServiceFactory {
     private final EasyAiFrameworkProperties aiProperties;
+    private final AiServiceProviderRegistry providerRegistry;
+    private final AiServiceContext serviceContext;
     private final Map<String, AiService> serviceCache = new ConcurrentHashMap<>();
+    private final TenantServiceCache tenantServiceCache;
 
     public AiServiceFactory(EasyAiFrameworkProperties aiProperties) {
-        this.aiProperties = aiProperties;
+        this(aiProperties, AiServiceProviderLoader.getRegistry());
+    }
 
-        // 初始化时加载SPI提供商
-        AiServiceProviderLoader.loadProviders();
+    @Autowired
+    public AiServiceFactory(EasyAiFrameworkProperties aiProperties, AiServiceProviderRegistry providerRegistry) {
+        this.aiProperties = aiProperties;
+        this.providerRegistry = providerRegistry;
+        this.serviceContext = new AiServiceContext(aiProperties.getTimeout(), aiProperties.getReadTimeout(),
+                aiProperties.getConnection());
+        if (aiProperties.getScheduler().isEnabled()) {
+            serviceContext.enableScheduling(aiProperties.getScheduler());
+            log.info("请求调度已启用，每个提供商凭据最大并发: {}", aiProperties.getScheduler().getMaxConcurrentRequests());
+        }
+        serviceContext.configureStreamBuffer(aiProperties.getStreamBuffer());
+        if (aiProperties.getResponseCache().isEnabled()) {
+            configureResponseCache(null);
+        }
+        if (aiProperties.getJournal().isEnabled()) {
+            EasyAiFrameworkProperties.Journal journal = aiProperties.getJournal();
+            serviceContext.enableJournal(new AiJournal(Paths.get(journal.getDirectory()), journal.getSegmentSize(),
+                    journal.getBufferSize(), journal.getMaxSegments()));
+        }
+        this.tenantServiceCache = new TenantServiceCache(
+                aiProperties.getTenantCache().getMaxSize(),
+                aiProperties.getTenantCache().getIdleTimeout());
 
-        log.info("AiServiceFactory 初始化完成");
-        log.info("默认提供商: {}", aiProperties.getDefaultProvider());
-        log.info("可用的SPI提供商: {}", AiServiceProviderLoader.getAvailableProviders());
-        log.info("SPI提供商详情:\n{}", AiServiceProviderLoader.getProvidersSummary());
+        EasyAiFrameworkProperties.Startup startup = aiProperties.getStartup();
+        if (!startup.isLazyInit()) {
+            serviceContext.getHttpClient();
+            serviceContext.getJsonReader();
+        } else if (startup.isPrewarm()) {
+            serviceContext.prewarmAsync();
+        }
+        log.info("AiServiceFactory 初始化完成，默认提供商: {}", aiProperties.getDefaultProvider());
+        // 提供商列表需要扫描并实例化所有SPI提供商，延迟初始化时只在调试日志开启时输出
+        if (!startup.isLazyInit() || log.isDebugEnabled()) {
+            log.info("可用的SPI提供商: {}", providerRegistry.getAvailableProviders());
+            log.debug("SPI提供商详情:\n{}", providerRegistry.getProvidersSummary());
+        }
     }
 
     /**
@@ -54,6 +108,206 @@ public class AiServiceFactory {
         return serviceCache.computeIfAbsent(providerName, this::createService);
     }
 
+    /**
+     * 创建竞速服务：同一个请求同时发给各提供商，采用最先成功的回复并取消其余请求
+     * 每次调用都会创建新实例，调用方应持有并复用以累计统计
+     *
+     * @param providerNames 参与竞速的提供商，第一个作为估算赢得耗时的基准
+     */
+    public RaceService race(String... providerNames) {
+        RaceService.Builder builder = RaceService.builder(String.join(",", providerNames));
+        for (String providerName : providerNames) {
+            builder.member(getService(providerName));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 创建并行聚合服务：同一个请求同时发给各提供商，等待全部返回后按归并规则选出最终回复
+     * 需要法定数量或指定模型时使用 {@link EnsembleService#builder(String)}
+     *
+     * @param reducer       归并规则，如 {@link EnsembleReducer#majorityVote()}
+     * @param providerNames 参与聚合的提供商
+     */
+    public EnsembleService ensemble(EnsembleReducer reducer, String... providerNames) {
+        EnsembleService.Builder builder = EnsembleService.builder(String.join(",", providerNames)).reducer(reducer);
+        for (String providerName : providerNames) {
+            builder.member(getService(providerName));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 获取租户专属的AI服务视图
+     * 使用租户自己的API Key，其余配置继承自提供商配置；视图与其他服务共享HTTP客户端和JSON解析器，
+     * 每次调用都带上租户标识，启用调度时按租户加权公平排队
+     *
+     * @param tenantId     租户标识
+     * @param providerName 提供商名称
+     * @param apiKey       租户的API Key
+     * @return 租户服务视图
+     */
+    public AiService getTenantService(String tenantId, String providerName, String apiKey) {
+        return getTenantService(tenantId, providerName, apiKey, null);
+    }
+
+    /**
+     * 获取租户专属的AI服务视图
+     *
+     * @param tenantId     租户标识
+     * @param providerName 提供商名称
+     * @param apiKey       租户的API Key
+     * @param model        租户使用的模型，为空时使用提供商默认模型
+     * @return 租户服务视图
+     */
+    public AiService getTenantService(String tenantId, String providerName, String apiKey, String model) {
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("API key not provided for tenant: " + tenantId);
+        }
+        TenantServiceCache.TenantKey key = new TenantServiceCache.TenantKey(tenantId, providerName, apiKey, model);
+        return tenantServiceCache.get(key, this::createTenantService);
+    }
+
+    /**
+     * 移除指定租户的服务视图缓存
+     */
+    public void evictTenant(String tenantId) {
+        tenantServiceCache.invalidateTenant(tenantId);
+        log.info("租户 {} 的服务缓存已清空", tenantId);
+    }
+
+    /**
+     * 获取租户服务视图缓存
+     */
+    public TenantServiceCache getTenantServiceCache() {
+        return tenantServiceCache;
+    }
+
+    /**
+     * 获取各提供商调度器的统计快照，未启用调度时为空
+     */
+    public List<SchedulerStats> getSchedulerStats() {
+        List<SchedulerStats> stats = new ArrayList<>();
+        for (RequestScheduler scheduler : serviceContext.getSchedulers().values()) {
+            stats.add(scheduler.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 预热所有已配置提供商的连接，最多等待一个连接超时时间
+     *
+     * @param connections 每个提供商的预热连接数
+     * @return 各提供商成功建立的连接数
+     */
+    public Map<String, Integer> warmUpConnections(int connections) {
+        Map<String, CompletableFuture<Integer>> pending = warmUpConnectionsAsync(connections);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(aiProperties.getTimeout());
+        for (Map.Entry<String, CompletableFuture<Integer>> entry : pending.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (Exception e) {
+                log.warn("提供商 {} 连接预热未完成: {}", entry.getKey(), e.toString());
+                result.put(entry.getKey(), 0);
+            }
+        }
+        log.info("连接预热完成: {}, {}", result, serviceContext.getConnectionMetrics());
+        return result;
+    }
+
+    /**
+     * 异步预热所有已配置提供商的连接，会先创建尚未创建的服务实例
+     */
+    public Map<String, CompletableFuture<Integer>> warmUpConnectionsAsync(int connections) {
+        Map<String, CompletableFuture<Integer>> pending = new LinkedHashMap<>();
+        for (String providerName : getConfiguredProviders()) {
+            if (!isProviderConfigured(providerName)) {
+                continue;
+            }
+            try {
+                AiService service = getService(providerName);
+                if (service instanceof BaseAiServiceImpl) {
+                    pending.put(providerName, ((BaseAiServiceImpl) service).warmUp(connections));
+                }
+            } catch (Exception e) {
+                log.warn("提供商 {} 连接预热失败: {}", providerName, e.getMessage());
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 获取HTTP连接统计（新建/复用次数、复用率、建连耗时）
+     */
+    public ConnectionMetrics getConnectionMetrics() {
+        return serviceContext.getConnectionMetrics();
+    }
+
+    /**
+     * 获取提供商的请求体压缩统计
+     */
+    public CompressionStats getCompressionStats(String providerName) {
+        return serviceContext.getCompressionStats(providerName);
+    }
+
+    /**
+     * 获取流式内容缓冲池
+     */
+    public BufferPool getBufferPool() {
+        return serviceContext.getBufferPool();
+    }
+
+    /**
+     * 按配置启用响应缓存
+     *
+     * @param remote 远程存储，为null时使用配置的缓存目录（多个目录按请求哈希分片），未配置目录时只使用本地缓存
+     * @return 新的响应缓存，替换并关闭之前的缓存
+     */
+    public ResponseCache configureResponseCache(ResponseCacheStore remote) {
+        EasyAiFrameworkProperties.ResponseCacheConfig settings = aiProperties.getResponseCache();
+        ResponseCacheStore store = remote != null ? remote : createCacheStore(settings.getDirectories());
+        ResponseCache cache = new ResponseCache(store, settings.getTtl(), settings.getNearMaxEntries(),
+                settings.getWriteQueueCapacity(), settings.getCompressThreshold(), settings.isShareAcrossCredentials());
+        serviceContext.enableResponseCache(cache);
+        log.info("响应缓存已启用，远程存储: {}", store == null ? "无" : store.getName());
+        return cache;
+    }
+
+    /**
+     * 获取响应缓存统计，未启用缓存时返回null
+     */
+    public ResponseCacheStats getResponseCacheStats() {
+        ResponseCache cache = serviceContext.getResponseCache();
+        return cache == null ? null : cache.getStats();
+    }
+
+    private static ResponseCacheStore createCacheStore(List<String> directories) {
+        if (directories == null || directories.isEmpty()) {
+            return null;
+        }
+        List<ResponseCacheStore> shards = new ArrayList<>(directories.size());
+        for (String directory : directories) {
+            shards.add(new FileResponseCacheStore(Paths.get(directory)));
+        }
+        return shards.size() == 1 ? shards.get(0) : new ShardedResponseCacheStore(shards);
+    }
+
+    /**
+     * 关闭响应缓存写回线程和请求日志，写完队列中剩余的条目；作为Bean时由Spring在容器关闭时调用
+     */
+    public void shutdown() {
+        serviceContext.enableResponseCache(null);
+        serviceContext.enableJournal(null);
+    }
+
+    /**
+     * 获取共享的服务运行时上下文
+     */
+    public AiServiceContext getServiceContext() {
+        return serviceContext;
+    }
+
     /**
      * 检查指定提供商是否已配置
      */
@@ -75,7 +329,14 @@ public class AiServiceFactory {
      * 获取所有可用的SPI提供商名称
      */
     public Set<String> getAvailableSpiProviders() {
-        return AiServiceProviderLoader.getAvailableProviders();
+        return providerRegistry.getAvailableProviders();
+    }
+
+    /**
+     * 获取提供商注册表
+     */
+    public AiServiceProviderRegistry getProviderRegistry() {
+        return providerRegistry;
     }
 
     /**
@@ -95,23 +356,23 @@ public class AiServiceFactory {
         log.info("创建 {} 服务实例", providerName);
 
         // 优先使用SPI机制
-        AiServiceProvider spiProvider = AiServiceProviderLoader.getProvider(providerName);
+        AiServiceProvider spiProvider = providerRegistry.getProvider(providerName);
         if (spiProvider != null) {
             log.info("使用SPI提供商创建服务: {} - {}", providerName, spiProvider.getDescription());
-            return spiProvider.createAiService(config, aiProperties.getTimeout(), aiProperties.getReadTimeout());
+            return spiProvider.createAiService(config, serviceContext);
         }
 
         // 回退到硬编码方式（兼容性保证）
         log.info("SPI中未找到提供商 {}，使用硬编码方式创建", providerName);
         switch (providerName.toLowerCase()) {
             case "siliconflow":
-                return new SiliconFlowService(config, aiProperties.getTimeout(), aiProperties.getReadTimeout());
+                return new SiliconFlowService(config, serviceContext);
             case "openai":
-                return new OpenAiService(config, aiProperties.getTimeout(), aiProperties.getReadTimeout());
+                return new OpenAiService(config, serviceContext);
             case "deepseek":
-                return new DeepSeekService(config, aiProperties.getTimeout(), aiProperties.getReadTimeout());
+                return new DeepSeekService(config, serviceContext);
             case "doubao":
-                return new DoubaoService(config, aiProperties.getTimeout(), aiProperties.getReadTimeout());
+                return new DoubaoService(config, serviceContext);
 
             // TODO: 添加其他提供商的实现
             // case "baidu":
@@ -121,8 +382,45 @@ public class AiServiceFactory {
 
             default:
                 throw new IllegalArgumentException("Unsupported provider: " + providerName +
-                        ". 可用的SPI提供商: " + AiServiceProviderLoader.getAvailableProviders());
+                        ". 可用的SPI提供商: " + providerRegistry.getAvailableProviders());
+        }
+    }
+
+    /**
+     * 创建租户服务视图
+     * 租户配置只替换API Key，自定义参数与提供商配置共享同一个Map，不做复制；租户标识与租户选定的模型作为每次调用的单次请求参数。
+     * 只支持复用共享上下文的提供商，否则每个租户视图都会各自持有HTTP客户端与连接池
+     */
+    private AiService createTenantService(TenantServiceCache.TenantKey key) {
+        String providerName = key.getProviderName();
+        EasyAiFrameworkProperties.ProviderConfig base = aiProperties.getProviders().get(providerName);
+        AiServiceProvider spiProvider = providerRegistry.getProvider(providerName);
+        if (spiProvider == null) {
+            throw new IllegalArgumentException("Unsupported provider: " + providerName +
+                    ". 可用的SPI提供商: " + providerRegistry.getAvailableProviders());
+        }
+        if (!spiProvider.isContextAware()) {
+            throw new IllegalArgumentException("提供商 " + providerName + " 不支持租户服务视图："
+                    + "需要重写 createAiService(config, context) 并让 isContextAware() 返回true");
+        }
+
+        EasyAiFrameworkProperties.ProviderConfig tenantConfig = new EasyAiFrameworkProperties.ProviderConfig();
+        tenantConfig.setApiKey(key.getApiKey());
+        if (base != null) {
+            tenantConfig.setApiUrl(base.getApiUrl());
+            tenantConfig.setDefaultModel(base.getDefaultModel());
+            tenantConfig.setEmbeddingModel(base.getEmbeddingModel());
+            tenantConfig.setParameters(base.getParameters());
+            tenantConfig.setCompression(base.getCompression());
+            tenantConfig.setCompressionThreshold(base.getCompressionThreshold());
+        }
+        if (key.getModel() != null && !key.getModel().trim().isEmpty()) {
+            tenantConfig.setDefaultModel(key.getModel());
         }
+
+        log.debug("创建租户服务视图: {}", key);
+        String model = key.getModel() != null && !key.getModel().trim().isEmpty() ? key.getModel() : null;
+        return new TenantAiService(spiProvider.createAiService(tenantConfig, serviceContext), key.getTenantId(), model);
     }
 
     /**
@@ -132,7 +430,7 @@ public class AiServiceFactory {
      * @return 支持的模型列表，如果提供商不存在或不支持则返回null
      */
     public java.util.List<String> getSupportedModels(String providerName) {
-        AiServiceProvider spiProvider = AiServiceProviderLoader.getProvider(providerName);
+        AiServiceProvider spiProvider = providerRegistry.getProvider(providerName);
         return spiProvider != null ? spiProvider.getSupportedModels() : null;
     }
 
@@ -141,6 +439,7 @@ public class AiServiceFactory {
      */
     public void clearCache() {
         serviceCache.clear();
+        tenantServiceCache.clear();
         log.info("AI服务缓存已清空");
     }
 
@@ -157,8 +456,148 @@ public class AiServiceFactory {
      */
     public void reloadSpiProviders() {
         log.info("重新加载SPI提供商...");
-        AiServiceProviderLoader.reload();
+        providerRegistry.reload();
         clearCache(); // 清除缓存，确保使用新加载的提供商
-        log.info("SPI提供商重新加载完成，可用提供商: {}", AiServiceProviderLoader.getAvailableProviders());
+        log.info("SPI提供商重新加载完成，可用提供商: {}", providerRegistry.getAvailableProviders());
+    }
+
+    /**
+     * 不依赖 Spring 创建服务工厂，连接池、调度、缓存与SPI加载和自动配置完全相同
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 服务工厂构建器
+     */
+    public static final class Builder {
+        private EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        private AiServiceProviderRegistry providerRegistry;
+        private ResponseCacheStore responseCacheStore;
+        private AiTracer tracer;
+
+        private Builder() {
+        }
+
+        /**
+         * 以已有的配置为基础，之后的设置会修改该对象
+         */
+        public Builder properties(EasyAiFrameworkProperties properties) {
+            this.properties = properties;
+            return this;
+        }
+
+        public Builder provider(String name, EasyAiFrameworkProperties.ProviderConfig config) {
+            properties.getProviders().put(name, config);
+            return this;
+        }
+
+        /**
+         * 添加提供商，apiUrl 为null时使用提供商的默认地址
+         */
+        public Builder provider(String name, String apiKey, String apiUrl) {
+            EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+            config.setApiKey(apiKey);
+            config.setApiUrl(apiUrl);
+            return provider(name, config);
+        }
+
+        public Builder defaultProvider(String name) {
+            properties.setDefaultProvider(name);
+            return this;
+        }
+
+        /**
+         * @param timeout     连接与写入超时(毫秒)
+         * @param readTimeout 读取超时(毫秒)
+         */
+        public Builder timeout(int timeout, int readTimeout) {
+            properties.setTimeout(timeout);
+            properties.setReadTimeout(readTimeout);
+            return this;
+        }
+
+        public Builder connection(EasyAiFrameworkProperties.Connection connection) {
+            properties.setConnection(connection);
+            return this;
+        }
+
+        /**
+         * 启用请求调度
+         */
+        public Builder scheduler(EasyAiFrameworkProperties.Scheduler scheduler) {
+            scheduler.setEnabled(true);
+            properties.setScheduler(scheduler);
+            return this;
+        }
+
+        /**
+         * 启用响应缓存
+         *
+         * @param settings 缓存配置
+         * @param store    远程存储，为null时使用配置的缓存目录
+         */
+        public Builder responseCache(EasyAiFrameworkProperties.ResponseCacheConfig settings, ResponseCacheStore store) {
+            settings.setEnabled(true);
+            properties.setResponseCache(settings);
+            this.responseCacheStore = store;
+            return this;
+        }
+
+        /**
+         * 启用请求日志
+         */
+        public Builder journal(EasyAiFrameworkProperties.Journal journal) {
+            journal.setEnabled(true);
+            properties.setJournal(journal);
+            return this;
+        }
+
+        public Builder tracer(AiTracer tracer) {
+            this.tracer = tracer;
+            return this;
+        }
+
+        /**
+         * 使用指定的提供商注册表，默认使用全局共享的注册表
+         */
+        public Builder providerRegistry(AiServiceProviderRegistry providerRegistry) {
+            this.providerRegistry = providerRegistry;
+            return this;
+        }
+
+        /**
+         * 从指定的类加载器扫描SPI提供商，适用于插件式加载的作业
+         */
+        public Builder classLoader(ClassLoader classLoader) {
+            return providerRegistry(new AiServiceProviderRegistry(classLoader));
+        }
+
+        /**
+         * 是否延迟初始化SPI提供商、HTTP客户端和JSON解析器，默认开启
+         */
+        public Builder lazyInit(boolean lazyInit) {
+            properties.getStartup().setLazyInit(lazyInit);
+            return this;
+        }
+
+        public AiServiceFactory build() {
+            if (properties.getProviders().isEmpty()) {
+                throw new IllegalArgumentException("至少需要配置一个提供商");
+            }
+            if (responseCacheStore != null) {
+                // 由构造器按目录创建的缓存会被远程存储替换，先关闭以免创建多余的写回线程
+                properties.getResponseCache().setEnabled(false);
+            }
+            AiServiceFactory factory = new AiServiceFactory(properties,
+                    providerRegistry != null ? providerRegistry : AiServiceProviderLoader.getRegistry());
+            if (responseCacheStore != null) {
+                properties.getResponseCache().setEnabled(true);
+                factory.configureResponseCache(responseCacheStore);
+            }
+            factory.getServiceContext().setTracer(tracer);
+            return factory;
+        }
     }
 }
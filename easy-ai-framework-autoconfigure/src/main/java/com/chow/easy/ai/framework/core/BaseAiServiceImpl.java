@@ -1,17 +1,38 @@
 package com.chow.easy.ai.framework.core;
 
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.chow.easy.ai.framework.cache.ResponseCache;
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.journal.AiJournal;
+import com.chow.easy.ai.framework.scheduler.RequestRejectedException;
+import com.chow.easy.ai.framework.scheduler.RequestScheduler;
+import com.chow.easy.ai.framework.stream.StreamPipeline;
+import com.chow.easy.ai.framework.structured.IncrementalJsonDecoder;
+import com.chow.easy.ai.framework.structured.JsonStreamListener;
+import com.chow.easy.ai.framework.trace.AiSpan;
+import com.chow.easy.ai.framework.trace.AiTracer;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -23,18 +44,35 @@ import java.util.function.Consumer;
 @Slf4j
 public abstract class BaseAiServiceImpl implements AiService {
 
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    /**
+     * GenAI 语义约定中的操作名称
+     */
+    protected static final String OPERATION_CHAT = "chat";
+    protected static final String OPERATION_EMBEDDINGS = "embeddings";
+
     protected final EasyAiFrameworkProperties.ProviderConfig config;
+    protected final AiServiceContext context;
     protected final ObjectMapper objectMapper;
+    protected final ObjectReader jsonReader;
     protected final OkHttpClient httpClient;
+    private volatile ObjectWriter cacheKeyWriter;
+    private volatile String schedulerKey;
 
     protected BaseAiServiceImpl(EasyAiFrameworkProperties.ProviderConfig config, int timeout, int readTimeout) {
+        this(config, new AiServiceContext(timeout, readTimeout));
+    }
+
+    /**
+     * 基于共享上下文创建服务，HTTP客户端和JSON解析器由上下文提供
+     */
+    protected BaseAiServiceImpl(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
         this.config = config;
-        this.objectMapper = new ObjectMapper();
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(timeout, TimeUnit.MILLISECONDS)
-                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
-                .writeTimeout(timeout, TimeUnit.MILLISECONDS)
-                .build();
+        this.context = context;
+        this.objectMapper = context.getObjectMapper();
+        this.jsonReader = context.getJsonReader();
+        this.httpClient = context.getHttpClient();
     }
 
     /**
@@ -44,10 +82,17 @@ public abstract class BaseAiServiceImpl implements AiService {
      */
     @Override
     public String chat(String prompt) {
+        return chat(promptMessages(prompt));
+    }
+
+    /**
+     * 单轮提示词对应的消息列表，包含默认系统提示词；包装服务的 chat(String) 同样经过这里，与原服务保持一致
+     */
+    public static List<AiMessage> promptMessages(String prompt) {
         List<AiMessage> messages = new ArrayList<>();
         messages.add(new AiMessage("system", "You are a helpful assistant"));
         messages.add(new AiMessage("user", prompt));
-        return chat(messages);
+        return messages;
     }
 
     /**
@@ -58,6 +103,22 @@ public abstract class BaseAiServiceImpl implements AiService {
     @Override
     public abstract String chat(List<AiMessage> messages);
 
+    /**
+     * 多轮对话，使用单次请求参数覆盖默认参数
+     * 没有覆盖参数时交给 {@link #chat(List)}，否则按标准流程发送；内置提供商重写此方法，
+     * 只实现了 {@link #chat(List)} 的自定义提供商无需改动即可使用单次请求参数
+     *
+     * @param messages
+     * @param options
+     */
+    @Override
+    public String chat(List<AiMessage> messages, ChatOptions options) {
+        if (options == null || options.isEmpty()) {
+            return chat(messages);
+        }
+        return executeChat(messages, options);
+    }
+
     /**
      * 流式对话
      *
@@ -66,10 +127,7 @@ public abstract class BaseAiServiceImpl implements AiService {
      */
     @Override
     public void chatStream(String prompt, Consumer<String> callback) {
-        List<AiMessage> messages = new ArrayList<>();
-        messages.add(new AiMessage("system", "You are a helpful assistant"));
-        messages.add(new AiMessage("user", prompt));
-        chatStream(messages, callback);
+        chatStream(promptMessages(prompt), callback);
     }
 
     /**
@@ -81,12 +139,106 @@ public abstract class BaseAiServiceImpl implements AiService {
     @Override
     public abstract void chatStream(List<AiMessage> messages, Consumer<String> callback);
 
+    /**
+     * 流式多轮对话，使用单次请求参数覆盖默认参数
+     * 没有覆盖参数时交给 {@link #chatStream(List, Consumer)}，否则按标准流程发送
+     *
+     * @param messages
+     * @param options
+     * @param callback
+     */
+    @Override
+    public void chatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        if (options == null || options.isEmpty()) {
+            chatStream(messages, callback);
+            return;
+        }
+        executeChatStream(messages, options, callback);
+    }
+
     /**
      * 获取提供商名称
      */
     @Override
     public abstract String getProviderName();
 
+    /**
+     * 非流式对话的标准流程：构建请求体、发送（经过调度与缓存）、解析；启用追踪时记录各阶段
+     *
+     * @param messages
+     * @param options
+     */
+    protected String executeChat(List<AiMessage> messages, ChatOptions options) {
+        AiSpan span = startSpan(OPERATION_CHAT);
+        try (AiSpan.AiScope ignored = span.makeCurrent()) {
+            Map<String, Object> requestBody = buildRequestBody(messages, false, options, span);
+            String responseBody = sendPost(requestBody, options, span);
+            AiSpan parse = span.phase(AiSpan.PHASE_PARSE);
+            try {
+                return parseResponse(responseBody);
+            } finally {
+                parse.end();
+            }
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 流式对话的标准流程：构建请求体并发送流式请求，失败以错误JSON回调
+     *
+     * @param messages
+     * @param options
+     * @param callback
+     */
+    protected void executeChatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        AiSpan span = startSpan(OPERATION_CHAT);
+        try (AiSpan.AiScope ignored = span.makeCurrent()) {
+            Map<String, Object> requestBody = buildRequestBody(messages, true, options, span);
+            StreamHandle handle = new StreamHandle();
+            sendPostStream(requestBody, options, callback, handle, null, span);
+            if (handle.getError() != null) {
+                span.recordError(handle.getError());
+            }
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 开始一次调用的追踪span，未配置追踪器时返回空操作的span
+     */
+    protected AiSpan startSpan(String operation) {
+        AiTracer tracer = context.getTracer();
+        return tracer == null ? AiSpan.NOOP : tracer.startSpan(operation, getProviderName());
+    }
+
+    /**
+     * 构建请求体并记录 request.build 阶段与请求参数
+     */
+    private Map<String, Object> buildRequestBody(List<AiMessage> messages, boolean stream, ChatOptions options,
+                                                 AiSpan span) {
+        AiSpan build = span.phase(AiSpan.PHASE_BUILD);
+        try {
+            Map<String, Object> requestBody = buildRequestBody(messages, stream, options);
+            span.setRequest(modelOf(requestBody), requestBody);
+            return requestBody;
+        } finally {
+            build.end();
+        }
+    }
+
+    private static String modelOf(Map<String, Object> requestBody) {
+        Object model = requestBody.get("model");
+        return model == null ? null : model.toString();
+    }
+
     /**
      * 检查服务可用性
      */
@@ -100,6 +252,52 @@ public abstract class BaseAiServiceImpl implements AiService {
      */
     protected abstract Map<String, Object> buildRequestBody(List<AiMessage> messages, boolean stream);
 
+    /**
+     * 构建请求体，单次请求参数优先于提供商默认参数
+     * 默认在 {@link #buildRequestBody(List, boolean)} 的结果上叠加单次请求的模型与参数，内置提供商重写此方法直接构建
+     */
+    protected Map<String, Object> buildRequestBody(List<AiMessage> messages, boolean stream, ChatOptions options) {
+        Map<String, Object> requestBody = buildRequestBody(messages, stream);
+        if (options == null || options.isEmpty()) {
+            return requestBody;
+        }
+        Map<String, Object> merged = new HashMap<>(requestBody);
+        if (options.getModel() != null) {
+            merged.put("model", resolveModel(options, modelOf(requestBody)));
+        }
+        Map<String, Object> parameters = resolveParameters(options);
+        for (String key : options.getParameters().keySet()) {
+            merged.put(key, parameters.get(key));
+        }
+        return merged;
+    }
+
+    /**
+     * 解析本次请求生效的参数
+     * 有覆盖参数时返回叠加视图，不复制提供商配置中的参数Map
+     */
+    protected Map<String, Object> resolveParameters(ChatOptions options) {
+        Map<String, Object> defaults = config.getParameters();
+        if (defaults == null) {
+            defaults = Collections.emptyMap();
+        }
+        if (options == null || options.getParameters().isEmpty()) {
+            return defaults;
+        }
+        return new OverlayParameters(options.getParameters(), defaults);
+    }
+
+    /**
+     * 解析本次请求使用的模型：请求参数 > 提供商默认模型 > 内置默认模型
+     */
+    protected String resolveModel(ChatOptions options, String fallbackModel) {
+        if (options != null && options.getModel() != null && !options.getModel().trim().isEmpty()) {
+            return options.getModel();
+        }
+        String model = config.getDefaultModel();
+        return model != null && !model.trim().isEmpty() ? model : fallbackModel;
+    }
+
     /**
      * 解析响应
      */
@@ -115,29 +313,711 @@ public abstract class BaseAiServiceImpl implements AiService {
      */
     protected abstract String getApiEndpoint();
 
+    /**
+     * 异步流式多轮对话，立即返回可取消的句柄
+     * 流在 OkHttp 调度线程上读取；取消句柄会中断底层请求，提供商停止生成
+     *
+     * @param messages
+     * @param options
+     * @param callback
+     */
+    @Override
+    public StreamHandle chatStreamAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return streamAsync(messages, options, callback, null, new StreamHandle());
+    }
+
+    /**
+     * 异步结构化对话：以流式方式请求，流正常结束后通过 {@link StreamHandle#getResult()} 取得完整结果
+     * 与 {@link #complete} 相比可以随时取消并停止生成，适合竞速、并行聚合等需要放弃部分请求的场景
+     *
+     * @param messages
+     * @param options
+     * @param callback
+     */
+    @Override
+    public StreamHandle completeAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        StreamCompletionCollector collector = new StreamCompletionCollector(objectMapper);
+        StreamHandle handle = new StreamHandle();
+        handle.collectResult(() -> {
+            if (handle.isStopped()) {
+                collector.markStopped();
+            }
+            return collector.toCompletion();
+        });
+        return streamAsync(messages, options, chunk -> {
+            collector.appendContent(chunk);
+            callback.accept(chunk);
+        }, collector::onLine, handle);
+    }
+
+    private StreamHandle streamAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback,
+                                     Consumer<String> lineObserver, StreamHandle handle) {
+        try {
+            ChatOptions effective = options == null ? ChatOptions.DEFAULT : options;
+            Deadline deadline = effective.resolveDeadline();
+            handle.withDeadline(deadline);
+            AiSpan span = startSpan(OPERATION_CHAT);
+            handle.getCompletion().whenComplete((h, e) -> {
+                if (h.getError() != null) {
+                    span.recordError(h.getError());
+                }
+                span.end();
+            });
+            Map<String, Object> requestBody = buildRequestBody(messages, true, effective, span);
+            Request request = buildRequest(getApiEndpoint(), requestBody, true, span);
+            RequestScheduler scheduler = context.getScheduler(schedulerKey());
+            if (scheduler == null) {
+                enqueueStream(request, callback, lineObserver, handle, deadline, effective);
+                return handle;
+            }
+            // 排队期间取消时移出调度队列，获得执行机会后再发起请求，流结束时归还
+            CompletableFuture<RequestScheduler.Permit> ticket =
+                    scheduler.schedule(effective.getPriority(), effective.getTenantId(), deadline);
+            handle.onCancel(() -> {
+                if (ticket.cancel(false)) {
+                    handle.complete(null);
+                }
+            });
+            ticket.whenComplete((permit, e) -> {
+                if (permit != null) {
+                    long grantedNanos = System.nanoTime();
+                    handle.getCompletion().whenComplete((h, ex) -> releasePermit(permit, h, grantedNanos));
+                    if (handle.isCancelled()) {
+                        handle.complete(null);
+                    } else {
+                        enqueueStream(request, callback, lineObserver, handle, deadline, effective);
+                    }
+                } else if (!ticket.isCancelled()) {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    log.warn("{} 流式聊天请求未被调度: {}", getProviderName(), cause.getMessage());
+                    callback.accept("{\"error\": \"" + cause.getMessage() + "\"}");
+                    handle.complete(cause);
+                }
+            });
+        } catch (Exception e) {
+            log.error("{} 流式聊天请求失败", getProviderName(), e);
+            callback.accept("{\"error\": \"" + e.getMessage() + "\"}");
+            handle.complete(e);
+        }
+        return handle;
+    }
+
+    private void enqueueStream(Request request, Consumer<String> callback, Consumer<String> lineObserver,
+                               StreamHandle handle, Deadline deadline, ChatOptions options) {
+        try {
+            Call call = newCall(request, deadline);
+            handle.bind(call);
+            watchFirstEvent(handle, options.getFirstTokenTimeoutMillis());
+            CallTrace trace = CallTrace.of(request);
+            if (trace != null) {
+                trace.requestSent();
+            }
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    Throwable cause = handle.failureOf(e);
+                    journalError(call.request(), 0, cause.getMessage());
+                    if (!handle.isCancelled()) {
+                        log.error("{} 流式聊天请求失败", getProviderName(), cause);
+                        callback.accept("{\"error\": \"" + cause.getMessage() + "\"}");
+                    }
+                    handle.complete(cause);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    // 回调在 OkHttp 调度线程上执行，恢复调用方的追踪上下文
+                    try (Response r = response;
+                         AiSpan.AiScope ignored = trace == null ? AiSpan.AiScope.NOOP : trace.span.makeCurrent()) {
+                        readStream(r, callback, handle, lineObserver, options);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("{} 流式聊天请求失败", getProviderName(), e);
+            callback.accept("{\"error\": \"" + e.getMessage() + "\"}");
+            handle.complete(e);
+        }
+    }
+
+    /**
+     * 多轮对话，返回包含工具调用、结束原因和用量的结构化结果
+     *
+     * @param messages
+     * @param options
+     */
+    @Override
+    public ChatCompletion complete(List<AiMessage> messages, ChatOptions options) {
+        AiSpan span = startSpan(OPERATION_CHAT);
+        try (AiSpan.AiScope ignored = span.makeCurrent()) {
+            Map<String, Object> requestBody = buildRequestBody(messages, false, options, span);
+            String responseBody = sendPost(requestBody, options, span);
+            AiSpan parse = span.phase(AiSpan.PHASE_PARSE);
+            try {
+                return parseCompletion(responseBody);
+            } finally {
+                parse.end();
+            }
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 流式多轮对话，内容块实时回调，结束后返回聚合的结构化结果（含流式工具调用）
+     *
+     * @param messages
+     * @param options
+     * @param callback
+     */
+    @Override
+    public ChatCompletion completeStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        AiSpan span = startSpan(OPERATION_CHAT);
+        try (AiSpan.AiScope ignored = span.makeCurrent()) {
+            Map<String, Object> requestBody = buildRequestBody(messages, true, options, span);
+            StreamCompletionCollector collector = new StreamCompletionCollector(objectMapper);
+            StreamHandle handle = new StreamHandle();
+            sendPostStream(requestBody, options, chunk -> {
+                collector.appendContent(chunk);
+                callback.accept(chunk);
+            }, handle, collector::onLine, span);
+            Throwable error = handle.getError();
+            if (error instanceof DeadlineExceededException || error instanceof RequestRejectedException) {
+                throw (RuntimeException) error;
+            }
+            if (error != null) {
+                throw new RuntimeException(getProviderName() + " 流式API调用失败: " + error.getMessage(), error);
+            }
+            if (handle.isStopped()) {
+                collector.markStopped();
+            }
+            ChatCompletion completion = collector.toCompletion();
+            span.setResponse(null, completion.getFinishReason(),
+                    completion.getPromptTokens(), completion.getCompletionTokens());
+            return completion;
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 池化缓冲的流式对话，失败时归还已占用的分段并抛出异常；
+     * 内容超过缓冲区上限时立即中断上游请求，抛出 IllegalStateException
+     */
+    @Override
+    public PooledTextBuffer chatStreamBuffered(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        PooledTextBuffer buffer = context.getBufferPool().newTextBuffer();
+        AiSpan span = startSpan(OPERATION_CHAT);
+        try (AiSpan.AiScope ignored = span.makeCurrent()) {
+            Map<String, Object> requestBody = buildRequestBody(messages, true, options, span);
+            StreamHandle handle = new StreamHandle();
+            boolean[] overflowed = new boolean[1];
+            sendPostStream(requestBody, options, chunk -> {
+                if (overflowed[0]) {
+                    return;
+                }
+                try {
+                    buffer.accept(chunk);
+                } catch (IllegalStateException e) {
+                    // 只中断一次，之后到达的内容块直接丢弃，不再逐块报错
+                    overflowed[0] = true;
+                    handle.abort(e);
+                    return;
+                }
+                if (callback != null) {
+                    callback.accept(chunk);
+                }
+            }, handle, null, span);
+            Throwable error = handle.getError();
+            if (error instanceof DeadlineExceededException || error instanceof RequestRejectedException
+                    || error instanceof IllegalStateException) {
+                throw (RuntimeException) error;
+            }
+            if (error != null) {
+                throw new RuntimeException(getProviderName() + " 流式API调用失败: " + error.getMessage(), error);
+            }
+            return buffer.finish();
+        } catch (RuntimeException e) {
+            buffer.close();
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * 结构化输出
+     */
+    @Override
+    public <T> T chatForObject(List<AiMessage> messages, Class<T> type, ChatOptions options) {
+        return readObject(chat(messages, withJsonMode(options)), type);
+    }
+
+    /**
+     * 流式结构化输出，内容块直接喂给增量解码器
+     */
+    @Override
+    public <T> T chatStreamForObject(List<AiMessage> messages, Class<T> type, ChatOptions options,
+                                     JsonStreamListener listener) {
+        IncrementalJsonDecoder decoder = new IncrementalJsonDecoder(objectMapper, listener);
+        ChatCompletion completion = completeStream(messages, withJsonMode(options), decoder::feed);
+        decoder.end();
+        return readObject(completion.getContent(), type);
+    }
+
+    /**
+     * 未指定 response_format 时开启 json_object 模式
+     * 注意部分提供商要求提示词中出现 "json" 字样才接受该模式
+     */
+    protected ChatOptions withJsonMode(ChatOptions options) {
+        ChatOptions base = options == null ? ChatOptions.DEFAULT : options;
+        if (resolveParameters(base).containsKey("response_format")) {
+            return base;
+        }
+        return base.toBuilder().parameter("response_format", Collections.singletonMap("type", "json_object")).build();
+    }
+
+    /**
+     * 把模型回复解析为指定类型，兼容回复被包裹在说明文字或代码块中的情况
+     */
+    protected <T> T readObject(String content, Class<T> type) {
+        return AiServiceDefaults.readObject(objectMapper, getProviderName(), content, type);
+    }
+
+    /**
+     * 按OpenAI兼容格式解析完整响应
+     */
+    protected ChatCompletion parseCompletion(String responseBody) {
+        JsonNode root;
+        try {
+            root = jsonReader.readTree(responseBody);
+        } catch (IOException e) {
+            throw new RuntimeException("解析响应失败: " + e.getMessage(), e);
+        }
+
+        if (root.has("error")) {
+            JsonNode error = root.get("error");
+            String errorMessage = error.has("message") ? error.get("message").asText() : "Unknown error";
+            throw new RuntimeException(getProviderName() + " API 错误: " + errorMessage);
+        }
+
+        JsonNode choice = root.path("choices").path(0);
+        if (choice.isMissingNode()) {
+            throw new RuntimeException("无法解析 " + getProviderName() + " 响应: " + responseBody);
+        }
+
+        ChatCompletion completion = new ChatCompletion();
+        JsonNode message = choice.path("message");
+        if (message.hasNonNull("content")) {
+            completion.setContent(message.get("content").asText());
+        }
+        for (JsonNode toolCall : message.path("tool_calls")) {
+            JsonNode function = toolCall.path("function");
+            completion.getToolCalls().add(new ToolCall(
+                    toolCall.path("id").asText(null),
+                    function.path("name").asText(null),
+                    function.path("arguments").asText("")));
+        }
+        if (choice.hasNonNull("finish_reason")) {
+            completion.setFinishReason(choice.get("finish_reason").asText());
+        }
+        for (JsonNode token : choice.path("logprobs").path("content")) {
+            if (token.has("logprob")) {
+                completion.getTokenLogprobs().add(token.get("logprob").asDouble());
+            }
+        }
+        JsonNode usage = root.path("usage");
+        completion.setPromptTokens(usage.path("prompt_tokens").asInt(-1));
+        completion.setCompletionTokens(usage.path("completion_tokens").asInt(-1));
+        return completion;
+    }
+
+    /**
+     * 转换消息格式为OpenAI兼容格式，包含工具调用及工具结果字段
+     */
+    protected List<Map<String, Object>> convertMessages(List<AiMessage> messages) {
+        List<Map<String, Object>> converted = new ArrayList<>(messages.size());
+        for (AiMessage msg : messages) {
+            Map<String, Object> message = new HashMap<>();
+            message.put("role", msg.getRole());
+            message.put("content", msg.getPrompt() != null ? msg.getPrompt() : msg.getContent());
+            if (msg.getToolCalls() != null && !msg.getToolCalls().isEmpty()) {
+                List<Map<String, Object>> toolCalls = new ArrayList<>(msg.getToolCalls().size());
+                for (ToolCall call : msg.getToolCalls()) {
+                    Map<String, Object> function = new HashMap<>();
+                    function.put("name", call.getName());
+                    function.put("arguments", call.getArguments());
+                    Map<String, Object> toolCall = new HashMap<>();
+                    toolCall.put("id", call.getId());
+                    toolCall.put("type", "function");
+                    toolCall.put("function", function);
+                    toolCalls.add(toolCall);
+                }
+                message.put("tool_calls", toolCalls);
+            }
+            if (msg.getToolCallId() != null) {
+                message.put("tool_call_id", msg.getToolCallId());
+            }
+            converted.add(message);
+        }
+        return converted;
+    }
+
+    /**
+     * 预热连接：并发发送轻量的GET请求，收到任意HTTP响应即说明连接（含DNS、TCP、TLS）已建立并留在连接池中。
+     * HTTP/1.1 下每个并发请求占用一条连接；HTTP/2 下并发请求会复用同一条连接
+     *
+     * @param connections 并发请求数
+     * @return 成功建立连接的请求数
+     */
+    public CompletableFuture<Integer> warmUp(int connections) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        if (connections <= 0) {
+            result.complete(0);
+            return result;
+        }
+        Request request = new Request.Builder()
+                .url(getWarmupUrl())
+                .addHeader("Authorization", "Bearer " + config.getApiKey())
+                .get()
+                .build();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(connections);
+        for (int i = 0; i < connections; i++) {
+            httpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    log.debug("{} 连接预热失败: {}", getProviderName(), e.getMessage());
+                    done();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                    succeeded.incrementAndGet();
+                    done();
+                }
+
+                private void done() {
+                    if (remaining.decrementAndGet() == 0) {
+                        result.complete(succeeded.get());
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 预热请求的地址，默认为OpenAI兼容接口的模型列表，不消耗token
+     */
+    protected String getWarmupUrl() {
+        return config.getApiUrl() + "/models";
+    }
+
+    /**
+     * 向量化文本，返回的向量顺序与输入一致
+     * 模型优先取单次请求参数中的模型，其次为提供商配置的 embedding-model
+     */
+    @Override
+    public float[][] embed(List<String> texts, ChatOptions options) {
+        ChatOptions effective = options == null ? ChatOptions.DEFAULT : options;
+        String model = effective.getModel() != null ? effective.getModel() : config.getEmbeddingModel();
+        if (model == null || model.trim().isEmpty()) {
+            throw new IllegalArgumentException(getProviderName() + " 未配置 embedding-model");
+        }
+        float[][] vectors = new float[texts.size()][];
+        if (texts.isEmpty()) {
+            return vectors;
+        }
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("input", texts);
+        AiSpan span = startSpan(OPERATION_EMBEDDINGS);
+        try (AiSpan.AiScope ignored = span.makeCurrent()) {
+            span.setRequest(model, null);
+            String responseBody = sendPost(getEmbeddingEndpoint(), requestBody, effective, span);
+            AiSpan parse = span.phase(AiSpan.PHASE_PARSE);
+            try {
+                return parseEmbeddings(responseBody, vectors);
+            } finally {
+                parse.end();
+            }
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private float[][] parseEmbeddings(String responseBody, float[][] vectors) {
+        JsonNode root;
+        try {
+            root = jsonReader.readTree(responseBody);
+        } catch (IOException e) {
+            throw new RuntimeException("解析向量响应失败: " + e.getMessage(), e);
+        }
+        if (root.has("error")) {
+            throw new RuntimeException(getProviderName() + " API 错误: " + root.path("error").path("message").asText("Unknown error"));
+        }
+        int position = 0;
+        for (JsonNode item : root.path("data")) {
+            int index = item.path("index").asInt(position++);
+            JsonNode embedding = item.path("embedding");
+            float[] vector = new float[embedding.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) embedding.get(i).asDouble();
+            }
+            if (index >= 0 && index < vectors.length) {
+                vectors[index] = vector;
+            }
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i] == null) {
+                throw new RuntimeException(getProviderName() + " 向量响应缺少第" + i + "条结果");
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * 向量化端点，OpenAI兼容接口均为 /embeddings
+     */
+    protected String getEmbeddingEndpoint() {
+        return "/embeddings";
+    }
+
+    /**
+     * 构建HTTP请求
+     */
+    protected Request buildRequest(Map<String, Object> requestBody, boolean stream) throws IOException {
+        return buildRequest(getApiEndpoint(), requestBody, stream, AiSpan.NOOP);
+    }
+
+    private Request buildRequest(String endpoint, Map<String, Object> requestBody, boolean stream, AiSpan span)
+            throws IOException {
+        byte[] json;
+        AiSpan serialize = span.phase(AiSpan.PHASE_SERIALIZE);
+        try {
+            json = objectMapper.writeValueAsBytes(requestBody);
+        } finally {
+            serialize.end();
+        }
+
+        Request.Builder builder = new Request.Builder()
+                .url(config.getApiUrl() + endpoint)
+                .addHeader("Authorization", "Bearer " + config.getApiKey())
+                .addHeader("Content-Type", "application/json");
+        if (stream) {
+            builder.addHeader("Accept", "text/event-stream");
+        }
+        AiJournal journal = context.getJournal();
+        if (journal != null) {
+            long exchangeId = journal.recordRequest(getProviderName(), endpoint, json, stream);
+            builder.tag(JournalExchange.class, new JournalExchange(exchangeId));
+        }
+        if (span != AiSpan.NOOP) {
+            builder.tag(CallTrace.class, new CallTrace(span));
+        }
+        return builder.post(createBody(json, builder)).build();
+    }
+
+    /**
+     * 创建请求体；提供商开启gzip且请求体达到阈值时压缩发送
+     */
+    private RequestBody createBody(byte[] json, Request.Builder builder) {
+        if (config.getCompression() != EasyAiFrameworkProperties.Compression.GZIP) {
+            return RequestBody.create(JSON, json);
+        }
+        CompressionStats stats = context.getCompressionStats(getProviderName());
+        if (json.length < config.getCompressionThreshold()) {
+            stats.recordSkipped();
+            return RequestBody.create(JSON, json);
+        }
+        builder.addHeader("Content-Encoding", "gzip");
+        return new GzipRequestBody(JSON, json, stats);
+    }
+
     /**
      * 发送POST请求
      */
     protected String sendPost(Map<String, Object> requestBody) {
+        return sendPost(requestBody, ChatOptions.DEFAULT);
+    }
+
+    /**
+     * 发送POST请求，启用调度时先按请求的优先级、租户和截止时间排队；
+     * 启用响应缓存时先按规范化的请求体查询缓存，命中则不发送请求
+     */
+    protected String sendPost(Map<String, Object> requestBody, ChatOptions options) {
+        return sendPost(requestBody, options, null);
+    }
+
+    private String sendPost(Map<String, Object> requestBody, ChatOptions options, AiSpan span) {
+        ResponseCache cache = context.getResponseCache();
+        if (cache == null || (options != null && options.isSkipCache())) {
+            return sendPost(null, requestBody, options, span);
+        }
+        // 先固定截止时间，等待相同请求和超时后自行调用共享同一个时间预算
+        ChatOptions effective = options == null ? ChatOptions.DEFAULT : options.withResolvedDeadline();
+        Deadline deadline = effective.getDeadline();
+        boolean[] loaded = new boolean[1];
+        String responseBody = cache.getOrLoad(cacheKey(requestBody, cache.isShareAcrossCredentials()), () -> {
+            loaded[0] = true;
+            return sendPost(null, requestBody, effective, span);
+        }, this::isCacheable, deadline == null ? Long.MAX_VALUE : deadline.remainingNanos());
+        if (span != null) {
+            span.setAttribute("easy_ai.cache.hit", String.valueOf(!loaded[0]));
+        }
+        return responseBody;
+    }
+
+    /**
+     * 响应缓存键：提供商、对话端点、API Key指纹和按键排序序列化的请求体
+     */
+    protected String cacheKey(Map<String, Object> requestBody) {
+        return cacheKey(requestBody, false);
+    }
+
+    /**
+     * 响应缓存键
+     *
+     * @param shareAcrossCredentials 为true时不包含API Key指纹，同一端点的不同账号共享缓存
+     */
+    protected String cacheKey(Map<String, Object> requestBody, boolean shareAcrossCredentials) {
+        ObjectWriter writer = cacheKeyWriter;
+        if (writer == null) {
+            cacheKeyWriter = writer = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        }
+        String namespace = getProviderName() + " " + config.getApiUrl() + getApiEndpoint();
+        if (!shareAcrossCredentials) {
+            namespace += " " + credentialFingerprint();
+        }
+        try {
+            return ResponseCache.key(namespace, writer.writeValueAsBytes(requestBody));
+        } catch (IOException e) {
+            throw new RuntimeException("计算缓存键失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 只缓存成功的对话响应：choices 为非空数组，且没有 finish_reason 为 error 的选项；
+     * 部分提供商以200状态返回的 error 响应没有 choices，同样不缓存。按解析结果判断，回复内容中出现 "error" 不影响缓存
+     */
+    private boolean isCacheable(String responseBody) {
+        JsonNode choices;
+        try {
+            choices = jsonReader.readTree(responseBody).get("choices");
+        } catch (IOException e) {
+            return false;
+        }
+        if (choices == null || !choices.isArray() || choices.size() == 0) {
+            return false;
+        }
+        for (JsonNode choice : choices) {
+            if ("error".equals(choice.path("finish_reason").asText(null))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 发送POST请求到指定端点，endpoint为null时使用对话端点；span为null时（子类直接调用）单独创建span
+     */
+    private String sendPost(String endpoint, Map<String, Object> requestBody, ChatOptions options, AiSpan span) {
+        boolean ownSpan = span == null;
+        if (ownSpan) {
+            span = startSpan(endpoint == null ? OPERATION_CHAT : OPERATION_EMBEDDINGS);
+            span.setRequest(modelOf(requestBody), requestBody);
+        }
+        try {
+            String responseBody = execute(endpoint == null ? getApiEndpoint() : endpoint, requestBody, options, span);
+            if (span.isRecording()) {
+                recordUsage(span, responseBody);
+            }
+            return responseBody;
+        } catch (RuntimeException e) {
+            if (ownSpan) {
+                span.recordError(e);
+            }
+            throw e;
+        } finally {
+            if (ownSpan) {
+                span.end();
+            }
+        }
+    }
+
+    /**
+     * 把响应中的模型、结束原因和token用量记录到span，只在span实际记录时调用
+     */
+    private void recordUsage(AiSpan span, String responseBody) {
         try {
-            String json = objectMapper.writeValueAsString(requestBody);
-            RequestBody body = RequestBody.create(MediaType.get("application/json"), json);
+            JsonNode root = jsonReader.readTree(responseBody);
+            JsonNode usage = root.path("usage");
+            span.setResponse(root.path("model").asText(null),
+                    root.path("choices").path(0).path("finish_reason").asText(null),
+                    usage.path("prompt_tokens").asInt(-1),
+                    usage.path("completion_tokens").asInt(-1));
+        } catch (IOException | RuntimeException e) {
+            log.debug("解析响应用量失败: {}", e.getMessage());
+        }
+    }
 
-            Request request = new Request.Builder()
-                    .url(config.getApiUrl() + getApiEndpoint())
-                    .addHeader("Authorization", "Bearer " + config.getApiKey())
-                    .addHeader("Content-Type", "application/json")
-                    .post(body)
-                    .build();
+    private String execute(String endpoint, Map<String, Object> requestBody, ChatOptions options, AiSpan span) {
+        ChatOptions effective = options == null ? ChatOptions.DEFAULT : options;
+        Deadline deadline = effective.resolveDeadline();
+        RequestScheduler.Permit permit = acquirePermit(effective, deadline);
+        long grantedNanos = System.nanoTime();
+        long rttNanos = -1;
+        int status = 0;
+        IOException failure = null;
+        try {
+            Request request = buildRequest(endpoint, requestBody, false, span);
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = newCall(request, deadline).execute()) {
+                status = response.code();
                 if (!response.isSuccessful()) {
+                    journalError(request, response.code(), response.message());
                     throw new RuntimeException("Request failed: " + response.code() + " " + response.message());
                 }
-                return response.body().string();
+                String body = response.body().string();
+                rttNanos = System.nanoTime() - grantedNanos;
+                AiJournal journal = context.getJournal();
+                long exchangeId = exchangeIdOf(request);
+                if (journal != null && exchangeId >= 0) {
+                    journal.recordResponse(exchangeId, response.code(), body);
+                }
+                return body;
+            } catch (IOException e) {
+                journalError(request, 0, e.getMessage());
+                throw e;
             }
         } catch (IOException e) {
+            failure = e;
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException(getProviderName() + " 请求超过截止时间", e);
+            }
             throw new RuntimeException("Failed to send request", e);
+        } finally {
+            if (permit != null) {
+                if (rttNanos >= 0) {
+                    permit.onSuccess(rttNanos);
+                } else if (isOverload(status, failure)) {
+                    permit.onDropped();
+                } else {
+                    permit.release();
+                }
+            }
         }
     }
 
@@ -145,32 +1025,286 @@ public abstract class BaseAiServiceImpl implements AiService {
      * 发送流式POST请求
      */
     protected void sendPostStream(Map<String, Object> requestBody, Consumer<String> callback) {
-        try {
-            String json = objectMapper.writeValueAsString(requestBody);
-            RequestBody body = RequestBody.create(MediaType.get("application/json"), json);
-
-            Request request = new Request.Builder()
-                    .url(config.getApiUrl() + getApiEndpoint())
-                    .addHeader("Authorization", "Bearer " + config.getApiKey())
-                    .addHeader("Content-Type", "application/json")
-                    .addHeader("Accept", "text/event-stream")
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    callback.accept("{\"error\": \"Request failed: " + response.code() + "\"}");
-                    return;
+        sendPostStream(requestBody, ChatOptions.DEFAULT, callback);
+    }
+
+    /**
+     * 发送流式POST请求，启用调度时先排队，整个流结束后才归还执行机会
+     */
+    protected void sendPostStream(Map<String, Object> requestBody, ChatOptions options, Consumer<String> callback) {
+        sendPostStream(requestBody, options, callback, new StreamHandle(), null, null);
+    }
+
+    /**
+     * 发送流式POST请求，句柄被取消时立即中断请求
+     */
+    protected void sendPostStream(Map<String, Object> requestBody, Consumer<String> callback, StreamHandle handle) {
+        sendPostStream(requestBody, ChatOptions.DEFAULT, callback, handle, null, null);
+    }
+
+    /**
+     * 发送流式POST请求，lineObserver 可在提供商解析前观察原始SSE行；span为null时（子类直接调用）单独创建span
+     */
+    private void sendPostStream(Map<String, Object> requestBody, ChatOptions options, Consumer<String> callback,
+                                StreamHandle handle, Consumer<String> lineObserver, AiSpan span) {
+        if (span == null) {
+            AiSpan own = startSpan(OPERATION_CHAT);
+            own.setRequest(modelOf(requestBody), requestBody);
+            try {
+                sendPostStream(requestBody, options, callback, handle, lineObserver, own);
+            } finally {
+                if (handle.getError() != null) {
+                    own.recordError(handle.getError());
                 }
+                own.end();
+            }
+            return;
+        }
+        ChatOptions effective = options == null ? ChatOptions.DEFAULT : options;
+        Deadline deadline = effective.resolveDeadline();
+        handle.withDeadline(deadline);
+        RequestScheduler.Permit permit = null;
+        long grantedNanos = 0;
+        Request request = null;
+        try {
+            permit = acquirePermit(effective, deadline);
+            grantedNanos = System.nanoTime();
+            request = buildRequest(getApiEndpoint(), requestBody, true, span);
+            Call call = newCall(request, deadline);
+            handle.bind(call);
+            watchFirstEvent(handle, effective.getFirstTokenTimeoutMillis());
+            CallTrace trace = CallTrace.of(request);
+            if (trace != null) {
+                trace.requestSent();
+            }
+            try (Response response = call.execute()) {
+                readStream(response, callback, handle, lineObserver, effective);
+            } catch (IOException e) {
+                journalError(request, 0, e.getMessage());
+                throw e;
+            }
+        } catch (Exception e) {
+            Throwable cause = handle.failureOf(e);
+            if (!handle.isCancelled()) {
+                callback.accept("{\"error\": \"" + cause.getMessage() + "\"}");
+            }
+            handle.complete(cause);
+        } finally {
+            if (permit != null) {
+                releasePermit(permit, handle, grantedNanos);
+            }
+        }
+    }
+
+    /**
+     * 按流的结果归还执行许可：正常结束时上报从获得执行机会到首个事件的耗时，提供商过载时上报过载，
+     * 被取消或其他失败不上报样本
+     */
+    private static void releasePermit(RequestScheduler.Permit permit, StreamHandle handle, long grantedNanos) {
+        Throwable error = handle.getError();
+        if (handle.isCancelled()) {
+            permit.release();
+        } else if (isOverload(handle.getStatusCode(), error)) {
+            permit.onDropped();
+        } else if (error != null) {
+            permit.release();
+        } else {
+            long firstEvent = handle.firstEventNanos();
+            permit.onSuccess((firstEvent == 0 ? System.nanoTime() : firstEvent) - grantedNanos);
+        }
+    }
+
+    /**
+     * 429、5xx以及读取超时说明提供商已过载
+     */
+    private static boolean isOverload(int status, Throwable error) {
+        if (status == 429 || status >= 500) {
+            return true;
+        }
+        return error instanceof SocketTimeoutException
+                || error != null && error.getCause() instanceof SocketTimeoutException;
+    }
+
+    /**
+     * 请求对应的日志交换ID，未记录日志时返回-1
+     */
+    private static long exchangeIdOf(Request request) {
+        JournalExchange exchange = request.tag(JournalExchange.class);
+        return exchange == null ? -1 : exchange.id;
+    }
+
+    private void journalError(Request request, int status, String message) {
+        AiJournal journal = context.getJournal();
+        long exchangeId = exchangeIdOf(request);
+        if (journal != null && exchangeId >= 0) {
+            journal.recordError(exchangeId, status, message);
+        }
+    }
 
-                BufferedReader reader = new BufferedReader(new StringReader(response.body().string()));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    parseStreamResponse(line, callback);
+    /**
+     * 挂在请求上的日志交换ID
+     */
+    private static final class JournalExchange {
+        private final long id;
+
+        private JournalExchange(long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * 调度器键：提供商名称加端点与API Key的指纹
+     * 限流与过载发生在端点加凭据的粒度上，使用各自API Key的租户视图分别拥有并发上限与自适应限流，
+     * 一个Key触发的429不会压低其他Key的并发
+     */
+    private String schedulerKey() {
+        String key = schedulerKey;
+        if (key == null) {
+            key = getProviderName() + "#" + credentialFingerprint();
+            schedulerKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * 端点与API Key的指纹，用于区分凭据而不暴露Key本身
+     */
+    protected String credentialFingerprint() {
+        String apiKey = config.getApiKey() == null ? "" : config.getApiKey();
+        return ResponseCache.key(String.valueOf(config.getApiUrl()), apiKey.getBytes(StandardCharsets.UTF_8))
+                .substring(0, 12);
+    }
+
+    /**
+     * 未启用调度时返回null
+     */
+    private RequestScheduler.Permit acquirePermit(ChatOptions options, Deadline deadline) {
+        RequestScheduler scheduler = context.getScheduler(schedulerKey());
+        if (scheduler == null) {
+            return null;
+        }
+        return scheduler.acquire(options.getPriority(), options.getTenantId(), deadline);
+    }
+
+    /**
+     * 创建请求；有截止时间时把剩余时间设为整个调用（连接、发送、读取完整响应或流）的超时
+     */
+    private Call newCall(Request request, Deadline deadline) {
+        Call call = httpClient.newCall(request);
+        if (deadline != null) {
+            long remaining = deadline.remainingNanos();
+            if (remaining <= 0) {
+                throw new DeadlineExceededException(getProviderName() + " 请求截止时间已到");
+            }
+            call.timeout().timeout(remaining, TimeUnit.NANOSECONDS);
+        }
+        return call;
+    }
+
+    /**
+     * 首个事件超时后中断流；流结束时取消定时任务
+     */
+    private void watchFirstEvent(StreamHandle handle, long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return;
+        }
+        ScheduledFuture<?> task = context.getTimer().schedule(() -> {
+            if (!handle.hasEvent() && handle.abort(new DeadlineExceededException(
+                    getProviderName() + " 等待首个内容超时: " + timeoutMillis + "ms"))) {
+                log.warn("{} 流式请求 {}ms 内未收到任何事件，已中断", getProviderName(), timeoutMillis);
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        handle.getCompletion().whenComplete((h, e) -> task.cancel(false));
+    }
+
+    /**
+     * 逐行读取SSE响应流，每个事件到达即交给提供商解析，不等待整个响应结束；
+     * 指定处理管道时内容块先经过管道再交付，管道要求终止时取消上游请求；
+     * 指定合并策略时内容块合并后再交付，流结束前交付剩余内容
+     */
+    private void readStream(Response response, Consumer<String> callback, StreamHandle handle,
+                            Consumer<String> lineObserver, ChatOptions options) {
+        CoalescingPolicy coalescing = options.getCoalescing();
+        AiJournal journal = context.getJournal();
+        long exchangeId = exchangeIdOf(response.request());
+        if (journal == null || exchangeId < 0) {
+            journal = null;
+        }
+        handle.onStatus(response.code());
+        if (!response.isSuccessful()) {
+            if (journal != null) {
+                journal.recordError(exchangeId, response.code(), response.message());
+            }
+            callback.accept("{\"error\": \"Request failed: " + response.code() + "\"}");
+            handle.complete(new IOException("Request failed: " + response.code()));
+            return;
+        }
+
+        ChunkCoalescer coalescer = coalescing == null ? null
+                : new ChunkCoalescer(callback, coalescing, context.getTimer(),
+                        context.getCallbackExecutor());
+        Consumer<String> downstream = coalescer == null ? callback : coalescer;
+        CallTrace trace = CallTrace.of(response.request());
+        Consumer<String> counting = trace == null
+                ? chunk -> {
+                    handle.onChunk();
+                    downstream.accept(chunk);
+                }
+                : chunk -> {
+                    trace.onChunk();
+                    handle.onChunk();
+                    downstream.accept(chunk);
+                };
+        StreamPipeline pipeline = options.getPipeline();
+        StreamPipeline.Session session = pipeline == null ? null : pipeline.open(counting, handle::stop);
+        Consumer<String> sink = session == null ? counting : session;
+        Throwable failure = null;
+        try {
+            BufferedSource source = response.body().source();
+            String line;
+            while (!handle.isCancelled() && !handle.isStopped() && (line = source.readUtf8Line()) != null) {
+                if (!line.isEmpty()) {
+                    handle.onEvent();
+                    if (line.startsWith("data:") && !line.endsWith("[DONE]")) {
+                        handle.onDelta();
+                    }
+                    if (journal != null) {
+                        journal.recordChunk(exchangeId, line);
+                    }
                 }
+                if (lineObserver != null) {
+                    lineObserver.accept(line);
+                }
+                parseStreamResponse(line, sink);
+            }
+            if (session != null && !handle.isCancelled()) {
+                session.finish();
             }
         } catch (Exception e) {
-            callback.accept("{\"error\": \"" + e.getMessage() + "\"}");
+            failure = handle.failureOf(e);
+            if (coalescer != null) {
+                coalescer.close(!handle.isCancelled());
+            }
+            if (!handle.isCancelled()) {
+                callback.accept("{\"error\": \"" + failure.getMessage() + "\"}");
+            }
+        } finally {
+            if (coalescer != null) {
+                coalescer.close(!handle.isCancelled());
+            }
+            if (handle.isCancelled()) {
+                log.debug("{} 流式请求已取消，已接收 {} 个内容块", getProviderName(), handle.getChunkCount());
+            } else if (handle.isStopped()) {
+                log.debug("{} 流式请求被处理管道提前终止，已交付 {} 个内容块", getProviderName(), handle.getChunkCount());
+            }
+            if (trace != null) {
+                trace.streamEnded(handle.getChunkCount());
+            }
+            if (journal != null) {
+                journal.recordEnd(exchangeId, failure != null ? String.valueOf(failure.getMessage())
+                        : handle.isCancelled() ? "cancelled" : null);
+            }
+            handle.complete(failure);
         }
     }
 }
@@ -0,0 +1,62 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.trace.AiSpan;
+import okhttp3.Request;
+
+/**
+ * 挂在 OkHttp 请求上的追踪状态，使建连监听器和流读取线程能找到所属的span
+ * 只在追踪开启时创建；首token与流式阶段由读取流的线程推进
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class CallTrace {
+
+    final AiSpan span;
+    private volatile AiSpan firstToken;
+    private volatile AiSpan streaming;
+
+    CallTrace(AiSpan span) {
+        this.span = span;
+    }
+
+    static CallTrace of(Request request) {
+        return request.tag(CallTrace.class);
+    }
+
+    /**
+     * 流式请求已发出，开始计时首token
+     */
+    void requestSent() {
+        firstToken = span.phase(AiSpan.PHASE_FIRST_TOKEN);
+    }
+
+    /**
+     * 收到内容块；首个内容块结束首token阶段并开始流式接收阶段
+     */
+    void onChunk() {
+        if (streaming == null) {
+            AiSpan waiting = firstToken;
+            if (waiting != null) {
+                waiting.end();
+            }
+            streaming = span.phase(AiSpan.PHASE_STREAM);
+        }
+    }
+
+    /**
+     * 流结束
+     */
+    void streamEnded(int chunks) {
+        AiSpan current = streaming;
+        if (current == null) {
+            AiSpan waiting = firstToken;
+            if (waiting != null) {
+                waiting.end();
+            }
+            return;
+        }
+        current.setAttribute("easy_ai.stream.chunks", chunks);
+        current.end();
+    }
+}
@@ -0,0 +1,50 @@
+package com.chow.easy.ai.framework.core;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 结构化的对话补全结果
+ * 除文本内容外还包含工具调用、结束原因和token用量，供工具调用、路由等上层能力使用
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Data
+public class ChatCompletion {
+    //回复内容，纯工具调用时可能为null
+    private String content;
+    //工具调用列表
+    private List<ToolCall> toolCalls = new ArrayList<>();
+    //结束原因，如 stop、length、tool_calls
+    private String finishReason;
+    //输入token数，未知时为-1
+    private int promptTokens = -1;
+    //输出token数，未知时为-1
+    private int completionTokens = -1;
+    //输出token的对数概率，仅在请求 logprobs 时返回
+    private List<Double> tokenLogprobs = new ArrayList<>();
+
+    /**
+     * 是否包含工具调用
+     */
+    public boolean hasToolCalls() {
+        return toolCalls != null && !toolCalls.isEmpty();
+    }
+
+    /**
+     * 输出token的平均对数概率，越接近0表示模型越确定；未返回 logprobs 时为 NaN
+     */
+    public double getAverageLogprob() {
+        if (tokenLogprobs == null || tokenLogprobs.isEmpty()) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (Double logprob : tokenLogprobs) {
+            sum += logprob;
+        }
+        return sum / tokenLogprobs.size();
+    }
+}
@@ -0,0 +1,291 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.scheduler.RequestPriority;
+import com.chow.easy.ai.framework.stream.StreamPipeline;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单次请求的对话参数
+ * 在请求构建时覆盖提供商配置中的默认参数（model、temperature、max_tokens 等），
+ * 不修改共享的提供商配置，因此同一个服务实例可以被并发地用于不同模型和参数
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class ChatOptions {
+
+    /**
+     * 不覆盖任何参数
+     */
+    public static final ChatOptions DEFAULT = new ChatOptions(builder());
+
+    private final String model;
+    private final Map<String, Object> parameters;
+    private final RequestPriority priority;
+    private final String tenantId;
+    private final Deadline deadline;
+    private final long timeoutMillis;
+    private final long firstTokenTimeoutMillis;
+    private final CoalescingPolicy coalescing;
+    private final boolean skipCache;
+    private final StreamPipeline pipeline;
+
+    private ChatOptions(Builder builder) {
+        this.model = builder.model;
+        this.priority = builder.priority;
+        this.tenantId = builder.tenantId;
+        this.deadline = builder.deadline;
+        this.timeoutMillis = builder.timeoutMillis;
+        this.firstTokenTimeoutMillis = builder.firstTokenTimeoutMillis;
+        this.coalescing = builder.coalescing;
+        this.skipCache = builder.skipCache;
+        this.pipeline = builder.pipeline;
+        this.parameters = builder.parameters.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(builder.parameters));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 基于当前参数创建新的构建器
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.model = model;
+        builder.parameters.putAll(parameters);
+        builder.priority = priority;
+        builder.tenantId = tenantId;
+        builder.deadline = deadline;
+        builder.timeoutMillis = timeoutMillis;
+        builder.firstTokenTimeoutMillis = firstTokenTimeoutMillis;
+        builder.coalescing = coalescing;
+        builder.skipCache = skipCache;
+        builder.pipeline = pipeline;
+        return builder;
+    }
+
+    /**
+     * 覆盖的模型名称，为null时使用提供商默认模型
+     */
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * 覆盖的请求参数（只读），键名与提供商配置中的 parameters 一致
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 调度优先级，为null时视为 NORMAL
+     */
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * 调度时用于公平排队的租户标识
+     */
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * 请求截止时间，为null时不限制
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 单次调用的超时时间（毫秒），从调用开始计时，0表示不限制
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * 流式调用等待首个事件的超时时间（毫秒），从请求发出开始计时，0表示不限制
+     */
+    public long getFirstTokenTimeoutMillis() {
+        return firstTokenTimeoutMillis;
+    }
+
+    /**
+     * 流式内容块合并策略，为null时每个内容块立即交付
+     */
+    public CoalescingPolicy getCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * 是否绕过响应缓存，直接调用提供商
+     */
+    public boolean isSkipCache() {
+        return skipCache;
+    }
+
+    /**
+     * 流式内容的后处理管道，为null时内容块不经处理直接交付
+     */
+    public StreamPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * 计算本次调用的截止时间：截止时间与超时时间中较早的一个
+     */
+    public Deadline resolveDeadline() {
+        if (timeoutMillis <= 0) {
+            return deadline;
+        }
+        Deadline byTimeout = Deadline.afterMillis(timeoutMillis);
+        return deadline == null ? byTimeout : deadline.earliest(byTimeout);
+    }
+
+    /**
+     * 把相对的超时时间固定为绝对截止时间，之后多次调用（如工具调用的多轮请求）共享同一个时间预算
+     */
+    public ChatOptions withResolvedDeadline() {
+        if (timeoutMillis <= 0) {
+            return this;
+        }
+        Builder builder = toBuilder();
+        builder.deadline = resolveDeadline();
+        builder.timeoutMillis = 0;
+        return builder.build();
+    }
+
+    /**
+     * 是否没有覆盖任何请求参数；优先级、租户、截止时间、超时、内容块合并、后处理管道和缓存只影响调度与执行，不改变请求体
+     */
+    public boolean isEmpty() {
+        return model == null && parameters.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ChatOptions{model=" + model + ", parameters=" + parameters
+                + ", priority=" + priority + ", tenantId=" + tenantId + ", deadline=" + deadline
+                + ", timeoutMillis=" + timeoutMillis + ", firstTokenTimeoutMillis=" + firstTokenTimeoutMillis
+                + ", coalescing=" + coalescing + ", skipCache=" + skipCache
+                + ", pipeline=" + pipeline + "}";
+    }
+
+    public static final class Builder {
+        private String model;
+        private final Map<String, Object> parameters = new HashMap<>();
+        private RequestPriority priority;
+        private String tenantId;
+        private Deadline deadline;
+        private long timeoutMillis;
+        private long firstTokenTimeoutMillis;
+        private CoalescingPolicy coalescing;
+        private boolean skipCache;
+        private StreamPipeline pipeline;
+
+        private Builder() {
+        }
+
+        public Builder model(String model) {
+            this.model = model;
+            return this;
+        }
+
+        public Builder temperature(double temperature) {
+            return parameter("temperature", temperature);
+        }
+
+        public Builder maxTokens(int maxTokens) {
+            return parameter("max_tokens", maxTokens);
+        }
+
+        public Builder topP(double topP) {
+            return parameter("top_p", topP);
+        }
+
+        public Builder stop(List<String> stop) {
+            return parameter("stop", stop);
+        }
+
+        /**
+         * 设置任意请求参数，value为null时移除该覆盖
+         */
+        public Builder parameter(String name, Object value) {
+            if (value == null) {
+                parameters.remove(name);
+            } else {
+                parameters.put(name, value);
+            }
+            return this;
+        }
+
+        public Builder priority(RequestPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder tenantId(String tenantId) {
+            this.tenantId = tenantId;
+            return this;
+        }
+
+        public Builder deadline(Deadline deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * 单次调用的超时时间，覆盖排队、请求发送和响应读取（含整个流）
+         */
+        public Builder timeout(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * 流式调用等待首个事件的超时时间，超时即中断请求
+         */
+        public Builder firstTokenTimeout(long firstTokenTimeoutMillis) {
+            this.firstTokenTimeoutMillis = firstTokenTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 流式内容块合并策略，减少下游逐token写出
+         */
+        public Builder coalescing(CoalescingPolicy coalescing) {
+            this.coalescing = coalescing;
+            return this;
+        }
+
+        /**
+         * 绕过响应缓存，既不读取也不写入；适合需要每次都重新生成的请求
+         */
+        public Builder skipCache(boolean skipCache) {
+            this.skipCache = skipCache;
+            return this;
+        }
+
+        /**
+         * 流式内容的后处理管道，在合并策略之前生效，如敏感词替换、终止标记、长度截断；只作用于流式调用
+         */
+        public Builder pipeline(StreamPipeline pipeline) {
+            this.pipeline = pipeline;
+            return this;
+        }
+
+        public ChatOptions build() {
+            return new ChatOptions(this);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.chow.easy.ai.framework.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 按 {@link CoalescingPolicy} 合并内容块后再交给下游回调
+ * 内容块在读流线程中写入并在该线程上交付；按时间交付时定时器只负责触发，回调在单独的回调线程池中执行，
+ * 不占用共享的定时器线程。下游回调在锁外执行，同一时刻只有一个线程在交付，取出顺序即交付顺序
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class ChunkCoalescer implements Consumer<String> {
+
+    private final Consumer<String> downstream;
+    private final CoalescingPolicy policy;
+    private final ScheduledExecutorService timer;
+    private final Executor callbackExecutor;
+    private final StringBuilder pending = new StringBuilder();
+    private ScheduledFuture<?> flushTask;
+    private boolean delivering;
+    private boolean closed;
+
+    ChunkCoalescer(Consumer<String> downstream, CoalescingPolicy policy, ScheduledExecutorService timer,
+                   Executor callbackExecutor) {
+        this.downstream = downstream;
+        this.policy = policy;
+        this.timer = timer;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    public void accept(String chunk) {
+        boolean flushNow;
+        synchronized (this) {
+            if (closed || chunk.isEmpty()) {
+                return;
+            }
+            pending.append(chunk);
+            flushNow = pending.length() >= policy.getMaxChars()
+                    || (policy.isFlushOnSentenceEnd() && endsWithSentence(pending));
+            if (!flushNow && flushTask == null && policy.getMaxDelayMillis() > 0) {
+                flushTask = timer.schedule(() -> callbackExecutor.execute(this::flush),
+                        policy.getMaxDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            flush();
+        }
+    }
+
+    /**
+     * 立即交付已累积的内容；另一个线程正在交付时先等它完成，保证顺序
+     */
+    void flush() {
+        String merged;
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+            if (!awaitIdle() || closed || pending.length() == 0) {
+                return;
+            }
+            merged = pending.toString();
+            pending.setLength(0);
+            delivering = true;
+        }
+        try {
+            downstream.accept(merged);
+        } finally {
+            synchronized (this) {
+                delivering = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 流结束时调用，之后的内容块被丢弃；返回前等待正在进行的交付完成
+     *
+     * @param deliver 是否交付剩余内容；流被取消时调用方不再需要剩余内容
+     */
+    void close(boolean deliver) {
+        if (deliver) {
+            flush();
+        }
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+            closed = true;
+            pending.setLength(0);
+            awaitIdle();
+        }
+    }
+
+    /**
+     * 在持有锁时等待其他线程的交付结束，等待期间释放锁
+     *
+     * @return 被中断时返回false
+     */
+    private boolean awaitIdle() {
+        while (delivering) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean endsWithSentence(CharSequence text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '\t') {
+                continue;
+            }
+            switch (c) {
+                case '\n':
+                case '.':
+                case '!':
+                case '?':
+                case ';':
+                case '。':
+                case '！':
+                case '？':
+                case '；':
+                case '…':
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.chow.easy.ai.framework.core;
+
+/**
+ * 流式内容块合并策略
+ * 提供商通常每个事件只携带一两个token，逐块转发会让下游（SSE、WebSocket）每个token都写出并刷新一次。
+ * 开启合并后，内容块先在内存中累积，满足以下任一条件即交给回调：
+ * 累积字符数达到 maxChars、距离首个未交付内容块超过 maxDelayMillis、内容以句子结束符结尾
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class CoalescingPolicy {
+
+    private final int maxChars;
+    private final long maxDelayMillis;
+    private final boolean flushOnSentenceEnd;
+
+    private CoalescingPolicy(int maxChars, long maxDelayMillis, boolean flushOnSentenceEnd) {
+        if (maxChars < 1) {
+            throw new IllegalArgumentException("合并字符数必须大于0: " + maxChars);
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("合并等待时间不能为负数: " + maxDelayMillis);
+        }
+        this.maxChars = maxChars;
+        this.maxDelayMillis = maxDelayMillis;
+        this.flushOnSentenceEnd = flushOnSentenceEnd;
+    }
+
+    /**
+     * 按字符数和等待时间合并，并在句子结束时立即交付
+     *
+     * @param maxChars       累积到该字符数即交付
+     * @param maxDelayMillis 内容块最长等待时间，0表示不按时间交付
+     */
+    public static CoalescingPolicy of(int maxChars, long maxDelayMillis) {
+        return new CoalescingPolicy(maxChars, maxDelayMillis, true);
+    }
+
+    public static CoalescingPolicy of(int maxChars, long maxDelayMillis, boolean flushOnSentenceEnd) {
+        return new CoalescingPolicy(maxChars, maxDelayMillis, flushOnSentenceEnd);
+    }
+
+    public int getMaxChars() {
+        return maxChars;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public boolean isFlushOnSentenceEnd() {
+        return flushOnSentenceEnd;
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingPolicy{maxChars=" + maxChars + ", maxDelayMillis=" + maxDelayMillis
+                + ", flushOnSentenceEnd=" + flushOnSentenceEnd + "}";
+    }
+}
@@ -0,0 +1,77 @@
+package com.chow.easy.ai.framework.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求体压缩统计
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class CompressionStats {
+
+    private final AtomicLong compressedRequests = new AtomicLong();
+    private final AtomicLong skippedRequests = new AtomicLong();
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+
+    void recordCompressed(long original, long compressed) {
+        compressedRequests.incrementAndGet();
+        originalBytes.addAndGet(original);
+        compressedBytes.addAndGet(compressed);
+    }
+
+    void recordSkipped() {
+        skippedRequests.incrementAndGet();
+    }
+
+    /**
+     * 已压缩的请求数
+     */
+    public long getCompressedRequests() {
+        return compressedRequests.get();
+    }
+
+    /**
+     * 因未达到阈值而未压缩的请求数
+     */
+    public long getSkippedRequests() {
+        return skippedRequests.get();
+    }
+
+    /**
+     * 已压缩请求的原始字节数
+     */
+    public long getOriginalBytes() {
+        return originalBytes.get();
+    }
+
+    /**
+     * 已压缩请求实际发送的字节数
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    /**
+     * 节省的字节数
+     */
+    public long getBytesSaved() {
+        return originalBytes.get() - compressedBytes.get();
+    }
+
+    /**
+     * 压缩率（压缩后/压缩前），尚无压缩请求时返回1
+     */
+    public double getCompressionRatio() {
+        long original = originalBytes.get();
+        return original == 0 ? 1 : compressedBytes.get() / (double) original;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressionStats{compressed=%d, skipped=%d, originalBytes=%d, compressedBytes=%d, saved=%d, ratio=%.2f}",
+                getCompressedRequests(), getSkippedRequests(), getOriginalBytes(), getCompressedBytes(),
+                getBytesSaved(), getCompressionRatio());
+    }
+}
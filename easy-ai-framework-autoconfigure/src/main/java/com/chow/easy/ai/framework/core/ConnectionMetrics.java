@@ -0,0 +1,124 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.trace.AiSpan;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP连接统计
+ * 作为 OkHttp 事件监听器记录新建连接与复用连接的次数、建连耗时（TCP与TLS握手）以及HTTP/2连接数，
+ * 用于评估连接预热和保活的效果
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class ConnectionMetrics implements EventListener.Factory {
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong http2Opened = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong connectNanos = new AtomicLong();
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener();
+    }
+
+    /**
+     * 请求获取连接的总次数
+     */
+    public long getAcquiredConnections() {
+        return acquired.get();
+    }
+
+    /**
+     * 新建连接数
+     */
+    public long getOpenedConnections() {
+        return opened.get();
+    }
+
+    /**
+     * 新建连接中协商为HTTP/2的数量
+     */
+    public long getHttp2Connections() {
+        return http2Opened.get();
+    }
+
+    /**
+     * 建连失败次数
+     */
+    public long getFailedConnections() {
+        return failed.get();
+    }
+
+    /**
+     * 连接复用率：获取连接时直接复用已有连接的比例，尚无请求时返回0
+     */
+    public double getReuseRatio() {
+        long total = acquired.get();
+        return total == 0 ? 0 : Math.max(0, total - opened.get()) / (double) total;
+    }
+
+    /**
+     * 平均建连耗时（毫秒）
+     */
+    public long getAvgConnectMillis() {
+        long count = opened.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(connectNanos.get() / count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionMetrics{acquired=%d, opened=%d, http2=%d, failed=%d, reuseRatio=%.2f, avgConnectMillis=%d}",
+                getAcquiredConnections(), getOpenedConnections(), getHttp2Connections(), getFailedConnections(),
+                getReuseRatio(), getAvgConnectMillis());
+    }
+
+    private final class CallListener extends EventListener {
+        private long connectStart;
+        // 启用追踪时记录建连阶段
+        private AiSpan connectSpan = AiSpan.NOOP;
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            CallTrace trace = CallTrace.of(call.request());
+            if (trace != null) {
+                connectSpan = trace.span.phase(AiSpan.PHASE_CONNECT);
+            }
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectSpan.end();
+            opened.incrementAndGet();
+            connectNanos.addAndGet(System.nanoTime() - connectStart);
+            if (protocol == Protocol.HTTP_2 || protocol == Protocol.H2_PRIOR_KNOWLEDGE) {
+                http2Opened.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                                  IOException ioe) {
+            connectSpan.recordError(ioe);
+            connectSpan.end();
+            failed.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            acquired.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.chow.easy.ai.framework.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求截止时间
+ * 基于 System.nanoTime 的绝对时间点，不受系统时钟调整影响；同一个截止时间可在排队、重试和多轮调用之间传递
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class Deadline {
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 从当前时刻起经过指定时长后到期
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * 从当前时刻起经过指定毫秒数后到期
+     */
+    public static Deadline afterMillis(long millis) {
+        return after(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 剩余时间（纳秒），已到期时返回0
+     */
+    public long remainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * 剩余时间（毫秒），已到期时返回0
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 取两个截止时间中较早的一个
+     */
+    public Deadline earliest(Deadline other) {
+        return other == null || deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remainingMillis() + "ms}";
+    }
+}
@@ -0,0 +1,18 @@
+package com.chow.easy.ai.framework.core;
+
+/**
+ * 请求超过截止时间或首个内容块超时
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,65 @@
+package com.chow.easy.ai.framework.core;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+
+import java.io.IOException;
+
+/**
+ * gzip压缩的请求体
+ * 写出时直接经 GzipSink 压缩到网络输出流，不在内存中保留压缩后的副本；压缩后长度未知，以分块方式发送
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class GzipRequestBody extends RequestBody {
+
+    private final MediaType contentType;
+    private final byte[] content;
+    private final CompressionStats stats;
+
+    GzipRequestBody(MediaType contentType, byte[] content, CompressionStats stats) {
+        this.contentType = contentType;
+        this.content = content;
+        this.stats = stats;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        CountingSink counting = new CountingSink(sink);
+        BufferedSink gzip = Okio.buffer(new GzipSink(counting));
+        gzip.write(content);
+        gzip.close();
+        stats.recordCompressed(content.length, counting.written);
+    }
+
+    private static final class CountingSink extends ForwardingSink {
+        private long written;
+
+        private CountingSink(Sink delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            written += byteCount;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.chow.easy.ai.framework.core;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 参数覆盖视图
+ * 查询时先读单次请求的覆盖参数，再回退到提供商默认参数；两个Map都不会被复制或修改
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class OverlayParameters extends AbstractMap<String, Object> {
+
+    private final Map<String, Object> overrides;
+    private final Map<String, Object> defaults;
+
+    OverlayParameters(Map<String, Object> overrides, Map<String, Object> defaults) {
+        this.overrides = overrides;
+        this.defaults = defaults;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = overrides.get(key);
+        return value != null ? value : defaults.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overrides.containsKey(key) || defaults.containsKey(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return overrides.isEmpty() && defaults.isEmpty();
+    }
+
+    /**
+     * 仅在遍历时合并，请求构建的常规路径只使用 get/containsKey
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> merged = new HashMap<>(defaults);
+        merged.putAll(overrides);
+        return Collections.unmodifiableMap(merged).entrySet();
+    }
+}
@@ -0,0 +1,134 @@
+package com.chow.easy.ai.framework.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 流式补全结果收集器
+ * 内容块由提供商的 parseStreamResponse 交付；工具调用增量、结束原因和用量则直接从SSE行中提取。
+ * 只有包含相关字段且取值不为null的行才会被再次解析（兼容冒号后带空格的格式），普通内容行不产生额外开销
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+final class StreamCompletionCollector {
+
+    private final ObjectMapper objectMapper;
+    private final StringBuilder content = new StringBuilder();
+    private final Map<Integer, PartialToolCall> toolCalls = new TreeMap<>();
+    private String finishReason;
+    private int promptTokens = -1;
+    private int completionTokens = -1;
+
+    StreamCompletionCollector(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    void appendContent(String chunk) {
+        content.append(chunk);
+    }
+
+    void onLine(String line) {
+        if (!line.startsWith("data:")
+                || (line.indexOf("\"tool_calls\"") < 0
+                && !hasValue(line, "\"finish_reason\"")
+                && !hasValue(line, "\"usage\""))) {
+            return;
+        }
+        String json = line.substring(5).trim();
+        if (json.isEmpty() || json.equals("[DONE]")) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            JsonNode usage = root.path("usage");
+            if (usage.isObject()) {
+                promptTokens = usage.path("prompt_tokens").asInt(promptTokens);
+                completionTokens = usage.path("completion_tokens").asInt(completionTokens);
+            }
+            JsonNode choice = root.path("choices").path(0);
+            if (choice.hasNonNull("finish_reason")) {
+                finishReason = choice.get("finish_reason").asText();
+            }
+            JsonNode deltas = choice.path("delta").path("tool_calls");
+            for (JsonNode delta : deltas) {
+                int index = delta.path("index").asInt(toolCalls.size());
+                PartialToolCall partial = toolCalls.computeIfAbsent(index, i -> new PartialToolCall());
+                if (delta.hasNonNull("id")) {
+                    partial.id = delta.get("id").asText();
+                }
+                JsonNode function = delta.path("function");
+                if (function.hasNonNull("name")) {
+                    partial.name = function.get("name").asText();
+                }
+                if (function.hasNonNull("arguments")) {
+                    partial.arguments.append(function.get("arguments").asText());
+                }
+            }
+        } catch (Exception e) {
+            log.debug("解析流式工具调用增量失败: {}", line, e);
+        }
+    }
+
+    /**
+     * 行中是否存在取值不为null的字段；冒号前后允许空白，字符串内容中的引号已转义，不会被误判为字段名
+     */
+    private static boolean hasValue(String line, String quotedKey) {
+        int from = 0;
+        int index;
+        while ((index = line.indexOf(quotedKey, from)) >= 0) {
+            int i = skipWhitespace(line, index + quotedKey.length());
+            if (i < line.length() && line.charAt(i) == ':') {
+                i = skipWhitespace(line, i + 1);
+                if (i < line.length() && line.charAt(i) != 'n') {
+                    return true;
+                }
+            }
+            from = index + quotedKey.length();
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(String line, int i) {
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 流被处理管道提前终止时上游不会再发送结束原因，按正常结束记为 stop
+     */
+    void markStopped() {
+        if (finishReason == null) {
+            finishReason = "stop";
+        }
+    }
+
+    ChatCompletion toCompletion() {
+        ChatCompletion completion = new ChatCompletion();
+        completion.setContent(content.toString());
+        completion.setFinishReason(finishReason);
+        completion.setPromptTokens(promptTokens);
+        completion.setCompletionTokens(completionTokens);
+        List<ToolCall> calls = new ArrayList<>(toolCalls.size());
+        for (PartialToolCall partial : toolCalls.values()) {
+            calls.add(new ToolCall(partial.id, partial.name, partial.arguments.toString()));
+        }
+        completion.setToolCalls(calls);
+        return completion;
+    }
+
+    private static final class PartialToolCall {
+        private String id;
+        private String name;
+        private final StringBuilder arguments = new StringBuilder();
+    }
+}
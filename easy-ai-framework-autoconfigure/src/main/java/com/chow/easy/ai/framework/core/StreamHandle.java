@@ -0,0 +1,273 @@
+package com.chow.easy.ai.framework.core;
+
+import okhttp3.Call;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 流式对话句柄
+ * 调用方可随时取消进行中的流式请求：取消会立即中断底层 OkHttp Call 并关闭响应流，
+ * 提供商随之停止生成；同时记录取消前已经收到的内容块数量
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class StreamHandle {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicInteger chunkCount = new AtomicInteger();
+    private final AtomicInteger deltaCount = new AtomicInteger();
+    private final CompletableFuture<StreamHandle> completion = new CompletableFuture<>();
+    private final long startNanos = System.nanoTime();
+    private volatile long firstChunkNanos;
+    private volatile long firstEventNanos;
+    private volatile int statusCode;
+    private volatile Deadline deadline;
+    private volatile Throwable abortCause;
+    private volatile Call call;
+    private volatile Throwable error;
+    private volatile Runnable cancelHook;
+    private volatile Supplier<ChatCompletion> resultCollector;
+    private volatile ChatCompletion result;
+    private volatile boolean stopped;
+    //由 complete 在持有锁时设置，collectResult 据此判断是否需要立即生成结果
+    private boolean ended;
+
+    /**
+     * 取消流式请求
+     *
+     * @return true 如果本次调用触发了取消；流已结束或已被取消时返回false
+     */
+    public boolean cancel() {
+        if (completion.isDone() || !cancelled.compareAndSet(false, true)) {
+            return false;
+        }
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+        Runnable hook = cancelHook;
+        if (hook != null) {
+            hook.run();
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * 流是否被流式处理管道提前终止；终止后上游请求已取消，但流按正常完成处理
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * 流是否已结束（正常完成、失败或被取消）
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * 已交付给回调的内容块数量
+     */
+    public int getChunkCount() {
+        return chunkCount.get();
+    }
+
+    /**
+     * 已消耗的输出token数（估算值）
+     * OpenAI兼容接口的流式增量基本是一个token一个事件，取消时提供商不会再返回usage，因此按提供商发送的增量事件计数：
+     * 在处理管道和内容块合并之前统计，包含推理内容、工具调用等不交付给回调的事件，不受管道过滤和合并影响
+     */
+    public int getConsumedTokens() {
+        return deltaCount.get();
+    }
+
+    /**
+     * 首个内容块到达的耗时（毫秒），尚未收到内容时返回-1
+     */
+    public long getTimeToFirstChunkMillis() {
+        long first = firstChunkNanos;
+        return first == 0 ? -1 : (first - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 首个SSE事件（含推理内容等非正文事件）到达的耗时（毫秒），尚未收到时返回-1
+     */
+    public long getTimeToFirstEventMillis() {
+        long first = firstEventNanos;
+        return first == 0 ? -1 : (first - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 响应的HTTP状态码，尚未收到响应或连接失败时为0
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 流失败时的异常，正常完成或被取消时为null；超过截止时间或首个内容块超时时为 {@link DeadlineExceededException}
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 通过 completeAsync 发起时，流正常结束后的完整结果；失败、被取消或普通流式对话时为null
+     */
+    public ChatCompletion getResult() {
+        return result;
+    }
+
+    /**
+     * 流结束时完成的Future
+     */
+    public CompletableFuture<StreamHandle> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * 阻塞等待流结束
+     */
+    public StreamHandle await() {
+        return completion.join();
+    }
+
+    /**
+     * 绑定底层请求；如果在绑定前已被取消则立即中断
+     */
+    void bind(Call call) {
+        this.call = call;
+        if (cancelled.get()) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * 设置取消时的附加动作，用于请求尚未发出（如仍在排队）时的清理
+     */
+    void onCancel(Runnable hook) {
+        this.cancelHook = hook;
+        if (cancelled.get()) {
+            hook.run();
+        }
+    }
+
+    /**
+     * 设置流正常结束时生成完整结果的收集器；流已正常结束时立即生成
+     * 与 {@link #complete} 互斥，流在设置前后结束都不会漏掉结果
+     */
+    void collectResult(Supplier<ChatCompletion> collector) {
+        synchronized (this) {
+            this.resultCollector = collector;
+            if (!ended || error != null || cancelled.get()) {
+                return;
+            }
+        }
+        this.result = collector.get();
+    }
+
+    void withDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * 流式处理管道要求提前结束：取消上游请求，已交付的内容作为正常结果
+     */
+    void stop() {
+        if (completion.isDone() || cancelled.get()) {
+            return;
+        }
+        this.stopped = true;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * 因超时等原因中断流，与 cancel 不同，中断原因会作为失败上报
+     */
+    boolean abort(Throwable cause) {
+        if (completion.isDone() || cancelled.get()) {
+            return false;
+        }
+        this.abortCause = cause;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * 把底层异常转换为对调用方有意义的失败原因
+     */
+    Throwable failureOf(Throwable failure) {
+        Throwable cause = abortCause;
+        if (cause != null) {
+            return cause;
+        }
+        Deadline current = deadline;
+        if (current != null && current.isExpired() && failure instanceof IOException) {
+            return new DeadlineExceededException("请求超过截止时间", failure);
+        }
+        return failure;
+    }
+
+    void onStatus(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * 首个SSE事件到达的时刻（System.nanoTime），尚未收到时为0
+     */
+    long firstEventNanos() {
+        return firstEventNanos;
+    }
+
+    void onEvent() {
+        if (firstEventNanos == 0) {
+            firstEventNanos = System.nanoTime();
+        }
+    }
+
+    boolean hasEvent() {
+        return firstEventNanos != 0;
+    }
+
+    void onDelta() {
+        deltaCount.incrementAndGet();
+    }
+
+    void onChunk() {
+        if (chunkCount.getAndIncrement() == 0) {
+            firstChunkNanos = System.nanoTime();
+        }
+    }
+
+    void complete(Throwable failure) {
+        Throwable cause = failure == null ? abortCause : failureOf(failure);
+        Supplier<ChatCompletion> collector;
+        synchronized (this) {
+            if (cause != null && !cancelled.get()) {
+                this.error = cause;
+            }
+            collector = resultCollector;
+            ended = true;
+        }
+        if (cause == null && collector != null && !cancelled.get()) {
+            this.result = collector.get();
+        }
+        completion.complete(this);
+    }
+}
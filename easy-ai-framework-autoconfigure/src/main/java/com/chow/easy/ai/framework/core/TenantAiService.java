@@ -0,0 +1,135 @@
+package com.chow.easy.ai.framework.core;
+
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.chow.easy.ai.framework.structured.JsonStreamListener;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 租户服务视图
+ * 把租户标识与租户选定的模型作为单次请求参数应用到每次调用：租户标识用于调度器的加权公平排队，始终以视图为准；
+ * 模型以调用方显式指定的为准，并且与写入提供商默认模型不同，不会被提供商特有的路由参数（如豆包的 endpoint_id）覆盖
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class TenantAiService implements AiService {
+
+    private final AiService delegate;
+    private final String tenantId;
+    private final String model;
+    private final ChatOptions defaults;
+
+    /**
+     * @param model 租户选定的模型，为null时使用提供商配置的默认模型
+     */
+    TenantAiService(AiService delegate, String tenantId, String model) {
+        this.delegate = delegate;
+        this.tenantId = tenantId;
+        this.model = model;
+        this.defaults = ChatOptions.builder().tenantId(tenantId).model(model).build();
+    }
+
+    /**
+     * 叠加租户参数
+     */
+    ChatOptions apply(ChatOptions options) {
+        if (options == null || options == ChatOptions.DEFAULT) {
+            return defaults;
+        }
+        boolean keepModel = model == null || options.getModel() != null;
+        if (keepModel && tenantId.equals(options.getTenantId())) {
+            return options;
+        }
+        ChatOptions.Builder builder = options.toBuilder().tenantId(tenantId);
+        if (!keepModel) {
+            builder.model(model);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String chat(String prompt) {
+        return chat(BaseAiServiceImpl.promptMessages(prompt));
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages) {
+        return delegate.chat(messages, defaults);
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages, ChatOptions options) {
+        return delegate.chat(messages, apply(options));
+    }
+
+    @Override
+    public void chatStream(String prompt, Consumer<String> callback) {
+        chatStream(BaseAiServiceImpl.promptMessages(prompt), callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, Consumer<String> callback) {
+        delegate.chatStream(messages, defaults, callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        delegate.chatStream(messages, apply(options), callback);
+    }
+
+    @Override
+    public StreamHandle chatStreamAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.chatStreamAsync(messages, apply(options), callback);
+    }
+
+    @Override
+    public StreamHandle completeAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.completeAsync(messages, apply(options), callback);
+    }
+
+    @Override
+    public ChatCompletion complete(List<AiMessage> messages, ChatOptions options) {
+        return delegate.complete(messages, apply(options));
+    }
+
+    @Override
+    public ChatCompletion completeStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.completeStream(messages, apply(options), callback);
+    }
+
+    @Override
+    public <T> T chatForObject(List<AiMessage> messages, Class<T> type, ChatOptions options) {
+        return delegate.chatForObject(messages, type, apply(options));
+    }
+
+    @Override
+    public <T> T chatStreamForObject(List<AiMessage> messages, Class<T> type, ChatOptions options,
+                                     JsonStreamListener listener) {
+        return delegate.chatStreamForObject(messages, type, apply(options), listener);
+    }
+
+    @Override
+    public PooledTextBuffer chatStreamBuffered(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.chatStreamBuffered(messages, apply(options), callback);
+    }
+
+    /**
+     * 租户选定的是对话模型，向量化仍使用提供商配置的向量模型
+     */
+    @Override
+    public float[][] embed(List<String> texts, ChatOptions options) {
+        return delegate.embed(texts, options);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+}
@@ -0,0 +1,219 @@
+package com.chow.easy.ai.framework.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 租户服务视图缓存
+ * 按 租户 + 提供商 + API Key + 模型 缓存轻量的服务视图，容量有上限且空闲超时自动淘汰；
+ * 命中路径只做一次 ConcurrentHashMap 查询和一次时间戳写入，淘汰工作由写入方顺带完成
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class TenantServiceCache {
+
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final Map<TenantKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long lastSweepNanos = System.nanoTime();
+
+    /**
+     * @param maxSize       最大缓存数量
+     * @param idleTimeoutMs 空闲过期时间（毫秒），小于等于0表示不过期
+     */
+    public TenantServiceCache(int maxSize, long idleTimeoutMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("tenant cache maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = idleTimeoutMs > 0 ? TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs) : Long.MAX_VALUE;
+    }
+
+    /**
+     * 获取租户服务视图，不存在或已过期时通过 loader 创建
+     */
+    public AiService get(TenantKey key, Function<TenantKey, AiService> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now, idleTimeoutNanos)) {
+            entry.lastAccessNanos = now;
+            hits.incrementAndGet();
+            return entry.service;
+        }
+
+        misses.incrementAndGet();
+        Entry created = entries.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isExpired(now, idleTimeoutNanos)) {
+                existing.lastAccessNanos = now;
+                return existing;
+            }
+            return new Entry(loader.apply(k), now);
+        });
+
+        if (entries.size() > maxSize || now - lastSweepNanos > idleTimeoutNanos / 2) {
+            evict(now);
+        }
+        return created.service;
+    }
+
+    /**
+     * 移除指定租户的所有服务视图
+     */
+    public void invalidateTenant(String tenantId) {
+        entries.keySet().removeIf(key -> key.getTenantId().equals(tenantId));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * 淘汰过期条目；仍超出容量时按最近访问时间淘汰最旧的条目，并留出十分之一的余量
+     * 同一时刻只有一个线程执行淘汰，其余线程直接返回
+     */
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            lastSweepNanos = now;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isExpired(now, idleTimeoutNanos)) {
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+
+            int overflow = entries.size() - maxSize;
+            if (overflow <= 0) {
+                return;
+            }
+            // 多淘汰十分之一，避免缓存满后每次未命中都复制并排序整个Map
+            overflow += maxSize / 10;
+            List<Map.Entry<TenantKey, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccessNanos));
+            for (int i = 0; i < overflow && i < candidates.size(); i++) {
+                Map.Entry<TenantKey, Entry> candidate = candidates.get(i);
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.incrementAndGet();
+                }
+            }
+            log.debug("租户服务缓存淘汰 {} 个条目，当前大小: {}", overflow, entries.size());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final AiService service;
+        private volatile long lastAccessNanos;
+
+        private Entry(AiService service, long now) {
+            this.service = service;
+            this.lastAccessNanos = now;
+        }
+
+        private boolean isExpired(long now, long idleTimeoutNanos) {
+            return now - lastAccessNanos > idleTimeoutNanos;
+        }
+    }
+
+    /**
+     * 租户服务缓存键
+     */
+    public static final class TenantKey {
+        private final String tenantId;
+        private final String providerName;
+        private final String apiKey;
+        private final String model;
+        private final int hash;
+
+        public TenantKey(String tenantId, String providerName, String apiKey, String model) {
+            this.tenantId = Objects.requireNonNull(tenantId, "tenantId");
+            this.providerName = Objects.requireNonNull(providerName, "providerName");
+            this.apiKey = apiKey;
+            this.model = model;
+            this.hash = Objects.hash(tenantId, providerName, apiKey, model);
+        }
+
+        public String getTenantId() {
+            return tenantId;
+        }
+
+        public String getProviderName() {
+            return providerName;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TenantKey)) {
+                return false;
+            }
+            TenantKey that = (TenantKey) o;
+            return hash == that.hash
+                    && tenantId.equals(that.tenantId)
+                    && providerName.equals(that.providerName)
+                    && Objects.equals(apiKey, that.apiKey)
+                    && Objects.equals(model, that.model);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            // 不输出API Key，避免泄露到日志
+            return "TenantKey{tenantId=" + tenantId + ", provider=" + providerName + ", model=" + model + "}";
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.chow.easy.ai.framework.core;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 模型发起的一次工具（函数）调用
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ToolCall {
+    //调用ID，回传工具结果时使用
+    private String id;
+    //工具名称
+    private String name;
+    //调用参数（JSON字符串）
+    private String arguments;
+}
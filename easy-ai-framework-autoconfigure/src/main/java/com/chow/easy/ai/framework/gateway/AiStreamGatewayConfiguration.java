@@ -0,0 +1,37 @@
+package com.chow.easy.ai.framework.gateway;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkAutoConfiguration;
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * SSE流式网关自动配置
+ * 仅在Servlet Web应用中且显式开启 bcl.ai-framework.gateway.enabled 时装配
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Configuration
+@AutoConfigureAfter(EasyAiFrameworkAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(SseEmitter.class)
+@ConditionalOnBean(AiServiceFactory.class)
+@ConditionalOnProperty(prefix = "bcl.ai-framework.gateway", name = "enabled", havingValue = "true")
+public class AiStreamGatewayConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AiStreamGatewayController aiStreamGatewayController(AiServiceFactory aiServiceFactory,
+                                                               EasyAiFrameworkProperties properties) {
+        return new AiStreamGatewayController(aiServiceFactory, properties);
+    }
+}
@@ -0,0 +1,291 @@
+package com.chow.easy.ai.framework.gateway;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.CoalescingPolicy;
+import com.chow.easy.ai.framework.core.DeadlineExceededException;
+import com.chow.easy.ai.framework.core.StreamHandle;
+import com.chow.easy.ai.framework.scheduler.RequestRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * SSE流式网关
+ * 将提供商的流式输出逐块转发给浏览器：每个内容块作为一个SSE事件立即写出并刷新，不在服务端拼接；
+ * 配置了合并字符数时，相邻的小内容块先合并为一个事件，减少逐token的写出与刷新；
+ * 客户端断开、超时或写出失败时取消上游请求，并限制单实例的并发流数量；
+ * 端点使用服务端的API Key，客户端只能选择白名单内的提供商、模型与请求参数，max_tokens 按上限截断；
+ * 客户端消息只能是 user 或 assistant 角色，不能携带系统提示或工具调用。
+ * 上游失败时发送 error 事件（只含概括性的说明，不暴露内部错误信息），之后不再发送 done 事件
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+@RestController
+public class AiStreamGatewayController {
+
+    private static final MediaType TEXT_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+    private static final String MAX_TOKENS = "max_tokens";
+    private static final String ERROR_PREFIX = "{\"error\"";
+
+    private final AiServiceFactory aiServiceFactory;
+    private final EasyAiFrameworkProperties.Gateway gatewayProperties;
+    private final Semaphore streamPermits;
+
+    public AiStreamGatewayController(AiServiceFactory aiServiceFactory, EasyAiFrameworkProperties properties) {
+        this.aiServiceFactory = aiServiceFactory;
+        this.gatewayProperties = properties.getGateway();
+        this.streamPermits = new Semaphore(gatewayProperties.getMaxConcurrentStreams());
+    }
+
+    /**
+     * 单轮流式对话，便于浏览器 EventSource 直接订阅
+     */
+    @GetMapping(path = "${bcl.ai-framework.gateway.path:/ai/chat/stream}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam("prompt") String prompt,
+                                             @RequestParam(value = "provider", required = false) String provider,
+                                             @RequestParam(value = "model", required = false) String model) {
+        String rejected = checkTarget(provider, model);
+        if (rejected != null) {
+            return reject(rejected);
+        }
+        List<AiMessage> messages = new ArrayList<>();
+        messages.add(new AiMessage("user", prompt));
+        return relay(provider, messages, ChatOptions.builder().model(isBlank(model) ? null : model).build());
+    }
+
+    /**
+     * 多轮流式对话
+     */
+    @PostMapping(path = "${bcl.ai-framework.gateway.path:/ai/chat/stream}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestBody ChatStreamRequest request) {
+        if (request.getMessages() == null || request.getMessages().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        String rejected = checkTarget(request.getProvider(), request.getModel());
+        if (rejected == null) {
+            rejected = checkMessages(request.getMessages());
+        }
+        if (rejected != null) {
+            return reject(rejected);
+        }
+        ChatOptions.Builder options = ChatOptions.builder()
+                .model(isBlank(request.getModel()) ? null : request.getModel());
+        if (request.getParameters() != null) {
+            for (Map.Entry<String, Object> entry : request.getParameters().entrySet()) {
+                if (!gatewayProperties.getAllowedParameters().contains(entry.getKey())) {
+                    return reject("不允许的请求参数: " + entry.getKey());
+                }
+                Object value = entry.getValue();
+                if (MAX_TOKENS.equals(entry.getKey())) {
+                    if (!(value instanceof Number) || ((Number) value).longValue() <= 0) {
+                        return reject("max_tokens 必须是正整数: " + value);
+                    }
+                    value = (int) Math.min(((Number) value).longValue(), gatewayProperties.getMaxTokens());
+                }
+                options.parameter(entry.getKey(), value);
+            }
+        }
+        return relay(request.getProvider(), request.getMessages(), options.build());
+    }
+
+    /**
+     * 校验客户端选择的提供商与模型，允许时返回null，否则返回拒绝原因
+     */
+    private String checkTarget(String provider, String model) {
+        if (!isBlank(provider) && !gatewayProperties.getAllowedProviders().contains(provider)) {
+            return "不允许的提供商: " + provider;
+        }
+        if (!isBlank(model) && !gatewayProperties.getAllowedModels().contains(model)) {
+            return "不允许的模型: " + model;
+        }
+        return null;
+    }
+
+    /**
+     * 只接受 user 与 assistant 角色的纯文本消息；系统提示和工具调用由服务端决定，客户端不能伪造
+     */
+    private static String checkMessages(List<AiMessage> messages) {
+        for (AiMessage message : messages) {
+            if (message == null || message.getContent() == null) {
+                return "消息内容不能为空";
+            }
+            if (!"user".equals(message.getRole()) && !"assistant".equals(message.getRole())) {
+                return "不允许的消息角色: " + message.getRole();
+            }
+            if (message.getToolCalls() != null || message.getToolCallId() != null) {
+                return "消息不能携带工具调用";
+            }
+        }
+        return null;
+    }
+
+    private static ResponseEntity<SseEmitter> reject(String reason) {
+        log.warn("流式网关拒绝请求，{}", reason);
+        return ResponseEntity.badRequest().build();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * 当前活跃的流数量
+     */
+    public int getActiveStreams() {
+        return gatewayProperties.getMaxConcurrentStreams() - streamPermits.availablePermits();
+    }
+
+    private ResponseEntity<SseEmitter> relay(String provider, List<AiMessage> messages, ChatOptions options) {
+        if (!streamPermits.tryAcquire()) {
+            log.warn("流式网关并发已达上限 {}，拒绝新请求", gatewayProperties.getMaxConcurrentStreams());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                streamPermits.release();
+            }
+        };
+
+        if (gatewayProperties.getCoalesceMaxChars() > 0 && options.getCoalescing() == null) {
+            options = options.toBuilder().coalescing(CoalescingPolicy.of(gatewayProperties.getCoalesceMaxChars(),
+                    gatewayProperties.getCoalesceMaxDelay())).build();
+        }
+
+        SseEmitter emitter = new SseEmitter(gatewayProperties.getStreamTimeout());
+        StreamRelay relay = new StreamRelay(emitter);
+        StreamHandle handle;
+        try {
+            AiService service = isBlank(provider)
+                    ? aiServiceFactory.getDefaultService()
+                    : aiServiceFactory.getService(provider);
+            handle = service.chatStreamAsync(messages, options, relay);
+            relay.bind(handle);
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+
+        // 客户端断开、超时或出错时取消上游请求，停止计费
+        emitter.onCompletion(() -> {
+            handle.cancel();
+            release.run();
+        });
+        emitter.onTimeout(() -> {
+            handle.cancel();
+            emitter.complete();
+        });
+        emitter.onError(e -> handle.cancel());
+
+        handle.getCompletion().whenComplete((h, e) -> {
+            try {
+                if (h.getError() != null) {
+                    log.warn("流式网关上游调用失败: {}", h.getError().getMessage());
+                    emitter.send(SseEmitter.event().name("error").data(errorMessage(h.getError()), TEXT_UTF8));
+                } else if (!h.isCancelled()) {
+                    relay.flushHeld();
+                    emitter.send(SseEmitter.event().name("done").data("[DONE]", TEXT_UTF8));
+                }
+                emitter.complete();
+            } catch (Exception ex) {
+                emitter.completeWithError(ex);
+            } finally {
+                release.run();
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * 发给客户端的失败说明，只区分超时、繁忙与其他失败
+     */
+    private static String errorMessage(Throwable error) {
+        if (error instanceof DeadlineExceededException) {
+            return "请求超时";
+        }
+        if (error instanceof RequestRejectedException) {
+            return "服务繁忙，请稍后重试";
+        }
+        return "上游服务调用失败";
+    }
+
+    /**
+     * 把内容块写成SSE事件；内容中的换行拆分为多行data字段，以保持SSE帧完整。
+     * 流失败时提供商会把错误信息作为 {"error": ...} 内容块交给回调，这类内容块先暂存：
+     * 之后还有内容或流正常结束时照常写出，流失败时丢弃，由 error 事件代替
+     */
+    private static final class StreamRelay implements Consumer<String> {
+        private final SseEmitter emitter;
+        private volatile StreamHandle handle;
+        private String held;
+
+        private StreamRelay(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void bind(StreamHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public synchronized void accept(String chunk) {
+            flushHeld();
+            if (chunk.startsWith(ERROR_PREFIX)) {
+                held = chunk;
+                return;
+            }
+            send(chunk);
+        }
+
+        private synchronized void flushHeld() {
+            if (held != null) {
+                String chunk = held;
+                held = null;
+                send(chunk);
+            }
+        }
+
+        private void send(String chunk) {
+            try {
+                SseEmitter.SseEventBuilder event = SseEmitter.event();
+                int start = 0;
+                int newline;
+                while ((newline = chunk.indexOf('\n', start)) >= 0) {
+                    event.data(chunk.substring(start, newline), TEXT_UTF8);
+                    start = newline + 1;
+                }
+                event.data(start == 0 ? chunk : chunk.substring(start), TEXT_UTF8);
+                emitter.send(event);
+            } catch (Exception e) {
+                // 写出失败说明客户端已断开
+                log.debug("流式网关写出失败，取消上游请求: {}", e.getMessage());
+                StreamHandle current = handle;
+                if (current != null) {
+                    current.cancel();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.chow.easy.ai.framework.gateway;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式网关请求体
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Data
+public class ChatStreamRequest {
+    //提供商名称，为空时使用默认提供商
+    private String provider;
+    //对话消息
+    private List<AiMessage> messages;
+    //覆盖的模型名称
+    private String model;
+    //覆盖的请求参数
+    private Map<String, Object> parameters;
+}
@@ -0,0 +1,214 @@
+package com.chow.easy.ai.framework.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 请求/响应日志
+ * 请求线程把记录放入无锁环形队列后立即返回，单独的写入线程把记录追加到内存映射的分段文件中；
+ * 队列满时丢弃记录并计数，日志永远不会拖慢或阻塞请求。记录的日志可用 {@link JournalReader} 读取，
+ * 用 {@link JournalReplayer} 按原始或加速的节奏重放
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class AiJournal implements Closeable {
+
+    private final Path directory;
+    private final MpscRingBuffer<JournalRecord> ring;
+    private final MappedJournalWriter writer;
+    private final Thread writerThread;
+    private final long epochMicrosBase = System.currentTimeMillis() * 1000;
+    private final long nanoBase = System.nanoTime();
+    private final AtomicLong nextExchangeId = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * @param directory   日志目录
+     * @param segmentSize 段大小（字节）
+     * @param bufferSize  环形队列容量（条）
+     * @param maxSegments 最多保留的段数，小于等于0表示不删除
+     */
+    public AiJournal(Path directory, int segmentSize, int bufferSize, int maxSegments) {
+        this.directory = directory;
+        this.ring = new MpscRingBuffer<>(bufferSize);
+        try {
+            this.writer = new MappedJournalWriter(directory, segmentSize, maxSegments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建请求日志: " + directory, e);
+        }
+        this.writerThread = new Thread(this::drain, "easy-ai-journal");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.info("请求日志已启用，目录: {}", directory);
+    }
+
+    /**
+     * 记录请求体
+     *
+     * @param provider 提供商名称
+     * @param endpoint 端点路径，如 /chat/completions
+     * @param body     序列化后的请求体，写入前不得修改
+     * @param stream   是否为流式请求
+     * @return 交换ID，用于关联之后的响应记录
+     */
+    public long recordRequest(String provider, String endpoint, byte[] body, boolean stream) {
+        long exchangeId = nextExchangeId.incrementAndGet();
+        offer(new JournalRecord(JournalRecord.Type.REQUEST, exchangeId, now(), stream ? 1 : 0,
+                provider, endpoint, body, null));
+        return exchangeId;
+    }
+
+    /**
+     * 记录非流式响应体
+     */
+    public void recordResponse(long exchangeId, int status, String body) {
+        offer(new JournalRecord(JournalRecord.Type.RESPONSE, exchangeId, now(), status, null, null, null, body));
+    }
+
+    /**
+     * 记录流式响应的一行原始数据
+     */
+    public void recordChunk(long exchangeId, String line) {
+        offer(new JournalRecord(JournalRecord.Type.CHUNK, exchangeId, now(), 0, null, null, null, line));
+    }
+
+    /**
+     * 记录流式响应结束
+     *
+     * @param error 失败原因，正常结束时为null
+     */
+    public void recordEnd(long exchangeId, String error) {
+        offer(new JournalRecord(JournalRecord.Type.END, exchangeId, now(), 0, null, null, null, error));
+    }
+
+    /**
+     * 记录请求失败
+     *
+     * @param status HTTP状态码，未收到响应时为0
+     */
+    public void recordError(long exchangeId, int status, String message) {
+        offer(new JournalRecord(JournalRecord.Type.ERROR, exchangeId, now(), status, null, null, null, message));
+    }
+
+    /**
+     * 等待已记录的条目全部写入
+     *
+     * @return 在超时前写完返回true
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (written.get() + failed.get() < recorded.get()) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.unpark(writerThread);
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * 写完队列中的记录后关闭
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 放入队列的记录数
+     */
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    /**
+     * 队列已满而丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 已写入文件的记录数
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * 已写入文件的字节数
+     */
+    public long getBytesWritten() {
+        return writer.getBytesWritten();
+    }
+
+    private void offer(JournalRecord record) {
+        if (!running) {
+            return;
+        }
+        if (ring.offer(record)) {
+            recorded.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private long now() {
+        return epochMicrosBase + (System.nanoTime() - nanoBase) / 1000;
+    }
+
+    /**
+     * 写入线程：有记录时连续写入，队列空时逐步延长休眠，关闭时写完剩余记录
+     */
+    private void drain() {
+        int idle = 0;
+        while (true) {
+            JournalRecord record = ring.poll();
+            if (record == null) {
+                if (!running && ring.isEmpty()) {
+                    break;
+                }
+                idle++;
+                LockSupport.parkNanos(idle < 100 ? TimeUnit.MICROSECONDS.toNanos(50) : TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            idle = 0;
+            try {
+                writer.write(record);
+                written.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("写入请求日志失败: {}", e.getMessage());
+            }
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("关闭请求日志失败", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.chow.easy.ai.framework.journal;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 请求日志读取器
+ * 按段序号依次映射段文件并解析记录，遇到长度为0的位置（未写入或写了一半的记录）即进入下一段
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class JournalReader {
+
+    private final Path directory;
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 依次处理所有记录
+     */
+    public void forEach(Consumer<JournalRecord> consumer) throws IOException {
+        for (Path segment : MappedJournalWriter.listSegments(directory)) {
+            readSegment(segment, consumer);
+        }
+    }
+
+    /**
+     * 读取所有记录
+     */
+    public List<JournalRecord> readAll() throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        forEach(records::add);
+        return records;
+    }
+
+    private static void readSegment(Path segment, Consumer<JournalRecord> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            if (channel.size() < MappedJournalWriter.SEGMENT_HEADER) {
+                return;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MappedJournalWriter.MAGIC) {
+            throw new IOException("不是请求日志文件: " + segment);
+        }
+        int version = buffer.getInt();
+        if (version != MappedJournalWriter.VERSION) {
+            throw new IOException("不支持的请求日志版本 " + version + ": " + segment);
+        }
+
+        while (buffer.remaining() >= MappedJournalWriter.RECORD_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < MappedJournalWriter.RECORD_HEADER || length > buffer.remaining() + 4) {
+                break;
+            }
+            JournalRecord.Type type = JournalRecord.Type.of(buffer.get());
+            long exchangeId = buffer.getLong();
+            long timestamp = buffer.getLong();
+            int code = buffer.getInt();
+            String provider = readString(buffer, buffer.getShort() & 0xFFFF);
+            String attribute = readString(buffer, buffer.getShort() & 0xFFFF);
+            byte[] payload = new byte[buffer.getInt()];
+            buffer.get(payload);
+            consumer.accept(new JournalRecord(type, exchangeId, timestamp, code, provider, attribute, payload, null));
+            ((Buffer) buffer).position(start + length);
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.chow.easy.ai.framework.journal;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 日志中的一条记录
+ * 请求线程只创建记录对象，文本到UTF-8的编码在写入线程上完成
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class JournalRecord {
+
+    /**
+     * 记录类型
+     */
+    public enum Type {
+        /**
+         * 请求体，attribute 为端点路径，code 为1表示流式请求
+         */
+        REQUEST(1),
+        /**
+         * 非流式响应体，code 为HTTP状态码
+         */
+        RESPONSE(2),
+        /**
+         * 流式响应的一行原始SSE数据
+         */
+        CHUNK(3),
+        /**
+         * 流式响应结束，payload 为空表示正常结束，否则为失败原因
+         */
+        END(4),
+        /**
+         * 请求失败，code 为HTTP状态码（未收到响应时为0），payload 为失败原因
+         */
+        ERROR(5);
+
+        private final byte id;
+
+        Type(int id) {
+            this.id = (byte) id;
+        }
+
+        byte id() {
+            return id;
+        }
+
+        static Type of(byte id) {
+            for (Type type : values()) {
+                if (type.id == id) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("未知的日志记录类型: " + id);
+        }
+    }
+
+    private final Type type;
+    private final long exchangeId;
+    private final long timestampMicros;
+    private final int code;
+    private final String provider;
+    private final String attribute;
+    private final String text;
+    private byte[] payload;
+
+    JournalRecord(Type type, long exchangeId, long timestampMicros, int code,
+                  String provider, String attribute, byte[] payload, String text) {
+        this.type = type;
+        this.exchangeId = exchangeId;
+        this.timestampMicros = timestampMicros;
+        this.code = code;
+        this.provider = provider == null ? "" : provider;
+        this.attribute = attribute == null ? "" : attribute;
+        this.payload = payload;
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * 一次请求与其响应共享的交换ID
+     */
+    public long getExchangeId() {
+        return exchangeId;
+    }
+
+    /**
+     * 记录时间（微秒时间戳），同一进程内的记录之间保持纳秒计时器的精度
+     */
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * 原始内容字节
+     */
+    public byte[] getPayload() {
+        if (payload == null) {
+            payload = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+        }
+        return payload;
+    }
+
+    /**
+     * 内容文本
+     */
+    public String getPayloadAsString() {
+        return text != null ? text : new String(getPayload(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{type=" + type + ", exchangeId=" + exchangeId + ", timestampMicros=" + timestampMicros
+                + ", code=" + code + ", provider=" + provider + ", attribute=" + attribute
+                + ", payloadBytes=" + getPayload().length + "}";
+    }
+}
@@ -0,0 +1,244 @@
+package com.chow.easy.ai.framework.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 请求日志重放工具
+ * 按记录的时间间隔把请求重新发送到模拟服务或真实提供商；speed 为1时保持原始节奏，
+ * 为10时以10倍速重放，小于等于0时不等待、尽快发送。可直接运行：
+ * <pre>
+ * java -cp ... com.chow.easy.ai.framework.journal.JournalReplayer &lt;日志目录&gt; &lt;目标地址&gt; [倍速] [API Key]
+ * </pre>
+ * 目标地址对应提供商的 api-url（如 https://api.openai.com/v1），请求发送到 目标地址 + 记录的端点路径
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class JournalReplayer {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final OkHttpClient httpClient;
+    private final String baseUrl;
+    private final String apiKey;
+    private final double speed;
+
+    /**
+     * @param httpClient HTTP客户端，并发上限应不低于重放时同时进行的请求数
+     * @param baseUrl    目标地址
+     * @param apiKey     发送时使用的API Key，为null时不带认证头（日志中不记录API Key）
+     * @param speed      重放倍速，小于等于0表示不等待
+     */
+    public JournalReplayer(OkHttpClient httpClient, String baseUrl, String apiKey, double speed) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+        this.speed = speed;
+    }
+
+    /**
+     * 重放目录中记录的所有请求，等待全部完成后返回结果
+     */
+    public ReplayReport replay(Path directory) throws IOException, InterruptedException {
+        Map<Long, Exchange> byId = new LinkedHashMap<>();
+        new JournalReader(directory).forEach(record -> {
+            Exchange exchange = byId.computeIfAbsent(record.getExchangeId(), id -> new Exchange());
+            exchange.accept(record);
+        });
+        List<Exchange> exchanges = new ArrayList<>();
+        for (Exchange exchange : byId.values()) {
+            if (exchange.request != null) {
+                exchanges.add(exchange);
+            }
+        }
+        exchanges.sort(Comparator.comparingLong(e -> e.request.getTimestampMicros()));
+        if (exchanges.isEmpty()) {
+            return new ReplayReport(0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        CountDownLatch done = new CountDownLatch(exchanges.size());
+        long firstMicros = exchanges.get(0).request.getTimestampMicros();
+        long startNanos = System.nanoTime();
+        for (Exchange exchange : exchanges) {
+            if (speed > 0) {
+                long due = startNanos + (long) ((exchange.request.getTimestampMicros() - firstMicros) * 1000 / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            send(exchange, done);
+        }
+        done.await();
+        long replaySpanMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        int succeeded = 0;
+        int identical = 0;
+        double[] recorded = new double[exchanges.size()];
+        double[] replayed = new double[exchanges.size()];
+        int recordedCount = 0;
+        for (int i = 0; i < exchanges.size(); i++) {
+            Exchange exchange = exchanges.get(i);
+            if (exchange.succeeded) {
+                succeeded++;
+            }
+            if (exchange.identical) {
+                identical++;
+            }
+            if (exchange.endMicros > 0) {
+                recorded[recordedCount++] = (exchange.endMicros - exchange.request.getTimestampMicros()) / 1000.0;
+            }
+            replayed[i] = exchange.replayNanos / 1_000_000.0;
+        }
+        double[] recordedLatencies = Arrays.copyOf(recorded, recordedCount);
+        long recordedSpanMillis = (exchanges.get(exchanges.size() - 1).request.getTimestampMicros() - firstMicros) / 1000;
+        return new ReplayReport(exchanges.size(), succeeded, exchanges.size() - succeeded, identical,
+                recordedSpanMillis, replaySpanMillis,
+                percentile(recordedLatencies, 0.5), percentile(recordedLatencies, 0.99),
+                percentile(replayed, 0.5), percentile(replayed, 0.99));
+    }
+
+    private void send(Exchange exchange, CountDownLatch done) {
+        JournalRecord request = exchange.request;
+        Request.Builder builder = new Request.Builder()
+                .url(baseUrl + request.getAttribute())
+                .addHeader("Content-Type", "application/json")
+                .post(RequestBody.create(JSON, request.getPayload()));
+        if (apiKey != null) {
+            builder.addHeader("Authorization", "Bearer " + apiKey);
+        }
+        if (exchange.stream) {
+            builder.addHeader("Accept", "text/event-stream");
+        }
+
+        long sentNanos = System.nanoTime();
+        httpClient.newCall(builder.build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                exchange.replayNanos = System.nanoTime() - sentNanos;
+                log.warn("重放请求失败: {}", e.getMessage());
+                done.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    String body = r.body() == null ? "" : r.body().string();
+                    exchange.replayNanos = System.nanoTime() - sentNanos;
+                    exchange.succeeded = r.isSuccessful();
+                    exchange.identical = exchange.succeeded
+                            && exchange.recordedBody().equals(exchange.stream ? joinLines(body) : body);
+                } catch (IOException e) {
+                    exchange.replayNanos = System.nanoTime() - sentNanos;
+                    log.warn("读取重放响应失败: {}", e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }
+        });
+    }
+
+    private static String joinLines(String body) {
+        StringBuilder joined = new StringBuilder();
+        for (String line : body.split("\r?\n")) {
+            if (!line.isEmpty()) {
+                joined.append(joined.length() == 0 ? "" : "\n").append(line);
+            }
+        }
+        return joined.toString();
+    }
+
+    private static double percentile(double[] values, double quantile) {
+        if (values.length == 0) {
+            return 0;
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    /**
+     * 一次请求及其记录的响应
+     */
+    private static final class Exchange {
+        private JournalRecord request;
+        private boolean stream;
+        private final StringBuilder chunks = new StringBuilder();
+        private String response;
+        private long endMicros = -1;
+        private volatile long replayNanos;
+        private volatile boolean succeeded;
+        private volatile boolean identical;
+
+        private void accept(JournalRecord record) {
+            switch (record.getType()) {
+                case REQUEST:
+                    request = record;
+                    stream = record.getCode() == 1;
+                    break;
+                case RESPONSE:
+                    response = record.getPayloadAsString();
+                    endMicros = record.getTimestampMicros();
+                    break;
+                case CHUNK:
+                    chunks.append(chunks.length() == 0 ? "" : "\n").append(record.getPayloadAsString());
+                    break;
+                case END:
+                case ERROR:
+                    endMicros = record.getTimestampMicros();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String recordedBody() {
+            return stream ? chunks.toString() : (response == null ? "" : response);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("用法: JournalReplayer <日志目录> <目标地址> [倍速，默认1] [API Key]");
+            System.exit(1);
+        }
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(256);
+        dispatcher.setMaxRequestsPerHost(256);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .readTimeout(5, TimeUnit.MINUTES)
+                .build();
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+        String apiKey = args.length > 3 ? args[3] : null;
+        try {
+            ReplayReport report = new JournalReplayer(client, args[1], apiKey, speed).replay(Paths.get(args[0]));
+            System.out.println(report);
+        } finally {
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.chow.easy.ai.framework.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 基于内存映射文件的分段追加写入器，只由日志写入线程使用
+ * <p>
+ * 段文件格式：魔数(4) 版本(4)，随后是连续的记录：
+ * 长度(4) 类型(1) 交换ID(8) 时间戳(8) 状态码(4) 提供商长度(2) 提供商 属性长度(2) 属性 内容长度(4) 内容。
+ * 记录先写内容、最后写长度，进程崩溃时写了一半的记录长度仍为0，读取方在第一个长度为0处停止。
+ * 当前段剩余空间不足时滚动到新段，超长的记录单独占用一个足够大的段
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+final class MappedJournalWriter implements Closeable {
+
+    static final int MAGIC = 0x45414A31;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER = 8;
+    static final int RECORD_HEADER = 4 + 1 + 8 + 8 + 4 + 2 + 2 + 4;
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Deque<Path> segments = new ArrayDeque<>();
+    private long nextSegmentIndex;
+    private MappedByteBuffer buffer;
+    private long bytesWritten;
+
+    /**
+     * @param directory   日志目录，已有的段保留，新记录写入新段
+     * @param segmentSize 段大小（字节）
+     * @param maxSegments 最多保留的段数，超出时删除最旧的段，小于等于0表示不删除
+     */
+    MappedJournalWriter(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < SEGMENT_HEADER + RECORD_HEADER) {
+            throw new IllegalArgumentException("journal segmentSize too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        for (Path existing : listSegments(directory)) {
+            segments.addLast(existing);
+            nextSegmentIndex = Math.max(nextSegmentIndex, segmentIndex(existing) + 1);
+        }
+        openSegment(segmentSize);
+    }
+
+    /**
+     * 追加一条记录
+     */
+    void write(JournalRecord record) throws IOException {
+        byte[] provider = record.getProvider().getBytes(StandardCharsets.UTF_8);
+        byte[] attribute = record.getAttribute().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = record.getPayload();
+        if (provider.length > Short.MAX_VALUE || attribute.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("日志记录的提供商或属性过长");
+        }
+        int length = RECORD_HEADER + provider.length + attribute.length + payload.length;
+        if (buffer.remaining() < length) {
+            rotate(length);
+        }
+
+        int start = buffer.position();
+        ((Buffer) buffer).position(start + 4);
+        buffer.put(record.getType().id())
+                .putLong(record.getExchangeId())
+                .putLong(record.getTimestampMicros())
+                .putInt(record.getCode())
+                .putShort((short) provider.length)
+                .put(provider)
+                .putShort((short) attribute.length)
+                .put(attribute)
+                .putInt(payload.length)
+                .put(payload);
+        buffer.putInt(start, length);
+        bytesWritten += length;
+    }
+
+    /**
+     * 把已写入的内容刷到磁盘
+     */
+    void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        buffer = null;
+    }
+
+    private void rotate(int recordLength) throws IOException {
+        force();
+        openSegment(Math.max(segmentSize, SEGMENT_HEADER + recordLength));
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            Path oldest = segments.removeFirst();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("删除过期日志段失败: {}", oldest, e);
+            }
+        }
+    }
+
+    private void openSegment(int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentIndex++, SEGMENT_SUFFIX));
+        // 映射在文件关闭后仍然有效，由GC回收
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(MAGIC).putInt(VERSION);
+        segments.addLast(path);
+        log.debug("打开日志段: {}", path);
+    }
+
+    /**
+     * 按序号列出目录中的段文件
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                result.add(path);
+            }
+        }
+        Collections.sort(result, (a, b) -> Long.compare(segmentIndex(a), segmentIndex(b)));
+        return result;
+    }
+
+    private static long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
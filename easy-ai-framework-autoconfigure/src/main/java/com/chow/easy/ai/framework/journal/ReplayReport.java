@@ -0,0 +1,78 @@
+package com.chow.easy.ai.framework.journal;
+
+import lombok.Getter;
+
+/**
+ * 日志重放结果
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+public class ReplayReport {
+
+    /**
+     * 重放的请求数
+     */
+    private final int exchanges;
+
+    /**
+     * 成功（2xx）的请求数
+     */
+    private final int succeeded;
+
+    /**
+     * 失败的请求数
+     */
+    private final int failed;
+
+    /**
+     * 响应内容与记录完全一致的请求数，对确定性的模拟服务可用于回归比较
+     */
+    private final int identical;
+
+    /**
+     * 记录中首个请求到最后一个请求的时间跨度（毫秒）
+     */
+    private final long recordedSpanMillis;
+
+    /**
+     * 重放实际耗时（毫秒）
+     */
+    private final long replaySpanMillis;
+
+    /**
+     * 记录的请求耗时 p50/p99（毫秒），从请求到响应结束
+     */
+    private final double recordedLatencyP50;
+    private final double recordedLatencyP99;
+
+    /**
+     * 重放的请求耗时 p50/p99（毫秒）
+     */
+    private final double replayedLatencyP50;
+    private final double replayedLatencyP99;
+
+    ReplayReport(int exchanges, int succeeded, int failed, int identical, long recordedSpanMillis,
+                 long replaySpanMillis, double recordedLatencyP50, double recordedLatencyP99,
+                 double replayedLatencyP50, double replayedLatencyP99) {
+        this.exchanges = exchanges;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.identical = identical;
+        this.recordedSpanMillis = recordedSpanMillis;
+        this.replaySpanMillis = replaySpanMillis;
+        this.recordedLatencyP50 = recordedLatencyP50;
+        this.recordedLatencyP99 = recordedLatencyP99;
+        this.replayedLatencyP50 = replayedLatencyP50;
+        this.replayedLatencyP99 = replayedLatencyP99;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplayReport{exchanges=%d, succeeded=%d, failed=%d, identical=%d, recordedSpan=%dms, replaySpan=%dms, "
+                        + "recordedLatency p50=%.1fms p99=%.1fms, replayedLatency p50=%.1fms p99=%.1fms}",
+                exchanges, succeeded, failed, identical, recordedSpanMillis, replaySpanMillis,
+                recordedLatencyP50, recordedLatencyP99, replayedLatencyP50, replayedLatencyP99);
+    }
+}
@@ -2,6 +2,7 @@ package com.chow.easy.ai.framework.provider.deepseek;
 
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
 import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceContext;
 import com.chow.easy.ai.framework.spi.AiServiceProvider;
 
 import java.util.Arrays;
@@ -54,6 +55,16 @@ public class DeepSeekServiceProvider implements AiServiceProvider {
         return new DeepSeekService(config, timeout, readTimeout);
     }
 
+    @Override
+    public AiService createAiService(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
+        return new DeepSeekService(config, context);
+    }
+
+    @Override
+    public boolean isContextAware() {
+        return true;
+    }
+
     @Override
     public int getPriority() {
         return 20; // 中高优先级，仅次于OpenAI
@@ -2,6 +2,7 @@ package com.chow.easy.ai.framework.provider.doubao;
 
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
 import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceContext;
 import com.chow.easy.ai.framework.spi.AiServiceProvider;
 
 import java.util.Arrays;
@@ -72,6 +73,16 @@ public class DoubaoServiceProvider implements AiServiceProvider {
         return new DoubaoService(config, timeout, readTimeout);
     }
 
+    @Override
+    public AiService createAiService(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
+        return new DoubaoService(config, context);
+    }
+
+    @Override
+    public boolean isContextAware() {
+        return true;
+    }
+
     @Override
     public int getPriority() {
         return 30; // 中等优先级，在OpenAI和DeepSeek之后
@@ -2,6 +2,7 @@ package com.chow.easy.ai.framework.provider.openai;
 
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
 import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceContext;
 import com.chow.easy.ai.framework.spi.AiServiceProvider;
 
 import java.util.Arrays;
@@ -57,6 +58,16 @@ public class OpenAiServiceProvider implements AiServiceProvider {
         return new OpenAiService(config, timeout, readTimeout);
     }
 
+    @Override
+    public AiService createAiService(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
+        return new OpenAiService(config, context);
+    }
+
+    @Override
+    public boolean isContextAware() {
+        return true;
+    }
+
     @Override
     public int getPriority() {
         return 10; // 高优先级，OpenAI作为知名提供商
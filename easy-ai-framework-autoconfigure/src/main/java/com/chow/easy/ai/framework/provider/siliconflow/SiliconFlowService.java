@@ -2,7 +2,11 @@ package com.chow.easy.ai.framework.provider.siliconflow;
 
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
 import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiServiceContext;
 import com.chow.easy.ai.framework.core.BaseAiServiceImpl;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.DeadlineExceededException;
+import com.chow.easy.ai.framework.scheduler.RequestRejectedException;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 
@@ -11,7 +15,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * SiliconFlow AI 服务实现
@@ -27,7 +30,11 @@ public class SiliconFlowService extends BaseAiServiceImpl {
     private static final String CHAT_ENDPOINT = "/chat/completions";
 
     public SiliconFlowService(EasyAiFrameworkProperties.ProviderConfig config, int timeout, int readTimeout) {
-        super(config, timeout, readTimeout);
+        this(config, new AiServiceContext(timeout, readTimeout));
+    }
+
+    public SiliconFlowService(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
+        super(config, context);
 
         // 如果没有配置API URL，使用默认值
         if (config.getApiUrl() == null || config.getApiUrl().trim().isEmpty()) {
@@ -40,10 +47,16 @@ public class SiliconFlowService extends BaseAiServiceImpl {
 
     @Override
     public String chat(List<AiMessage> messages) {
+        return chat(messages, ChatOptions.DEFAULT);
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages, ChatOptions options) {
         try {
-            Map<String, Object> requestBody = buildRequestBody(messages, false);
-            String responseBody = sendPost(requestBody);
-            return parseResponse(responseBody);
+            return executeChat(messages, options);
+        } catch (DeadlineExceededException | RequestRejectedException e) {
+            // 超过截止时间和调度拒绝保留原类型，调用方据此区分超时与其他失败
+            throw e;
         } catch (Exception e) {
             log.error("SiliconFlow 聊天请求失败", e);
             throw new RuntimeException("SiliconFlow API 调用失败: " + e.getMessage(), e);
@@ -52,9 +65,13 @@ public class SiliconFlowService extends BaseAiServiceImpl {
 
     @Override
     public void chatStream(List<AiMessage> messages, Consumer<String> callback) {
+        chatStream(messages, ChatOptions.DEFAULT, callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
         try {
-            Map<String, Object> requestBody = buildRequestBody(messages, true);
-            sendPostStream(requestBody, callback);
+            executeChatStream(messages, options, callback);
         } catch (Exception e) {
             log.error("SiliconFlow 流式聊天请求失败", e);
             callback.accept("{\"error\": \"SiliconFlow 流式API调用失败: " + e.getMessage() + "\"}");
@@ -82,15 +99,20 @@ public class SiliconFlowService extends BaseAiServiceImpl {
 
     @Override
     protected Map<String, Object> buildRequestBody(List<AiMessage> messages, boolean stream) {
+        return buildRequestBody(messages, stream, ChatOptions.DEFAULT);
+    }
+
+    @Override
+    protected Map<String, Object> buildRequestBody(List<AiMessage> messages, boolean stream, ChatOptions options) {
         Map<String, Object> requestBody = new HashMap<>();
 
         // 基本参数
-        requestBody.put("model", getModelName());
+        requestBody.put("model", getModelName(options));
         requestBody.put("messages", convertMessages(messages));
         requestBody.put("stream", stream);
 
-        // 从配置中获取自定义参数
-        Map<String, Object> parameters = config.getParameters();
+        // 从配置中获取自定义参数，单次请求参数优先
+        Map<String, Object> parameters = resolveParameters(options);
         if (parameters != null && !parameters.isEmpty()) {
             // 常用参数映射
             if (parameters.containsKey("temperature")) {
@@ -114,6 +136,24 @@ public class SiliconFlowService extends BaseAiServiceImpl {
             if (parameters.containsKey("stop")) {
                 requestBody.put("stop", parameters.get("stop"));
             }
+            // Tool Calling 支持
+            if (parameters.containsKey("tools")) {
+                requestBody.put("tools", parameters.get("tools"));
+            }
+            if (parameters.containsKey("tool_choice")) {
+                requestBody.put("tool_choice", parameters.get("tool_choice"));
+            }
+            // JSON输出模式
+            if (parameters.containsKey("response_format")) {
+                requestBody.put("response_format", parameters.get("response_format"));
+            }
+            // 输出token的对数概率，级联路由按置信度验收时需要
+            if (parameters.containsKey("logprobs")) {
+                requestBody.put("logprobs", parameters.get("logprobs"));
+            }
+            if (parameters.containsKey("top_logprobs")) {
+                requestBody.put("top_logprobs", parameters.get("top_logprobs"));
+            }
         }
 
         // 设置默认值
@@ -126,7 +166,7 @@ public class SiliconFlowService extends BaseAiServiceImpl {
     @Override
     protected String parseResponse(String responseBody) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
+            JsonNode jsonNode = jsonReader.readTree(responseBody);
 
             // 检查是否有错误
             if (jsonNode.has("error")) {
@@ -164,11 +204,11 @@ public class SiliconFlowService extends BaseAiServiceImpl {
                     return;
                 }
 
-                JsonNode jsonNode = objectMapper.readTree(jsonString);
+                JsonNode jsonNode = jsonReader.readTree(jsonString);
 
                 if (jsonNode.has("choices") && jsonNode.get("choices").isArray() && jsonNode.get("choices").size() > 0) {
                     JsonNode choice = jsonNode.get("choices").get(0);
-                    if (choice.has("delta") && choice.get("delta").has("content")) {
+                    if (choice.has("delta") && choice.get("delta").hasNonNull("content")) {
                         String content = choice.get("delta").get("content").asText();
                         if (!content.isEmpty()) {
                             callback.accept(content);
@@ -190,22 +230,7 @@ public class SiliconFlowService extends BaseAiServiceImpl {
     /**
      * 获取模型名称
      */
-    private String getModelName() {
-        String model = config.getDefaultModel();
-        return model != null && !model.trim().isEmpty() ? model : "Qwen/Qwen2.5-7B-Instruct";
-    }
-
-    /**
-     * 转换消息格式为 SiliconFlow API 所需格式
-     */
-    private List<Map<String, String>> convertMessages(List<AiMessage> messages) {
-        return messages.stream()
-                .map(msg -> {
-                    Map<String, String> message = new HashMap<>();
-                    message.put("role", msg.getRole());
-                    message.put("content", msg.getContent());
-                    return message;
-                })
-                .collect(Collectors.toList());
+    private String getModelName(ChatOptions options) {
+        return resolveModel(options, "Qwen/Qwen2.5-7B-Instruct");
     }
 } 
\ No newline at end of file
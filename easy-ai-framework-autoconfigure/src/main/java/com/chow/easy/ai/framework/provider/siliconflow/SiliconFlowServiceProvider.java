@@ -2,6 +2,7 @@ package com.chow.easy.ai.framework.provider.siliconflow;
 
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
 import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceContext;
 import com.chow.easy.ai.framework.spi.AiServiceProvider;
 
 import java.util.Arrays;
@@ -46,6 +47,16 @@ public class SiliconFlowServiceProvider implements AiServiceProvider {
         return new SiliconFlowService(config, timeout, readTimeout);
     }
 
+    @Override
+    public AiService createAiService(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
+        return new SiliconFlowService(config, context);
+    }
+
+    @Override
+    public boolean isContextAware() {
+        return true;
+    }
+
     @Override
     public int getPriority() {
         return 50; // 中等优先级
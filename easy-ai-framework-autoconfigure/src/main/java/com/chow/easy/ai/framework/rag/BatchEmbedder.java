@@ -0,0 +1,116 @@
+package com.chow.easy.ai.framework.rag;
+
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量向量化
+ * 把大量文本拆成固定大小的批次，多个批次并发请求向量接口，结果按输入顺序拼接
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class BatchEmbedder {
+
+    private final AiService service;
+    private final ChatOptions options;
+    private final int batchSize;
+    private final Executor executor;
+    //自行创建的线程池，关闭时一并关闭
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * 使用自建的线程池，parallelism 为并发的批次数
+     */
+    public BatchEmbedder(AiService service, ChatOptions options, int batchSize, int parallelism) {
+        this(service, options, batchSize, createExecutor(parallelism));
+    }
+
+    private BatchEmbedder(AiService service, ChatOptions options, int batchSize, ExecutorService executor) {
+        this(service, options, batchSize, executor, executor);
+    }
+
+    /**
+     * @param service   提供向量接口的服务
+     * @param options   请求参数，可通过 model 指定向量模型
+     * @param batchSize 单次请求的文本数
+     * @param executor  并发请求使用的线程池，其大小决定并发的批次数
+     */
+    public BatchEmbedder(AiService service, ChatOptions options, int batchSize, Executor executor) {
+        this(service, options, batchSize, executor, null);
+    }
+
+    private BatchEmbedder(AiService service, ChatOptions options, int batchSize, Executor executor,
+                          ExecutorService ownedExecutor) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("批次大小必须大于0: " + batchSize);
+        }
+        this.service = service;
+        this.options = options == null ? ChatOptions.DEFAULT : options;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * 关闭自建的线程池，外部传入的线程池由调用方管理
+     */
+    public void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    public float[] embed(String text) {
+        List<String> single = new ArrayList<>(1);
+        single.add(text);
+        return service.embed(single, options)[0];
+    }
+
+    public float[][] embedAll(List<String> texts) {
+        if (texts.size() <= batchSize) {
+            return service.embed(texts, options);
+        }
+        List<CompletableFuture<float[][]>> batches = new ArrayList<>();
+        for (int start = 0; start < texts.size(); start += batchSize) {
+            List<String> batch = texts.subList(start, Math.min(start + batchSize, texts.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> service.embed(batch, options), executor));
+        }
+        float[][] vectors = new float[texts.size()][];
+        int offset = 0;
+        for (CompletableFuture<float[][]> batch : batches) {
+            float[][] result;
+            try {
+                result = batch.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            System.arraycopy(result, 0, vectors, offset, result.length);
+            offset += result.length;
+        }
+        return vectors;
+    }
+
+    private static ExecutorService createExecutor(int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "easy-ai-embed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
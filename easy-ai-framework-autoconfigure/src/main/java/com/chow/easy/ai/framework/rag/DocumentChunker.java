@@ -0,0 +1,123 @@
+package com.chow.easy.ai.framework.rag;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 流式文档切分器
+ * 从 Reader 中边读边切，内存中只保留一个块加重叠部分，适合大文件；
+ * 切分点优先选在段落、句子结束处，找不到时退回到空白处，最后才在块大小处硬切
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class DocumentChunker {
+
+    private final int chunkSize;
+    private final int overlap;
+
+    /**
+     * @param chunkSize 单个块的最大字符数
+     * @param overlap   相邻块重叠的字符数，保证跨块的句子在两个块中都有上下文
+     */
+    public DocumentChunker(int chunkSize, int overlap) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("块大小必须大于0: " + chunkSize);
+        }
+        if (overlap < 0 || overlap >= chunkSize) {
+            throw new IllegalArgumentException("重叠字符数必须在0到块大小之间: " + overlap);
+        }
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+    }
+
+    public List<String> split(String text) {
+        List<String> chunks = new ArrayList<>();
+        chunk(new StringReader(text), chunks::add);
+        return chunks;
+    }
+
+    /**
+     * 逐块切分，每个块生成后立即回调
+     */
+    public void chunk(Reader reader, Consumer<String> sink) {
+        char[] window = new char[chunkSize];
+        int length = 0;
+        boolean eof = false;
+        try {
+            while (true) {
+                while (!eof && length < chunkSize) {
+                    int n = reader.read(window, length, chunkSize - length);
+                    if (n < 0) {
+                        eof = true;
+                    } else {
+                        length += n;
+                    }
+                }
+                if (length == 0) {
+                    return;
+                }
+                int cut = eof ? length : findBreak(window, length);
+                emit(window, cut, sink);
+                if (eof && cut == length) {
+                    return;
+                }
+                // 下一个块从切分点前 overlap 个字符开始，且保证至少向前推进一个字符
+                int next = Math.max(cut - overlap, 1);
+                System.arraycopy(window, next, window, 0, length - next);
+                length -= next;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取文档失败", e);
+        }
+    }
+
+    private int findBreak(char[] window, int length) {
+        // 切分点不早于块的一半，避免产生过小的块
+        int min = Math.max(length / 2, overlap + 1);
+        int sentence = -1;
+        int space = -1;
+        for (int i = length - 1; i >= min; i--) {
+            char c = window[i];
+            if (c == '\n' && i > 0 && window[i - 1] == '\n') {
+                return i + 1;
+            }
+            if (sentence < 0 && isSentenceEnd(c)) {
+                sentence = i + 1;
+            } else if (space < 0 && Character.isWhitespace(c)) {
+                space = i + 1;
+            }
+        }
+        if (sentence > 0) {
+            return sentence;
+        }
+        if (space > 0) {
+            return space;
+        }
+        // 不要把代理对拆开
+        return Character.isHighSurrogate(window[length - 1]) ? length - 1 : length;
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '。' || c == '！' || c == '？' || c == '；' || c == '.' || c == '!' || c == '?' || c == '\n';
+    }
+
+    private static void emit(char[] window, int length, Consumer<String> sink) {
+        int start = 0;
+        int end = length;
+        while (start < end && Character.isWhitespace(window[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(window[end - 1])) {
+            end--;
+        }
+        if (end > start) {
+            sink.accept(new String(window, start, end - start));
+        }
+    }
+}
@@ -0,0 +1,834 @@
+package com.chow.easy.ai.framework.rag;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * HNSW（分层可导航小世界图）向量索引，按余弦相似度检索
+ * 向量归一化后连续存放在一个 float[] 中，邻接表同样使用扁平的 int[]，检索过程不创建对象；
+ * 批量添加时图的构建在 ForkJoinPool 上并行进行，节点邻接表按分段锁保护。
+ * <p>
+ * 检索与添加可以并发：检索只看到已完成添加的节点。单个节点的添加是串行的
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class HnswIndex {
+
+    private static final int LOCK_STRIPES = 1024;
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final int FILE_MAGIC = 0x484E5357;
+    private static final long EMPTY = -1L;
+    //Java数组的最大长度，向量与第0层邻接表都存放在单个数组中
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final long seed;
+    private final int maxNodes;
+    private volatile int efSearch;
+
+    private float[] vectors;
+    //第0层邻接表：每个节点 maxM0+1 个槽，首个槽为邻居数量
+    private int[] links0;
+    //第1层及以上的邻接表：每层 m+1 个槽，只在层数大于0的节点上分配
+    private int[][] upperLinks;
+    private int[] nodeLevels;
+    private int capacity;
+
+    //构建中使用的入口点与已对检索可见的入口点、节点数；入口点编码为 (层数 << 32) | 节点
+    private volatile long entry = EMPTY;
+    private volatile long publishedEntry = EMPTY;
+    private volatile int size;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Object entryLock = new Object();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    /**
+     * @param dimension      向量维度
+     * @param m              每层的最大邻居数（第0层为2倍），常用 16
+     * @param efConstruction 构建时的候选集大小，越大召回率越高、构建越慢，常用 200
+     * @param efSearch       检索时的候选集大小，常用 64
+     */
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch) {
+        this(dimension, m, efConstruction, efSearch, 16, 42L);
+    }
+
+    private HnswIndex(int dimension, int m, int efConstruction, int efSearch, int initialCapacity, long seed) {
+        if (dimension < 1 || m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("索引参数无效: dimension=" + dimension + ", m=" + m
+                    + ", efConstruction=" + efConstruction + ", efSearch=" + efSearch);
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.seed = seed;
+        this.maxNodes = MAX_ARRAY_LENGTH / Math.max(dimension, maxM0 + 1);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch必须大于0: " + efSearch);
+        }
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * 添加单个向量，返回节点编号（从0开始连续分配）
+     */
+    public synchronized int add(float[] vector) {
+        int id = size;
+        ensureCapacity(id + 1);
+        prepare(id, vector);
+        insert(id, id + 1);
+        publish(id + 1);
+        return id;
+    }
+
+    /**
+     * 批量添加，在指定的 ForkJoinPool 上并行构建图；返回第一个向量的节点编号
+     */
+    public synchronized int addAll(float[][] batch, ForkJoinPool pool) {
+        int first = size;
+        int limit = first + batch.length;
+        ensureCapacity(limit);
+        for (int i = 0; i < batch.length; i++) {
+            prepare(first + i, batch[i]);
+        }
+        int start = first;
+        if (entry == EMPTY && batch.length > 0) {
+            insert(first, limit);
+            start++;
+        }
+        if (limit - start > 0) {
+            pool.invoke(new InsertTask(start, limit, limit));
+        }
+        publish(limit);
+        return first;
+    }
+
+    public int addAll(float[][] batch) {
+        return addAll(batch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 检索与查询向量最相似的 k 个节点，按相似度从高到低排列
+     */
+    public SearchResult search(float[] query, int k) {
+        checkDimension(query);
+        int limit = size;
+        long ep = publishedEntry;
+        if (ep == EMPTY || k < 1) {
+            return new SearchResult(new int[0], new float[0]);
+        }
+        float[] q = normalize(query);
+        float[] data = vectors;
+        int cur = (int) ep;
+        float curSim = dot(data, cur, q);
+        for (int level = (int) (ep >>> 32); level > 0; level--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] links = linksOf(cur, level);
+                int base = baseOf(cur, level);
+                int count = links[base];
+                for (int i = 1; i <= count; i++) {
+                    int candidate = links[base + i];
+                    if (candidate >= limit) {
+                        continue;
+                    }
+                    float sim = dot(data, candidate, q);
+                    if (sim > curSim) {
+                        curSim = sim;
+                        cur = candidate;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        ScoredHeap results = searchLayer(data, q, cur, curSim, Math.max(efSearch, k), 0, limit);
+        while (results.size() > k) {
+            results.pop();
+        }
+        int n = results.size();
+        int[] ids = new int[n];
+        float[] scores = new float[n];
+        for (int i = n - 1; i >= 0; i--) {
+            scores[i] = results.topScore();
+            ids[i] = results.pop();
+        }
+        return new SearchResult(ids, scores);
+    }
+
+    /**
+     * 保存到文件；文件按窗口分段映射，大小不受单个映射2GB的限制
+     */
+    public synchronized void save(Path path) {
+        int n = size;
+        long bytes = 7L * 4 + 8 + (long) n * 4 * (dimension + 1 + maxM0 + 1);
+        for (int i = 0; i < n; i++) {
+            bytes += 4L * nodeLevels[i] * (m + 1);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedFile file = new MappedFile(channel, FileChannel.MapMode.READ_WRITE, bytes);
+            file.putInt(FILE_MAGIC);
+            file.putInt(dimension);
+            file.putInt(m);
+            file.putInt(efConstruction);
+            file.putInt(efSearch);
+            file.putInt(n);
+            file.putInt(0);
+            file.putLong(publishedEntry);
+            file.putFloats(vectors, n * dimension);
+            file.putInts(nodeLevels, n);
+            file.putInts(links0, n * (maxM0 + 1));
+            for (int i = 0; i < n; i++) {
+                if (nodeLevels[i] > 0) {
+                    file.putInts(upperLinks[i], upperLinks[i].length);
+                }
+            }
+            file.force();
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存向量索引失败: " + path, e);
+        }
+    }
+
+    /**
+     * 从文件加载，文件按窗口分段映射读取后拷贝到堆上的基本类型数组
+     */
+    public static HnswIndex load(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedFile file = new MappedFile(channel, FileChannel.MapMode.READ_ONLY, channel.size());
+            if (file.getInt() != FILE_MAGIC) {
+                throw new IllegalArgumentException("不是向量索引文件: " + path);
+            }
+            int dimension = file.getInt();
+            int m = file.getInt();
+            int efConstruction = file.getInt();
+            int efSearch = file.getInt();
+            int n = file.getInt();
+            file.getInt();
+            long entry = file.getLong();
+            HnswIndex index = new HnswIndex(dimension, m, efConstruction, efSearch, n, 42L);
+            file.getFloats(index.vectors, n * dimension);
+            file.getInts(index.nodeLevels, n);
+            file.getInts(index.links0, n * (index.maxM0 + 1));
+            for (int i = 0; i < n; i++) {
+                int level = index.nodeLevels[i];
+                if (level > 0) {
+                    int[] links = new int[level * (m + 1)];
+                    file.getInts(links, links.length);
+                    index.upperLinks[i] = links;
+                }
+            }
+            index.entry = entry;
+            index.publishedEntry = entry;
+            index.size = n;
+            return index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载向量索引失败: " + path, e);
+        }
+    }
+
+    private void prepare(int id, float[] vector) {
+        checkDimension(vector);
+        float[] normalized = normalize(vector);
+        System.arraycopy(normalized, 0, vectors, id * dimension, dimension);
+        // 层数按节点编号确定性生成，同样的输入得到同样的图
+        double random = new SplittableRandom(seed ^ (id * 0x9E3779B97F4A7C15L)).nextDouble();
+        int level = (int) (-Math.log(1 - random) * levelMultiplier);
+        nodeLevels[id] = level;
+        links0[id * (maxM0 + 1)] = 0;
+        upperLinks[id] = level > 0 ? new int[level * (m + 1)] : null;
+    }
+
+    private void publish(int newSize) {
+        publishedEntry = entry;
+        size = newSize;
+    }
+
+    /**
+     * 把节点接入图中，limit 之前的节点向量均已写入
+     */
+    private void insert(int node, int limit) {
+        float[] data = vectors;
+        int level = nodeLevels[node];
+        long ep = entry;
+        if (ep == EMPTY) {
+            synchronized (entryLock) {
+                if (entry == EMPTY) {
+                    entry = ((long) level << 32) | node;
+                    return;
+                }
+                ep = entry;
+            }
+        }
+        float[] q = Arrays.copyOfRange(data, node * dimension, (node + 1) * dimension);
+        int topLevel = (int) (ep >>> 32);
+        int cur = (int) ep;
+        float curSim = dot(data, cur, q);
+        for (int l = topLevel; l > level; l--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] links = linksOf(cur, l);
+                int base = baseOf(cur, l);
+                int count = links[base];
+                for (int i = 1; i <= count; i++) {
+                    int candidate = links[base + i];
+                    float sim = dot(data, candidate, q);
+                    if (sim > curSim) {
+                        curSim = sim;
+                        cur = candidate;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            ScoredHeap candidates = searchLayer(data, q, cur, curSim, efConstruction, l, limit);
+            int maxConnections = l == 0 ? maxM0 : m;
+            int[] ids = new int[candidates.size()];
+            float[] sims = new float[ids.length];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                sims[i] = candidates.topScore();
+                ids[i] = candidates.pop();
+            }
+            cur = ids[0];
+            curSim = sims[0];
+            int selected = selectNeighbors(data, ids, sims, ids.length, maxConnections);
+            synchronized (lockOf(node)) {
+                int[] links = linksOf(node, l);
+                int base = baseOf(node, l);
+                System.arraycopy(ids, 0, links, base + 1, selected);
+                links[base] = selected;
+            }
+            for (int i = 0; i < selected; i++) {
+                link(data, ids[i], node, sims[i], l, maxConnections);
+            }
+        }
+        if (level > topLevel) {
+            synchronized (entryLock) {
+                if (level > (int) (entry >>> 32)) {
+                    entry = ((long) level << 32) | node;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把 node 加入 target 的邻接表；已满时按启发式规则重新挑选
+     */
+    private void link(float[] data, int target, int node, float sim, int level, int maxConnections) {
+        synchronized (lockOf(target)) {
+            int[] links = linksOf(target, level);
+            int base = baseOf(target, level);
+            int count = links[base];
+            if (count < maxConnections) {
+                links[base + 1 + count] = node;
+                links[base] = count + 1;
+                return;
+            }
+            int[] ids = new int[count + 1];
+            float[] sims = new float[count + 1];
+            int offset = target * dimension;
+            for (int i = 0; i < count; i++) {
+                ids[i] = links[base + 1 + i];
+                sims[i] = dot(data, ids[i], data, offset);
+            }
+            ids[count] = node;
+            sims[count] = sim;
+            sortDescending(ids, sims, count + 1);
+            int selected = selectNeighbors(data, ids, sims, count + 1, maxConnections);
+            System.arraycopy(ids, 0, links, base + 1, selected);
+            links[base] = selected;
+        }
+    }
+
+    /**
+     * 启发式挑选邻居：候选按相似度从高到低排列，只保留与已选邻居不过于相近的候选，使邻居分布在不同方向；
+     * 数量不足时再用被跳过的候选补齐。结果就地写入数组前部，返回数量
+     */
+    private int selectNeighbors(float[] data, int[] ids, float[] sims, int count, int max) {
+        if (count <= max) {
+            return count;
+        }
+        int[] skipped = new int[count];
+        float[] skippedSims = new float[count];
+        int selected = 0;
+        int skippedCount = 0;
+        for (int i = 0; i < count && selected < max; i++) {
+            int candidate = ids[i];
+            float sim = sims[i];
+            boolean keep = true;
+            int offset = candidate * dimension;
+            for (int j = 0; j < selected; j++) {
+                if (dot(data, ids[j], data, offset) > sim) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                ids[selected] = candidate;
+                sims[selected] = sim;
+                selected++;
+            } else {
+                skipped[skippedCount] = candidate;
+                skippedSims[skippedCount] = sim;
+                skippedCount++;
+            }
+        }
+        for (int i = 0; i < skippedCount && selected < max; i++) {
+            ids[selected] = skipped[i];
+            sims[selected] = skippedSims[i];
+            selected++;
+        }
+        return selected;
+    }
+
+    /**
+     * 在指定层上做最佳优先搜索，返回以相似度最低者为堆顶的结果堆
+     */
+    private ScoredHeap searchLayer(float[] data, float[] q, int entryNode, float entrySim, int ef, int level, int limit) {
+        Visited seen = visited.get();
+        seen.reset(capacity);
+        ScoredHeap candidates = new ScoredHeap(ef * 2, true);
+        ScoredHeap results = new ScoredHeap(ef + 1, false);
+        candidates.push(entryNode, entrySim);
+        results.push(entryNode, entrySim);
+        seen.mark(entryNode);
+        while (candidates.size() > 0) {
+            float bestSim = candidates.topScore();
+            if (results.size() >= ef && bestSim < results.topScore()) {
+                break;
+            }
+            int current = candidates.pop();
+            int[] links = linksOf(current, level);
+            int base = baseOf(current, level);
+            int count = links[base];
+            for (int i = 1; i <= count; i++) {
+                int neighbor = links[base + i];
+                if (neighbor >= limit || !seen.mark(neighbor)) {
+                    continue;
+                }
+                float sim = dot(data, neighbor, q);
+                if (results.size() < ef || sim > results.topScore()) {
+                    candidates.push(neighbor, sim);
+                    results.push(neighbor, sim);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private int[] linksOf(int node, int level) {
+        return level == 0 ? links0 : upperLinks[node];
+    }
+
+    private int baseOf(int node, int level) {
+        return level == 0 ? node * (maxM0 + 1) : (level - 1) * (m + 1);
+    }
+
+    private Object lockOf(int node) {
+        return locks[node & (LOCK_STRIPES - 1)];
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= capacity) {
+            return;
+        }
+        checkCapacity(required);
+        int newCapacity = (int) Math.min(Math.max(required, capacity + (long) (capacity >> 1)), maxNodes);
+        vectors = Arrays.copyOf(vectors, newCapacity * dimension);
+        links0 = Arrays.copyOf(links0, newCapacity * (maxM0 + 1));
+        upperLinks = Arrays.copyOf(upperLinks, newCapacity);
+        nodeLevels = Arrays.copyOf(nodeLevels, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private void allocate(int initialCapacity) {
+        checkCapacity(initialCapacity);
+        vectors = new float[initialCapacity * dimension];
+        links0 = new int[initialCapacity * (maxM0 + 1)];
+        upperLinks = new int[initialCapacity][];
+        nodeLevels = new int[initialCapacity];
+        capacity = initialCapacity;
+    }
+
+    /**
+     * 向量与第0层邻接表按节点连续存放在单个数组中，节点数受数组最大长度限制
+     */
+    private void checkCapacity(int nodes) {
+        if (nodes < 0 || nodes > maxNodes) {
+            throw new IllegalStateException("向量索引节点数超出上限: " + nodes + "，维度 " + dimension
+                    + " 时最多 " + maxNodes + " 个节点");
+        }
+    }
+
+    private void checkDimension(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("向量维度不匹配: 期望 " + dimension + "，实际 " + vector.length);
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private float dot(float[] data, int node, float[] q) {
+        return dot(data, node * dimension, q, 0, dimension);
+    }
+
+    private float dot(float[] data, int node, float[] other, int otherOffset) {
+        return dot(data, node * dimension, other, otherOffset, dimension);
+    }
+
+    private static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int bound = length - 3; i < bound; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    private static void sortDescending(int[] ids, float[] sims, int count) {
+        for (int i = 1; i < count; i++) {
+            int id = ids[i];
+            float sim = sims[i];
+            int j = i - 1;
+            while (j >= 0 && sims[j] < sim) {
+                ids[j + 1] = ids[j];
+                sims[j + 1] = sims[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            sims[j + 1] = sim;
+        }
+    }
+
+    /**
+     * 并行插入任务，按节点编号区间二分
+     */
+    private final class InsertTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int limit;
+
+        private InsertTask(int from, int to, int limit) {
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    insert(i, limit);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new InsertTask(from, mid, limit), new InsertTask(mid, to, limit));
+        }
+    }
+
+    /**
+     * 按窗口分段映射的索引文件，顺序读写；偏移量使用long，单个窗口不超过256MB
+     */
+    private static final class MappedFile {
+        private static final long WINDOW_BYTES = 1L << 28;
+
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long length;
+        private long position;
+        private MappedByteBuffer window;
+
+        private MappedFile(FileChannel channel, FileChannel.MapMode mode, long length) {
+            this.channel = channel;
+            this.mode = mode;
+            this.length = length;
+        }
+
+        int getInt() throws IOException {
+            int value = window(4).getInt();
+            position += 4;
+            return value;
+        }
+
+        long getLong() throws IOException {
+            long value = window(8).getLong();
+            position += 8;
+            return value;
+        }
+
+        void putInt(int value) throws IOException {
+            window(4).putInt(value);
+            position += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            window(8).putLong(value);
+            position += 8;
+        }
+
+        void putFloats(float[] source, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ByteBuffer buffer = window(4);
+                int n = Math.min(count - offset, buffer.remaining() / 4);
+                buffer.asFloatBuffer().put(source, offset, n);
+                advance(buffer, n);
+                offset += n;
+            }
+        }
+
+        void getFloats(float[] target, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ByteBuffer buffer = window(4);
+                int n = Math.min(count - offset, buffer.remaining() / 4);
+                buffer.asFloatBuffer().get(target, offset, n);
+                advance(buffer, n);
+                offset += n;
+            }
+        }
+
+        void putInts(int[] source, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ByteBuffer buffer = window(4);
+                int n = Math.min(count - offset, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(source, offset, n);
+                advance(buffer, n);
+                offset += n;
+            }
+        }
+
+        void getInts(int[] target, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                ByteBuffer buffer = window(4);
+                int n = Math.min(count - offset, buffer.remaining() / 4);
+                buffer.asIntBuffer().get(target, offset, n);
+                advance(buffer, n);
+                offset += n;
+            }
+        }
+
+        void force() {
+            if (window != null && mode == FileChannel.MapMode.READ_WRITE) {
+                window.force();
+            }
+        }
+
+        private void advance(ByteBuffer buffer, int values) {
+            ((Buffer) buffer).position(buffer.position() + values * 4);
+            position += values * 4L;
+        }
+
+        /**
+         * 当前窗口剩余不足时从当前位置重新映射；所有字段都按4字节对齐，窗口边界不会切开单个值
+         */
+        private ByteBuffer window(int bytes) throws IOException {
+            if (window == null || window.remaining() < bytes) {
+                force();
+                long size = Math.min(WINDOW_BYTES, length - position);
+                if (size < bytes) {
+                    throw new EOFException("索引文件不完整，位置 " + position + "，长度 " + length);
+                }
+                window = channel.map(mode, position, size);
+                window.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return window;
+        }
+    }
+
+    /**
+     * 检索结果
+     */
+    public static final class SearchResult {
+        private final int[] ids;
+        private final float[] scores;
+
+        SearchResult(int[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int id(int i) {
+            return ids[i];
+        }
+
+        /**
+         * 余弦相似度
+         */
+        public float score(int i) {
+            return scores[i];
+        }
+    }
+
+    /**
+     * 基本类型的二叉堆，max 为 true 时相似度最高者在堆顶
+     */
+    private static final class ScoredHeap {
+        private int[] ids;
+        private float[] scores;
+        private int size;
+        private final boolean max;
+
+        private ScoredHeap(int initialCapacity, boolean max) {
+            this.ids = new int[Math.max(initialCapacity, 4)];
+            this.scores = new float[ids.length];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        void push(int id, float score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(score, scores[parent])) {
+                    break;
+                }
+                ids[i] = ids[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            ids[i] = id;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = ids[0];
+            size--;
+            if (size > 0) {
+                int id = ids[size];
+                float score = scores[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && before(scores[child + 1], scores[child])) {
+                        child++;
+                    }
+                    if (!before(scores[child], score)) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    scores[i] = scores[child];
+                    i = child;
+                }
+                ids[i] = id;
+                scores[i] = score;
+            }
+            return top;
+        }
+
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+
+    /**
+     * 线程内复用的访问标记，用代数区分不同的搜索，避免每次清空
+     */
+    private static final class Visited {
+        private int[] marks = new int[0];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[capacity];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * 标记节点，已标记过时返回false
+         */
+        boolean mark(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.chow.easy.ai.framework.rag;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 检索增强生成（RAG）管线
+ * 文档流式切块 -> 批量向量化 -> 写入进程内 HNSW 索引；对话时用最后一条用户消息检索相关块，
+ * 把检索结果拼接到该消息之前，再交给原有的 AiService 构建请求。
+ * 通过 {@link #wrap(AiService)} 得到的服务对调用方透明
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class RagPipeline {
+
+    private final BatchEmbedder embedder;
+    private final DocumentChunker chunker;
+    private final int topK;
+    private final float minScore;
+    private final int ingestBatchSize;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final ForkJoinPool buildPool;
+
+    //块内容与来源，下标即索引中的节点编号
+    private final List<String> texts = new ArrayList<>();
+    private final List<String> sources = new ArrayList<>();
+    //首次写入时根据向量维度创建
+    private volatile HnswIndex index;
+
+    private RagPipeline(Builder builder) {
+        this.embedder = builder.embedder;
+        this.chunker = new DocumentChunker(builder.chunkSize, builder.chunkOverlap);
+        this.topK = builder.topK;
+        this.minScore = builder.minScore;
+        this.ingestBatchSize = builder.ingestBatchSize;
+        this.m = builder.m;
+        this.efConstruction = builder.efConstruction;
+        this.efSearch = builder.efSearch;
+        this.buildPool = builder.buildPool;
+    }
+
+    public static Builder builder(BatchEmbedder embedder) {
+        return new Builder(embedder);
+    }
+
+    /**
+     * 添加文档，边读边切块，攒够一批即向量化写入索引
+     *
+     * @return 生成的块数
+     */
+    public int addDocument(String source, Reader reader) {
+        List<String> pending = new ArrayList<>(ingestBatchSize);
+        int[] total = new int[1];
+        chunker.chunk(reader, chunk -> {
+            pending.add(chunk);
+            if (pending.size() >= ingestBatchSize) {
+                total[0] += ingest(source, pending);
+                pending.clear();
+            }
+        });
+        if (!pending.isEmpty()) {
+            total[0] += ingest(source, pending);
+        }
+        log.debug("文档 {} 已切分为 {} 个块", source, total[0]);
+        return total[0];
+    }
+
+    public int addDocument(String source, String text) {
+        return addDocument(source, new StringReader(text));
+    }
+
+    /**
+     * 检索与查询最相关的块
+     */
+    public List<RetrievedChunk> retrieve(String query) {
+        return retrieve(query, topK);
+    }
+
+    public List<RetrievedChunk> retrieve(String query, int k) {
+        HnswIndex current = index;
+        if (current == null || query == null || query.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return search(current, embedder.embed(query), k);
+    }
+
+    /**
+     * 用已有的查询向量检索
+     */
+    public List<RetrievedChunk> search(float[] queryVector, int k) {
+        HnswIndex current = index;
+        return current == null ? Collections.<RetrievedChunk>emptyList() : search(current, queryVector, k);
+    }
+
+    /**
+     * 把检索结果注入最后一条用户消息之前，返回新的消息列表，原列表不变
+     */
+    public List<AiMessage> augment(List<AiMessage> messages) {
+        int last = -1;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if ("user".equals(messages.get(i).getRole())) {
+                last = i;
+                break;
+            }
+        }
+        if (last < 0) {
+            return messages;
+        }
+        AiMessage question = messages.get(last);
+        List<RetrievedChunk> chunks = retrieve(question.getContent());
+        if (chunks.isEmpty()) {
+            return messages;
+        }
+        StringBuilder content = new StringBuilder("请参考以下资料回答问题，资料与问题无关时忽略资料。\n\n");
+        for (int i = 0; i < chunks.size(); i++) {
+            RetrievedChunk chunk = chunks.get(i);
+            content.append('[').append(i + 1).append("] ");
+            if (chunk.getSource() != null) {
+                content.append('(').append(chunk.getSource()).append(") ");
+            }
+            content.append(chunk.getText()).append("\n\n");
+        }
+        content.append("问题：").append(question.getContent());
+        List<AiMessage> augmented = new ArrayList<>(messages);
+        augmented.set(last, new AiMessage(question.getRole(), content.toString()));
+        return augmented;
+    }
+
+    /**
+     * 包装服务，所有对话请求在发送前自动注入检索结果
+     */
+    public AiService wrap(AiService service) {
+        return new RetrievalAugmentedService(service, this);
+    }
+
+    /**
+     * 已写入的块数
+     */
+    public int size() {
+        HnswIndex current = index;
+        return current == null ? 0 : current.size();
+    }
+
+    public HnswIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 关闭向量化使用的线程池
+     */
+    public void shutdown() {
+        embedder.shutdown();
+    }
+
+    private List<RetrievedChunk> search(HnswIndex current, float[] queryVector, int k) {
+        HnswIndex.SearchResult result = current.search(queryVector, k);
+        List<RetrievedChunk> chunks = new ArrayList<>(result.size());
+        synchronized (texts) {
+            for (int i = 0; i < result.size(); i++) {
+                if (result.score(i) < minScore) {
+                    break;
+                }
+                int id = result.id(i);
+                chunks.add(new RetrievedChunk(id, sources.get(id), texts.get(id), result.score(i)));
+            }
+        }
+        return chunks;
+    }
+
+    private int ingest(String source, List<String> chunks) {
+        float[][] vectors = embedder.embedAll(chunks);
+        synchronized (this) {
+            HnswIndex current = index;
+            if (current == null) {
+                current = new HnswIndex(vectors[0].length, m, efConstruction, efSearch);
+            }
+            // 先登记块内容，索引发布后检索才可能返回这些编号；添加失败时索引不会发布这些编号，登记随之撤销
+            int registered;
+            synchronized (texts) {
+                registered = texts.size();
+                for (String chunk : chunks) {
+                    texts.add(chunk);
+                    sources.add(source);
+                }
+            }
+            try {
+                current.addAll(vectors, buildPool);
+            } catch (RuntimeException | Error e) {
+                synchronized (texts) {
+                    texts.subList(registered, texts.size()).clear();
+                    sources.subList(registered, sources.size()).clear();
+                }
+                throw e;
+            }
+            index = current;
+        }
+        return chunks.size();
+    }
+
+    public static final class Builder {
+        private final BatchEmbedder embedder;
+        private int chunkSize = 800;
+        private int chunkOverlap = 100;
+        private int topK = 4;
+        private float minScore = 0;
+        private int ingestBatchSize = 256;
+        private int m = 16;
+        private int efConstruction = 200;
+        private int efSearch = 64;
+        private ForkJoinPool buildPool = ForkJoinPool.commonPool();
+
+        private Builder(BatchEmbedder embedder) {
+            this.embedder = embedder;
+        }
+
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public Builder chunkOverlap(int chunkOverlap) {
+            this.chunkOverlap = chunkOverlap;
+            return this;
+        }
+
+        public Builder topK(int topK) {
+            this.topK = topK;
+            return this;
+        }
+
+        /**
+         * 相似度低于该值的块不注入
+         */
+        public Builder minScore(float minScore) {
+            this.minScore = minScore;
+            return this;
+        }
+
+        /**
+         * 累积多少个块后向量化并写入索引
+         */
+        public Builder ingestBatchSize(int ingestBatchSize) {
+            this.ingestBatchSize = ingestBatchSize;
+            return this;
+        }
+
+        public Builder index(int m, int efConstruction, int efSearch) {
+            this.m = m;
+            this.efConstruction = efConstruction;
+            this.efSearch = efSearch;
+            return this;
+        }
+
+        public Builder buildPool(ForkJoinPool buildPool) {
+            this.buildPool = buildPool;
+            return this;
+        }
+
+        public RagPipeline build() {
+            return new RagPipeline(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.chow.easy.ai.framework.rag;
+
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.BaseAiServiceImpl;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.StreamHandle;
+import com.chow.easy.ai.framework.structured.JsonStreamListener;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 检索增强的服务包装
+ * 对话类方法在委托给原服务之前注入检索结果；检索本身需要请求一次向量接口，异步方法中这一步在调用线程上完成
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class RetrievalAugmentedService implements AiService {
+
+    private final AiService delegate;
+    private final RagPipeline pipeline;
+
+    RetrievalAugmentedService(AiService delegate, RagPipeline pipeline) {
+        this.delegate = delegate;
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public String chat(String prompt) {
+        return chat(BaseAiServiceImpl.promptMessages(prompt));
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages) {
+        return delegate.chat(pipeline.augment(messages));
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages, ChatOptions options) {
+        return delegate.chat(pipeline.augment(messages), options);
+    }
+
+    @Override
+    public void chatStream(String prompt, Consumer<String> callback) {
+        chatStream(BaseAiServiceImpl.promptMessages(prompt), callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, Consumer<String> callback) {
+        delegate.chatStream(pipeline.augment(messages), callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        delegate.chatStream(pipeline.augment(messages), options, callback);
+    }
+
+    @Override
+    public StreamHandle chatStreamAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.chatStreamAsync(pipeline.augment(messages), options, callback);
+    }
+
+    @Override
+    public StreamHandle completeAsync(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.completeAsync(pipeline.augment(messages), options, callback);
+    }
+
+    @Override
+    public ChatCompletion complete(List<AiMessage> messages, ChatOptions options) {
+        return delegate.complete(pipeline.augment(messages), options);
+    }
+
+    @Override
+    public ChatCompletion completeStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.completeStream(pipeline.augment(messages), options, callback);
+    }
+
+    @Override
+    public <T> T chatForObject(List<AiMessage> messages, Class<T> type, ChatOptions options) {
+        return delegate.chatForObject(pipeline.augment(messages), type, options);
+    }
+
+    @Override
+    public <T> T chatStreamForObject(List<AiMessage> messages, Class<T> type, ChatOptions options,
+                                     JsonStreamListener listener) {
+        return delegate.chatStreamForObject(pipeline.augment(messages), type, options, listener);
+    }
+
+    @Override
+    public PooledTextBuffer chatStreamBuffered(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return delegate.chatStreamBuffered(pipeline.augment(messages), options, callback);
+    }
+
+    @Override
+    public float[][] embed(List<String> texts, ChatOptions options) {
+        return delegate.embed(texts, options);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+}
@@ -0,0 +1,23 @@
+package com.chow.easy.ai.framework.rag;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 检索到的文档块
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+@AllArgsConstructor
+public class RetrievedChunk {
+    //块在向量库中的编号
+    private final int id;
+    //来源文档
+    private final String source;
+    //块内容
+    private final String text;
+    //与查询的余弦相似度
+    private final float score;
+}
@@ -0,0 +1,72 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 一次级联路由的结果
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+@AllArgsConstructor
+public class CascadeResult {
+
+    /**
+     * 最终返回的回复
+     */
+    private final ChatCompletion completion;
+
+    /**
+     * 给出最终回复的级别，从0开始
+     */
+    private final int tier;
+
+    /**
+     * 给出最终回复的模型
+     */
+    private final String tierLabel;
+
+    /**
+     * 所有尝试的总费用（含被拒绝的低成本回复）
+     */
+    private final double cost;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private final long latencyMillis;
+
+    /**
+     * 每一级的尝试记录
+     */
+    private final List<Attempt> attempts;
+
+    public String getContent() {
+        return completion.getContent();
+    }
+
+    /**
+     * 是否发生了升级
+     */
+    public boolean isEscalated() {
+        return tier > 0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Attempt {
+        private final String tierLabel;
+        private final long latencyMillis;
+        private final double cost;
+        private final boolean accepted;
+        /**
+         * 调用失败时的错误信息，成功时为null
+         */
+        private final String error;
+    }
+}
@@ -0,0 +1,160 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.DeadlineExceededException;
+import com.chow.easy.ai.framework.scheduler.RequestRejectedException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 低成本优先的级联路由
+ * 依次尝试从便宜到昂贵的模型，回复通过验收即返回，否则升级到下一级；最后一级的回复无需验收。
+ * 所有级别共享同一个超时预算，低级别调用失败同样视为需要升级；截止时间已到或被调度器拒绝（队列已满、预算耗尽）时
+ * 立即以原异常结束，不再升级到更昂贵的级别
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class CascadeRouter {
+
+    private final String name;
+    private final List<CascadeTier> tiers;
+    private final ResponseAcceptor acceptor;
+    private final RouteStats stats;
+
+    private CascadeRouter(Builder builder) {
+        if (builder.tiers.isEmpty()) {
+            throw new IllegalArgumentException("级联路由 " + builder.name + " 至少需要一级模型");
+        }
+        this.name = builder.name;
+        this.tiers = Collections.unmodifiableList(new ArrayList<>(builder.tiers));
+        this.acceptor = builder.acceptor;
+        this.stats = new RouteStats(name, tiers.size());
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<CascadeTier> getTiers() {
+        return tiers;
+    }
+
+    public RouteStats.Snapshot getStats() {
+        return stats.snapshot();
+    }
+
+    public String chat(List<AiMessage> messages) {
+        return complete(messages, ChatOptions.DEFAULT).getContent();
+    }
+
+    /**
+     * 执行级联路由
+     *
+     * @param messages 对话消息
+     * @param options  请求参数，其中的模型会被各级配置的模型覆盖
+     */
+    public CascadeResult complete(List<AiMessage> messages, ChatOptions options) {
+        ChatOptions base = (options == null ? ChatOptions.DEFAULT : options).withResolvedDeadline();
+        long start = System.nanoTime();
+        List<CascadeResult.Attempt> attempts = new ArrayList<>(tiers.size());
+        double cost = 0;
+        RuntimeException lastError = null;
+
+        for (int i = 0; i < tiers.size(); i++) {
+            CascadeTier tier = tiers.get(i);
+            boolean last = i == tiers.size() - 1;
+            long attemptStart = System.nanoTime();
+            ChatCompletion completion;
+            try {
+                completion = tier.getService().complete(messages, tierOptions(base, tier, last));
+            } catch (DeadlineExceededException | RequestRejectedException e) {
+                stats.recordFailure();
+                log.warn("级联路由 {} 第{}级 {} 超过截止时间或被拒绝，停止升级: {}", name, i, tier.getLabel(), e.getMessage());
+                throw e;
+            } catch (RuntimeException e) {
+                long latency = (System.nanoTime() - attemptStart) / 1_000_000;
+                attempts.add(new CascadeResult.Attempt(tier.getLabel(), latency, 0, false, e.getMessage()));
+                if (last) {
+                    stats.recordTopTierCall(latency);
+                }
+                log.warn("级联路由 {} 第{}级 {} 调用失败: {}", name, i, tier.getLabel(), e.getMessage());
+                lastError = e;
+                continue;
+            }
+            long latency = (System.nanoTime() - attemptStart) / 1_000_000;
+            double attemptCost = tier.cost(completion);
+            cost += attemptCost;
+            if (last) {
+                stats.recordTopTierCall(latency);
+            }
+
+            boolean accepted = last || acceptor.accept(completion);
+            attempts.add(new CascadeResult.Attempt(tier.getLabel(), latency, attemptCost, accepted, null));
+            if (accepted) {
+                CascadeResult result = new CascadeResult(completion, i, tier.getLabel(), cost,
+                        (System.nanoTime() - start) / 1_000_000, Collections.unmodifiableList(attempts));
+                stats.recordResult(result, tiers.get(tiers.size() - 1).cost(completion), last);
+                if (i > 0) {
+                    log.debug("级联路由 {} 升级到第{}级 {} 完成，耗时 {}ms", name, i, tier.getLabel(), result.getLatencyMillis());
+                }
+                return result;
+            }
+            log.debug("级联路由 {} 第{}级 {} 的回复未通过验收，升级", name, i, tier.getLabel());
+        }
+
+        stats.recordFailure();
+        throw new RuntimeException("级联路由 " + name + " 所有级别均调用失败: " + lastError.getMessage(), lastError);
+    }
+
+    private ChatOptions tierOptions(ChatOptions base, CascadeTier tier, boolean last) {
+        ChatOptions.Builder builder = base.toBuilder();
+        if (tier.getModel() != null) {
+            builder.model(tier.getModel());
+        }
+        if (!last && acceptor.requiresLogprobs() && !base.getParameters().containsKey("logprobs")) {
+            builder.parameter("logprobs", true);
+        }
+        return builder.build();
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<CascadeTier> tiers = new ArrayList<>();
+        private ResponseAcceptor acceptor = ResponseAcceptor.finishedNormally();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 追加一级，按从便宜到昂贵的顺序添加
+         */
+        public Builder tier(CascadeTier tier) {
+            tiers.add(tier);
+            return this;
+        }
+
+        /**
+         * 低级别回复的验收规则，默认要求模型正常结束
+         */
+        public Builder acceptor(ResponseAcceptor acceptor) {
+            this.acceptor = acceptor;
+            return this;
+        }
+
+        public CascadeRouter build() {
+            return new CascadeRouter(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 级联路由注册表
+ * 配置文件中的路由在首次使用时创建；需要自定义验收规则（如校验器）的路由可用 {@link CascadeRouter#builder} 构建后注册
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class CascadeRouterRegistry {
+
+    private final AiServiceFactory aiServiceFactory;
+    private final Map<String, EasyAiFrameworkProperties.Route> routeConfigs;
+    private final Map<String, CascadeRouter> routers = new ConcurrentHashMap<>();
+
+    public CascadeRouterRegistry(AiServiceFactory aiServiceFactory, EasyAiFrameworkProperties.Routing routing) {
+        this.aiServiceFactory = aiServiceFactory;
+        this.routeConfigs = routing.getRoutes();
+    }
+
+    /**
+     * 注册或替换路由
+     */
+    public void register(CascadeRouter router) {
+        routers.put(router.getName(), router);
+    }
+
+    /**
+     * 获取路由
+     *
+     * @throws IllegalArgumentException 路由不存在
+     */
+    public CascadeRouter get(String name) {
+        CascadeRouter router = routers.computeIfAbsent(name, this::createFromConfig);
+        if (router == null) {
+            throw new IllegalArgumentException("Cascade route not configured: " + name);
+        }
+        return router;
+    }
+
+    /**
+     * 已创建路由的统计快照
+     */
+    public List<RouteStats.Snapshot> getStats() {
+        List<RouteStats.Snapshot> stats = new ArrayList<>(routers.size());
+        for (CascadeRouter router : routers.values()) {
+            stats.add(router.getStats());
+        }
+        return stats;
+    }
+
+    private CascadeRouter createFromConfig(String name) {
+        EasyAiFrameworkProperties.Route route = routeConfigs.get(name);
+        if (route == null) {
+            return null;
+        }
+        CascadeRouter.Builder builder = CascadeRouter.builder(name);
+        for (EasyAiFrameworkProperties.RouteTier tier : route.getTiers()) {
+            List<String> supported = aiServiceFactory.getSupportedModels(tier.getProvider());
+            if (tier.getModel() != null && supported != null && !supported.isEmpty() && !supported.contains(tier.getModel())) {
+                log.warn("级联路由 {} 的模型 {} 不在 {} 的已知模型列表中", name, tier.getModel(), tier.getProvider());
+            }
+            builder.tier(new CascadeTier(aiServiceFactory.getService(tier.getProvider()), tier.getModel(),
+                    tier.getInputCostPer1k(), tier.getOutputCostPer1k()));
+        }
+
+        ResponseAcceptor acceptor = ResponseAcceptor.always();
+        if (route.isRequireStop()) {
+            acceptor = acceptor.and(ResponseAcceptor.finishedNormally());
+        }
+        if (route.getMinLength() > 0) {
+            acceptor = acceptor.and(ResponseAcceptor.minLength(route.getMinLength()));
+        }
+        if (route.getMinAverageLogprob() != null) {
+            acceptor = acceptor.and(ResponseAcceptor.minAverageLogprob(route.getMinAverageLogprob()));
+        }
+        log.info("创建级联路由 {}，共 {} 级", name, route.getTiers().size());
+        return builder.acceptor(acceptor).build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import lombok.Getter;
+
+/**
+ * 级联路由中的一级：提供商服务、模型与单价
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+public class CascadeTier {
+
+    private final AiService service;
+    /**
+     * 模型名称，为null时使用提供商默认模型
+     */
+    private final String model;
+    /**
+     * 每千个输入token的价格
+     */
+    private final double inputCostPer1k;
+    /**
+     * 每千个输出token的价格
+     */
+    private final double outputCostPer1k;
+
+    public CascadeTier(AiService service, String model, double inputCostPer1k, double outputCostPer1k) {
+        if (service == null) {
+            throw new IllegalArgumentException("级联路由的服务不能为空");
+        }
+        this.service = service;
+        this.model = model;
+        this.inputCostPer1k = inputCostPer1k;
+        this.outputCostPer1k = outputCostPer1k;
+    }
+
+    /**
+     * 按token用量计算费用，用量未知时按0计
+     */
+    public double cost(int promptTokens, int completionTokens) {
+        return (Math.max(promptTokens, 0) * inputCostPer1k + Math.max(completionTokens, 0) * outputCostPer1k) / 1000;
+    }
+
+    double cost(ChatCompletion completion) {
+        return cost(completion.getPromptTokens(), completion.getCompletionTokens());
+    }
+
+    /**
+     * 用于日志与统计的名称
+     */
+    public String getLabel() {
+        return service.getProviderName() + "/" + (model == null ? "default" : model);
+    }
+}
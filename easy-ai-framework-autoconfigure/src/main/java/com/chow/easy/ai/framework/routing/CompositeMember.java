@@ -0,0 +1,40 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import lombok.Getter;
+
+/**
+ * 竞速或并行聚合中的一个成员：提供商服务与模型
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+public class CompositeMember {
+
+    private final AiService service;
+    /**
+     * 模型名称，为null时使用提供商默认模型
+     */
+    private final String model;
+
+    public CompositeMember(AiService service, String model) {
+        if (service == null) {
+            throw new IllegalArgumentException("组合服务的成员不能为空");
+        }
+        this.service = service;
+        this.model = model;
+    }
+
+    /**
+     * 用于日志与统计的名称
+     */
+    public String getLabel() {
+        return service.getProviderName() + "/" + (model == null ? "default" : model);
+    }
+
+    ChatOptions options(ChatOptions base) {
+        return model == null ? base : base.toBuilder().model(model).build();
+    }
+}
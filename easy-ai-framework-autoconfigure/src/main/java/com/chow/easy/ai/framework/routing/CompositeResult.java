@@ -0,0 +1,78 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 一次竞速或并行聚合的结果
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+@AllArgsConstructor
+public class CompositeResult {
+
+    /**
+     * 最终返回的回复
+     */
+    private final ChatCompletion completion;
+
+    /**
+     * 被采用的成员，从0开始；聚合器合成了新回复时为-1
+     */
+    private final int member;
+
+    /**
+     * 被采用的成员名称，聚合器合成了新回复时为null
+     */
+    private final String memberLabel;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private final long latencyMillis;
+
+    /**
+     * 估算赢得的耗时（毫秒）
+     * 竞速：相对只调用第一个成员，按第一个成员的实际或外推耗时估算；并行聚合：相对依次调用各成员
+     */
+    private final long latencyWonMillis;
+
+    /**
+     * 浪费的输出token：未被采用的回复与被取消的请求已消耗的token
+     */
+    private final long wastedTokens;
+
+    /**
+     * 每个成员的尝试记录，顺序与成员一致
+     */
+    private final List<Attempt> attempts;
+
+    public String getContent() {
+        return completion.getContent();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Attempt {
+        private final String memberLabel;
+        /**
+         * 从发起到结束或被取消的耗时（毫秒）
+         */
+        private final long latencyMillis;
+        /**
+         * 输出token数，用量未知或被取消时按已收到的内容块估算
+         */
+        private final long tokens;
+        private final boolean selected;
+        private final boolean cancelled;
+        /**
+         * 调用失败时的错误信息，成功或被取消时为null
+         */
+        private final String error;
+    }
+}
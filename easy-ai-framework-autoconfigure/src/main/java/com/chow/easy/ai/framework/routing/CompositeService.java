@@ -0,0 +1,251 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.StreamHandle;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * 把同一个请求同时发给多个成员的组合服务
+ * 成员通过 {@link AiService#completeAsync} 以流式方式并行调用，不再需要的请求随时取消，提供商随之停止生成
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public abstract class CompositeService implements AiService {
+
+    protected final String name;
+    protected final List<CompositeMember> members;
+    protected final CompositeStats stats;
+    private final String providerName;
+
+    protected CompositeService(String mode, String name, List<CompositeMember> members) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException(mode + " " + name + " 至少需要一个成员");
+        }
+        this.name = name;
+        this.members = Collections.unmodifiableList(new ArrayList<>(members));
+        this.stats = new CompositeStats(name, members.size());
+        this.providerName = mode + ":" + name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<CompositeMember> getMembers() {
+        return members;
+    }
+
+    public CompositeStats.Snapshot getStats() {
+        return stats.snapshot();
+    }
+
+    public CompositeResult execute(List<AiMessage> messages, ChatOptions options) {
+        return execute(messages, options, null);
+    }
+
+    /**
+     * 执行一次组合调用
+     *
+     * @param messages 对话消息
+     * @param options  请求参数，其中的模型会被成员配置的模型覆盖
+     * @param callback 内容块回调，为null时不回调
+     */
+    public abstract CompositeResult execute(List<AiMessage> messages, ChatOptions options, Consumer<String> callback);
+
+    @Override
+    public String chat(String prompt) {
+        return chat(Collections.singletonList(new AiMessage("user", prompt)));
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages) {
+        return chat(messages, ChatOptions.DEFAULT);
+    }
+
+    @Override
+    public String chat(List<AiMessage> messages, ChatOptions options) {
+        return complete(messages, options).getContent();
+    }
+
+    @Override
+    public void chatStream(String prompt, Consumer<String> callback) {
+        chatStream(Collections.singletonList(new AiMessage("user", prompt)), callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, Consumer<String> callback) {
+        chatStream(messages, ChatOptions.DEFAULT, callback);
+    }
+
+    @Override
+    public void chatStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        completeStream(messages, options, callback);
+    }
+
+    @Override
+    public ChatCompletion complete(List<AiMessage> messages, ChatOptions options) {
+        return execute(messages, options).getCompletion();
+    }
+
+    @Override
+    public ChatCompletion completeStream(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return execute(messages, options, callback).getCompletion();
+    }
+
+    @Override
+    public String getProviderName() {
+        return providerName;
+    }
+
+    /**
+     * 任一成员可用即可用
+     */
+    @Override
+    public boolean isAvailable() {
+        for (CompositeMember member : members) {
+            if (member.getService().isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一次调用中所有成员的请求状态
+     */
+    static final class Fanout {
+
+        private final List<CompositeMember> members;
+        private final StreamHandle[] handles;
+        private final Throwable[] launchErrors;
+        private final AtomicLongArray endNanos;
+        private final long startNanos = System.nanoTime();
+
+        Fanout(List<CompositeMember> members) {
+            this.members = members;
+            this.handles = new StreamHandle[members.size()];
+            this.launchErrors = new Throwable[members.size()];
+            this.endNanos = new AtomicLongArray(members.size());
+        }
+
+        /**
+         * 依次发起所有成员的请求，每个成员结束（正常完成、失败或被取消）后以成员序号调用 listener
+         */
+        void launch(List<AiMessage> messages, ChatOptions base, IntFunction<Consumer<String>> callbacks,
+                    IntConsumer listener) {
+            for (int i = 0; i < handles.length; i++) {
+                final int index = i;
+                CompositeMember member = members.get(i);
+                StreamHandle handle;
+                try {
+                    handle = member.getService().completeAsync(messages, member.options(base), callbacks.apply(i));
+                } catch (RuntimeException e) {
+                    log.warn("组合调用成员 {} 发起失败: {}", member.getLabel(), e.getMessage());
+                    launchErrors[i] = e;
+                    endNanos.set(i, System.nanoTime());
+                    listener.accept(i);
+                    continue;
+                }
+                handles[i] = handle;
+                handle.getCompletion().whenComplete((done, e) -> {
+                    endNanos.set(index, System.nanoTime());
+                    listener.accept(index);
+                });
+            }
+        }
+
+        ChatCompletion result(int index) {
+            StreamHandle handle = handles[index];
+            return handle == null ? null : handle.getResult();
+        }
+
+        Throwable error(int index) {
+            StreamHandle handle = handles[index];
+            return handle == null ? launchErrors[index] : handle.getError();
+        }
+
+        /**
+         * 最后一个失败成员的异常，没有失败时为null
+         */
+        Throwable lastError() {
+            Throwable last = null;
+            for (int i = 0; i < handles.length; i++) {
+                if (error(i) != null) {
+                    last = error(i);
+                }
+            }
+            return last;
+        }
+
+        void await(int index) {
+            if (handles[index] != null) {
+                handles[index].await();
+            }
+        }
+
+        /**
+         * 取消除指定成员外所有仍在进行的请求，keep 为-1时全部取消
+         */
+        void cancelExcept(int keep) {
+            for (int i = 0; i < handles.length; i++) {
+                if (i != keep && handles[i] != null && handles[i].cancel()) {
+                    log.debug("组合调用取消成员 {}，已消耗 {} token", members.get(i).getLabel(),
+                            handles[i].getConsumedTokens());
+                }
+            }
+        }
+
+        /**
+         * 成员消耗的输出token：有完整结果且带用量时按用量，否则按已收到的增量事件估算
+         */
+        long tokens(int index) {
+            StreamHandle handle = handles[index];
+            if (handle == null) {
+                return 0;
+            }
+            ChatCompletion result = handle.getResult();
+            if (result != null && result.getCompletionTokens() >= 0) {
+                return result.getCompletionTokens();
+            }
+            return handle.getConsumedTokens();
+        }
+
+        long timeToFirstChunkMillis(int index) {
+            StreamHandle handle = handles[index];
+            return handle == null ? -1 : handle.getTimeToFirstChunkMillis();
+        }
+
+        long latencyMillis(int index) {
+            long end = endNanos.get(index);
+            return ((end == 0 ? System.nanoTime() : end) - startNanos) / 1_000_000;
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        List<CompositeResult.Attempt> attempts(int selected) {
+            List<CompositeResult.Attempt> attempts = new ArrayList<>(handles.length);
+            for (int i = 0; i < handles.length; i++) {
+                Throwable error = error(i);
+                boolean cancelled = handles[i] != null && handles[i].isCancelled();
+                attempts.add(new CompositeResult.Attempt(members.get(i).getLabel(), latencyMillis(i), tokens(i),
+                        i == selected, cancelled, error == null ? null : error.getMessage()));
+            }
+            return Collections.unmodifiableList(attempts);
+        }
+    }
+}
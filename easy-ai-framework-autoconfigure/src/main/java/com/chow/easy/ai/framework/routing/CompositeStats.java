@@ -0,0 +1,110 @@
+package com.chow.easy.ai.framework.routing;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 竞速与并行聚合的累计统计
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class CompositeStats {
+
+    private final String name;
+    private final AtomicLongArray wins;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final LongAdder latencyWonMillis = new LongAdder();
+    private final LongAdder wastedTokens = new LongAdder();
+    //第一个成员的实际或外推耗时，用于估算竞速赢得的时间
+    private final LongAdder primaryCalls = new LongAdder();
+    private final LongAdder primaryLatencyMillis = new LongAdder();
+
+    CompositeStats(String name, int members) {
+        this.name = name;
+        this.wins = new AtomicLongArray(members);
+    }
+
+    void recordPrimaryCall(long latencyMillis) {
+        primaryCalls.increment();
+        primaryLatencyMillis.add(latencyMillis);
+    }
+
+    /**
+     * 第一个成员的平均耗时，尚无样本时为 NaN
+     */
+    double primaryAverageLatencyMillis() {
+        long calls = primaryCalls.sum();
+        return calls == 0 ? Double.NaN : (double) primaryLatencyMillis.sum() / calls;
+    }
+
+    void recordResult(CompositeResult result) {
+        requests.increment();
+        if (result.getMember() >= 0) {
+            wins.incrementAndGet(result.getMember());
+        }
+        totalLatencyMillis.add(result.getLatencyMillis());
+        latencyWonMillis.add(result.getLatencyWonMillis());
+        wastedTokens.add(result.getWastedTokens());
+    }
+
+    void recordFailure(long wasted) {
+        failures.increment();
+        wastedTokens.add(wasted);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[wins.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = wins.get(i);
+        }
+        long total = requests.sum();
+        return new Snapshot(name, total, failures.sum(), counts,
+                total == 0 ? 0 : (double) totalLatencyMillis.sum() / total,
+                latencyWonMillis.sum(), wastedTokens.sum());
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final String name;
+        private final long requests;
+        private final long failures;
+        /**
+         * 每个成员的回复被采用的次数
+         */
+        private final long[] wins;
+        private final double averageLatencyMillis;
+        /**
+         * 估算赢得的总耗时（毫秒）
+         */
+        private final long latencyWonMillis;
+        /**
+         * 浪费的输出token总数
+         */
+        private final long wastedTokens;
+
+        Snapshot(String name, long requests, long failures, long[] wins, double averageLatencyMillis,
+                 long latencyWonMillis, long wastedTokens) {
+            this.name = name;
+            this.requests = requests;
+            this.failures = failures;
+            this.wins = wins;
+            this.averageLatencyMillis = averageLatencyMillis;
+            this.latencyWonMillis = latencyWonMillis;
+            this.wastedTokens = wastedTokens;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CompositeStats{name=%s, requests=%d, failures=%d, wins=%s, avgLatency=%.1fms, "
+                            + "latencyWon=%dms, wastedTokens=%d}",
+                    name, requests, failures, Arrays.toString(wins), averageLatencyMillis,
+                    latencyWonMillis, wastedTokens);
+        }
+    }
+}
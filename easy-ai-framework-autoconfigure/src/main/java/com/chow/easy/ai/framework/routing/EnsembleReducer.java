@@ -0,0 +1,89 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.ChatCompletion;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 并行聚合的归并规则：从多个成员的回复中选出或合成最终回复
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@FunctionalInterface
+public interface EnsembleReducer {
+
+    /**
+     * @param answers 成功返回的回复，按返回先后排序，至少一个
+     * @return 最终回复；返回其中某个回复时该成员记为被采用，其余回复计入浪费的token
+     */
+    ChatCompletion reduce(List<ChatCompletion> answers);
+
+    /**
+     * 采用最先返回的回复
+     */
+    static EnsembleReducer fastest() {
+        return answers -> answers.get(0);
+    }
+
+    /**
+     * 采用内容最长的回复，长度相同时取先返回的
+     */
+    static EnsembleReducer longest() {
+        return answers -> {
+            ChatCompletion best = answers.get(0);
+            for (ChatCompletion answer : answers) {
+                int length = answer.getContent() == null ? 0 : answer.getContent().length();
+                if (length > (best.getContent() == null ? 0 : best.getContent().length())) {
+                    best = answer;
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * 多数表决：按 {@link #normalize(String)} 规整后的内容分组，采用票数最多的一组中最先返回的回复，
+     * 票数相同时取先返回的一组
+     */
+    static EnsembleReducer majorityVote() {
+        return majorityVote(EnsembleReducer::normalize);
+    }
+
+    /**
+     * 按自定义的键多数表决，如从回复中提取分类标签或最终答案
+     */
+    static EnsembleReducer majorityVote(Function<String, String> key) {
+        return answers -> {
+            Map<String, List<ChatCompletion>> groups = new LinkedHashMap<>();
+            for (ChatCompletion answer : answers) {
+                String content = answer.getContent() == null ? "" : answer.getContent();
+                groups.computeIfAbsent(key.apply(content), k -> new ArrayList<>()).add(answer);
+            }
+            List<ChatCompletion> best = null;
+            for (List<ChatCompletion> group : groups.values()) {
+                if (best == null || group.size() > best.size()) {
+                    best = group;
+                }
+            }
+            return best.get(0);
+        };
+    }
+
+    /**
+     * 默认的表决键：去掉首尾空白与结尾标点，合并连续空白并转为小写
+     */
+    static String normalize(String content) {
+        String value = content.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        int end = value.length();
+        while (end > 0 && ".。!！?？".indexOf(value.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+}
@@ -0,0 +1,167 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.DeadlineExceededException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 并行聚合：同一个请求同时发给所有成员，由 {@link EnsembleReducer} 从多个回复中选出最终回复
+ * 设置法定数量后，成功返回的回复达到该数量即开始归并并取消其余请求；
+ * 流式调用在归并完成后把最终回复作为一个内容块交给回调
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class EnsembleService extends CompositeService {
+
+    private final EnsembleReducer reducer;
+    private final int quorum;
+
+    private EnsembleService(Builder builder) {
+        super("ensemble", builder.name, builder.members);
+        int required = builder.quorum == 0 ? members.size() : builder.quorum;
+        if (required < 1 || required > members.size()) {
+            throw new IllegalArgumentException("并行聚合 " + name + " 的法定数量必须在1到成员数之间: " + builder.quorum);
+        }
+        this.reducer = builder.reducer;
+        this.quorum = required;
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public int getQuorum() {
+        return quorum;
+    }
+
+    @Override
+    public CompositeResult execute(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        ChatOptions base = (options == null ? ChatOptions.DEFAULT : options).withResolvedDeadline();
+        Fanout fanout = new Fanout(members);
+        List<Integer> answered = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger pending = new AtomicInteger(members.size());
+        CompletableFuture<Void> decided = new CompletableFuture<>();
+
+        fanout.launch(messages, base, index -> chunk -> {
+        }, index -> {
+            if (fanout.result(index) != null) {
+                answered.add(index);
+                if (answered.size() >= quorum) {
+                    decided.complete(null);
+                }
+            }
+            if (pending.decrementAndGet() == 0) {
+                decided.complete(null);
+            }
+        });
+
+        decided.join();
+        List<Integer> used;
+        synchronized (answered) {
+            used = new ArrayList<>(answered);
+        }
+        fanout.cancelExcept(-1);
+        if (used.isEmpty()) {
+            long wasted = 0;
+            for (int i = 0; i < members.size(); i++) {
+                wasted += fanout.tokens(i);
+            }
+            stats.recordFailure(wasted);
+            Throwable cause = fanout.lastError();
+            if (cause instanceof DeadlineExceededException) {
+                throw (DeadlineExceededException) cause;
+            }
+            throw new RuntimeException("并行聚合 " + name + " 所有成员均调用失败: "
+                    + (cause == null ? "无回复" : cause.getMessage()), cause);
+        }
+
+        List<ChatCompletion> answers = new ArrayList<>(used.size());
+        for (int index : used) {
+            answers.add(fanout.result(index));
+        }
+        ChatCompletion completion = reducer.reduce(Collections.unmodifiableList(answers));
+        if (completion == null) {
+            stats.recordFailure(0);
+            throw new IllegalStateException("并行聚合 " + name + " 的归并规则没有返回回复");
+        }
+        int selected = -1;
+        for (int k = 0; k < answers.size(); k++) {
+            if (answers.get(k) == completion) {
+                selected = used.get(k);
+                break;
+            }
+        }
+        // 归并规则合成新回复时，参与归并的回复都算作被采用
+        long wasted = 0;
+        long sequential = 0;
+        for (int i = 0; i < members.size(); i++) {
+            if (i != selected && (selected >= 0 || !used.contains(i))) {
+                wasted += fanout.tokens(i);
+            }
+            sequential += fanout.latencyMillis(i);
+        }
+
+        long latency = fanout.elapsedMillis();
+        CompositeResult result = new CompositeResult(completion, selected,
+                selected < 0 ? null : members.get(selected).getLabel(), latency, Math.max(0, sequential - latency),
+                wasted, fanout.attempts(selected));
+        stats.recordResult(result);
+        if (callback != null && completion.getContent() != null) {
+            callback.accept(completion.getContent());
+        }
+        log.debug("并行聚合 {} 归并 {} 个回复，耗时 {}ms，浪费 {} token", name, answers.size(), latency, wasted);
+        return result;
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<CompositeMember> members = new ArrayList<>();
+        private EnsembleReducer reducer = EnsembleReducer.majorityVote();
+        private int quorum;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder member(AiService service) {
+            return member(service, null);
+        }
+
+        public Builder member(AiService service, String model) {
+            members.add(new CompositeMember(service, model));
+            return this;
+        }
+
+        /**
+         * 归并规则，默认多数表决
+         */
+        public Builder reducer(EnsembleReducer reducer) {
+            this.reducer = reducer;
+            return this;
+        }
+
+        /**
+         * 成功返回多少个回复后开始归并，默认等待所有成员
+         */
+        public Builder quorum(int quorum) {
+            this.quorum = quorum;
+            return this;
+        }
+
+        public EnsembleService build() {
+            return new EnsembleService(this);
+        }
+    }
+}
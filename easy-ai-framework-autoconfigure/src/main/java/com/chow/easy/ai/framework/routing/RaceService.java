@@ -0,0 +1,146 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.DeadlineExceededException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 竞速：同一个请求同时发给所有成员，采用最先成功的回复并取消其余请求
+ * 非流式调用以最先完整返回的成员为准；流式调用以最先送达内容块的成员为准，此后只转发该成员的内容块。
+ * 成员失败时交付的错误内容块不参与竞速；所有成员均失败时抛出最后一个错误。
+ * 赢得的耗时相对只调用第一个成员估算，第一个成员被取消时按其已有的生成速度外推
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class RaceService extends CompositeService {
+
+    private RaceService(Builder builder) {
+        super("race", builder.name, builder.members);
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    @Override
+    public CompositeResult execute(List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        ChatOptions base = (options == null ? ChatOptions.DEFAULT : options).withResolvedDeadline();
+        Fanout fanout = new Fanout(members);
+        AtomicInteger winner = new AtomicInteger(-1);
+        AtomicInteger pending = new AtomicInteger(members.size());
+        CompletableFuture<Integer> decided = new CompletableFuture<>();
+
+        fanout.launch(messages, base, index -> callback == null ? chunk -> {
+        } : chunk -> {
+            if (winner.get() == index || (!isErrorChunk(chunk) && winner.compareAndSet(-1, index))) {
+                decided.complete(index);
+                callback.accept(chunk);
+            }
+        }, index -> {
+            // 没有正文内容（如纯工具调用）的成员在完成时参与竞速
+            if (fanout.result(index) != null && winner.compareAndSet(-1, index)) {
+                decided.complete(index);
+            }
+            if (pending.decrementAndGet() == 0) {
+                decided.complete(winner.get());
+            }
+        });
+
+        int win = decided.join();
+        fanout.cancelExcept(win);
+        if (win >= 0) {
+            fanout.await(win);
+        }
+        ChatCompletion completion = win < 0 ? null : fanout.result(win);
+        long wasted = 0;
+        for (int i = 0; i < members.size(); i++) {
+            if (i != win) {
+                wasted += fanout.tokens(i);
+            }
+        }
+        if (completion == null) {
+            stats.recordFailure(wasted + (win < 0 ? 0 : fanout.tokens(win)));
+            Throwable cause = win < 0 ? fanout.lastError() : fanout.error(win);
+            if (cause instanceof DeadlineExceededException) {
+                throw (DeadlineExceededException) cause;
+            }
+            String message = cause == null ? "无回复" : cause.getMessage();
+            throw new RuntimeException(win < 0 ? "竞速 " + name + " 所有成员均调用失败: " + message
+                    : "竞速 " + name + " 胜出成员 " + members.get(win).getLabel() + " 调用失败: " + message, cause);
+        }
+
+        long latency = fanout.elapsedMillis();
+        long latencyWon = win == 0 ? 0 : Math.max(0, Math.round(estimatePrimaryLatency(fanout, win) - latency));
+        CompositeResult result = new CompositeResult(completion, win, members.get(win).getLabel(), latency,
+                latencyWon, wasted, fanout.attempts(win));
+        stats.recordResult(result);
+        log.debug("竞速 {} 由 {} 胜出，耗时 {}ms，浪费 {} token", name, result.getMemberLabel(), latency, wasted);
+        return result;
+    }
+
+    /**
+     * 估算只调用第一个成员时的耗时，并把可用的估算计入统计
+     * 第一个成员已完整返回时取实际耗时；被取消前已收到多个内容块时，按首token耗时加上其生成速度外推生成与胜出回复等长内容的耗时；
+     * 都不满足时取此前的平均耗时，从未有过估算时为 NaN
+     */
+    private double estimatePrimaryLatency(Fanout fanout, int win) {
+        long primaryLatency = fanout.latencyMillis(0);
+        long primaryTokens = fanout.tokens(0);
+        long firstChunk = fanout.timeToFirstChunkMillis(0);
+        double estimate;
+        if (fanout.result(0) != null) {
+            estimate = primaryLatency;
+        } else if (primaryTokens > 1 && firstChunk >= 0) {
+            // 首token之后按已有的生成速度外推
+            long remaining = Math.max(fanout.tokens(win), primaryTokens) - 1;
+            estimate = firstChunk + (double) (primaryLatency - firstChunk) * remaining / (primaryTokens - 1);
+        } else {
+            return stats.primaryAverageLatencyMillis();
+        }
+        stats.recordPrimaryCall(Math.round(estimate));
+        return estimate;
+    }
+
+    /**
+     * 流式调用失败时，提供商把错误信息作为JSON内容块交给回调
+     */
+    private static boolean isErrorChunk(String chunk) {
+        return chunk.startsWith("{\"error\"");
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<CompositeMember> members = new ArrayList<>();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 追加成员，使用提供商默认模型；第一个成员作为估算赢得耗时的基准
+         */
+        public Builder member(AiService service) {
+            return member(service, null);
+        }
+
+        public Builder member(AiService service, String model) {
+            members.add(new CompositeMember(service, model));
+            return this;
+        }
+
+        public RaceService build() {
+            return new RaceService(this);
+        }
+    }
+}
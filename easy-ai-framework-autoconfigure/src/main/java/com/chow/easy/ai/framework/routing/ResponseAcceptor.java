@@ -0,0 +1,91 @@
+package com.chow.easy.ai.framework.routing;
+
+import com.chow.easy.ai.framework.core.ChatCompletion;
+
+import java.util.function.Predicate;
+
+/**
+ * 级联路由的回复验收规则
+ * 低成本模型的回复通过验收即直接返回，否则升级到下一级模型
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@FunctionalInterface
+public interface ResponseAcceptor {
+
+    /**
+     * 是否接受该回复
+     */
+    boolean accept(ChatCompletion completion);
+
+    /**
+     * 是否需要在请求中开启 logprobs
+     */
+    default boolean requiresLogprobs() {
+        return false;
+    }
+
+    default ResponseAcceptor and(ResponseAcceptor other) {
+        ResponseAcceptor self = this;
+        return new ResponseAcceptor() {
+            @Override
+            public boolean accept(ChatCompletion completion) {
+                return self.accept(completion) && other.accept(completion);
+            }
+
+            @Override
+            public boolean requiresLogprobs() {
+                return self.requiresLogprobs() || other.requiresLogprobs();
+            }
+        };
+    }
+
+    /**
+     * 接受所有回复
+     */
+    static ResponseAcceptor always() {
+        return completion -> true;
+    }
+
+    /**
+     * 模型正常结束（finish_reason 为 stop），未因长度截断
+     */
+    static ResponseAcceptor finishedNormally() {
+        return completion -> completion.getFinishReason() == null || "stop".equals(completion.getFinishReason());
+    }
+
+    /**
+     * 回复去除空白后不少于指定字符数
+     */
+    static ResponseAcceptor minLength(int minChars) {
+        return completion -> completion.getContent() != null && completion.getContent().trim().length() >= minChars;
+    }
+
+    /**
+     * 输出token平均对数概率不低于阈值；提供商未返回 logprobs 时不接受
+     *
+     * @param threshold 如 -0.3，越接近0要求越严格
+     */
+    static ResponseAcceptor minAverageLogprob(double threshold) {
+        return new ResponseAcceptor() {
+            @Override
+            public boolean accept(ChatCompletion completion) {
+                double average = completion.getAverageLogprob();
+                return !Double.isNaN(average) && average >= threshold;
+            }
+
+            @Override
+            public boolean requiresLogprobs() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 使用自定义校验器检查回复内容，例如校验JSON结构或关键字
+     */
+    static ResponseAcceptor validator(Predicate<String> validator) {
+        return completion -> completion.getContent() != null && validator.test(completion.getContent());
+    }
+}
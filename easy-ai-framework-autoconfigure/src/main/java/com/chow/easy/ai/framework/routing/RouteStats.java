@@ -0,0 +1,131 @@
+package com.chow.easy.ai.framework.routing;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 级联路由的累计统计
+ * 基线指所有请求都直接交给最后一级模型：基线费用按最终回复的token用量和最后一级的单价估算，
+ * 基线耗时按最后一级实际调用的平均耗时估算
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class RouteStats {
+
+    private final String route;
+    private final AtomicLongArray answeredByTier;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder escalations = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final DoubleAdder actualCost = new DoubleAdder();
+    private final DoubleAdder baselineCost = new DoubleAdder();
+    private final LongAdder topTierCalls = new LongAdder();
+    private final LongAdder topTierLatencyMillis = new LongAdder();
+    //在较低级别完成的请求数与耗时，用于估算节省的时间
+    private final LongAdder earlyRequests = new LongAdder();
+    private final LongAdder earlyLatencyMillis = new LongAdder();
+
+    RouteStats(String route, int tiers) {
+        this.route = route;
+        this.answeredByTier = new AtomicLongArray(tiers);
+    }
+
+    void recordTopTierCall(long latencyMillis) {
+        topTierCalls.increment();
+        topTierLatencyMillis.add(latencyMillis);
+    }
+
+    void recordResult(CascadeResult result, double baseline, boolean topTier) {
+        requests.increment();
+        answeredByTier.incrementAndGet(result.getTier());
+        escalations.add(result.getAttempts().size() - 1);
+        totalLatencyMillis.add(result.getLatencyMillis());
+        actualCost.add(result.getCost());
+        baselineCost.add(baseline);
+        if (!topTier) {
+            earlyRequests.increment();
+            earlyLatencyMillis.add(result.getLatencyMillis());
+        }
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+
+    public Snapshot snapshot() {
+        long[] tiers = new long[answeredByTier.length()];
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = answeredByTier.get(i);
+        }
+        long top = topTierCalls.sum();
+        double topAverage = top == 0 ? Double.NaN : (double) topTierLatencyMillis.sum() / top;
+        long early = earlyRequests.sum();
+        // 只有观察到过最后一级的耗时才能估算节省的时间
+        long latencySaved = top == 0 ? 0 : Math.round(early * topAverage - earlyLatencyMillis.sum());
+        long total = requests.sum();
+        return new Snapshot(route, total, failures.sum(), escalations.sum(), tiers,
+                total == 0 ? 0 : (double) totalLatencyMillis.sum() / total, topAverage,
+                actualCost.sum(), baselineCost.sum(), latencySaved);
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final String route;
+        private final long requests;
+        private final long failures;
+        private final long escalations;
+        /**
+         * 每一级给出最终回复的次数
+         */
+        private final long[] answeredByTier;
+        private final double averageLatencyMillis;
+        /**
+         * 最后一级模型单次调用的平均耗时，尚无调用时为 NaN
+         */
+        private final double topTierAverageLatencyMillis;
+        private final double actualCost;
+        private final double baselineCost;
+        /**
+         * 估算节省的总耗时（毫秒）
+         */
+        private final long latencySavedMillis;
+
+        Snapshot(String route, long requests, long failures, long escalations, long[] answeredByTier,
+                 double averageLatencyMillis, double topTierAverageLatencyMillis,
+                 double actualCost, double baselineCost, long latencySavedMillis) {
+            this.route = route;
+            this.requests = requests;
+            this.failures = failures;
+            this.escalations = escalations;
+            this.answeredByTier = answeredByTier;
+            this.averageLatencyMillis = averageLatencyMillis;
+            this.topTierAverageLatencyMillis = topTierAverageLatencyMillis;
+            this.actualCost = actualCost;
+            this.baselineCost = baselineCost;
+            this.latencySavedMillis = latencySavedMillis;
+        }
+
+        /**
+         * 相对基线节省的费用
+         */
+        public double getCostSaved() {
+            return baselineCost - actualCost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RouteStats{route=%s, requests=%d, failures=%d, escalations=%d, answeredByTier=%s, "
+                            + "avgLatency=%.1fms, topTierAvgLatency=%.1fms, cost=%.4f, baselineCost=%.4f, "
+                            + "costSaved=%.4f, latencySaved=%dms}",
+                    route, requests, failures, escalations, Arrays.toString(answeredByTier),
+                    averageLatencyMillis, topTierAverageLatencyMillis, actualCost, baselineCost,
+                    getCostSaved(), latencySavedMillis);
+        }
+    }
+}
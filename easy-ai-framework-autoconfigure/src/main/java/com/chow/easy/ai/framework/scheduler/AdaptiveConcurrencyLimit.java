@@ -0,0 +1,192 @@
+package com.chow.easy.ai.framework.scheduler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应并发上限（Vegas算法）
+ * 以观察到的最小RTT作为提供商无排队时的耗时，按 上限 × (1 - 最小RTT / 当前RTT) 估算提供商内部排队的请求数：
+ * 排队数低于 alpha 时上限增加 log10(上限)，高于 beta 时减少同样的幅度，从而逐步探测提供商可持续的并发数。
+ * <ul>
+ *     <li>429、5xx和读取超时视为过载信号，上限按比例下调；同一个RTT内的多次过载只下调一次，避免一阵429把上限压到最低</li>
+ *     <li>正在执行的请求不足上限一半时不上调，防止空闲期间上限无限膨胀</li>
+ *     <li>每隔一段样本重新测量最小RTT，跟随提供商负载或网络的长期变化</li>
+ * </ul>
+ * 流式请求按首个事件计时，不受输出长度影响；非流式请求按完整响应计时，输出长度差异会带来一定的噪声
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int probeMultiplier;
+
+    //以下字段由 this 保护
+    private double estimatedLimit;
+    private long noLoadRttNanos;
+    private long lastRttNanos;
+    private long lastBackoffNanos;
+    private long nextProbe;
+    private long samples;
+    private long drops;
+
+    private AdaptiveConcurrencyLimit(Builder builder) {
+        if (builder.minLimit < 1 || builder.maxLimit < builder.minLimit) {
+            throw new IllegalArgumentException("自适应并发上限的范围无效: " + builder.minLimit + " ~ " + builder.maxLimit);
+        }
+        if (builder.backoffRatio <= 0 || builder.backoffRatio >= 1) {
+            throw new IllegalArgumentException("过载时的下调比例必须在0到1之间: " + builder.backoffRatio);
+        }
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.probeMultiplier = Math.max(builder.probeMultiplier, 1);
+        this.estimatedLimit = Math.min(maxLimit, Math.max(minLimit, builder.initialLimit));
+        this.nextProbe = nextProbeAfter(0);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public synchronized int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * 请求正常完成
+     *
+     * @param rttNanos 从获得执行机会到收到首个响应事件（流式）或完整响应（非流式）的耗时
+     * @param inFlight 该请求获得执行机会时正在执行的请求数（含自身）
+     * @return 新的并发上限
+     */
+    public synchronized int onSample(long rttNanos, int inFlight) {
+        long rtt = Math.max(rttNanos, 1);
+        samples++;
+        lastRttNanos = rtt;
+        if (samples >= nextProbe) {
+            // 重新测量：以当前样本作为新的最小RTT起点
+            noLoadRttNanos = 0;
+            nextProbe = nextProbeAfter(samples);
+        }
+        if (noLoadRttNanos == 0 || rtt < noLoadRttNanos) {
+            noLoadRttNanos = rtt;
+            return (int) estimatedLimit;
+        }
+        if (inFlight * 2 < estimatedLimit) {
+            return (int) estimatedLimit;
+        }
+
+        double step = Math.max(1, Math.log10(estimatedLimit));
+        double queueSize = Math.ceil(estimatedLimit * (1 - (double) noLoadRttNanos / rtt));
+        if (queueSize <= 3 * step) {
+            estimatedLimit += step;
+        } else if (queueSize >= 6 * step) {
+            estimatedLimit -= step;
+        }
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, estimatedLimit));
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * 收到过载信号（429、5xx或读取超时）
+     *
+     * @return 新的并发上限
+     */
+    public synchronized int onDropped() {
+        drops++;
+        long now = System.nanoTime();
+        long window = Math.max(lastRttNanos, TimeUnit.MILLISECONDS.toNanos(100));
+        if (lastBackoffNanos != 0 && now - lastBackoffNanos < window) {
+            return (int) estimatedLimit;
+        }
+        lastBackoffNanos = now;
+        estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * 当前的最小RTT（毫秒），作为提供商无排队时的耗时；尚无样本时为0
+     */
+    public synchronized double getNoLoadRttMillis() {
+        return noLoadRttNanos / 1_000_000.0;
+    }
+
+    /**
+     * 最近一次RTT（毫秒），尚无样本时为0
+     */
+    public synchronized double getLastRttMillis() {
+        return lastRttNanos / 1_000_000.0;
+    }
+
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /**
+     * 收到的过载信号数
+     */
+    public synchronized long getDrops() {
+        return drops;
+    }
+
+    /**
+     * 下一次重新测量最小RTT的样本序号，加入随机量避免多个实例同时探测
+     */
+    private long nextProbeAfter(long current) {
+        long interval = (long) (probeMultiplier * Math.max(estimatedLimit, 1));
+        return current + interval + ThreadLocalRandom.current().nextLong(interval + 1);
+    }
+
+    public static final class Builder {
+        private int initialLimit = 10;
+        private int minLimit = 1;
+        private int maxLimit = 64;
+        private double backoffRatio = 0.9;
+        private int probeMultiplier = 30;
+
+        private Builder() {
+        }
+
+        /**
+         * 初始并发上限
+         */
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * 过载时上限的下调比例
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * 每隔 上限 × probeMultiplier 个样本重新测量一次最小RTT
+         */
+        public Builder probeMultiplier(int probeMultiplier) {
+            this.probeMultiplier = probeMultiplier;
+            return this;
+        }
+
+        public AdaptiveConcurrencyLimit build() {
+            return new AdaptiveConcurrencyLimit(this);
+        }
+    }
+}
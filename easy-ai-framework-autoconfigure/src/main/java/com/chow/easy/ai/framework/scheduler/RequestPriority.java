@@ -0,0 +1,23 @@
+package com.chow.easy.ai.framework.scheduler;
+
+/**
+ * 请求优先级
+ * 高优先级队列中有请求时总是先于低优先级派发，批处理流量不会挤占交互流量
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public enum RequestPriority {
+    /**
+     * 交互式请求，用户正在等待结果
+     */
+    INTERACTIVE,
+    /**
+     * 普通请求
+     */
+    NORMAL,
+    /**
+     * 批处理等后台请求
+     */
+    BULK
+}
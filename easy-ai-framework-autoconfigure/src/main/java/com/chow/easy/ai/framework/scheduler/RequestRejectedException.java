@@ -0,0 +1,37 @@
+package com.chow.easy.ai.framework.scheduler;
+
+/**
+ * 请求被调度器拒绝
+ * 队列已满或截止时间内无法获得执行机会时抛出，调用方可据此快速失败或降级
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class RequestRejectedException extends RuntimeException {
+
+    private final Reason reason;
+
+    public RequestRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public enum Reason {
+        /**
+         * 优先级队列已满
+         */
+        QUEUE_FULL,
+        /**
+         * 按当前排队耗时估算，截止时间前无法派发
+         */
+        DEADLINE_UNREACHABLE,
+        /**
+         * 排队期间截止时间已到
+         */
+        DEADLINE_EXPIRED
+    }
+}
@@ -0,0 +1,502 @@
+package com.chow.easy.ai.framework.scheduler;
+
+import com.chow.easy.ai.framework.core.Deadline;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 请求调度器
+ * 位于HTTP派发之前，限制同一提供商的并发请求数；超出并发时按优先级排队：
+ * <ul>
+ *     <li>高优先级队列非空时总是先派发高优先级请求</li>
+ *     <li>同一优先级内按租户权重做加权公平排队（Start-time Fair Queuing），单个租户的大批量请求不会饿死其他租户</li>
+ *     <li>每个优先级的队列有界，队列已满时立即拒绝</li>
+ *     <li>按近期排队耗时估算，截止时间前无法派发的请求在入队时直接拒绝；排队期间到期的请求在派发前丢弃</li>
+ * </ul>
+ * 派发成功后调用方持有 {@link Permit}，请求结束时必须释放；
+ * 启用 {@link AdaptiveConcurrencyLimit} 后，释放时上报的耗时与过载信号会持续调整最大并发数
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class RequestScheduler {
+
+    private static final String DEFAULT_TENANT = "default";
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final String name;
+    private final int queueCapacity;
+    private final Map<String, Integer> tenantWeights;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ClassQueue[] queues;
+    private volatile int limit;
+    private volatile AdaptiveConcurrencyLimit adaptiveLimit;
+    //以下字段由 lock 保护
+    private int inFlight;
+    private long sequence;
+
+    /**
+     * @param name          调度器名称，通常为提供商名称
+     * @param limit         最大并发请求数
+     * @param queueCapacity 每个优先级的最大排队数
+     * @param tenantWeights 租户权重，未配置的租户权重为1
+     */
+    public RequestScheduler(String name, int limit, int queueCapacity, Map<String, Integer> tenantWeights) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("最大并发数必须大于0: " + limit);
+        }
+        this.name = name;
+        this.limit = limit;
+        this.queueCapacity = queueCapacity;
+        this.tenantWeights = tenantWeights == null ? Collections.emptyMap() : new HashMap<>(tenantWeights);
+        RequestPriority[] priorities = RequestPriority.values();
+        this.queues = new ClassQueue[priorities.length];
+        for (RequestPriority priority : priorities) {
+            queues[priority.ordinal()] = new ClassQueue();
+        }
+    }
+
+    /**
+     * 提交请求，返回在获得执行机会时完成的Future；被拒绝时以 {@link RequestRejectedException} 异常完成。
+     * 取消返回的Future会把请求移出队列
+     *
+     * @param priority 优先级，为null时视为 NORMAL
+     * @param tenantId 租户标识，为null时归入默认租户
+     * @param deadline 截止时间，可为null
+     */
+    public CompletableFuture<Permit> schedule(RequestPriority priority, String tenantId, Deadline deadline) {
+        ClassQueue queue = queues[(priority == null ? RequestPriority.NORMAL : priority).ordinal()];
+        String tenant = tenantId == null ? DEFAULT_TENANT : tenantId;
+        Ticket ticket;
+        List<Ticket> expired = null;
+        boolean drainNeeded;
+        lock.lock();
+        try {
+            queue.submitted++;
+            if (deadline != null && deadline.isExpired()) {
+                queue.expired++;
+                return rejected(RequestRejectedException.Reason.DEADLINE_EXPIRED, "请求截止时间已到");
+            }
+            // 有空闲并发且无人排队时直接派发，不插队
+            if (inFlight < limit && isIdle()) {
+                inFlight++;
+                queue.dispatched++;
+                queue.recordQueueTime(0);
+                return CompletableFuture.completedFuture(new Permit(inFlight));
+            }
+            if (deadline != null && queue.ewmaQueueNanos > deadline.remainingNanos()) {
+                queue.shed++;
+                return rejected(RequestRejectedException.Reason.DEADLINE_UNREACHABLE,
+                        String.format("%s 预计排队 %dms，超过剩余时间 %dms", name,
+                                TimeUnit.NANOSECONDS.toMillis((long) queue.ewmaQueueNanos), deadline.remainingMillis()));
+            }
+            if (queue.tickets.size() >= queueCapacity) {
+                expired = queue.purgeExpired();
+                if (queue.tickets.size() >= queueCapacity) {
+                    queue.rejected++;
+                    return rejected(RequestRejectedException.Reason.QUEUE_FULL,
+                            name + " 调度队列已满: " + priority + " (" + queueCapacity + ")");
+                }
+            }
+            ticket = queue.enqueue(tenant, weightOf(tenant), deadline, sequence++);
+            drainNeeded = inFlight < limit;
+        } finally {
+            lock.unlock();
+            failAll(expired);
+        }
+        if (drainNeeded) {
+            // 释放与入队交错时可能出现空闲并发，补一次派发
+            dispatch();
+        }
+
+        ticket.future.whenComplete((permit, e) -> {
+            if (ticket.future.isCancelled()) {
+                onCancelled(queue, ticket);
+            }
+        });
+        return ticket.future;
+    }
+
+    /**
+     * 阻塞直到获得执行机会；有截止时间时最多等待到截止时间
+     */
+    public Permit acquire(RequestPriority priority, String tenantId, Deadline deadline) {
+        CompletableFuture<Permit> future = schedule(priority, tenantId, deadline);
+        try {
+            return deadline == null ? future.get() : future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            throw new RequestRejectedException(RequestRejectedException.Reason.DEADLINE_EXPIRED,
+                    name + " 排队期间截止时间已到");
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待调度时被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * 调整最大并发数，调大时立即派发排队中的请求；启用自适应上限时会被之后的样本覆盖
+     */
+    public void setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("最大并发数必须大于0: " + limit);
+        }
+        this.limit = limit;
+        dispatch();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * 启用自适应并发上限，最大并发数立即切换为其当前上限
+     */
+    public void enableAdaptiveLimit(AdaptiveConcurrencyLimit adaptiveLimit) {
+        this.adaptiveLimit = adaptiveLimit;
+        setLimit(adaptiveLimit.getLimit());
+    }
+
+    /**
+     * 未启用自适应并发上限时返回null
+     */
+    public AdaptiveConcurrencyLimit getAdaptiveLimit() {
+        return adaptiveLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public SchedulerStats getStats() {
+        Map<RequestPriority, SchedulerStats.ClassStats> classes = new EnumMap<>(RequestPriority.class);
+        lock.lock();
+        try {
+            for (RequestPriority priority : RequestPriority.values()) {
+                classes.put(priority, queues[priority.ordinal()].snapshot());
+            }
+            AdaptiveConcurrencyLimit adaptive = adaptiveLimit;
+            return new SchedulerStats(name, limit, inFlight, classes, adaptive != null,
+                    adaptive == null ? 0 : adaptive.getNoLoadRttMillis(), adaptive == null ? 0 : adaptive.getDrops());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int weightOf(String tenant) {
+        Integer weight = tenantWeights.get(tenant);
+        return weight == null || weight < 1 ? 1 : weight;
+    }
+
+    /**
+     * 在并发允许的范围内派发排队中的请求；Future 在锁外完成，避免回调在锁内执行
+     */
+    private void dispatch() {
+        List<Ticket> granted = new ArrayList<>();
+        List<Ticket> expired = null;
+        lock.lock();
+        try {
+            while (inFlight < limit) {
+                Ticket ticket = pollNext();
+                if (ticket == null) {
+                    break;
+                }
+                if (ticket.deadline != null && ticket.deadline.isExpired()) {
+                    ticket.queue.expired++;
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(ticket);
+                    continue;
+                }
+                inFlight++;
+                ticket.queue.dispatched++;
+                ticket.queue.recordQueueTime(System.nanoTime() - ticket.enqueuedNanos);
+                ticket.grantedInFlight = inFlight;
+                granted.add(ticket);
+            }
+        } finally {
+            lock.unlock();
+        }
+        failAll(expired);
+        for (Ticket ticket : granted) {
+            Permit permit = new Permit(ticket.grantedInFlight);
+            if (!ticket.future.complete(permit)) {
+                // 派发的同时被取消
+                permit.release();
+            }
+        }
+    }
+
+    private boolean isIdle() {
+        for (ClassQueue queue : queues) {
+            if (!queue.tickets.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Ticket pollNext() {
+        for (ClassQueue queue : queues) {
+            Ticket ticket = queue.poll();
+            if (ticket != null) {
+                return ticket;
+            }
+        }
+        return null;
+    }
+
+    private void onCancelled(ClassQueue queue, Ticket ticket) {
+        lock.lock();
+        try {
+            if (queue.remove(ticket)) {
+                queue.cancelled++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void failAll(List<Ticket> expired) {
+        if (expired == null) {
+            return;
+        }
+        for (Ticket ticket : expired) {
+            ticket.future.completeExceptionally(new RequestRejectedException(
+                    RequestRejectedException.Reason.DEADLINE_EXPIRED, name + " 排队期间截止时间已到"));
+        }
+    }
+
+    private static void abandon(CompletableFuture<Permit> future) {
+        if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+            // 超时与派发同时发生，归还已获得的执行机会
+            future.join().release();
+        }
+    }
+
+    private static CompletableFuture<Permit> rejected(RequestRejectedException.Reason reason, String message) {
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        future.completeExceptionally(new RequestRejectedException(reason, message));
+        return future;
+    }
+
+    private void adjustLimit(int next) {
+        int previous = limit;
+        if (next != previous) {
+            limit = next;
+            log.debug("{} 自适应并发上限 {} -> {}", name, previous, next);
+        }
+    }
+
+    /**
+     * 执行许可，请求结束（成功、失败或取消）时释放一次；重复释放会被忽略。
+     * 正常完成用 {@link #onSuccess(long)}，过载用 {@link #onDropped()}，其余情况（取消、客户端错误等）用 {@link #release()}
+     */
+    public final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        //获得执行机会时正在执行的请求数（含自身）
+        private final int grantedInFlight;
+
+        private Permit(int grantedInFlight) {
+            this.grantedInFlight = grantedInFlight;
+        }
+
+        /**
+         * 请求正常完成，释放并上报耗时
+         *
+         * @param rttNanos 从获得执行机会到收到首个响应事件（流式）或完整响应（非流式）的耗时
+         */
+        public void onSuccess(long rttNanos) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            AdaptiveConcurrencyLimit adaptive = adaptiveLimit;
+            if (adaptive != null) {
+                adjustLimit(adaptive.onSample(rttNanos, grantedInFlight));
+            }
+            returnPermit();
+        }
+
+        /**
+         * 提供商过载（429、5xx或读取超时），释放并下调并发上限
+         */
+        public void onDropped() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            AdaptiveConcurrencyLimit adaptive = adaptiveLimit;
+            if (adaptive != null) {
+                adjustLimit(adaptive.onDropped());
+            }
+            returnPermit();
+        }
+
+        /**
+         * 释放，不上报样本
+         */
+        public void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            returnPermit();
+        }
+
+        private void returnPermit() {
+            lock.lock();
+            try {
+                inFlight--;
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }
+    }
+
+    private static final class Ticket {
+        private final ClassQueue queue;
+        private final String tenant;
+        private final Deadline deadline;
+        private final double startTag;
+        private final long sequence;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+        private int grantedInFlight;
+
+        private Ticket(ClassQueue queue, String tenant, Deadline deadline, double startTag, long sequence) {
+            this.queue = queue;
+            this.tenant = tenant;
+            this.deadline = deadline;
+            this.startTag = startTag;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class TenantState {
+        private double lastFinishTag;
+        private int queued;
+    }
+
+    /**
+     * 单个优先级的队列：按开始标签排序，标签 = max(虚拟时间, 租户上一个请求的结束标签)，
+     * 每个请求使结束标签前进 1/权重，权重越大的租户在同一段时间内获得的派发次数越多
+     */
+    private static final class ClassQueue {
+        private final PriorityQueue<Ticket> tickets = new PriorityQueue<>(
+                Comparator.<Ticket>comparingDouble(t -> t.startTag).thenComparingLong(t -> t.sequence));
+        private final Map<String, TenantState> tenants = new HashMap<>();
+        private double virtualTime;
+
+        private long submitted;
+        private long dispatched;
+        private long rejected;
+        private long shed;
+        private long expired;
+        private long cancelled;
+        private long totalQueueNanos;
+        private long maxQueueNanos;
+        private double ewmaQueueNanos;
+
+        private Ticket enqueue(String tenant, int weight, Deadline deadline, long sequence) {
+            TenantState state = tenants.computeIfAbsent(tenant, t -> new TenantState());
+            double startTag = Math.max(virtualTime, state.lastFinishTag);
+            state.lastFinishTag = startTag + 1.0 / weight;
+            state.queued++;
+            Ticket ticket = new Ticket(this, tenant, deadline, startTag, sequence);
+            tickets.add(ticket);
+            return ticket;
+        }
+
+        private Ticket poll() {
+            Ticket ticket = tickets.poll();
+            if (ticket != null) {
+                virtualTime = ticket.startTag;
+                leave(ticket);
+            }
+            return ticket;
+        }
+
+        private boolean remove(Ticket ticket) {
+            if (tickets.remove(ticket)) {
+                leave(ticket);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 队列已满时先清理已到期的请求
+         */
+        private List<Ticket> purgeExpired() {
+            List<Ticket> removed = null;
+            Iterator<Ticket> iterator = tickets.iterator();
+            while (iterator.hasNext()) {
+                Ticket ticket = iterator.next();
+                if (ticket.deadline != null && ticket.deadline.isExpired()) {
+                    iterator.remove();
+                    leave(ticket);
+                    expired++;
+                    if (removed == null) {
+                        removed = new ArrayList<>();
+                    }
+                    removed.add(ticket);
+                }
+            }
+            return removed;
+        }
+
+        private void leave(Ticket ticket) {
+            TenantState state = tenants.get(ticket.tenant);
+            // 租户没有排队请求时不保留状态，空闲期间不积累额度
+            if (state != null && --state.queued == 0) {
+                tenants.remove(ticket.tenant);
+            }
+        }
+
+        private void recordQueueTime(long nanos) {
+            totalQueueNanos += nanos;
+            maxQueueNanos = Math.max(maxQueueNanos, nanos);
+            ewmaQueueNanos = ewmaQueueNanos == 0 ? nanos : ewmaQueueNanos + EWMA_ALPHA * (nanos - ewmaQueueNanos);
+        }
+
+        private SchedulerStats.ClassStats snapshot() {
+            return new SchedulerStats.ClassStats(tickets.size(), submitted, dispatched, rejected, shed, expired, cancelled,
+                    dispatched == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueNanos / dispatched),
+                    TimeUnit.NANOSECONDS.toMillis(maxQueueNanos));
+        }
+    }
+}
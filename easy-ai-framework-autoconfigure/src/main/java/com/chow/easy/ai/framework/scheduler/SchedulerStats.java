@@ -0,0 +1,57 @@
+package com.chow.easy.ai.framework.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 调度器统计快照
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Data
+@AllArgsConstructor
+public class SchedulerStats {
+    //调度器名称
+    private String name;
+    //当前最大并发数
+    private int limit;
+    //执行中的请求数
+    private int inFlight;
+    //各优先级的统计
+    private Map<RequestPriority, ClassStats> classes;
+    //是否启用自适应并发上限
+    private boolean adaptive;
+    //自适应：最小RTT（毫秒），作为提供商无排队时的耗时
+    private double noLoadRttMillis;
+    //自适应：收到的过载信号（429、5xx、读取超时）数
+    private long drops;
+
+    /**
+     * 单个优先级的统计
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ClassStats {
+        //当前排队数
+        private int queued;
+        //提交总数
+        private long submitted;
+        //派发总数
+        private long dispatched;
+        //因队列已满被拒绝的数量
+        private long rejected;
+        //因截止时间无法满足在入队时被拒绝的数量
+        private long shed;
+        //排队期间到期被丢弃的数量
+        private long expired;
+        //排队期间被调用方取消的数量
+        private long cancelled;
+        //平均排队耗时（毫秒）
+        private long avgQueueMillis;
+        //最大排队耗时（毫秒）
+        private long maxQueueMillis;
+    }
+}
@@ -2,6 +2,7 @@ package com.chow.easy.ai.framework.spi;
 
 import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
 import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceContext;
 
 import java.util.List;
 
@@ -40,6 +41,30 @@ public interface AiServiceProvider {
      */
     AiService createAiService(EasyAiFrameworkProperties.ProviderConfig config, int timeout, int readTimeout);
 
+    /**
+     * 基于共享上下文创建AI服务实例
+     * 实现类应复用上下文中的HTTP客户端和JSON解析器，使服务实例足够轻量（如按租户创建的服务视图）；
+     * 默认实现回退到按超时参数创建独立实例，重写此方法的实现类应同时让 {@link #isContextAware()} 返回true
+     *
+     * @param config  提供商配置
+     * @param context 共享的服务上下文
+     * @return AI服务实例
+     */
+    default AiService createAiService(EasyAiFrameworkProperties.ProviderConfig config, AiServiceContext context) {
+        return createAiService(config, context.getTimeout(), context.getReadTimeout());
+    }
+
+    /**
+     * 创建的服务实例是否复用共享上下文
+     * 租户服务视图只对返回true的提供商开放：否则每个租户视图都会创建独立的HTTP客户端、连接池和定时器，
+     * 并且绕过调度、响应缓存、请求日志与追踪
+     *
+     * @return true如果重写了 {@link #createAiService(EasyAiFrameworkProperties.ProviderConfig, AiServiceContext)}
+     */
+    default boolean isContextAware() {
+        return false;
+    }
+
     /**
      * 获取提供商优先级
      * 数值越小优先级越高，默认为100
@@ -1,66 +1,42 @@
 package com.chow.easy.ai.framework.spi;
 
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.StringUtils;
-
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Set;
 
 /**
  * AI服务提供商SPI加载器
- * 负责加载和管理所有的AI服务提供商
+ * 保留静态访问方式以兼容旧代码，内部委托给全局共享的 {@link AiServiceProviderRegistry}。
+ * 新代码请直接注入 {@link AiServiceProviderRegistry} Bean。
  *
  * @author chowsama
  * @date 2025/06/26
  */
-@Slf4j
 public class AiServiceProviderLoader {
 
-    private static final Map<String, AiServiceProvider> PROVIDER_CACHE = new ConcurrentHashMap<>();
-    private static volatile boolean loaded = false;
+    private AiServiceProviderLoader() {
+    }
 
     /**
-     * 加载所有可用的AI服务提供商
+     * 延迟初始化的全局注册表，由类加载机制保证线程安全
      */
-    public static synchronized void loadProviders() {
-        if (loaded) {
-            return;
-        }
-
-        log.info("开始加载AI服务提供商...");
-
-        try {
-            ServiceLoader<AiServiceProvider> serviceLoader = ServiceLoader.load(AiServiceProvider.class);
-            List<AiServiceProvider> providers = new ArrayList<>();
-
-            for (AiServiceProvider provider : serviceLoader) {
-                providers.add(provider);
-                log.info("发现AI服务提供商: {} - {}", provider.getProviderName(), provider.getDescription());
-            }
-
-            // 按优先级排序
-            providers.sort(Comparator.comparingInt(AiServiceProvider::getPriority));
-
-            // 缓存提供商
-            for (AiServiceProvider provider : providers) {
-                String providerName = provider.getProviderName();
-                if (StringUtils.hasText(providerName)) {
-                    PROVIDER_CACHE.put(providerName.toLowerCase(), provider);
-                    log.info("注册AI服务提供商: {} (优先级: {})", providerName, provider.getPriority());
-                } else {
-                    log.warn("跳过无效的AI服务提供商，提供商名称为空: {}", provider.getClass().getName());
-                }
-            }
+    private static final class Holder {
+        private static final AiServiceProviderRegistry REGISTRY = new AiServiceProviderRegistry();
+    }
 
-            loaded = true;
-            log.info("AI服务提供商加载完成，共加载 {} 个提供商: {}",
-                    PROVIDER_CACHE.size(),
-                    PROVIDER_CACHE.keySet());
+    /**
+     * 获取全局共享的提供商注册表
+     *
+     * @return 提供商注册表
+     */
+    public static AiServiceProviderRegistry getRegistry() {
+        return Holder.REGISTRY;
+    }
 
-        } catch (Exception e) {
-            log.error("加载AI服务提供商失败", e);
-        }
+    /**
+     * 加载所有可用的AI服务提供商，注册表默认在第一次查询时才加载
+     */
+    public static void loadProviders() {
+        getRegistry().getAvailableProviders();
     }
 
     /**
@@ -70,33 +46,25 @@ public class AiServiceProviderLoader {
      * @return 提供商实例，如果不存在则返回null
      */
     public static AiServiceProvider getProvider(String providerName) {
-        loadProviders();
-
-        if (!StringUtils.hasText(providerName)) {
-            return null;
-        }
-
-        return PROVIDER_CACHE.get(providerName.toLowerCase());
+        return getRegistry().getProvider(providerName);
     }
 
     /**
      * 获取所有已注册的提供商名称
      *
-     * @return 提供商名称集合
+     * @return 提供商名称集合（只读）
      */
     public static Set<String> getAvailableProviders() {
-        loadProviders();
-        return new HashSet<>(PROVIDER_CACHE.keySet());
+        return getRegistry().getAvailableProviders();
     }
 
     /**
      * 获取所有已注册的提供商实例
      *
-     * @return 提供商实例列表
+     * @return 提供商实例列表（只读）
      */
     public static List<AiServiceProvider> getAllProviders() {
-        loadProviders();
-        return new ArrayList<>(PROVIDER_CACHE.values());
+        return getRegistry().getAllProviders();
     }
 
     /**
@@ -106,9 +74,7 @@ public class AiServiceProviderLoader {
      * @return true如果提供商可用
      */
     public static boolean isProviderAvailable(String providerName) {
-        loadProviders();
-        return StringUtils.hasText(providerName) &&
-                PROVIDER_CACHE.containsKey(providerName.toLowerCase());
+        return getRegistry().isProviderAvailable(providerName);
     }
 
     /**
@@ -117,27 +83,13 @@ public class AiServiceProviderLoader {
      * @return 提供商信息字符串
      */
     public static String getProvidersSummary() {
-        loadProviders();
-
-        if (PROVIDER_CACHE.isEmpty()) {
-            return "未找到任何AI服务提供商";
-        }
-
-        return PROVIDER_CACHE.values().stream()
-                .sorted(Comparator.comparingInt(AiServiceProvider::getPriority))
-                .map(provider -> String.format("- %s (优先级: %d): %s",
-                        provider.getProviderName(),
-                        provider.getPriority(),
-                        provider.getDescription()))
-                .collect(Collectors.joining("\n"));
+        return getRegistry().getProvidersSummary();
     }
 
     /**
      * 清除缓存，强制重新加载
      */
-    public static synchronized void reload() {
-        PROVIDER_CACHE.clear();
-        loaded = false;
-        loadProviders();
+    public static void reload() {
+        getRegistry().reload();
     }
-} 
\ No newline at end of file
+}
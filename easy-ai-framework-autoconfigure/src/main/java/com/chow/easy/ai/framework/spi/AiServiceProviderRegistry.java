@@ -0,0 +1,191 @@
+package com.chow.easy.ai.framework.spi;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * AI服务提供商注册表
+ * 以不可变快照的形式发布已加载的提供商，查询路径无锁、无额外对象分配；
+ * 重新加载时构建新快照并通过 volatile 引用原子替换（copy-on-write）。
+ * SPI扫描和提供商实例化推迟到第一次查询，创建注册表本身不做任何加载工作
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class AiServiceProviderRegistry {
+
+    private final ClassLoader classLoader;
+
+    /**
+     * 当前生效的提供商快照，读路径只做一次 volatile 读；为null表示尚未加载
+     */
+    private volatile Snapshot snapshot;
+
+    public AiServiceProviderRegistry() {
+        this(null);
+    }
+
+    public AiServiceProviderRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 是否已经扫描过SPI
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * 获取当前快照，首次调用时扫描SPI
+     */
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 根据提供商名称获取提供商实例
+     * 名称已是小写时直接命中，不产生任何临时对象
+     *
+     * @param providerName 提供商名称
+     * @return 提供商实例，如果不存在则返回null
+     */
+    public AiServiceProvider getProvider(String providerName) {
+        if (providerName == null) {
+            return null;
+        }
+        Map<String, AiServiceProvider> providers = snapshot().providers;
+        AiServiceProvider provider = providers.get(providerName);
+        if (provider == null) {
+            provider = providers.get(providerName.toLowerCase(Locale.ROOT));
+        }
+        return provider;
+    }
+
+    /**
+     * 获取所有已注册的提供商名称（只读视图，不复制）
+     *
+     * @return 提供商名称集合
+     */
+    public Set<String> getAvailableProviders() {
+        return snapshot().names;
+    }
+
+    /**
+     * 获取所有已注册的提供商实例，按优先级排序（只读视图，不复制）
+     *
+     * @return 提供商实例列表
+     */
+    public List<AiServiceProvider> getAllProviders() {
+        return snapshot().ordered;
+    }
+
+    /**
+     * 检查指定提供商是否可用
+     *
+     * @param providerName 提供商名称
+     * @return true如果提供商可用
+     */
+    public boolean isProviderAvailable(String providerName) {
+        return getProvider(providerName) != null;
+    }
+
+    /**
+     * 获取提供商信息摘要
+     *
+     * @return 提供商信息字符串
+     */
+    public String getProvidersSummary() {
+        List<AiServiceProvider> providers = snapshot().ordered;
+        if (providers.isEmpty()) {
+            return "未找到任何AI服务提供商";
+        }
+
+        return providers.stream()
+                .map(provider -> String.format("- %s (优先级: %d): %s",
+                        provider.getProviderName(),
+                        provider.getPriority(),
+                        provider.getDescription()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * 重新扫描SPI并原子替换快照
+     * 重新加载期间的查询继续读取旧快照，不会看到中间状态
+     */
+    public synchronized void reload() {
+        this.snapshot = load();
+    }
+
+    /**
+     * 扫描SPI并构建新的不可变快照
+     */
+    private Snapshot load() {
+        List<AiServiceProvider> providers = new ArrayList<>();
+        try {
+            ServiceLoader<AiServiceProvider> serviceLoader = classLoader != null
+                    ? ServiceLoader.load(AiServiceProvider.class, classLoader)
+                    : ServiceLoader.load(AiServiceProvider.class);
+            for (AiServiceProvider provider : serviceLoader) {
+                providers.add(provider);
+                log.debug("发现AI服务提供商: {} - {}", provider.getProviderName(), provider.getDescription());
+            }
+        } catch (ServiceConfigurationError | RuntimeException e) {
+            log.error("加载AI服务提供商失败", e);
+        }
+
+        // 按优先级排序，同名提供商保留优先级最高的一个
+        providers.sort(Comparator.comparingInt(AiServiceProvider::getPriority));
+
+        Map<String, AiServiceProvider> byName = new HashMap<>();
+        List<AiServiceProvider> ordered = new ArrayList<>();
+        for (AiServiceProvider provider : providers) {
+            String providerName = provider.getProviderName();
+            if (providerName == null || providerName.trim().isEmpty()) {
+                log.warn("跳过无效的AI服务提供商，提供商名称为空: {}", provider.getClass().getName());
+                continue;
+            }
+            String key = providerName.toLowerCase(Locale.ROOT);
+            AiServiceProvider existing = byName.putIfAbsent(key, provider);
+            if (existing != null) {
+                log.warn("提供商名称 {} 重复，保留 {} (优先级: {})，忽略 {}",
+                        providerName, existing.getClass().getName(), existing.getPriority(),
+                        provider.getClass().getName());
+                continue;
+            }
+            ordered.add(provider);
+            log.debug("注册AI服务提供商: {} (优先级: {})", providerName, provider.getPriority());
+        }
+
+        Snapshot loaded = new Snapshot(byName, ordered);
+        log.info("AI服务提供商加载完成，共加载 {} 个提供商: {}", loaded.names.size(), loaded.names);
+        return loaded;
+    }
+
+    /**
+     * 不可变提供商快照
+     */
+    private static final class Snapshot {
+        private final Map<String, AiServiceProvider> providers;
+        private final Set<String> names;
+        private final List<AiServiceProvider> ordered;
+
+        private Snapshot(Map<String, AiServiceProvider> providers, List<AiServiceProvider> ordered) {
+            this.providers = Collections.unmodifiableMap(providers);
+            this.names = Collections.unmodifiableSet(providers.keySet());
+            this.ordered = Collections.unmodifiableList(ordered);
+        }
+    }
+}
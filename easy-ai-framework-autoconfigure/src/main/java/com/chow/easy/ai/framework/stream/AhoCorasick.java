@@ -0,0 +1,158 @@
+package com.chow.easy.ai.framework.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * 多模式字符串匹配自动机（Aho-Corasick）
+ * 构建后只读，可被所有流共享；匹配状态只是一个节点编号，因此可以逐字符地跨内容块推进。
+ * 每个节点的转移按字符排序存放，查找使用二分，不为每个字符装箱
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class AhoCorasick {
+
+    static final int ROOT = 0;
+
+    private final boolean ignoreCase;
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[] depth;
+    //以该节点结尾的最长模式序号，没有时为-1
+    private final int[] output;
+    private final int[] patternLengths;
+    private final int maxPatternLength;
+
+    AhoCorasick(List<String> patterns, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        depths.add(0);
+        terminals.add(-1);
+        patternLengths = new int[patterns.size()];
+        int longest = 0;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("匹配模式不能为空");
+            }
+            int node = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = normalize(pattern.charAt(i));
+                Integer child = trie.get(node).get(c);
+                if (child == null) {
+                    child = trie.size();
+                    trie.add(new TreeMap<>());
+                    depths.add(i + 1);
+                    terminals.add(-1);
+                    trie.get(node).put(c, child);
+                }
+                node = child;
+            }
+            // 重复的模式以先添加的为准
+            if (terminals.get(node) < 0) {
+                terminals.set(node, p);
+            }
+            patternLengths[p] = pattern.length();
+            longest = Math.max(longest, pattern.length());
+        }
+        this.maxPatternLength = longest;
+
+        int size = trie.size();
+        edgeChars = new char[size][];
+        edgeTargets = new int[size][];
+        depth = new int[size];
+        output = new int[size];
+        fail = new int[size];
+        for (int node = 0; node < size; node++) {
+            TreeMap<Character, Integer> edges = trie.get(node);
+            edgeChars[node] = new char[edges.size()];
+            edgeTargets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[node][i] = edge.getKey();
+                edgeTargets[node][i] = edge.getValue();
+                i++;
+            }
+            depth[node] = depths.get(node);
+            output[node] = terminals.get(node);
+        }
+
+        // 按广度优先计算失败指针；节点自身不是模式结尾时沿失败指针继承最长的匹配
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                int child = edgeTargets[node][i];
+                fail[child] = next(fail[node], edgeChars[node][i]);
+                if (output[child] < 0) {
+                    output[child] = output[fail[child]];
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 读入一个字符后的状态
+     */
+    int next(int state, char c) {
+        char key = normalize(c);
+        int node = state;
+        while (true) {
+            int index = Arrays.binarySearch(edgeChars[node], key);
+            if (index >= 0) {
+                return edgeTargets[node][index];
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = fail[node];
+        }
+    }
+
+    /**
+     * 在该状态结束的最长模式序号，没有匹配时为-1
+     */
+    int match(int state) {
+        return output[state];
+    }
+
+    /**
+     * 状态对应的已匹配前缀长度，即仍可能成为某个模式开头、需要暂存的字符数
+     */
+    int depth(int state) {
+        return depth[state];
+    }
+
+    int patternLength(int pattern) {
+        return patternLengths[pattern];
+    }
+
+    int maxPatternLength() {
+        return maxPatternLength;
+    }
+
+    private char normalize(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    @Override
+    public String toString() {
+        return "AhoCorasick{patterns=" + patternLengths.length + ", states=" + depth.length
+                + ", ignoreCase=" + ignoreCase + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.chow.easy.ai.framework.stream;
+
+import java.util.List;
+
+/**
+ * 基于 {@link AhoCorasick} 的替换与终止环节
+ * 只暂存可能成为某个模式开头的尾部字符（不超过最长模式长度减一），其余内容立即交付，
+ * 因此每个流占用的内存与流的长度无关。多个模式重叠时以最先结束的匹配为准，同时结束的取最长的一个；
+ * 替换后从替换点之后重新开始匹配
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+final class PatternStage implements StreamStage {
+
+    private final Rules rules;
+    private final StringBuilder pending;
+    private int state = AhoCorasick.ROOT;
+
+    PatternStage(Rules rules) {
+        this.rules = rules;
+        this.pending = new StringBuilder(rules.automaton.maxPatternLength());
+    }
+
+    @Override
+    public void onChunk(String chunk, StreamSink next) {
+        AhoCorasick automaton = rules.automaton;
+        StringBuilder out = null;
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            state = automaton.next(state, c);
+            pending.append(c);
+            int pattern = automaton.match(state);
+            if (pattern < 0) {
+                int release = pending.length() - automaton.depth(state);
+                if (release > 0) {
+                    out = append(out, chunk.length(), pending, release);
+                }
+                continue;
+            }
+            out = append(out, chunk.length(), pending, pending.length() - automaton.patternLength(pattern));
+            pending.setLength(0);
+            state = AhoCorasick.ROOT;
+            String replacement = rules.replacements[pattern];
+            if (replacement == null) {
+                if (out != null) {
+                    next.emit(out.toString());
+                }
+                next.stop();
+                return;
+            }
+            out = out == null ? new StringBuilder(chunk.length()) : out;
+            out.append(replacement);
+        }
+        if (out != null) {
+            next.emit(out.toString());
+        }
+    }
+
+    @Override
+    public void onComplete(StreamSink next) {
+        if (pending.length() > 0) {
+            next.emit(pending.toString());
+            pending.setLength(0);
+        }
+    }
+
+    /**
+     * 把暂存区开头的 count 个字符移到输出
+     */
+    private static StringBuilder append(StringBuilder out, int capacity, StringBuilder pending, int count) {
+        if (count <= 0) {
+            return out;
+        }
+        StringBuilder target = out == null ? new StringBuilder(capacity) : out;
+        target.append(pending, 0, count);
+        pending.delete(0, count);
+        return target;
+    }
+
+    /**
+     * 编译好的模式与对应动作，可被所有流共享
+     */
+    static final class Rules {
+        private final AhoCorasick automaton;
+        //每个模式的替换内容，为null表示终止流
+        private final String[] replacements;
+
+        Rules(List<String> patterns, List<String> replacements, boolean ignoreCase) {
+            this.automaton = new AhoCorasick(patterns, ignoreCase);
+            this.replacements = replacements.toArray(new String[0]);
+        }
+    }
+}
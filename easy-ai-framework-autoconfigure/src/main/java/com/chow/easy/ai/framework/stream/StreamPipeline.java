@@ -0,0 +1,258 @@
+package com.chow.easy.ai.framework.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 流式响应的后处理管道
+ * 位于提供商解析出内容块之后、调用方回调之前，按添加顺序串联各环节：敏感词替换、终止标记检测、长度截断以及自定义环节。
+ * 连续添加的替换与终止规则编译为同一个 Aho-Corasick 自动机，一次扫描完成所有匹配，跨内容块的模式同样能被识别。
+ * 终止时取消上游请求，流按正常结束处理（结束原因为 stop）。
+ * <p>
+ * 管道本身不可变，可在多个请求间共享；每个流通过 {@link #open} 创建独立的状态，占用的内存只与模式长度有关
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class StreamPipeline {
+
+    private final List<Supplier<StreamStage>> stages;
+
+    private StreamPipeline(List<Supplier<StreamStage>> stages) {
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 为一个流创建处理会话
+     *
+     * @param downstream 处理后的内容交付目标
+     * @param onStop     某个环节要求提前结束时调用，用于取消上游请求
+     */
+    public Session open(Consumer<String> downstream, Runnable onStop) {
+        StreamStage[] instances = new StreamStage[stages.size()];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = stages.get(i).get();
+        }
+        return new Session(instances, downstream, onStop);
+    }
+
+    public int size() {
+        return stages.size();
+    }
+
+    /**
+     * 单个流的处理会话，只在读流线程中使用
+     */
+    public static final class Session implements Consumer<String> {
+
+        private final StreamStage[] stages;
+        private final Consumer<String> downstream;
+        private final Runnable onStop;
+        private final StreamSink[] sinks;
+        private boolean stopped;
+        private boolean finished;
+
+        private Session(StreamStage[] stages, Consumer<String> downstream, Runnable onStop) {
+            this.stages = stages;
+            this.downstream = downstream;
+            this.onStop = onStop;
+            this.sinks = new StreamSink[stages.length];
+            for (int i = 0; i < stages.length; i++) {
+                sinks[i] = new Link(i + 1);
+            }
+        }
+
+        @Override
+        public void accept(String chunk) {
+            if (!stopped && !finished) {
+                deliver(0, chunk);
+            }
+        }
+
+        /**
+         * 流正常结束，依次交付各环节暂存的内容；已被终止时不做任何事
+         */
+        public void finish() {
+            if (stopped || finished) {
+                return;
+            }
+            finished = true;
+            complete(0);
+        }
+
+        /**
+         * 是否已被某个环节终止
+         */
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        private void deliver(int index, String text) {
+            if (text.isEmpty()) {
+                return;
+            }
+            if (index == stages.length) {
+                downstream.accept(text);
+            } else {
+                stages[index].onChunk(text, sinks[index]);
+            }
+        }
+
+        /**
+         * 从指定环节开始依次交付暂存内容；上游环节的暂存内容位于终止点之后，不再交付
+         */
+        private void complete(int from) {
+            for (int i = from; i < stages.length; i++) {
+                stages[i].onComplete(sinks[i]);
+            }
+        }
+
+        private final class Link implements StreamSink {
+            private final int next;
+
+            private Link(int next) {
+                this.next = next;
+            }
+
+            @Override
+            public void emit(String text) {
+                if (!stopped) {
+                    deliver(next, text);
+                }
+            }
+
+            @Override
+            public void stop() {
+                if (stopped) {
+                    return;
+                }
+                complete(next);
+                stopped = true;
+                onStop.run();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final List<Supplier<StreamStage>> stages = new ArrayList<>();
+        private final List<String> patterns = new ArrayList<>();
+        private final List<String> replacements = new ArrayList<>();
+        private boolean ignoreCase;
+
+        private Builder() {
+        }
+
+        /**
+         * 把出现的任一字面量替换为 replacement，如已知的密钥、姓名、内部域名
+         */
+        public Builder redact(String replacement, String... literals) {
+            if (replacement == null) {
+                throw new IllegalArgumentException("替换内容不能为null");
+            }
+            for (String literal : literals) {
+                patterns.add(literal);
+                replacements.add(replacement);
+            }
+            return this;
+        }
+
+        /**
+         * 出现任一终止标记时结束流：标记之前的内容照常交付，标记本身及之后的内容丢弃，并取消上游请求
+         */
+        public Builder stopAt(String... markers) {
+            for (String marker : markers) {
+                patterns.add(marker);
+                replacements.add(null);
+            }
+            return this;
+        }
+
+        /**
+         * 替换与终止规则是否忽略大小写，对当前及之后连续添加的规则生效
+         */
+        public Builder ignoreCase(boolean ignoreCase) {
+            this.ignoreCase = ignoreCase;
+            return this;
+        }
+
+        /**
+         * 交付的内容达到 maxChars 个字符后结束流并取消上游请求
+         */
+        public Builder maxChars(int maxChars) {
+            if (maxChars < 1) {
+                throw new IllegalArgumentException("最大字符数必须大于0: " + maxChars);
+            }
+            return stage(() -> new MaxCharsStage(maxChars));
+        }
+
+        /**
+         * 逐内容块变换，不跨内容块暂存
+         */
+        public Builder map(UnaryOperator<String> mapper) {
+            return stage(() -> (chunk, next) -> next.emit(mapper.apply(chunk)));
+        }
+
+        /**
+         * 自定义环节，每个流调用一次 factory 创建实例
+         */
+        public Builder stage(Supplier<StreamStage> factory) {
+            flushPatterns();
+            stages.add(factory);
+            return this;
+        }
+
+        public StreamPipeline build() {
+            flushPatterns();
+            return new StreamPipeline(stages);
+        }
+
+        /**
+         * 把连续添加的替换与终止规则编译为一个环节
+         */
+        private void flushPatterns() {
+            if (patterns.isEmpty()) {
+                return;
+            }
+            PatternStage.Rules rules = new PatternStage.Rules(patterns, replacements, ignoreCase);
+            stages.add(() -> new PatternStage(rules));
+            patterns.clear();
+            replacements.clear();
+        }
+    }
+
+    /**
+     * 长度截断
+     */
+    private static final class MaxCharsStage implements StreamStage {
+        private int remaining;
+
+        private MaxCharsStage(int maxChars) {
+            this.remaining = maxChars;
+        }
+
+        @Override
+        public void onChunk(String chunk, StreamSink next) {
+            if (chunk.length() < remaining) {
+                remaining -= chunk.length();
+                next.emit(chunk);
+                return;
+            }
+            next.emit(chunk.substring(0, remaining));
+            remaining = 0;
+            next.stop();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StreamPipeline{stages=" + stages.size() + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package com.chow.easy.ai.framework.stream;
+
+/**
+ * 环节的下游
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public interface StreamSink {
+
+    /**
+     * 交给下一环节，空字符串会被忽略
+     */
+    void emit(String text);
+
+    /**
+     * 提前结束流：下游环节交付暂存的内容后，取消上游请求，提供商随之停止生成；
+     * 此后到达的内容块被丢弃，流按正常结束处理
+     */
+    void stop();
+}
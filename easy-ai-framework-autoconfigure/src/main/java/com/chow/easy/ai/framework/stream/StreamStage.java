@@ -0,0 +1,23 @@
+package com.chow.easy.ai.framework.stream;
+
+/**
+ * 流式处理管道中的一个环节
+ * 每个流创建一个实例，内容块在读流线程中依次交给 {@link #onChunk}，实现不需要考虑并发；
+ * 需要跨内容块匹配的环节可以暂存尾部内容，在后续内容块或 {@link #onComplete} 中交付
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public interface StreamStage {
+
+    /**
+     * 处理一个内容块，把结果交给下一环节
+     */
+    void onChunk(String chunk, StreamSink next);
+
+    /**
+     * 流正常结束，交付暂存的内容；被本环节或上游环节终止时不会调用
+     */
+    default void onComplete(StreamSink next) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.chow.easy.ai.framework.structured;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 增量JSON解码器
+ * 基于 Jackson 非阻塞解析器，随流式内容块逐段喂入，不重复扫描已解析的部分；
+ * 根节点为数组时每个元素闭合即回调，根节点为对象时每个顶层字段闭合即回调，
+ * 顶层字段的值是数组时其中的元素也会逐个提前回调。
+ * 根节点之前的说明文字或代码块标记会被跳过，解析出错后停止解码但不影响调用方读取完整内容
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class IncrementalJsonDecoder {
+
+    private final ObjectMapper objectMapper;
+    private final JsonStreamListener listener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    //当前打开的容器层数
+    private int depth;
+    private boolean started;
+    private boolean finished;
+    private boolean rootArray;
+    //根对象当前的顶层字段
+    private String currentField;
+    private boolean fieldIsArray;
+    private TokenBuffer fieldBuffer;
+    private TokenBuffer elementBuffer;
+
+    public IncrementalJsonDecoder(ObjectMapper objectMapper, JsonStreamListener listener) {
+        this.objectMapper = objectMapper;
+        this.listener = listener;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("创建非阻塞JSON解析器失败", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * 喂入一段内容
+     */
+    public void feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        String input = chunk;
+        if (!started) {
+            int start = indexOfRoot(chunk);
+            if (start < 0) {
+                return;
+            }
+            started = true;
+            input = chunk.substring(start);
+        }
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 输入结束
+     */
+    public void end() {
+        if (finished) {
+            return;
+        }
+        feeder.endOfInput();
+        try {
+            drain();
+        } catch (IOException e) {
+            fail(e);
+        }
+        finished = true;
+    }
+
+    /**
+     * 根节点是否已完整解析
+     */
+    public boolean isComplete() {
+        return started && depth == 0 && finished;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            onToken(token);
+        }
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        if (depth == 0) {
+            if (token.isStructStart()) {
+                rootArray = token == JsonToken.START_ARRAY;
+                depth = 1;
+            }
+            return;
+        }
+
+        if (!rootArray && depth == 1) {
+            if (token == JsonToken.FIELD_NAME) {
+                currentField = parser.getCurrentName();
+                return;
+            }
+            if (token == JsonToken.END_OBJECT) {
+                depth = 0;
+                finished = true;
+                return;
+            }
+            fieldBuffer = new TokenBuffer(objectMapper, false);
+            fieldIsArray = token == JsonToken.START_ARRAY;
+        }
+
+        int elementLevel = rootArray ? 1 : 2;
+        boolean inArray = rootArray || fieldIsArray;
+        if (inArray && depth == elementLevel && elementBuffer == null && token != JsonToken.END_ARRAY) {
+            elementBuffer = new TokenBuffer(objectMapper, false);
+        }
+        if (fieldBuffer != null) {
+            fieldBuffer.copyCurrentEvent(parser);
+        }
+        if (elementBuffer != null) {
+            elementBuffer.copyCurrentEvent(parser);
+        }
+
+        if (token.isStructStart()) {
+            depth++;
+        } else if (token.isStructEnd()) {
+            depth--;
+        }
+
+        if (elementBuffer != null && depth == elementLevel) {
+            JsonNode element = read(elementBuffer);
+            elementBuffer = null;
+            listener.onElement(rootArray ? null : currentField, element);
+        }
+        if (fieldBuffer != null && depth == 1) {
+            JsonNode value = read(fieldBuffer);
+            fieldBuffer = null;
+            fieldIsArray = false;
+            listener.onField(currentField, value);
+        }
+        if (rootArray && depth == 0) {
+            finished = true;
+        }
+    }
+
+    private JsonNode read(TokenBuffer buffer) throws IOException {
+        try (JsonParser bufferParser = buffer.asParser()) {
+            return objectMapper.readTree(bufferParser);
+        }
+    }
+
+    private void fail(IOException e) {
+        log.debug("增量JSON解码失败，停止提前回调: {}", e.getMessage());
+        finished = true;
+    }
+
+    private static int indexOfRoot(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package com.chow.easy.ai.framework.structured;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 增量JSON解码监听器
+ * 在完整响应到达之前回调已经闭合的数组元素和顶层字段
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public interface JsonStreamListener {
+
+    /**
+     * 数组元素已完整
+     *
+     * @param field   所属的顶层字段名；根节点本身是数组时为null
+     * @param element 元素内容
+     */
+    default void onElement(String field, JsonNode element) {
+    }
+
+    /**
+     * 根对象的顶层字段已完整
+     *
+     * @param field 字段名
+     * @param value 字段值
+     */
+    default void onField(String field, JsonNode value) {
+    }
+}
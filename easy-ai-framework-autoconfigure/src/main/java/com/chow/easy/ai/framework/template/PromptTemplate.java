@@ -0,0 +1,163 @@
+package com.chow.easy.ai.framework.template;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的提示词模板
+ * 模板文本只在编译时解析一次，拆分为 "静态片段、变量、静态片段…" 交替的数组，并提前生成静态片段的JSON转义形式；
+ * 渲染时不拼接字符串，只收集变量值，序列化请求体时逐段写出。
+ * 静态片段原样保留、不做任何空白处理，保证同一模板每次发出的前缀字节完全一致，便于提供商命中前缀缓存；
+ * 因此建议把变化的内容放在模板靠后的位置。
+ * <p>
+ * 语法：{@code {{name}}} 引用变量，变量名两侧的空白会被忽略
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final String source;
+    //静态片段，比变量多一个（首尾可能为空串）
+    private final String[] literals;
+    private final char[][] escapedLiterals;
+    private final String[] variables;
+    private final int literalLength;
+    //不含变量的模板渲染结果固定，直接复用
+    private final RenderedPrompt constant;
+
+    private PromptTemplate(String name, String source, List<String> literals, List<String> variables) {
+        this.name = name;
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        this.escapedLiterals = new char[this.literals.length][];
+        int length = 0;
+        for (int i = 0; i < this.literals.length; i++) {
+            escapedLiterals[i] = encoder.quoteAsString(this.literals[i]);
+            length += this.literals[i].length();
+        }
+        this.literalLength = length;
+        this.constant = this.variables.length == 0 ? new RenderedPrompt(this, new String[0]) : null;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @throws IllegalArgumentException 存在未闭合或为空的变量
+     */
+    public static PromptTemplate compile(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                literals.add(source.substring(pos));
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("模板 " + name + " 第" + lineOf(source, open) + "行的变量未闭合");
+            }
+            String variable = source.substring(open + OPEN.length(), close).trim();
+            if (variable.isEmpty()) {
+                throw new IllegalArgumentException("模板 " + name + " 第" + lineOf(source, open) + "行的变量名为空");
+            }
+            literals.add(source.substring(pos, open));
+            variables.add(variable);
+            pos = close + CLOSE.length();
+        }
+        return new PromptTemplate(name, source, literals, variables);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 模板引用的变量名（去重，按出现顺序）
+     */
+    public Set<String> getVariableNames() {
+        Set<String> names = new LinkedHashSet<>();
+        Collections.addAll(names, variables);
+        return names;
+    }
+
+    /**
+     * 使用变量渲染模板，变量值通过 String.valueOf 转换
+     *
+     * @throws IllegalArgumentException 缺少模板引用的变量
+     */
+    public RenderedPrompt render(Map<String, ?> values) {
+        if (constant != null) {
+            return constant;
+        }
+        String[] resolved = new String[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Object value = values.get(variables[i]);
+            if (value == null && !values.containsKey(variables[i])) {
+                throw new IllegalArgumentException("模板 " + name + " 缺少变量: " + variables[i]);
+            }
+            resolved[i] = String.valueOf(value);
+        }
+        return new RenderedPrompt(this, resolved);
+    }
+
+    /**
+     * 以键值对渲染，如 render("topic", "Java", "level", 3)
+     */
+    public RenderedPrompt render(Object... keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("变量必须成对给出");
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            values.put(String.valueOf(keyValues[i]), keyValues[i + 1]);
+        }
+        return render(values);
+    }
+
+    String[] literals() {
+        return literals;
+    }
+
+    char[][] escapedLiterals() {
+        return escapedLiterals;
+    }
+
+    int literalLength() {
+        return literalLength;
+    }
+
+    private static int lineOf(String source, int index) {
+        int line = 1;
+        for (int i = 0; i < index; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return "PromptTemplate{name=" + name + ", variables=" + getVariableNames() + "}";
+    }
+}
@@ -0,0 +1,177 @@
+package com.chow.easy.ai.framework.template;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 提示词模板注册表
+ * 模板按名称从类路径加载（location + name + suffix），首次使用时编译并缓存；
+ * 开启热加载时，位于文件系统中的模板（如开发环境的 target/classes）在修改后自动重新编译，jar 中的模板不会变化因此不检查
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class PromptTemplateRegistry {
+
+    private final String location;
+    private final String suffix;
+    private final boolean hotReload;
+    private final long checkIntervalMillis;
+    private final ClassLoader classLoader;
+    private final Map<String, Entry> templates = new ConcurrentHashMap<>();
+
+    public PromptTemplateRegistry() {
+        this("prompts/", ".prompt", false, 0);
+    }
+
+    /**
+     * @param location            类路径目录，如 prompts/
+     * @param suffix              模板文件后缀，如 .prompt
+     * @param hotReload           是否检查文件修改
+     * @param checkIntervalMillis 同一模板两次检查的最小间隔(毫秒)
+     */
+    public PromptTemplateRegistry(String location, String suffix, boolean hotReload, long checkIntervalMillis) {
+        String normalized = location == null ? "" : location.startsWith("/") ? location.substring(1) : location;
+        this.location = normalized.isEmpty() || normalized.endsWith("/") ? normalized : normalized + "/";
+        this.suffix = suffix == null ? "" : suffix;
+        this.hotReload = hotReload;
+        this.checkIntervalMillis = checkIntervalMillis;
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        this.classLoader = contextLoader != null ? contextLoader : PromptTemplateRegistry.class.getClassLoader();
+    }
+
+    /**
+     * 注册以代码定义的模板，覆盖同名的类路径模板
+     */
+    public PromptTemplate register(String name, String source) {
+        PromptTemplate template = PromptTemplate.compile(name, source);
+        templates.put(name, new Entry(template, null, 0));
+        return template;
+    }
+
+    /**
+     * 获取模板
+     *
+     * @throws IllegalArgumentException 模板不存在或语法错误
+     */
+    public PromptTemplate get(String name) {
+        Entry entry = templates.computeIfAbsent(name, this::load);
+        if (hotReload && entry.file != null) {
+            entry = reloadIfModified(name, entry);
+        }
+        return entry.template;
+    }
+
+    /**
+     * 渲染模板
+     */
+    public RenderedPrompt render(String name, Map<String, ?> values) {
+        return get(name).render(values);
+    }
+
+    /**
+     * 清除缓存，之后重新从类路径加载
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    private Entry load(String name) {
+        String path = location + name + suffix;
+        URL url = classLoader.getResource(path);
+        if (url == null) {
+            throw new IllegalArgumentException("Prompt template not found: " + path);
+        }
+        File file = toFile(url);
+        long lastModified = file != null ? file.lastModified() : 0;
+        PromptTemplate template = PromptTemplate.compile(name, read(url));
+        log.debug("加载提示词模板 {}，变量: {}", path, template.getVariableNames());
+        return new Entry(template, file, lastModified);
+    }
+
+    private Entry reloadIfModified(String name, Entry entry) {
+        long now = System.currentTimeMillis();
+        if (now - entry.lastChecked < checkIntervalMillis) {
+            return entry;
+        }
+        entry.lastChecked = now;
+        long lastModified = entry.file.lastModified();
+        if (lastModified == entry.lastModified) {
+            return entry;
+        }
+        try {
+            PromptTemplate template = PromptTemplate.compile(name, readFile(entry.file));
+            Entry reloaded = new Entry(template, entry.file, lastModified);
+            reloaded.lastChecked = now;
+            templates.replace(name, entry, reloaded);
+            log.info("提示词模板 {} 已重新加载", name);
+            return reloaded;
+        } catch (RuntimeException e) {
+            // 保存到一半的文件可能语法不完整，继续使用旧版本，下次检查时重试
+            log.warn("重新加载提示词模板 {} 失败，继续使用旧版本: {}", name, e.getMessage());
+            return entry;
+        }
+    }
+
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String read(URL url) {
+        try (InputStream in = url.openStream()) {
+            return readAll(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("读取提示词模板失败: " + url, e);
+        }
+    }
+
+    private static String readFile(File file) {
+        try (InputStream in = new FileInputStream(file)) {
+            return readAll(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("读取提示词模板失败: " + file, e);
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        private final PromptTemplate template;
+        private final File file;
+        private final long lastModified;
+        private volatile long lastChecked;
+
+        private Entry(PromptTemplate template, File file, long lastModified) {
+            this.template = template;
+            this.file = file;
+            this.lastModified = lastModified;
+            this.lastChecked = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.chow.easy.ai.framework.template;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * 模板渲染结果
+ * 只持有模板和变量值，不预先拼接；序列化为JSON时直接写出预先转义好的静态片段和转义后的变量值，
+ * 需要字符串时才拼接一次并缓存
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public final class RenderedPrompt implements CharSequence, JsonSerializable {
+
+    private final PromptTemplate template;
+    private final String[] values;
+    private final int length;
+    private String text;
+
+    RenderedPrompt(PromptTemplate template, String[] values) {
+        this.template = template;
+        this.values = values;
+        int total = template.literalLength();
+        for (String value : values) {
+            total += value.length();
+        }
+        this.length = total;
+    }
+
+    public PromptTemplate getTemplate() {
+        return template;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String current = text;
+        if (current == null) {
+            String[] literals = template.literals();
+            StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < values.length; i++) {
+                builder.append(literals[i]).append(values[i]);
+            }
+            builder.append(literals[values.length]);
+            text = current = builder.toString();
+        }
+        return current;
+    }
+
+    /**
+     * 作为JSON字符串写出：先写入开头的引号完成字段分隔，之后的片段以原始内容追加
+     */
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        char[][] escaped = template.escapedLiterals();
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        gen.writeRawValue("\"");
+        for (int i = 0; i < values.length; i++) {
+            writeRaw(gen, escaped[i]);
+            writeRaw(gen, encoder.quoteAsString(values[i]));
+        }
+        writeRaw(gen, escaped[values.length]);
+        gen.writeRaw('"');
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(this, JsonToken.VALUE_STRING));
+        serialize(gen, serializers);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    private static void writeRaw(JsonGenerator gen, char[] chars) throws IOException {
+        if (chars.length > 0) {
+            gen.writeRaw(chars, 0, chars.length);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.chow.easy.ai.framework.tool;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.ToolCall;
+import com.chow.easy.ai.framework.util.AiJson;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 工具调用引擎
+ * 循环执行 "请求模型 -> 执行工具 -> 回传结果"，直到模型不再请求工具或达到最大轮次。
+ * 同一轮中的多个工具调用相互独立，在有界线程池中并行执行；只有一个调用时直接在当前线程执行
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class ToolCallingEngine {
+
+    private static final int DEFAULT_MAX_ITERATIONS = 5;
+    private static final int DEFAULT_PARALLELISM = 8;
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final ToolRegistry toolRegistry;
+    private final ExecutorService executor;
+    private final int maxIterations;
+    private final ObjectMapper objectMapper;
+
+    public ToolCallingEngine(ToolRegistry toolRegistry) {
+        this(toolRegistry, DEFAULT_MAX_ITERATIONS, DEFAULT_PARALLELISM);
+    }
+
+    public ToolCallingEngine(ToolRegistry toolRegistry, int maxIterations, int parallelism) {
+        this(toolRegistry, maxIterations, createExecutor(parallelism), AiJson.mapper());
+    }
+
+    public ToolCallingEngine(ToolRegistry toolRegistry, int maxIterations, ExecutorService executor, ObjectMapper objectMapper) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("最大轮次必须大于0: " + maxIterations);
+        }
+        this.toolRegistry = toolRegistry;
+        this.maxIterations = maxIterations;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+    }
+
+    public ToolRegistry getToolRegistry() {
+        return toolRegistry;
+    }
+
+    /**
+     * 执行工具调用循环
+     *
+     * @param aiService AI服务
+     * @param messages  初始消息，不会被修改
+     * @param options   请求参数，未指定 tools 时使用注册表中的全部工具
+     * @return 循环结果
+     */
+    public ToolLoopResult run(AiService aiService, List<AiMessage> messages, ChatOptions options) {
+        return loop(aiService, messages, options, null);
+    }
+
+    /**
+     * 以流式方式执行工具调用循环，每一轮的内容块实时回调
+     */
+    public ToolLoopResult runStream(AiService aiService, List<AiMessage> messages, ChatOptions options,
+                                    Consumer<String> callback) {
+        return loop(aiService, messages, options, callback);
+    }
+
+    /**
+     * 关闭工具线程池
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private ToolLoopResult loop(AiService aiService, List<AiMessage> messages, ChatOptions options,
+                                Consumer<String> callback) {
+        List<AiMessage> conversation = new ArrayList<>(messages);
+        List<ToolLoopResult.IterationMetrics> metrics = new ArrayList<>();
+        // 超时在循环开始时固定为截止时间，所有轮次共享同一个时间预算
+        ChatOptions toolOptions = withTools(options).withResolvedDeadline();
+
+        for (int iteration = 1; ; iteration++) {
+            // 最后一轮禁止继续调用工具，强制模型给出最终回复；未携带 tools 时部分接口不接受 tool_choice
+            boolean lastIteration = iteration == maxIterations;
+            ChatOptions iterationOptions = lastIteration && toolOptions.getParameters().containsKey("tools")
+                    ? toolOptions.toBuilder().parameter("tool_choice", "none").build()
+                    : toolOptions;
+
+            long modelStart = System.nanoTime();
+            ChatCompletion completion = callback == null
+                    ? aiService.complete(conversation, iterationOptions)
+                    : aiService.completeStream(conversation, iterationOptions, callback);
+            long modelMillis = (System.nanoTime() - modelStart) / 1_000_000;
+
+            if (!completion.hasToolCalls()) {
+                metrics.add(new ToolLoopResult.IterationMetrics(iteration, modelMillis, 0, 0));
+                conversation.add(new AiMessage("assistant", completion.getContent()));
+                return new ToolLoopResult(completion, conversation, metrics, false);
+            }
+
+            List<ToolCall> toolCalls = completion.getToolCalls();
+            if (lastIteration) {
+                // 工具可能有副作用，结果也不会再交给模型，因此最后一轮不执行；未执行的调用不写入对话，保持对话可以继续使用
+                metrics.add(new ToolLoopResult.IterationMetrics(iteration, modelMillis, 0, 0));
+                log.warn("{} 工具调用达到最大轮次 {}，忽略最后一轮的 {} 个工具调用，提前结束",
+                        aiService.getProviderName(), maxIterations, toolCalls.size());
+                return new ToolLoopResult(completion, conversation, metrics, true);
+            }
+            conversation.add(AiMessage.assistantToolCalls(completion.getContent(), toolCalls));
+
+            long toolStart = System.nanoTime();
+            conversation.addAll(executeAll(toolCalls));
+            long toolMillis = (System.nanoTime() - toolStart) / 1_000_000;
+            metrics.add(new ToolLoopResult.IterationMetrics(iteration, modelMillis, toolMillis, toolCalls.size()));
+            log.debug("{} 第{}轮: 模型耗时 {}ms, 执行 {} 个工具耗时 {}ms",
+                    aiService.getProviderName(), iteration, modelMillis, toolCalls.size(), toolMillis);
+
+        }
+    }
+
+    /**
+     * 执行一轮中的全部工具调用，结果消息顺序与调用顺序一致
+     */
+    private List<AiMessage> executeAll(List<ToolCall> toolCalls) {
+        if (toolCalls.size() == 1) {
+            return Collections.singletonList(execute(toolCalls.get(0)));
+        }
+        List<CompletableFuture<AiMessage>> futures = new ArrayList<>(toolCalls.size());
+        for (ToolCall call : toolCalls) {
+            futures.add(CompletableFuture.supplyAsync(() -> execute(call), executor));
+        }
+        List<AiMessage> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<AiMessage> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * 执行单个工具调用；工具不存在或执行失败时把错误信息回传给模型，由模型决定如何继续
+     */
+    private AiMessage execute(ToolCall call) {
+        ToolDefinition tool = toolRegistry.getTool(call.getName());
+        if (tool == null) {
+            log.warn("模型请求了未注册的工具: {}", call.getName());
+            return AiMessage.toolResult(call.getId(), errorJson("未知工具: " + call.getName()));
+        }
+        try {
+            String arguments = call.getArguments();
+            JsonNode args = objectMapper.readTree(arguments == null || arguments.trim().isEmpty() ? "{}" : arguments);
+            Object result = tool.getHandler().execute(args);
+            String content = result instanceof String ? (String) result : objectMapper.writeValueAsString(result);
+            return AiMessage.toolResult(call.getId(), content);
+        } catch (Exception e) {
+            log.warn("工具 {} 执行失败: {}", call.getName(), e.getMessage());
+            return AiMessage.toolResult(call.getId(), errorJson(e.getMessage()));
+        }
+    }
+
+    private String errorJson(String message) {
+        try {
+            return objectMapper.writeValueAsString(Collections.singletonMap("error", String.valueOf(message)));
+        } catch (Exception e) {
+            return "{\"error\": \"tool failed\"}";
+        }
+    }
+
+    private ChatOptions withTools(ChatOptions options) {
+        ChatOptions base = options == null ? ChatOptions.DEFAULT : options;
+        if (base.getParameters().containsKey("tools") || toolRegistry.isEmpty()) {
+            return base;
+        }
+        return base.toBuilder().parameter("tools", toolRegistry.toRequestTools()).build();
+    }
+
+    private static ExecutorService createExecutor(int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        // 队列满时由调用线程执行，避免工具调用被拒绝
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY), r -> {
+            Thread thread = new Thread(r, "easy-ai-tool-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
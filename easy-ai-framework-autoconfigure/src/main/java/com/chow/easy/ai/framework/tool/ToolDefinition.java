@@ -0,0 +1,67 @@
+package com.chow.easy.ai.framework.tool;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 工具定义
+ * 包含工具名称、描述、参数的JSON Schema以及对应的Java处理器
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Getter
+public class ToolDefinition {
+
+    private final String name;
+    private final String description;
+    private final Map<String, Object> parameters;
+    private final ToolHandler handler;
+
+    /**
+     * @param name        工具名称，只能包含字母、数字、下划线和中划线
+     * @param description 工具描述，模型据此决定何时调用
+     * @param parameters  参数的JSON Schema，为null时表示无参数
+     * @param handler     工具处理器
+     */
+    public ToolDefinition(String name, String description, Map<String, Object> parameters, ToolHandler handler) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("工具名称不能为空");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("工具处理器不能为空: " + name);
+        }
+        this.name = name;
+        this.description = description;
+        this.parameters = parameters == null ? emptySchema() : parameters;
+        this.handler = handler;
+    }
+
+    /**
+     * 转换为OpenAI兼容的 tools 数组元素
+     */
+    public Map<String, Object> toRequestTool() {
+        Map<String, Object> function = new LinkedHashMap<>();
+        function.put("name", name);
+        if (description != null) {
+            function.put("description", description);
+        }
+        function.put("parameters", parameters);
+
+        Map<String, Object> tool = new LinkedHashMap<>();
+        tool.put("type", "function");
+        tool.put("function", function);
+        return tool;
+    }
+
+    private static Map<String, Object> emptySchema() {
+        Map<String, Object> schema = new HashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", Collections.emptyMap());
+        return schema;
+    }
+}
@@ -0,0 +1,22 @@
+package com.chow.easy.ai.framework.tool;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 工具处理器
+ * 接收模型生成的参数并返回执行结果；返回值为字符串时原样回传给模型，其他对象序列化为JSON
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@FunctionalInterface
+public interface ToolHandler {
+
+    /**
+     * 执行工具
+     *
+     * @param arguments 模型生成的参数（已解析的JSON对象）
+     * @return 执行结果
+     */
+    Object execute(JsonNode arguments) throws Exception;
+}
@@ -0,0 +1,61 @@
+package com.chow.easy.ai.framework.tool;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 工具调用循环的执行结果
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Data
+@AllArgsConstructor
+public class ToolLoopResult {
+    //最后一轮模型响应
+    private ChatCompletion completion;
+    //完整的对话记录，包含工具调用与工具结果消息
+    private List<AiMessage> messages;
+    //每一轮的耗时统计
+    private List<IterationMetrics> iterations;
+    //是否因达到最大轮次而结束
+    private boolean iterationLimitReached;
+
+    /**
+     * 最终回复内容
+     */
+    public String getContent() {
+        return completion.getContent();
+    }
+
+    /**
+     * 所有轮次的总耗时（毫秒）
+     */
+    public long getTotalMillis() {
+        long total = 0;
+        for (IterationMetrics iteration : iterations) {
+            total += iteration.getModelMillis() + iteration.getToolMillis();
+        }
+        return total;
+    }
+
+    /**
+     * 单轮耗时统计
+     */
+    @Data
+    @AllArgsConstructor
+    public static class IterationMetrics {
+        //轮次，从1开始
+        private int iteration;
+        //模型请求耗时（毫秒）
+        private long modelMillis;
+        //本轮工具执行的墙钟耗时（毫秒），并行执行时小于各工具耗时之和
+        private long toolMillis;
+        //本轮工具调用数量
+        private int toolCalls;
+    }
+}
@@ -0,0 +1,68 @@
+package com.chow.easy.ai.framework.tool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 工具注册表
+ * 线程安全，可在运行期间注册或移除工具
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class ToolRegistry {
+
+    private final Map<String, ToolDefinition> tools = new ConcurrentHashMap<>();
+
+    /**
+     * 注册工具，同名工具会被覆盖
+     */
+    public ToolRegistry register(ToolDefinition tool) {
+        ToolDefinition previous = tools.put(tool.getName(), tool);
+        if (previous != null) {
+            log.warn("工具 {} 已存在，将被覆盖", tool.getName());
+        }
+        return this;
+    }
+
+    /**
+     * 注册工具
+     */
+    public ToolRegistry register(String name, String description, Map<String, Object> parameters, ToolHandler handler) {
+        return register(new ToolDefinition(name, description, parameters, handler));
+    }
+
+    public ToolDefinition unregister(String name) {
+        return tools.remove(name);
+    }
+
+    public ToolDefinition getTool(String name) {
+        return name == null ? null : tools.get(name);
+    }
+
+    public Collection<ToolDefinition> getTools() {
+        return Collections.unmodifiableCollection(tools.values());
+    }
+
+    public boolean isEmpty() {
+        return tools.isEmpty();
+    }
+
+    /**
+     * 转换为请求体中的 tools 参数
+     */
+    public List<Map<String, Object>> toRequestTools() {
+        List<Map<String, Object>> result = new ArrayList<>(tools.size());
+        for (ToolDefinition tool : tools.values()) {
+            result.add(tool.toRequestTool());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.chow.easy.ai.framework.trace;
+
+import java.util.Map;
+
+/**
+ * 一次提供商调用的span
+ * 调用内部的各个阶段（构建请求、序列化、建连、首token、流式接收、解析）作为子span记录
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public interface AiSpan {
+
+    String PHASE_BUILD = "request.build";
+    String PHASE_SERIALIZE = "request.serialize";
+    String PHASE_CONNECT = "http.connect";
+    String PHASE_FIRST_TOKEN = "time_to_first_token";
+    String PHASE_STREAM = "stream";
+    String PHASE_PARSE = "response.parse";
+
+    /**
+     * 不记录任何内容的span，所有方法都是空操作
+     */
+    AiSpan NOOP = new AiSpan() {
+    };
+
+    /**
+     * 开始一个阶段子span，调用 {@link #end()} 结束
+     */
+    default AiSpan phase(String name) {
+        return NOOP;
+    }
+
+    /**
+     * 记录请求参数：模型以及 temperature、max_tokens、top_p 等
+     *
+     * @param model       请求的模型
+     * @param requestBody 请求体
+     */
+    default void setRequest(String model, Map<String, Object> requestBody) {
+    }
+
+    /**
+     * 记录响应信息，未知的token数传-1
+     */
+    default void setResponse(String responseModel, String finishReason, int inputTokens, int outputTokens) {
+    }
+
+    default void setAttribute(String key, String value) {
+    }
+
+    default void setAttribute(String key, long value) {
+    }
+
+    /**
+     * 记录异常并把span标记为失败
+     */
+    default void recordError(Throwable error) {
+    }
+
+    /**
+     * 把该span设为当前线程的追踪上下文，用于在回调线程上延续链路
+     */
+    default AiScope makeCurrent() {
+        return AiScope.NOOP;
+    }
+
+    /**
+     * 是否实际记录；为false时调用方可以跳过只为追踪准备数据的工作
+     */
+    default boolean isRecording() {
+        return false;
+    }
+
+    default void end() {
+    }
+
+    /**
+     * 当前追踪上下文的作用域
+     */
+    interface AiScope extends AutoCloseable {
+
+        AiScope NOOP = () -> {
+        };
+
+        @Override
+        void close();
+    }
+}
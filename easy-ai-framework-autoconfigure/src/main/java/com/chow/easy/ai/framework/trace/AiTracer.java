@@ -0,0 +1,21 @@
+package com.chow.easy.ai.framework.trace;
+
+/**
+ * 提供商调用的链路追踪入口
+ * 框架只依赖该接口，不直接依赖 OpenTelemetry；未配置追踪器时不创建任何对象，
+ * 引入 opentelemetry-api 后由 {@link OpenTelemetryAiTracer} 实现
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public interface AiTracer {
+
+    /**
+     * 开始一次提供商调用的span，父span取调用线程当前的追踪上下文
+     *
+     * @param operation 操作名称，如 chat、embeddings
+     * @param provider  提供商名称
+     * @return span，不采样时返回 {@link AiSpan#NOOP}
+     */
+    AiSpan startSpan(String operation, String provider);
+}
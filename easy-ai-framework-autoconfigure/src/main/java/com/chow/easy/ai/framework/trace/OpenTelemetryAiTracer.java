@@ -0,0 +1,165 @@
+package com.chow.easy.ai.framework.trace;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于 OpenTelemetry 的追踪器
+ * 每次提供商调用创建一个 CLIENT span，属性遵循 GenAI 语义约定（gen_ai.*），各阶段作为子span；
+ * span 不被采样时直接返回 {@link AiSpan#NOOP}，后续阶段不再创建任何对象
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class OpenTelemetryAiTracer implements AiTracer {
+
+    /**
+     * 插桩名称
+     */
+    public static final String INSTRUMENTATION_NAME = "com.chow.easy.ai.framework";
+
+    static final AttributeKey<String> GEN_AI_SYSTEM = AttributeKey.stringKey("gen_ai.system");
+    static final AttributeKey<String> GEN_AI_OPERATION_NAME = AttributeKey.stringKey("gen_ai.operation.name");
+    static final AttributeKey<String> GEN_AI_REQUEST_MODEL = AttributeKey.stringKey("gen_ai.request.model");
+    static final AttributeKey<Double> GEN_AI_REQUEST_TEMPERATURE = AttributeKey.doubleKey("gen_ai.request.temperature");
+    static final AttributeKey<Double> GEN_AI_REQUEST_TOP_P = AttributeKey.doubleKey("gen_ai.request.top_p");
+    static final AttributeKey<Long> GEN_AI_REQUEST_MAX_TOKENS = AttributeKey.longKey("gen_ai.request.max_tokens");
+    static final AttributeKey<String> GEN_AI_RESPONSE_MODEL = AttributeKey.stringKey("gen_ai.response.model");
+    static final AttributeKey<List<String>> GEN_AI_RESPONSE_FINISH_REASONS =
+            AttributeKey.stringArrayKey("gen_ai.response.finish_reasons");
+    static final AttributeKey<Long> GEN_AI_USAGE_INPUT_TOKENS = AttributeKey.longKey("gen_ai.usage.input_tokens");
+    static final AttributeKey<Long> GEN_AI_USAGE_OUTPUT_TOKENS = AttributeKey.longKey("gen_ai.usage.output_tokens");
+    static final AttributeKey<String> ERROR_TYPE = AttributeKey.stringKey("error.type");
+
+    private final Tracer tracer;
+
+    public OpenTelemetryAiTracer(OpenTelemetry openTelemetry) {
+        this(openTelemetry.getTracer(INSTRUMENTATION_NAME));
+    }
+
+    public OpenTelemetryAiTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public AiSpan startSpan(String operation, String provider) {
+        Context parent = Context.current();
+        Span span = tracer.spanBuilder(operation)
+                .setParent(parent)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(GEN_AI_OPERATION_NAME, operation)
+                .setAttribute(GEN_AI_SYSTEM, provider)
+                .startSpan();
+        if (!span.isRecording()) {
+            return AiSpan.NOOP;
+        }
+        return new OpenTelemetrySpan(span, parent.with(span), operation);
+    }
+
+    private final class OpenTelemetrySpan implements AiSpan {
+        private final Span span;
+        private final Context context;
+        // 阶段子span为null
+        private final String operation;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private OpenTelemetrySpan(Span span, Context context, String operation) {
+            this.span = span;
+            this.context = context;
+            this.operation = operation;
+        }
+
+        @Override
+        public AiSpan phase(String name) {
+            Span child = tracer.spanBuilder(name).setParent(context).startSpan();
+            return new OpenTelemetrySpan(child, context.with(child), null);
+        }
+
+        @Override
+        public void setRequest(String model, Map<String, Object> requestBody) {
+            if (model != null) {
+                span.setAttribute(GEN_AI_REQUEST_MODEL, model);
+                if (operation != null) {
+                    span.updateName(operation + " " + model);
+                }
+            }
+            if (requestBody == null) {
+                return;
+            }
+            Object temperature = requestBody.get("temperature");
+            if (temperature instanceof Number) {
+                span.setAttribute(GEN_AI_REQUEST_TEMPERATURE, ((Number) temperature).doubleValue());
+            }
+            Object topP = requestBody.get("top_p");
+            if (topP instanceof Number) {
+                span.setAttribute(GEN_AI_REQUEST_TOP_P, ((Number) topP).doubleValue());
+            }
+            Object maxTokens = requestBody.get("max_tokens");
+            if (maxTokens instanceof Number) {
+                span.setAttribute(GEN_AI_REQUEST_MAX_TOKENS, ((Number) maxTokens).longValue());
+            }
+        }
+
+        @Override
+        public void setResponse(String responseModel, String finishReason, int inputTokens, int outputTokens) {
+            if (responseModel != null) {
+                span.setAttribute(GEN_AI_RESPONSE_MODEL, responseModel);
+            }
+            if (finishReason != null) {
+                span.setAttribute(GEN_AI_RESPONSE_FINISH_REASONS, Collections.singletonList(finishReason));
+            }
+            if (inputTokens >= 0) {
+                span.setAttribute(GEN_AI_USAGE_INPUT_TOKENS, (long) inputTokens);
+            }
+            if (outputTokens >= 0) {
+                span.setAttribute(GEN_AI_USAGE_OUTPUT_TOKENS, (long) outputTokens);
+            }
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void recordError(Throwable error) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR, String.valueOf(error.getMessage()));
+            span.setAttribute(ERROR_TYPE, error.getClass().getName());
+        }
+
+        @Override
+        public AiScope makeCurrent() {
+            Scope scope = context.makeCurrent();
+            return scope::close;
+        }
+
+        @Override
+        public boolean isRecording() {
+            return span.isRecording();
+        }
+
+        @Override
+        public void end() {
+            if (ended.compareAndSet(false, true)) {
+                span.end();
+            }
+        }
+    }
+}
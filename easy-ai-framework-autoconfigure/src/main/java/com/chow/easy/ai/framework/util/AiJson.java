@@ -0,0 +1,89 @@
+package com.chow.easy.ai.framework.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 进程内共享的JSON解析器
+ * ObjectMapper 的创建和首次序列化（类型内省、构建序列化器缓存）开销较大，框架内所有组件共用同一个实例；
+ * 预热在后台线程按请求与响应的典型结构各走一遍序列化和解析，使第一次调用不再承担这部分开销
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public final class AiJson {
+
+    private static final AtomicBoolean PREWARMED = new AtomicBoolean();
+
+    private AiJson() {
+    }
+
+    /**
+     * 首次使用时创建，由类加载机制保证线程安全
+     */
+    private static final class Holder {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+        private static final ObjectReader TREE_READER = MAPPER.readerFor(JsonNode.class);
+    }
+
+    /**
+     * 共享的 ObjectMapper，调用方不应修改其配置
+     */
+    public static ObjectMapper mapper() {
+        return Holder.MAPPER;
+    }
+
+    /**
+     * 共享的 JsonNode 读取器，根反序列化器在创建时已解析好
+     */
+    public static ObjectReader treeReader() {
+        return Holder.TREE_READER;
+    }
+
+    /**
+     * 在后台守护线程中预热共享解析器，进程内只执行一次
+     */
+    public static void prewarmAsync() {
+        if (!PREWARMED.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(AiJson::prewarm, "easy-ai-json-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void prewarm() {
+        long start = System.nanoTime();
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("role", "user");
+            message.put("content", "预热");
+            List<Map<String, Object>> messages = new ArrayList<>();
+            messages.add(message);
+            Map<String, Object> body = new HashMap<>();
+            body.put("model", "prewarm");
+            body.put("messages", messages);
+            body.put("stream", Boolean.TRUE);
+            body.put("temperature", 0.7);
+            body.put("max_tokens", 16);
+            mapper().writeValueAsBytes(body);
+
+            treeReader().readTree("{\"id\":\"p\",\"model\":\"prewarm\",\"choices\":[{\"index\":0,"
+                    + "\"message\":{\"role\":\"assistant\",\"content\":\"ok\"},\"finish_reason\":\"stop\"}],"
+                    + "\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":1,\"total_tokens\":2}}");
+            treeReader().readTree("{\"choices\":[{\"delta\":{\"content\":\"ok\"}}]}");
+            log.debug("JSON解析器预热完成，耗时 {}ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.debug("JSON解析器预热失败: {}", e.getMessage());
+        }
+    }
+}
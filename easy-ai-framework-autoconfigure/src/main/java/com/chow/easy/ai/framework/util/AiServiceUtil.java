@@ -1,7 +1,11 @@
 package com.chow.easy.ai.framework.util;
 
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
 import com.chow.easy.ai.framework.core.AiMessage;
 import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.StreamHandle;
+import com.chow.easy.ai.framework.structured.JsonStreamListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -43,6 +47,13 @@ public class AiServiceUtil {
         return aiServiceFactory.getService(providerName).chat(messages);
     }
 
+    /**
+     * 多轮对话，使用单次请求参数（模型、温度等）覆盖提供商默认参数
+     */
+    public String chat(String providerName, List<AiMessage> messages, ChatOptions options) {
+        return aiServiceFactory.getService(providerName).chat(messages, options);
+    }
+
     /**
      * 流式对话
      */
@@ -56,4 +67,41 @@ public class AiServiceUtil {
     public void chatStream(String providerName, String prompt, Consumer<String> callback) {
         aiServiceFactory.getService(providerName).chatStream(prompt, callback);
     }
+
+    /**
+     * 指定提供商的流式多轮对话，使用单次请求参数覆盖提供商默认参数
+     */
+    public void chatStream(String providerName, List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        aiServiceFactory.getService(providerName).chatStream(messages, options, callback);
+    }
+
+    /**
+     * 指定提供商的异步流式对话，返回可取消的句柄
+     */
+    public StreamHandle chatStreamAsync(String providerName, List<AiMessage> messages, ChatOptions options, Consumer<String> callback) {
+        return aiServiceFactory.getService(providerName).chatStreamAsync(messages, options, callback);
+    }
+
+    /**
+     * 指定提供商的流式对话，完整回复累积在池化缓冲区中返回，用完后需关闭
+     */
+    public PooledTextBuffer chatStreamBuffered(String providerName, List<AiMessage> messages, ChatOptions options,
+                                               Consumer<String> callback) {
+        return aiServiceFactory.getService(providerName).chatStreamBuffered(messages, options, callback);
+    }
+
+    /**
+     * 指定提供商的结构化输出
+     */
+    public <T> T chatForObject(String providerName, List<AiMessage> messages, Class<T> type) {
+        return aiServiceFactory.getService(providerName).chatForObject(messages, type);
+    }
+
+    /**
+     * 指定提供商的流式结构化输出，已闭合的数组元素和顶层字段提前回调
+     */
+    public <T> T chatStreamForObject(String providerName, List<AiMessage> messages, Class<T> type,
+                                     ChatOptions options, JsonStreamListener listener) {
+        return aiServiceFactory.getService(providerName).chatStreamForObject(messages, type, options, listener);
+    }
 }
@@ -0,0 +1,83 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.scheduler.SchedulerStats;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自适应并发上限演示
+ * 模拟的提供商每次处理100ms，最多同时处理8个请求、排队8个，再多返回429；48个客户端线程持续发送请求。
+ * 固定并发上限48时大量请求被429拒绝；自适应上限根据排队导致的耗时上升和429信号收敛到提供商可持续的并发数附近
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class AdaptiveConcurrencyDemo {
+
+    private static final int CLIENTS = 48;
+    private static final long DURATION_MILLIS = 6000;
+
+    public static void main(String[] args) throws Exception {
+        run("固定上限", false);
+        run("自适应上限", true);
+    }
+
+    private static void run(String title, boolean adaptive) throws Exception {
+        try (MockAiServer mock = MockAiServer.start()) {
+            mock.responseDelay(100).capacity(8, 8);
+            EasyAiFrameworkProperties.Scheduler scheduler = new EasyAiFrameworkProperties.Scheduler();
+            scheduler.setMaxConcurrentRequests(CLIENTS);
+            scheduler.getAdaptiveLimit().setEnabled(adaptive);
+            AiServiceFactory factory = AiServiceFactory.builder()
+                    .provider("openai", "mock-key", mock.getBaseUrl())
+                    .defaultProvider("openai")
+                    .scheduler(scheduler)
+                    .build();
+            AiService service = factory.getDefaultService();
+            List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "你好"));
+            ChatOptions options = ChatOptions.builder().skipCache(true).build();
+
+            AtomicLong succeeded = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            AtomicLong latencyMillis = new AtomicLong();
+            long end = System.currentTimeMillis() + DURATION_MILLIS;
+            ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+            CountDownLatch done = new CountDownLatch(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                pool.execute(() -> {
+                    while (System.currentTimeMillis() < end) {
+                        long start = System.nanoTime();
+                        try {
+                            service.chat(messages, options);
+                            succeeded.incrementAndGet();
+                            latencyMillis.addAndGet((System.nanoTime() - start) / 1_000_000);
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+            pool.shutdown();
+
+            SchedulerStats stats = factory.getSchedulerStats().get(0);
+            long ok = succeeded.get();
+            System.out.printf("%s: 成功 %d (%.1f/s)，失败 %d，提供商返回429 %d 次，平均耗时 %dms，当前上限 %d，最小RTT %.1fms%n",
+                    title, ok, ok * 1000.0 / DURATION_MILLIS, failed.get(), mock.getThrottled(),
+                    ok == 0 ? 0 : latencyMillis.get() / ok, stats.getLimit(), stats.getNoLoadRttMillis());
+            factory.shutdown();
+        }
+    }
+}
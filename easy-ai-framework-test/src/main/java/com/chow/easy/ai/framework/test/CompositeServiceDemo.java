@@ -0,0 +1,77 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.routing.CompositeResult;
+import com.chow.easy.ai.framework.routing.EnsembleReducer;
+import com.chow.easy.ai.framework.routing.EnsembleService;
+import com.chow.easy.ai.framework.routing.RaceService;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 竞速与并行聚合演示
+ * 三个模拟服务的首token延迟、生成速度和回复长度不同，另有一个无法连接的提供商：
+ * 竞速时慢的一方在生成中途被取消，连接失败的错误内容块不会胜出；并行聚合按多数表决选出回复
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class CompositeServiceDemo {
+
+    public static void main(String[] args) throws Exception {
+        try (MockAiServer slow = MockAiServer.start();
+             MockAiServer fast = MockAiServer.start();
+             MockAiServer shortReply = MockAiServer.start()) {
+            slow.responseDelay(150).streamChunks(20, 30);
+            fast.streamChunks(20, 5);
+            shortReply.streamChunks(12, 5);
+            AiServiceFactory factory = AiServiceFactory.builder()
+                    .provider("openai", "mock-key", slow.getBaseUrl())
+                    .provider("deepseek", "mock-key", fast.getBaseUrl())
+                    .provider("siliconflow", "mock-key", shortReply.getBaseUrl())
+                    .provider("doubao", "mock-key", "http://127.0.0.1:1")
+                    .defaultProvider("openai")
+                    .build();
+            List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "介绍一下竞速模式"));
+
+            RaceService race = factory.race("openai", "deepseek", "doubao");
+            for (int i = 0; i < 3; i++) {
+                print("竞速", race.execute(messages, ChatOptions.DEFAULT));
+            }
+            StringBuilder streamed = new StringBuilder();
+            CompositeResult streamedResult = race.execute(messages, ChatOptions.DEFAULT, streamed::append);
+            print("流式竞速", streamedResult);
+            System.out.println("流式内容与结果一致: " + streamedResult.getContent().contentEquals(streamed));
+            System.out.println(race.getStats());
+
+            EnsembleService ensemble = factory.ensemble(EnsembleReducer.majorityVote(),
+                    "openai", "deepseek", "siliconflow");
+            print("多数表决", ensemble.execute(messages, ChatOptions.DEFAULT));
+            EnsembleService quorum = EnsembleService.builder("quorum")
+                    .member(factory.getService("openai"))
+                    .member(factory.getService("deepseek"))
+                    .member(factory.getService("siliconflow"))
+                    .reducer(EnsembleReducer.longest())
+                    .quorum(2)
+                    .build();
+            print("法定数量2", quorum.execute(messages, ChatOptions.DEFAULT));
+            System.out.println(ensemble.getStats());
+            System.out.println(quorum.getStats());
+            factory.shutdown();
+        }
+    }
+
+    private static void print(String title, CompositeResult result) {
+        System.out.printf("%s: 采用 %s，耗时 %dms，赢得 %dms，浪费 %d token%n", title, result.getMemberLabel(),
+                result.getLatencyMillis(), result.getLatencyWonMillis(), result.getWastedTokens());
+        for (CompositeResult.Attempt attempt : result.getAttempts()) {
+            System.out.printf("    %-22s %5dms %3d token%s%s%n", attempt.getMemberLabel(), attempt.getLatencyMillis(),
+                    attempt.getTokens(), attempt.isSelected() ? " 采用" : attempt.isCancelled() ? " 已取消" : "",
+                    attempt.getError() == null ? "" : " 失败: " + attempt.getError());
+        }
+    }
+}
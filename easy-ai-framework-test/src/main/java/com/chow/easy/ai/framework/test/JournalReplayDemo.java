@@ -0,0 +1,77 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.journal.JournalReader;
+import com.chow.easy.ai.framework.journal.JournalRecord;
+import com.chow.easy.ai.framework.journal.JournalReplayer;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求日志与重放演示
+ * 对本地模拟服务发送普通和流式请求并记录日志（段很小以触发滚动），然后按原始节奏和10倍速重放
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class JournalReplayDemo {
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("easy-ai-journal");
+        try (MockAiServer mock = MockAiServer.start()) {
+            mock.streamChunks(10, 5);
+            AiServiceFactory factory = createFactory(mock, directory);
+            AiService service = factory.getDefaultService();
+            for (int i = 0; i < 20; i++) {
+                List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "第" + i + "个问题"));
+                if (i % 4 == 0) {
+                    service.chatStream(messages, chunk -> {
+                    });
+                } else {
+                    service.chat(messages);
+                }
+                Thread.sleep(20);
+            }
+            factory.shutdown();
+
+            Map<JournalRecord.Type, Integer> counts = new EnumMap<>(JournalRecord.Type.class);
+            new JournalReader(directory).forEach(record -> counts.merge(record.getType(), 1, Integer::sum));
+            long segments;
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                segments = files.count();
+            }
+            System.out.println("记录: " + counts + "，日志段: " + segments);
+
+            AiServiceFactory client = createFactory(mock, null);
+            System.out.println("1倍速:  " + new JournalReplayer(client.getServiceContext().getHttpClient(),
+                    mock.getBaseUrl(), "mock-key", 1).replay(directory));
+            System.out.println("10倍速: " + new JournalReplayer(client.getServiceContext().getHttpClient(),
+                    mock.getBaseUrl(), "mock-key", 10).replay(directory));
+        }
+    }
+
+    private static AiServiceFactory createFactory(MockAiServer mock, Path journalDirectory) {
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        if (journalDirectory != null) {
+            properties.getJournal().setEnabled(true);
+            properties.getJournal().setDirectory(journalDirectory.toString());
+            properties.getJournal().setSegmentSize(4096);
+            properties.getJournal().setMaxSegments(0);
+        }
+        return new AiServiceFactory(properties);
+    }
+}
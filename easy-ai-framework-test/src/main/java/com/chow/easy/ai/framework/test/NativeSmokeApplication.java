@@ -0,0 +1,60 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.core.AiFrameworkBootstrap;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * native-image 冒烟测试
+ * 不启动 Spring，通过 {@link AiFrameworkBootstrap} 创建服务并对进程内的模拟服务发送普通、流式请求，
+ * 任一检查失败时以非0退出码结束；mvn -Pnative package 构建二进制后在 integration-test 阶段执行，也可以直接在JVM上运行
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class NativeSmokeApplication {
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        try (MockAiServer mock = MockAiServer.start()) {
+            mock.streamChunks(5, 0);
+            Properties properties = new Properties();
+            properties.setProperty("bcl.ai-framework.default-provider", "openai");
+            properties.setProperty("bcl.ai-framework.providers.openai.api-key", "mock-key");
+            properties.setProperty("bcl.ai-framework.providers.openai.api-url", mock.getBaseUrl());
+            properties.setProperty("bcl.ai-framework.providers.openai.parameters.temperature", "0.2");
+            AiServiceFactory factory = AiFrameworkBootstrap.fromProperties(properties);
+            AiService service = factory.getDefaultService();
+            List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "你好"));
+
+            String reply = service.chat(messages);
+            check(reply != null && !reply.isEmpty(), "普通对话没有返回内容");
+
+            StringBuilder streamed = new StringBuilder();
+            ChatCompletion completion = service.completeStream(messages, ChatOptions.DEFAULT, streamed::append);
+            check(streamed.length() > 0, "流式对话没有返回内容");
+            check(completion.getContent().contentEquals(streamed), "流式汇总内容与回调内容不一致");
+
+            check(factory.getAvailableSpiProviders().contains("openai"), "SPI提供商未注册");
+            factory.shutdown();
+            System.out.printf("冒烟测试通过: chat=%s, stream=%d字符, 耗时%dms%n", reply, streamed.length(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        System.exit(0);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("冒烟测试失败: " + message);
+            System.exit(1);
+        }
+    }
+}
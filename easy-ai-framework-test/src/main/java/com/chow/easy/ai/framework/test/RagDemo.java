@@ -0,0 +1,57 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.rag.BatchEmbedder;
+import com.chow.easy.ai.framework.rag.RagPipeline;
+import com.chow.easy.ai.framework.rag.RetrievedChunk;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.util.Collections;
+
+/**
+ * 检索增强生成演示
+ * 基于本地模拟服务完成 "切块 -> 向量化 -> 建索引 -> 检索 -> 注入" 的完整流程
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class RagDemo {
+
+    private static final String DOCUMENT = "Easy AI Framework 是一个轻量的多提供商AI接入框架。\n\n"
+            + "请求调度器按优先级和租户权重排队，队列满时拒绝新请求。\n\n"
+            + "连接预热会在应用启动后提前建立到提供商的连接，降低首个请求的延迟。\n\n"
+            + "请求体压缩支持gzip，适合长的多轮对话。\n\n"
+            + "提示词模板只编译一次，静态片段在每次请求中保持字节一致。";
+
+    public static void main(String[] args) throws Exception {
+        try (MockAiServer mock = MockAiServer.start()) {
+            EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+            EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+            config.setApiKey("mock-key");
+            config.setApiUrl(mock.getBaseUrl());
+            config.setEmbeddingModel("mock-embedding");
+            properties.getProviders().put("openai", config);
+            properties.setDefaultProvider("openai");
+            AiService service = new AiServiceFactory(properties).getDefaultService();
+
+            RagPipeline rag = RagPipeline.builder(new BatchEmbedder(service, ChatOptions.DEFAULT, 16, 2))
+                    .chunkSize(40)
+                    .chunkOverlap(5)
+                    .topK(2)
+                    .build();
+            System.out.println("写入块数: " + rag.addDocument("intro.md", DOCUMENT));
+
+            for (RetrievedChunk chunk : rag.retrieve("gzip压缩怎么开启")) {
+                System.out.printf("%.3f %s%n", chunk.getScore(), chunk.getText());
+            }
+
+            rag.wrap(service).chat(Collections.singletonList(new AiMessage("user", "连接预热有什么用")));
+            System.out.println("发送的请求: " + mock.getLastRequestBody());
+            rag.shutdown();
+        }
+    }
+}
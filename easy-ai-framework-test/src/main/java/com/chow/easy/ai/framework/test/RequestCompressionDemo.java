@@ -0,0 +1,64 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.CompressionStats;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求体压缩演示
+ * 对本地模拟服务发送长多轮对话，比较开启gzip前后实际传输的字节数
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class RequestCompressionDemo {
+
+    public static void main(String[] args) throws Exception {
+        try (MockAiServer mock = MockAiServer.start()) {
+            List<AiMessage> history = buildHistory(200);
+
+            long plain = send(mock, EasyAiFrameworkProperties.Compression.NONE, history, null);
+            CompressionStats[] stats = new CompressionStats[1];
+            long gzip = send(mock, EasyAiFrameworkProperties.Compression.GZIP, history, stats);
+
+            System.out.printf("未压缩: %d 字节%n", plain);
+            System.out.printf("gzip:   %d 字节 (%.1f%%)%n", gzip, gzip * 100.0 / plain);
+            System.out.println("压缩统计: " + stats[0]);
+            System.out.println("模拟服务收到gzip请求: " + mock.getGzipRequests());
+        }
+    }
+
+    private static long send(MockAiServer mock, EasyAiFrameworkProperties.Compression compression,
+                             List<AiMessage> history, CompressionStats[] stats) {
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        config.setCompression(compression);
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+
+        AiServiceFactory factory = new AiServiceFactory(properties);
+        long before = mock.getWireBytes();
+        factory.getDefaultService().chat(history);
+        if (stats != null) {
+            stats[0] = factory.getCompressionStats("openai");
+        }
+        return mock.getWireBytes() - before;
+    }
+
+    private static List<AiMessage> buildHistory(int turns) {
+        List<AiMessage> messages = new ArrayList<>();
+        messages.add(new AiMessage("system", "You are a helpful assistant"));
+        for (int i = 0; i < turns; i++) {
+            messages.add(new AiMessage("user", "第" + i + "轮：请根据下面的资料总结要点。资料内容包括项目背景、需求说明和历史讨论记录。"));
+            messages.add(new AiMessage("assistant", "好的，第" + i + "轮的要点如下：一、项目背景清晰；二、需求边界明确；三、历史讨论已达成共识。"));
+        }
+        return messages;
+    }
+}
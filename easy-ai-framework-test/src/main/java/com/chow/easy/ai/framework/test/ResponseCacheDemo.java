@@ -0,0 +1,73 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 两级响应缓存演示
+ * 两个工厂模拟两个实例，共享同一组按请求哈希分片的缓存目录：
+ * 实例A调用提供商后写回共享缓存，实例B的相同请求直接命中远程缓存
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class ResponseCacheDemo {
+
+    public static void main(String[] args) throws Exception {
+        Path shared = Files.createTempDirectory("easy-ai-cache");
+        try (MockAiServer mock = MockAiServer.start()) {
+            mock.reply("缓存的回答");
+            AiServiceFactory nodeA = createNode(mock, shared);
+            AiServiceFactory nodeB = createNode(mock, shared);
+            List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "介绍一下响应缓存"));
+
+            // 实例A上的并发相同请求只调用一次提供商
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            CountDownLatch done = new CountDownLatch(8);
+            AiService serviceA = nodeA.getDefaultService();
+            for (int i = 0; i < 8; i++) {
+                pool.execute(() -> {
+                    serviceA.chat(messages);
+                    done.countDown();
+                });
+            }
+            done.await();
+            pool.shutdown();
+            nodeA.getServiceContext().getResponseCache().flush(5000);
+            System.out.println("实例A: " + nodeA.getResponseCacheStats());
+
+            String reply = nodeB.getDefaultService().chat(messages);
+            nodeB.getDefaultService().chat(messages);
+            System.out.println("实例B: " + nodeB.getResponseCacheStats() + " 回答: " + reply);
+
+            nodeB.getDefaultService().chat(messages, ChatOptions.builder().skipCache(true).build());
+            System.out.println("提供商实际收到请求: " + mock.getRequests());
+        }
+    }
+
+    private static AiServiceFactory createNode(MockAiServer mock, Path shared) {
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        properties.getResponseCache().setEnabled(true);
+        properties.getResponseCache().setDirectories(Arrays.asList(
+                shared.resolve("shard-0").toString(), shared.resolve("shard-1").toString()));
+        return new AiServiceFactory(properties);
+    }
+}
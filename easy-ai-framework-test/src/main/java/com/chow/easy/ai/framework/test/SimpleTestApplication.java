@@ -3,7 +3,6 @@ package com.chow.easy.ai.framework.test;
 import com.chow.easy.ai.framework.core.AiMessage;
 import com.chow.easy.ai.framework.core.AiService;
 import com.chow.easy.ai.framework.core.AiServiceFactory;
-import com.chow.easy.ai.framework.spi.AiServiceProviderLoader;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -75,7 +74,7 @@ public class SimpleTestApplication {
         System.out.println("📦 可用的SPI提供商: " + serviceFactory.getAvailableSpiProviders());
 
         System.out.println("\n📋 SPI提供商详细信息:");
-        String providersSummary = AiServiceProviderLoader.getProvidersSummary();
+        String providersSummary = serviceFactory.getProviderRegistry().getProvidersSummary();
         System.out.println(providersSummary);
 
         // 展示支持的模型列表
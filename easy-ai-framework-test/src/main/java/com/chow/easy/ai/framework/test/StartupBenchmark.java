@@ -0,0 +1,114 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 启动耗时基准
+ * 每次在新的JVM中创建 AiServiceFactory，模拟一段应用自身的初始化（如等待数据库连接）后发出第一个请求，
+ * 对比启动时立即初始化（lazy-init=false）与默认的延迟初始化加后台预热：
+ * ready 为创建工厂的耗时，first 为开始创建工厂到拿到第一个响应的耗时，process 为整个进程的耗时
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class StartupBenchmark {
+
+    private static final int ROUNDS = 7;
+
+    /**
+     * 创建工厂之后、第一个请求之前应用自身初始化的耗时（毫秒）
+     */
+    private static final long APP_INIT_MILLIS = 300;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2) {
+            runChild(args[0], "lazy".equals(args[1]));
+            return;
+        }
+        try (MockAiServer mock = MockAiServer.start()) {
+            List<long[]> eager = new ArrayList<>();
+            List<long[]> lazy = new ArrayList<>();
+            // 先跑一轮丢弃，让操作系统缓存好类文件
+            fork(mock.getBaseUrl(), "eager");
+            for (int i = 0; i < ROUNDS; i++) {
+                eager.add(fork(mock.getBaseUrl(), "eager"));
+                lazy.add(fork(mock.getBaseUrl(), "lazy"));
+            }
+            print("立即加载", eager);
+            print("启动优化", lazy);
+        }
+    }
+
+    private static void runChild(String baseUrl, boolean optimized) throws InterruptedException {
+        long start = System.nanoTime();
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(baseUrl);
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        properties.getStartup().setLazyInit(optimized);
+        properties.getStartup().setPrewarm(optimized);
+
+        AiServiceFactory factory = new AiServiceFactory(properties);
+        long ready = System.nanoTime();
+        Thread.sleep(APP_INIT_MILLIS);
+        factory.getDefaultService().chat(Collections.singletonList(new AiMessage("user", "你好")));
+        long first = System.nanoTime();
+        System.out.println("RESULT " + (ready - start) / 1000 + " " + (first - start) / 1000);
+        System.exit(0);
+    }
+
+    private static long[] fork(String baseUrl, String mode) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn", "-Dlogging.level.root=WARN",
+                StartupBenchmark.class.getName(), baseUrl, mode);
+        builder.redirectErrorStream(true);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("RESULT ")) {
+                    result = line;
+                }
+            }
+        }
+        process.waitFor();
+        long total = (System.nanoTime() - start) / 1000;
+        if (result == null) {
+            throw new IllegalStateException("子进程未输出结果，退出码: " + process.exitValue());
+        }
+        String[] parts = result.split(" ");
+        return new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2]), total};
+    }
+
+    private static void print(String name, List<long[]> samples) {
+        System.out.printf("%s: ready=%.1fms first=%.1fms process=%.1fms%n", name,
+                median(samples, 0) / 1000.0, median(samples, 1) / 1000.0, median(samples, 2) / 1000.0);
+    }
+
+    private static long median(List<long[]> samples, int index) {
+        long[] values = new long[samples.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = samples.get(i)[index];
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+}
@@ -0,0 +1,80 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.StreamHandle;
+import com.chow.easy.ai.framework.stream.StreamPipeline;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 流式后处理管道演示
+ * 模拟服务逐块返回 "chunk0 chunk1 ..."：替换敏感内容、识别跨内容块的终止标记并取消上游请求、按长度截断
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+public class StreamPipelineDemo {
+
+    public static void main(String[] args) throws Exception {
+        try (MockAiServer mock = MockAiServer.start()) {
+            AiServiceFactory factory = createFactory(mock);
+            AiService service = factory.getDefaultService();
+            List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "你好"));
+
+            // 替换：模式可以出现在任意位置，包括跨越两个内容块
+            mock.streamChunks(5, 0);
+            StreamPipeline redact = StreamPipeline.builder()
+                    .redact("***", "chunk1 ")
+                    .ignoreCase(true)
+                    .redact("[已脱敏]", "2 CHUNK3")
+                    .build();
+            StringBuilder redacted = new StringBuilder();
+            service.completeStream(messages, ChatOptions.builder().pipeline(redact).build(), redacted::append);
+            System.out.println("替换: " + redacted);
+
+            // 终止标记跨越 "chunk3 " 与 "chunk4 " 两个内容块，命中后取消上游请求
+            mock.streamChunks(200, 20);
+            StreamPipeline stop = StreamPipeline.builder().stopAt("3 chunk4").build();
+            StringBuilder stopped = new StringBuilder();
+            long start = System.nanoTime();
+            StreamHandle handle = service.completeAsync(messages, ChatOptions.builder().pipeline(stop).build(),
+                    stopped::append);
+            handle.getCompletion().join();
+            ChatCompletion completion = handle.getResult();
+            System.out.printf("终止: %s | stopped=%s finishReason=%s error=%s 耗时%dms（完整生成约%dms）%n",
+                    stopped, handle.isStopped(), completion.getFinishReason(), handle.getError(),
+                    (System.nanoTime() - start) / 1_000_000, 200 * 20);
+
+            // 自定义环节与长度截断组合
+            mock.streamChunks(200, 5);
+            StreamPipeline truncate = StreamPipeline.builder()
+                    .map(chunk -> chunk.toUpperCase(Locale.ROOT))
+                    .maxChars(30)
+                    .build();
+            StringBuilder truncated = new StringBuilder();
+            ChatCompletion limited = service.completeStream(messages,
+                    ChatOptions.builder().pipeline(truncate).build(), truncated::append);
+            System.out.printf("截断: %s (%d字符) finishReason=%s%n", truncated, truncated.length(),
+                    limited.getFinishReason());
+            factory.shutdown();
+        }
+    }
+
+    private static AiServiceFactory createFactory(MockAiServer mock) {
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        return new AiServiceFactory(properties);
+    }
+}
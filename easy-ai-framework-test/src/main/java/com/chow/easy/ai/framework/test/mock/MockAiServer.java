@@ -0,0 +1,336 @@
+package com.chow.easy.ai.framework.test.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 本地模拟的OpenAI兼容服务
+ * 基于JDK内置HttpServer，不访问真实提供商即可验证框架行为：
+ * 支持普通与流式 /chat/completions、/embeddings、/models，支持gzip压缩的请求体，并记录收到的请求字节数；
+ * 可以模拟有限的处理能力：超出并发的请求在服务端排队，排队也满时返回429
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+@Slf4j
+public class MockAiServer implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int EMBEDDING_DIMENSION = 256;
+
+    private final HttpServer server;
+    //流式响应的内容块数量
+    private volatile int streamChunks = 10;
+    //流式响应每个内容块之间的间隔（毫秒）
+    private volatile long chunkDelayMillis = 20;
+    //返回响应前的等待时间（毫秒），模拟排队与首token延迟
+    private volatile long responseDelayMillis;
+    //同时处理的对话请求数与排队上限，为null时不限制
+    private volatile Semaphore capacity;
+    private volatile int maxWaiting;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong throttled = new AtomicLong();
+    //固定的回复内容
+    private volatile String reply = "Hello from mock server";
+    //设置后以工具调用代替回复内容，流式增量按OpenAI格式携带 "content":null
+    private volatile String toolCallName;
+    private volatile String toolCallArguments;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong gzipRequests = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    private volatile String lastRequestBody;
+
+    public MockAiServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "mock-ai-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/chat/completions", this::handleChat);
+        server.createContext("/embeddings", this::handleEmbeddings);
+        server.createContext("/models", this::handleModels);
+    }
+
+    /**
+     * 在随机端口启动
+     */
+    public static MockAiServer start() throws IOException {
+        MockAiServer mock = new MockAiServer(0);
+        mock.server.start();
+        return mock;
+    }
+
+    /**
+     * 作为提供商 api-url 使用的地址
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public MockAiServer streamChunks(int chunks, long delayMillis) {
+        this.streamChunks = chunks;
+        this.chunkDelayMillis = delayMillis;
+        return this;
+    }
+
+    public MockAiServer responseDelay(long delayMillis) {
+        this.responseDelayMillis = delayMillis;
+        return this;
+    }
+
+    /**
+     * 模拟提供商的处理能力：最多同时处理 slots 个对话请求，超出的最多排队 maxWaiting 个，再多返回429
+     */
+    public MockAiServer capacity(int slots, int maxWaiting) {
+        this.capacity = new Semaphore(slots);
+        this.maxWaiting = maxWaiting;
+        return this;
+    }
+
+    /**
+     * 返回429的次数
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public MockAiServer reply(String reply) {
+        this.reply = reply;
+        return this;
+    }
+
+    /**
+     * 之后的对话请求返回对指定工具的调用；name 为null时恢复返回固定内容
+     */
+    public MockAiServer toolCall(String name, String arguments) {
+        this.toolCallName = name;
+        this.toolCallArguments = arguments;
+        return this;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getGzipRequests() {
+        return gzipRequests.get();
+    }
+
+    /**
+     * 实际收到的请求体字节数（压缩后）
+     */
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    /**
+     * 解压后的请求体字节数
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public String getLastRequestBody() {
+        return lastRequestBody;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleChat(HttpExchange exchange) throws IOException {
+        String body = readBody(exchange);
+        lastRequestBody = body;
+        requests.incrementAndGet();
+        Semaphore slots = capacity;
+        if (slots == null) {
+            respondChat(exchange, body);
+            return;
+        }
+        if (!slots.tryAcquire()) {
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                throttled.incrementAndGet();
+                writeStatus(exchange, 429, "{\"error\":{\"message\":\"rate limited\"}}");
+                return;
+            }
+            slots.acquireUninterruptibly();
+            waiting.decrementAndGet();
+        }
+        try {
+            respondChat(exchange, body);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void respondChat(HttpExchange exchange, String body) throws IOException {
+        sleep(responseDelayMillis);
+
+        if (body.replace(" ", "").contains("\"stream\":true")) {
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (toolCallName != null) {
+                    writeToolCallStream(out);
+                    return;
+                }
+                for (int i = 0; i < streamChunks; i++) {
+                    String event = "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"chunk" + i + " \"}}]}\n\n";
+                    out.write(event.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    sleep(chunkDelayMillis);
+                }
+                out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                log.debug("客户端提前断开流式连接");
+            }
+            return;
+        }
+
+        if (toolCallName != null) {
+            writeJson(exchange, "{\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":null,"
+                    + "\"tool_calls\":[" + toolCallJson(toolCallArguments) + "]},\"finish_reason\":\"tool_calls\"}],"
+                    + "\"usage\":{\"prompt_tokens\":" + body.length() / 4 + ",\"completion_tokens\":5}}");
+            return;
+        }
+        String response = "{\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\""
+                + reply.replace("\"", "\\\"") + "\"},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":" + body.length() / 4 + ",\"completion_tokens\":5}}";
+        writeJson(exchange, response);
+    }
+
+    /**
+     * 按OpenAI的格式流式返回工具调用：首个增量带 id 与函数名，参数分两段到达，内容字段均为null
+     */
+    private void writeToolCallStream(OutputStream out) throws IOException {
+        String arguments = toolCallArguments;
+        int half = arguments.length() / 2;
+        String[] deltas = {
+                "{\"role\":\"assistant\",\"content\":null,\"tool_calls\":[" + toolCallJson("") + "]}",
+                "{\"content\":null,\"tool_calls\":[{\"index\":0,\"function\":{\"arguments\":"
+                        + quote(arguments.substring(0, half)) + "}}]}",
+                "{\"content\":null,\"tool_calls\":[{\"index\":0,\"function\":{\"arguments\":"
+                        + quote(arguments.substring(half)) + "}}]}"
+        };
+        for (String delta : deltas) {
+            out.write(("data: {\"choices\":[{\"index\":0,\"delta\":" + delta + ",\"finish_reason\":null}]}\n\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(chunkDelayMillis);
+        }
+        out.write("data: {\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"tool_calls\"}]}\n\n"
+                .getBytes(StandardCharsets.UTF_8));
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toolCallJson(String arguments) {
+        return "{\"index\":0,\"id\":\"call_mock\",\"type\":\"function\",\"function\":{\"name\":"
+                + quote(toolCallName) + ",\"arguments\":" + quote(arguments) + "}}";
+    }
+
+    private static String quote(String text) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(text);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按字符二元组哈希生成确定性的向量，字面相近的文本向量也相近，足以验证检索流程
+     */
+    private void handleEmbeddings(HttpExchange exchange) throws IOException {
+        JsonNode input = OBJECT_MAPPER.readTree(readBody(exchange)).path("input");
+        requests.incrementAndGet();
+        StringBuilder json = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        int index = 0;
+        for (JsonNode text : input.isArray() ? input : OBJECT_MAPPER.createArrayNode().add(input)) {
+            float[] vector = new float[EMBEDDING_DIMENSION];
+            String value = text.asText();
+            for (int i = 0; i + 1 < value.length(); i++) {
+                vector[Math.floorMod(value.substring(i, i + 2).hashCode(), EMBEDDING_DIMENSION)] += 1;
+            }
+            if (index > 0) {
+                json.append(',');
+            }
+            json.append("{\"object\":\"embedding\",\"index\":").append(index++).append(",\"embedding\":[");
+            for (int i = 0; i < vector.length; i++) {
+                json.append(i == 0 ? "" : ",").append(vector[i]);
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+        writeJson(exchange, json.toString());
+    }
+
+    private void handleModels(HttpExchange exchange) throws IOException {
+        readBody(exchange);
+        writeJson(exchange, "{\"object\":\"list\",\"data\":[{\"id\":\"mock-model\",\"object\":\"model\"}]}");
+    }
+
+    private String readBody(HttpExchange exchange) throws IOException {
+        byte[] raw = readAll(exchange.getRequestBody());
+        wireBytes.addAndGet(raw.length);
+        byte[] decoded = raw;
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            gzipRequests.incrementAndGet();
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(raw))) {
+                decoded = readAll(in);
+            }
+        }
+        decodedBytes.addAndGet(decoded.length);
+        return new String(decoded, StandardCharsets.UTF_8);
+    }
+
+    private static void writeJson(HttpExchange exchange, String json) throws IOException {
+        writeStatus(exchange, 200, json);
+    }
+
+    private static void writeStatus(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.StreamHandle;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 只实现必需方法的提供商可以直接使用 AiService 的默认方法
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class AiServiceDefaultsTest {
+
+    private final AiService service = new ChunkedService("好的：", "{\"answer\":", " 42}");
+    private final List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "你好"));
+
+    @Test
+    void completeBuildsOnChat() {
+        ChatCompletion completion = service.complete(messages, ChatOptions.DEFAULT);
+        assertEquals("好的：{\"answer\": 42}", completion.getContent());
+
+        StringBuilder streamed = new StringBuilder();
+        ChatCompletion aggregated = service.completeStream(messages, ChatOptions.DEFAULT, streamed::append);
+        assertEquals(completion.getContent(), aggregated.getContent());
+        assertEquals(completion.getContent(), streamed.toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void structuredOutputBuildsOnChat() {
+        Map<String, Object> parsed = service.chatForObject(messages, Map.class, ChatOptions.DEFAULT);
+        assertEquals(42, parsed.get("answer"));
+    }
+
+    @Test
+    void asyncStreamRunsInBackground() {
+        StringBuilder streamed = new StringBuilder();
+        StreamHandle handle = service.chatStreamAsync(messages, ChatOptions.DEFAULT, streamed::append).await();
+        assertNull(handle.getError());
+        assertEquals(3, handle.getChunkCount());
+        assertEquals("好的：{\"answer\": 42}", streamed.toString());
+    }
+
+    @Test
+    void bufferedStreamCollectsChunks() {
+        try (PooledTextBuffer buffer = service.chatStreamBuffered(messages, ChatOptions.DEFAULT, null)) {
+            assertEquals("好的：{\"answer\": 42}", buffer.toString());
+        }
+    }
+
+    private static final class ChunkedService implements AiService {
+
+        private final String[] chunks;
+
+        private ChunkedService(String... chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public String chat(String prompt) {
+            return String.join("", chunks);
+        }
+
+        @Override
+        public String chat(List<AiMessage> messages) {
+            return String.join("", chunks);
+        }
+
+        @Override
+        public void chatStream(String prompt, Consumer<String> callback) {
+            for (String chunk : chunks) {
+                callback.accept(chunk);
+            }
+        }
+
+        @Override
+        public void chatStream(List<AiMessage> messages, Consumer<String> callback) {
+            chatStream("", callback);
+        }
+
+        @Override
+        public String getProviderName() {
+            return "chunked";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.buffer.PooledTextBuffer;
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * chatStreamBuffered 在流失败和超过缓冲上限时抛出异常，而不是把错误信息当作回复返回
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class BufferedStreamTest {
+
+    private MockAiServer mock;
+    private AiServiceFactory factory;
+
+    @BeforeEach
+    void start() throws Exception {
+        mock = MockAiServer.start();
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        properties.getStreamBuffer().setMaxBytesPerStream(64);
+        factory = new AiServiceFactory(properties);
+    }
+
+    @AfterEach
+    void stop() {
+        factory.shutdown();
+        mock.close();
+    }
+
+    @Test
+    void returnsContentWithinLimit() {
+        mock.streamChunks(3, 0);
+        try (PooledTextBuffer text = service().chatStreamBuffered(messages(), ChatOptions.DEFAULT, null)) {
+            assertEquals("chunk0 chunk1 chunk2 ", text.toString());
+        }
+    }
+
+    @Test
+    void failedStreamThrows() {
+        mock.capacity(0, 0);
+        assertThrows(RuntimeException.class,
+                () -> service().chatStreamBuffered(messages(), ChatOptions.DEFAULT, null));
+    }
+
+    @Test
+    void overflowStopsStream() {
+        mock.streamChunks(200, 5);
+        AtomicInteger delivered = new AtomicInteger();
+        long start = System.nanoTime();
+        assertThrows(IllegalStateException.class,
+                () -> service().chatStreamBuffered(messages(), ChatOptions.DEFAULT, chunk -> delivered.incrementAndGet()));
+        assertTrue(delivered.get() < 20, "超过上限后不再交付内容块: " + delivered.get());
+        assertTrue(System.nanoTime() - start < 200 * 5 * 1_000_000L, "超过上限后应立即中断上游请求");
+    }
+
+    private AiService service() {
+        return factory.getDefaultService();
+    }
+
+    private static List<AiMessage> messages() {
+        return Collections.singletonList(new AiMessage("user", "你好"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.routing.CascadeRouter;
+import com.chow.easy.ai.framework.routing.CascadeTier;
+import com.chow.easy.ai.framework.scheduler.RequestRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 级联路由在调度器拒绝时以原异常结束，不升级到下一级
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class CascadeRouterTest {
+
+    @Test
+    void rejectionStopsCascade() {
+        AtomicInteger expensiveCalls = new AtomicInteger();
+        CascadeRouter router = CascadeRouter.builder("reject")
+                .tier(new CascadeTier(new StubService(() -> {
+                    throw new RequestRejectedException(RequestRejectedException.Reason.DEADLINE_EXPIRED, "排队期间截止时间已到");
+                }), null, 0, 0))
+                .tier(new CascadeTier(new StubService(() -> {
+                    expensiveCalls.incrementAndGet();
+                    return "ok";
+                }), null, 0, 0))
+                .build();
+        List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "你好"));
+
+        assertThrows(RequestRejectedException.class, () -> router.complete(messages, ChatOptions.DEFAULT));
+        assertEquals(0, expensiveCalls.get());
+    }
+
+    private static final class StubService implements AiService {
+
+        private final Supplier<String> reply;
+
+        private StubService(Supplier<String> reply) {
+            this.reply = reply;
+        }
+
+        @Override
+        public String chat(String prompt) {
+            return reply.get();
+        }
+
+        @Override
+        public String chat(List<AiMessage> messages) {
+            return reply.get();
+        }
+
+        @Override
+        public ChatCompletion complete(List<AiMessage> messages, ChatOptions options) {
+            ChatCompletion completion = new ChatCompletion();
+            completion.setContent(reply.get());
+            completion.setFinishReason("stop");
+            return completion;
+        }
+
+        @Override
+        public void chatStream(String prompt, Consumer<String> callback) {
+            callback.accept(reply.get());
+        }
+
+        @Override
+        public void chatStream(List<AiMessage> messages, Consumer<String> callback) {
+            callback.accept(reply.get());
+        }
+
+        @Override
+        public String getProviderName() {
+            return "stub";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
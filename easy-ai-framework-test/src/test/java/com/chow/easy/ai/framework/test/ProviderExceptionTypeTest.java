@@ -0,0 +1,61 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.DeadlineExceededException;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 内置提供商的 chat(messages, options) 超过截止时间时抛出原类型的 DeadlineExceededException
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class ProviderExceptionTypeTest {
+
+    private static MockAiServer mock;
+    private static AiServiceFactory factory;
+
+    @BeforeAll
+    static void start() throws Exception {
+        mock = MockAiServer.start().responseDelay(1000);
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        for (String provider : new String[]{"openai", "deepseek", "doubao", "siliconflow"}) {
+            EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+            config.setApiKey("mock-key");
+            config.setApiUrl(mock.getBaseUrl());
+            config.setDefaultModel("mock-model");
+            properties.getProviders().put(provider, config);
+        }
+        properties.setDefaultProvider("openai");
+        factory = new AiServiceFactory(properties);
+    }
+
+    @AfterAll
+    static void stop() {
+        factory.shutdown();
+        mock.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"openai", "deepseek", "doubao", "siliconflow"})
+    void chatKeepsDeadlineExceededType(String provider) {
+        AiService service = factory.getService(provider);
+        List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "你好"));
+        ChatOptions options = ChatOptions.builder().timeout(200).build();
+
+        assertThrows(DeadlineExceededException.class, () -> service.chat(messages, options));
+    }
+}
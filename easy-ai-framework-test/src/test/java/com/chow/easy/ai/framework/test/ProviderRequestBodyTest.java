@@ -0,0 +1,66 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 内置提供商把级联路由依赖的 logprobs 参数写入请求体
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class ProviderRequestBodyTest {
+
+    private static MockAiServer mock;
+    private static AiServiceFactory factory;
+
+    @BeforeAll
+    static void start() throws Exception {
+        mock = MockAiServer.start();
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        for (String provider : new String[]{"openai", "deepseek", "doubao", "siliconflow"}) {
+            EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+            config.setApiKey("mock-key");
+            config.setApiUrl(mock.getBaseUrl());
+            config.setDefaultModel("mock-model");
+            properties.getProviders().put(provider, config);
+        }
+        properties.setDefaultProvider("openai");
+        factory = new AiServiceFactory(properties);
+    }
+
+    @AfterAll
+    static void stop() {
+        factory.shutdown();
+        mock.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"openai", "deepseek", "doubao", "siliconflow"})
+    void forwardsLogprobs(String provider) throws Exception {
+        ChatOptions options = ChatOptions.builder()
+                .parameter("logprobs", true)
+                .parameter("top_logprobs", 2)
+                .skipCache(true)
+                .build();
+        factory.getService(provider).complete(Collections.singletonList(new AiMessage("user", "你好")), options);
+
+        JsonNode body = new ObjectMapper().readTree(mock.getLastRequestBody());
+        assertTrue(body.path("logprobs").asBoolean(), provider + " 未发送 logprobs");
+        assertEquals(2, body.path("top_logprobs").asInt());
+    }
+}
@@ -0,0 +1,58 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 响应缓存按解析后的响应判断是否可缓存，回复内容为 "error" 的正常响应同样命中缓存
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class ResponseCacheTest {
+
+    private MockAiServer mock;
+    private AiServiceFactory factory;
+
+    @BeforeEach
+    void start() throws Exception {
+        mock = MockAiServer.start();
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        config.setDefaultModel("mock-model");
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        properties.getResponseCache().setEnabled(true);
+        factory = new AiServiceFactory(properties);
+    }
+
+    @AfterEach
+    void stop() {
+        factory.shutdown();
+        mock.close();
+    }
+
+    @Test
+    void cachesCompletionWhoseContentIsError() {
+        mock.reply("error");
+        AiService service = factory.getService("openai");
+        List<AiMessage> messages = Collections.singletonList(new AiMessage("user", "这条日志属于哪个级别？"));
+
+        assertEquals("error", service.chat(messages));
+        assertEquals("error", service.chat(messages));
+        assertEquals(1, mock.getRequests());
+    }
+}
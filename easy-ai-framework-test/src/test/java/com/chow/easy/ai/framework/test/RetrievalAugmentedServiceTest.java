@@ -0,0 +1,65 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.rag.BatchEmbedder;
+import com.chow.easy.ai.framework.rag.RagPipeline;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 检索增强包装的单轮对话与原服务一样带默认系统提示词
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class RetrievalAugmentedServiceTest {
+
+    private MockAiServer mock;
+    private AiServiceFactory factory;
+    private RagPipeline pipeline;
+
+    @BeforeEach
+    void start() throws Exception {
+        mock = MockAiServer.start();
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+        config.setApiKey("mock-key");
+        config.setApiUrl(mock.getBaseUrl());
+        config.setDefaultModel("mock-model");
+        config.setEmbeddingModel("mock-embedding");
+        properties.getProviders().put("openai", config);
+        properties.setDefaultProvider("openai");
+        factory = new AiServiceFactory(properties);
+        AiService service = factory.getService("openai");
+        pipeline = RagPipeline.builder(new BatchEmbedder(service, ChatOptions.DEFAULT, 16, 1)).build();
+        pipeline.addDocument("manual", "退款在七个工作日内原路退回。");
+    }
+
+    @AfterEach
+    void stop() {
+        pipeline.shutdown();
+        factory.shutdown();
+        mock.close();
+    }
+
+    @Test
+    void promptKeepsDefaultSystemMessage() throws Exception {
+        pipeline.wrap(factory.getService("openai")).chat("退款多久到账？");
+
+        JsonNode messages = new ObjectMapper().readTree(mock.getLastRequestBody()).path("messages");
+        assertEquals(2, messages.size());
+        assertEquals("system", messages.path(0).path("role").asText());
+        assertEquals("user", messages.path(1).path("role").asText());
+        assertTrue(messages.path(1).path("content").asText().contains("七个工作日"));
+    }
+}
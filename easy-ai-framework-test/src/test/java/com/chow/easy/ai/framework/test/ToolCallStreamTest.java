@@ -0,0 +1,101 @@
+package com.chow.easy.ai.framework.test;
+
+import com.chow.easy.ai.framework.config.EasyAiFrameworkProperties;
+import com.chow.easy.ai.framework.core.AiMessage;
+import com.chow.easy.ai.framework.core.AiService;
+import com.chow.easy.ai.framework.core.AiServiceFactory;
+import com.chow.easy.ai.framework.core.ChatCompletion;
+import com.chow.easy.ai.framework.core.ChatOptions;
+import com.chow.easy.ai.framework.core.ToolCall;
+import com.chow.easy.ai.framework.test.mock.MockAiServer;
+import com.chow.easy.ai.framework.tool.ToolCallingEngine;
+import com.chow.easy.ai.framework.tool.ToolLoopResult;
+import com.chow.easy.ai.framework.tool.ToolRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式工具调用：增量中的 "content":null 不会作为文本交付；达到最大轮次时不执行最后一轮的工具调用
+ *
+ * @author chowsama
+ * @date 2025/06/26
+ */
+class ToolCallStreamTest {
+
+    private static final String ARGUMENTS = "{\"city\":\"北京\"}";
+
+    private static MockAiServer mock;
+    private static AiServiceFactory factory;
+
+    @BeforeAll
+    static void start() throws Exception {
+        mock = MockAiServer.start().streamChunks(0, 0).toolCall("lookup", ARGUMENTS);
+        EasyAiFrameworkProperties properties = new EasyAiFrameworkProperties();
+        for (String provider : new String[]{"openai", "deepseek", "doubao", "siliconflow"}) {
+            EasyAiFrameworkProperties.ProviderConfig config = new EasyAiFrameworkProperties.ProviderConfig();
+            config.setApiKey("mock-key");
+            config.setApiUrl(mock.getBaseUrl());
+            config.setDefaultModel("mock-model");
+            properties.getProviders().put(provider, config);
+        }
+        properties.setDefaultProvider("openai");
+        factory = new AiServiceFactory(properties);
+    }
+
+    @AfterAll
+    static void stop() {
+        factory.shutdown();
+        mock.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"openai", "deepseek", "doubao", "siliconflow"})
+    void nullContentIsNotDelivered(String provider) {
+        StringBuilder delivered = new StringBuilder();
+        ChatCompletion completion = factory.getService(provider)
+                .completeStream(messages(), ChatOptions.DEFAULT, delivered::append);
+
+        assertEquals("", delivered.toString());
+        assertEquals("", completion.getContent());
+        assertEquals(1, completion.getToolCalls().size());
+        ToolCall call = completion.getToolCalls().get(0);
+        assertEquals("lookup", call.getName());
+        assertEquals(ARGUMENTS, call.getArguments());
+    }
+
+    @Test
+    void lastIterationDoesNotExecuteTools() {
+        AtomicInteger executions = new AtomicInteger();
+        ToolRegistry registry = new ToolRegistry().register("lookup", "查询", Collections.emptyMap(), arguments -> {
+            executions.incrementAndGet();
+            return "晴";
+        });
+        AiService service = factory.getDefaultService();
+
+        ToolCallingEngine single = new ToolCallingEngine(registry, 1, 1);
+        ToolLoopResult result = single.run(service, messages(), ChatOptions.DEFAULT);
+        single.shutdown();
+        assertTrue(result.isIterationLimitReached());
+        assertEquals(0, executions.get());
+
+        ToolCallingEngine twice = new ToolCallingEngine(registry, 2, 1);
+        result = twice.runStream(service, messages(), ChatOptions.DEFAULT, chunk -> { });
+        twice.shutdown();
+        assertTrue(result.isIterationLimitReached());
+        assertEquals(1, executions.get());
+    }
+
+    private static List<AiMessage> messages() {
+        return Collections.singletonList(new AiMessage("user", "北京天气"));
+    }
+}